@@ -0,0 +1,94 @@
+package ir.saeiddrv.iso8583.benchmark;
+
+import ir.saeiddrv.iso8583.message.ISO8583;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.MessageInstance;
+import ir.saeiddrv.iso8583.message.MessageTemplate;
+import ir.saeiddrv.iso8583.simulator.MessageProfiles;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of packing and unpacking the reference message profiles.
+ * Run it by "gradle jmh", the allocation rate is reported by the gc profiler (-prof gc).
+ * The recorded baseline and current results are in src/jmh/RESULTS.md.
+ *
+ * @author Saeid Darvish
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+    @Param({"TPDU_BCD_0200", "ASCII_0200", "SECONDARY_BITMAP_0800", "NESTED_COMBINE_0200"})
+    public MessageProfiles profile;
+
+    private ISO8583 builder;
+    private Message message;
+    private MessageTemplate template;
+    private MessageInstance instance;
+    private MessageTemplate specialized;
+    private MessageInstance specializedInstance;
+    private byte[] packMessage;
+
+    @Setup
+    public void setup() throws ISO8583Exception {
+        builder = profile.define();
+        message = builder.buildMessage();
+        profile.setValues(message);
+        packMessage = message.pack();
+
+        template = builder.compile();
+        instance = template.unpack(packMessage);
+
+        // A runtime without a system Java compiler keeps the interpreted template
+        specialized = template.specialize();
+        if (!specialized.isSpecialized())
+            System.err.println("The runtime cannot specialize the templates, the specialized benchmarks run the interpreted template.");
+        specializedInstance = specialized.unpack(packMessage);
+    }
+
+    @Benchmark
+    public byte[] messagePack() throws ISO8583Exception {
+        return message.pack();
+    }
+
+    @Benchmark
+    public Message messageUnpack() throws ISO8583Exception {
+        return message.unpack(packMessage);
+    }
+
+    @Benchmark
+    public Message iso8583UnpackMessage() throws ISO8583Exception {
+        return builder.unpackMessage(packMessage);
+    }
+
+    @Benchmark
+    public byte[] templatePack() throws ISO8583Exception {
+        return instance.pack();
+    }
+
+    @Benchmark
+    public MessageInstance templateUnpack() throws ISO8583Exception {
+        return template.unpack(packMessage);
+    }
+
+    @Benchmark
+    public MessageInstance templateUnpackLazy() throws ISO8583Exception {
+        return template.unpack(packMessage, true);
+    }
+
+    @Benchmark
+    public byte[] specializedPack() throws ISO8583Exception {
+        return specializedInstance.pack();
+    }
+
+    @Benchmark
+    public MessageInstance specializedUnpack() throws ISO8583Exception {
+        return specialized.unpack(packMessage);
+    }
+}
@@ -0,0 +1,171 @@
+package ir.saeiddrv.iso8583.benchmark;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.simulator.MessageProfiles;
+import ir.saeiddrv.iso8583.transport.BlockingISO8583Server;
+import ir.saeiddrv.iso8583.transport.Connection;
+import ir.saeiddrv.iso8583.transport.ISO8583Server;
+import ir.saeiddrv.iso8583.transport.MessageFraming;
+import org.openjdk.jmh.annotations.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of the active connections of a server that also holds many idle connections:
+ * the blocking server by a virtual thread per connection (JDK 21 and later), the blocking server by
+ * a pool of platform threads (a thread per connection) and the non-blocking server by a selector.
+ * The VIRTUAL_THREADS setup fails before JDK 21, instead of measuring the platform threads under its name.
+ * Each operation is a round trip of a request, all the active connections are written before reading the responses.
+ * Run it by "gradle jmh -Pjmh.args=TransportBenchmark", about 2 * (idle + active) file descriptors are needed.
+ *
+ * @author Saeid Darvish
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportBenchmark {
+
+    private static final int ACTIVE_CONNECTIONS = 1000;
+
+    public enum Transport { VIRTUAL_THREADS, PLATFORM_POOL, SELECTOR }
+
+    @Param({"VIRTUAL_THREADS", "PLATFORM_POOL", "SELECTOR"})
+    public Transport transport;
+
+    @Param({"10000"})
+    public int idleConnections;
+
+    private Closeable server;
+    private ExecutorService executor;
+    private Socket[] idle;
+    private Socket[] active;
+    private InputStream[] inputs;
+    private byte[] request;
+    private byte[] prefix;
+    private MessageFraming framing;
+
+    // A new definition for each frame, ISO8583.buildMessage returns the same message
+    private static Message define() throws ISO8583Exception {
+        return MessageProfiles.ASCII_0200.define().buildMessage();
+    }
+
+    private static Message echo(Message request, Connection connection) throws Exception {
+        request.changeMTI("0210");
+        return request;
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        try {
+            start();
+        } catch (Exception | Error exception) {
+            tearDown();
+            throw exception;
+        }
+    }
+
+    private void start() throws Exception {
+        Message message = MessageProfiles.ASCII_0200.buildMessage();
+        request = message.pack();
+        framing = MessageFraming.of(message);
+        prefix = new byte[framing.getPrefixLength()];
+
+        // START THE SERVER
+        InetSocketAddress localhost = new InetSocketAddress("127.0.0.1", 0);
+        InetSocketAddress address;
+        switch (transport) {
+            case VIRTUAL_THREADS: {
+                executor = newVirtualThreadPerTaskExecutor();
+                BlockingISO8583Server blockingServer = BlockingISO8583Server
+                        .create(TransportBenchmark::define, TransportBenchmark::echo).setExecutor(executor)
+                        .setBacklog(4096).bind(localhost);
+                address = blockingServer.getLocalAddress();
+                server = blockingServer;
+                break;
+            }
+            case PLATFORM_POOL: {
+                executor = Executors.newFixedThreadPool(idleConnections + ACTIVE_CONNECTIONS);
+                BlockingISO8583Server blockingServer = BlockingISO8583Server
+                        .create(TransportBenchmark::define, TransportBenchmark::echo).setExecutor(executor)
+                        .setBacklog(4096).bind(localhost);
+                address = blockingServer.getLocalAddress();
+                server = blockingServer;
+                break;
+            }
+            default: {
+                ISO8583Server selectorServer = ISO8583Server
+                        .create(TransportBenchmark::define, TransportBenchmark::echo).setBacklog(4096).bind(localhost);
+                address = selectorServer.getLocalAddress();
+                server = selectorServer;
+            }
+        }
+
+        // OPEN THE IDLE AND ACTIVE CONNECTIONS
+        idle = new Socket[idleConnections];
+        for (int index = 0; index < idle.length; index++) idle[index] = connect(address);
+        active = new Socket[ACTIVE_CONNECTIONS];
+        inputs = new InputStream[ACTIVE_CONNECTIONS];
+        for (int index = 0; index < active.length; index++) {
+            active[index] = connect(address);
+            inputs[index] = active[index].getInputStream();
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            throw new IllegalStateException("The virtual threads are not available on JDK "
+                    + Runtime.version().feature() + ", run by \"-p transport=PLATFORM_POOL,SELECTOR\".", exception);
+        }
+    }
+
+    private static Socket connect(InetSocketAddress address) throws IOException {
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(address, 10000);
+        socket.setSoTimeout(10000);
+        return socket;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACTIVE_CONNECTIONS)
+    public int roundTrip() throws Exception {
+        for (Socket socket : active) socket.getOutputStream().write(request);
+
+        int received = 0;
+        for (InputStream input : inputs) {
+            input.readNBytes(prefix, 0, prefix.length);
+            int remaining = framing.frameLength(ByteBuffer.wrap(prefix), 0, prefix.length) - prefix.length;
+            input.skipNBytes(remaining);
+            received += remaining;
+        }
+        return received;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try {
+            // THE SETUP MAY HAVE FAILED BEFORE OPENING ALL THE CONNECTIONS
+            if (active != null) for (Socket socket : active) if (socket != null) socket.close();
+            if (idle != null) for (Socket socket : idle) if (socket != null) socket.close();
+            if (server != null) server.close();
+        } finally {
+            if (executor != null) executor.shutdownNow();
+            active = idle = null;
+            server = null;
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ir.saeiddrv.iso8583.codec;
+
+/**
+ * The encodings of the MTI (ASCII or BCD) and the message length (ASCII, BCD or HEX) of an {@link IsoMessage}.
+ *
+ * @author Saeid Darvish
+ */
+public enum Encoding {
+
+    ASCII,
+    BCD,
+    HEX
+}
@@ -0,0 +1,21 @@
+package ir.saeiddrv.iso8583.codec;
+
+/**
+ * The types of the fields of an {@link IsoField}, the same as the field shortcuts of the definitions
+ * (such as {@link ir.saeiddrv.iso8583.message.fields.shortcuts.BCD}).
+ *
+ * @author Saeid Darvish
+ */
+public enum FieldType {
+
+    // ASCII content, with an ASCII length (if variable)
+    ASCII,
+    // BCD content, with an ASCII length
+    ASCIIBCD,
+    // BCD content, with a BCD length (if variable)
+    BCD,
+    // ASCII content, with a BCD length
+    BCDASCII,
+    // Binary content of a fixed number of bytes
+    BINARY
+}
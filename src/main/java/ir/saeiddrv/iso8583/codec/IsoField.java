@@ -0,0 +1,39 @@
+package ir.saeiddrv.iso8583.codec;
+
+import ir.saeiddrv.iso8583.message.fields.LengthType;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a field of an {@link IsoMessage} class. The Java type of the field is {@code String} (any type),
+ * {@code long} (up to 18 digits) or {@code int} (up to 9 digits) for the numeric types, or {@code byte[]} (the BINARY type).
+ * A {@code null} String or array is not present in the message, a primitive field is always present.
+ * The field must not be private, unless it has a getter and a setter.
+ *
+ * @author Saeid Darvish
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface IsoField {
+
+    /**
+     * @return the number of the field, from 2 to 128
+     */
+    int number();
+
+    FieldType type();
+
+    LengthType lengthType() default LengthType.FIXED;
+
+    /**
+     * @return the fixed (or the maximum) length of the field, the number of the bytes of a BINARY field
+     */
+    int length();
+
+    /**
+     * @return the name of a pad of {@link ir.saeiddrv.iso8583.message.fields.ContentPad}, such as "LEFT_0"
+     */
+    String pad() default "NO_PADDING";
+}
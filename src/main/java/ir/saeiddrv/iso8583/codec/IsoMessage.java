@@ -0,0 +1,50 @@
+package ir.saeiddrv.iso8583.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a class as a typed message, its {@link IsoField}s are packed and unpacked by a {@link MessageCodec}
+ * generated at compile time (named by the class, such as {@code PurchaseRequestCodec}) by the processor jar
+ * (the "processor" classifier, on the annotation processor path; the runtime jar does not register it).
+ * The message is the length (if {@link #lengthCount()} is not zero), the header, the MTI,
+ * the binary bitmaps (the secondary one if a field is over 64) and the present fields.
+ *
+ * @author Saeid Darvish
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface IsoMessage {
+
+    /**
+     * @return the MTI of the message, such as "0200"
+     */
+    String mti();
+
+    /**
+     * @return the encoding of the MTI, ASCII or BCD
+     */
+    Encoding mtiInterpreter() default Encoding.ASCII;
+
+    /**
+     * @return the number of the digits (or bytes) of the message length, zero if the message has no length
+     */
+    int lengthCount() default 0;
+
+    /**
+     * @return the encoding of the message length, ASCII, BCD or HEX
+     */
+    Encoding lengthInterpreter() default Encoding.HEX;
+
+    /**
+     * @return the fixed header of the message (such as a TPDU) in hexadecimal, empty if the message has no header
+     */
+    String header() default "";
+
+    /**
+     * @return the name of the charset of the message
+     */
+    String charset() default "ISO-8859-1";
+}
@@ -0,0 +1,41 @@
+package ir.saeiddrv.iso8583.codec;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import java.nio.ByteBuffer;
+
+/**
+ * Packs and unpacks the objects of an {@link IsoMessage} class directly, without any intermediate message.
+ * The implementations are generated at compile time, they are stateless and thread-safe.
+ *
+ * @param <T> the type of the messages
+ * @author Saeid Darvish
+ */
+public interface MessageCodec<T> {
+
+    /**
+     * Pack a message directly into a buffer, starting from its current position.
+     * On success the position of the buffer is advanced by the number of written bytes,
+     * otherwise the position is restored.
+     *
+     * @param message the message
+     * @param target the buffer to write into (heap or direct)
+     * @return the number of written bytes
+     * @throws ISO8583Exception If throws from the pack process, or the buffer does not have enough space
+     */
+    public int pack(T message, ByteBuffer target) throws ISO8583Exception;
+
+    /**
+     * Unpack a message into a new object
+     *
+     * @param packMessage the packed message as a buffer (heap or direct)
+     * @param offset the index of the first byte of the message in the buffer
+     * @param limit the index after the last byte of the message in the buffer
+     * @return the message
+     * @throws ISO8583Exception If the MTI is not the MTI of the message, or throws from the unpack process
+     */
+    public T unpack(ByteBuffer packMessage, int offset, int limit) throws ISO8583Exception;
+
+    public default T unpack(byte[] packMessage) throws ISO8583Exception {
+        return unpack(ByteBuffer.wrap(packMessage), 0, packMessage.length);
+    }
+}
@@ -0,0 +1,132 @@
+package ir.saeiddrv.iso8583.message;
+
+import ir.saeiddrv.iso8583.message.fields.*;
+import ir.saeiddrv.iso8583.message.fields.formatters.ValueFormatter;
+import ir.saeiddrv.iso8583.message.interpreters.base.BitmapInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.ContentInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.LengthInterpreter;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * An immutable table of field definitions, held in flat arrays indexed by field number.
+ * The same structure is used for the fields of a message and for the subfields of a combination field.
+ *
+ * @author Saeid Darvish
+ */
+final class FieldTable {
+
+    static final byte UNDEFINED = 0;
+    static final byte SINGLE = 1;
+    static final byte BITMAP = 2;
+    static final byte COMBINE = 3;
+
+    final int size;
+    final int[] numbers;
+    final int[] bitmapNumbers;
+    final byte[] kinds;
+    final Charset[] charsets;
+    final LengthValue[] lengthValues;
+    final LengthInterpreter[] lengthInterpreters;
+    final ContentInterpreter[] contentInterpreters;
+    final ContentPad[] pads;
+    final BitmapInterpreter[] bitmapInterpreters;
+    final BitmapType[] bitmapTypes;
+    final Range[] bitmapRanges;
+    final int[] bitmapLengths;
+    final FieldTable[] combines;
+    final ValueFormatter[] formatters;
+    final String[] descriptions;
+
+    private FieldTable(int size, int[] numbers, int[] bitmapNumbers) {
+        this.size = size;
+        this.numbers = numbers;
+        this.bitmapNumbers = bitmapNumbers;
+        this.kinds = new byte[size];
+        this.charsets = new Charset[size];
+        this.lengthValues = new LengthValue[size];
+        this.lengthInterpreters = new LengthInterpreter[size];
+        this.contentInterpreters = new ContentInterpreter[size];
+        this.pads = new ContentPad[size];
+        this.bitmapInterpreters = new BitmapInterpreter[size];
+        this.bitmapTypes = new BitmapType[size];
+        this.bitmapRanges = new Range[size];
+        this.bitmapLengths = new int[size];
+        this.combines = new FieldTable[size];
+        this.formatters = new ValueFormatter[size];
+        this.descriptions = new String[size];
+    }
+
+    static FieldTable compile(Field[] fields, Charset defaultCharset) throws ISO8583Exception {
+        int size = 0;
+        int[] numbers = new int[fields.length];
+        int[] bitmapNumbers = new int[(int) Arrays.stream(fields).filter(field -> field instanceof BitmapField).count()];
+        for (int index = 0, bitmapIndex = 0; index < fields.length; index++) {
+            int number = fields[index].getNumber();
+            if (number < 0)
+                throw new ISO8583Exception("The field number cannot be less than '0': %d.", number);
+            size = Math.max(size, number + 1);
+            numbers[index] = number;
+            if (fields[index] instanceof BitmapField) bitmapNumbers[bitmapIndex++] = number;
+        }
+        Arrays.sort(numbers);
+        Arrays.sort(bitmapNumbers);
+
+        FieldTable table = new FieldTable(size, numbers, bitmapNumbers);
+
+        for (Field field : fields) {
+            int number = field.getNumber();
+            if (table.kinds[number] != UNDEFINED)
+                throw new ISO8583Exception("The FIELD[%d] is already defined.", number);
+
+            Charset charset = field.getCharset() != null ? field.getCharset() : defaultCharset;
+            table.charsets[number] = charset;
+            table.formatters[number] = field.getValueFormatter();
+            table.descriptions[number] = field.getDescription();
+
+            if (field instanceof BitmapField) {
+                BitmapField bitmapField = (BitmapField) field;
+                Bitmap bitmap = bitmapField.getBitmap();
+                table.kinds[number] = BITMAP;
+                table.bitmapInterpreters[number] = bitmapField.getInterpreter();
+                table.bitmapTypes[number] = bitmap.getType();
+                table.bitmapRanges[number] = bitmap.getRange();
+                table.bitmapLengths[number] = bitmap.getLength();
+            } else if (field instanceof SingleField) {
+                SingleField singleField = (SingleField) field;
+                ContentPad pad = singleField.getContent().getPad();
+                table.kinds[number] = SINGLE;
+                table.lengthValues[number] = singleField.getLength().getValue();
+                table.lengthInterpreters[number] = singleField.getLength().getInterpreter();
+                table.contentInterpreters[number] = singleField.getContent().getInterpreter();
+                table.pads[number] = new ContentPad(pad.getPadDirection(), pad.getCharacter());
+            } else if (field instanceof CombineField) {
+                CombineField combineField = (CombineField) field;
+                int[] subFieldNumbers = combineField.getFieldNumbers();
+                Field[] subFields = new Field[subFieldNumbers.length];
+                for (int i = 0; i < subFieldNumbers.length; i++)
+                    subFields[i] = combineField.getSubField(subFieldNumbers[i]);
+                table.kinds[number] = COMBINE;
+                table.lengthValues[number] = combineField.getLength().getValue();
+                table.lengthInterpreters[number] = combineField.getLength().getInterpreter();
+                table.combines[number] = compile(subFields, charset);
+            } else
+                throw new ISO8583Exception("The FIELD[%d] has an unsupported type (%s).",
+                        number, field.getClass().getName());
+        }
+
+        return table;
+    }
+
+    boolean isDefined(int number) {
+        return number >= 0 && number < size && kinds[number] != UNDEFINED;
+    }
+
+    byte kindOf(int number) {
+        return isDefined(number) ? kinds[number] : UNDEFINED;
+    }
+
+    int primaryBitmapNumber() {
+        return bitmapNumbers.length > 0 ? bitmapNumbers[0] : -1;
+    }
+}
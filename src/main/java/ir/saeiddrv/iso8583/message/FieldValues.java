@@ -0,0 +1,150 @@
+package ir.saeiddrv.iso8583.message;
+
+import ir.saeiddrv.iso8583.message.interpreters.base.ContentInterpreter;
+import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * The values of the fields of a {@link FieldTable}, indexed by field number.
+ * The presence of each field is kept in a bit set, the values of combination fields are nested.
+ * A value can also be a view (offset, length) into an unpacked buffer, decoded on the first access.
+ *
+ * @author Saeid Darvish
+ */
+final class FieldValues {
+
+    static final byte[] EMPTY = new byte[0];
+
+    private final FieldTable table;
+    private final byte[][] values;
+    private final long[] present;
+    private final FieldValues[] nested;
+
+    // The views into an unpacked buffer, allocated on the first lazy unpack
+    private ByteBuffer viewBuffer = null;
+    private long[] views = null;
+    private int[] viewOffsets = null;
+    private int[] viewLengths = null;
+
+    FieldValues(FieldTable table) {
+        this.table = table;
+        this.values = new byte[table.size][];
+        this.present = new long[(table.size + 63) >>> 6];
+        this.nested = new FieldValues[table.size];
+    }
+
+    FieldTable getTable() {
+        return table;
+    }
+
+    boolean isPresent(int number) {
+        return number >= 0 && number < table.size && (present[number >>> 6] & (1L << number)) != 0;
+    }
+
+    void markPresent(int number) {
+        present[number >>> 6] |= 1L << number;
+    }
+
+    void unmarkPresent(int number) {
+        present[number >>> 6] &= ~(1L << number);
+    }
+
+    boolean isAnyPresent(int start, int end) {
+        for (int number = Math.max(start, 0); number <= end && number < table.size; number++)
+            if (isPresent(number)) return true;
+        return false;
+    }
+
+    byte[] get(int number) {
+        if (isView(number)) decodeView(number);
+        byte[] value = values[number];
+        return value != null ? value : EMPTY;
+    }
+
+    void set(int number, byte[] value) {
+        if (views != null) views[number >>> 6] &= ~(1L << number);
+        values[number] = value;
+        markPresent(number);
+    }
+
+    boolean isView(int number) {
+        return views != null && (views[number >>> 6] & (1L << number)) != 0;
+    }
+
+    void setView(int number, ByteBuffer buffer, int offset, int length) {
+        if (views == null) {
+            views = new long[present.length];
+            viewOffsets = new int[table.size];
+            viewLengths = new int[table.size];
+        }
+        viewBuffer = buffer;
+        views[number >>> 6] |= 1L << number;
+        viewOffsets[number] = offset;
+        viewLengths[number] = length;
+        values[number] = null;
+        markPresent(number);
+    }
+
+    private void decodeView(int number) {
+        views[number >>> 6] &= ~(1L << number);
+        Charset charset = table.charsets[number];
+        int offset = viewOffsets[number];
+        int length = viewLengths[number];
+        try {
+            ContentInterpreter interpreter = table.contentInterpreters[number];
+            if (interpreter != null)
+                values[number] = interpreter.unpack(viewBuffer, offset, viewBuffer.limit(), number,
+                        length, table.pads[number], charset).getValue();
+            else {
+                byte[] unpack = new byte[length];
+                viewBuffer.get(offset, unpack);
+                values[number] = TypeUtils.translateBytes(unpack, charset);
+            }
+        } catch (ISO8583Exception exception) {
+            throw new IllegalStateException(String.format("FIELD[%s]: %s", number, exception.getMessage()));
+        }
+    }
+
+    FieldValues nested(int number) {
+        FieldValues subValues = nested[number];
+        if (subValues == null) {
+            subValues = new FieldValues(table.combines[number]);
+            nested[number] = subValues;
+        }
+        return subValues;
+    }
+
+    void remove(int number) {
+        if (views != null) views[number >>> 6] &= ~(1L << number);
+        values[number] = null;
+        if (nested[number] != null) nested[number].clear();
+        unmarkPresent(number);
+    }
+
+    void clear() {
+        if (views != null) Arrays.fill(views, 0L);
+        viewBuffer = null;
+        Arrays.fill(values, null);
+        Arrays.fill(present, 0L);
+        for (FieldValues subValues : nested)
+            if (subValues != null) subValues.clear();
+    }
+
+    int[] presentNumbers() {
+        int count = 0;
+        for (long word : present) count += Long.bitCount(word);
+
+        int[] numbers = new int[count];
+        int index = 0;
+        for (int wordIndex = 0; wordIndex < present.length; wordIndex++) {
+            long word = present[wordIndex];
+            while (word != 0) {
+                numbers[index++] = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return numbers;
+    }
+}
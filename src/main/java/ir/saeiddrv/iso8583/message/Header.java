@@ -3,6 +3,7 @@ package ir.saeiddrv.iso8583.message;
 import ir.saeiddrv.iso8583.message.headers.HeaderContent;
 import ir.saeiddrv.iso8583.message.interpreters.base.HeaderInterpreter;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackContentResult;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public class Header {
@@ -19,6 +20,16 @@ public class Header {
         return content;
     }
 
+    HeaderInterpreter getInterpreter() {
+        return interpreter;
+    }
+
+    // A copy of this header with the value of its content at this time, not changed by the content afterwards
+    Header freeze() {
+        if (content instanceof FrozenContent) return this;
+        return new Header(new FrozenContent(content), interpreter);
+    }
+
     public byte[] getValue() {
         return content.getValue();
     }
@@ -31,12 +42,54 @@ public class Header {
         return interpreter.pack(content, charset);
     }
 
+    public void pack(Charset charset, ByteBuffer target) throws ISO8583Exception {
+        interpreter.pack(content, charset, target);
+    }
+
     public UnpackContentResult unpack(byte[] message, int offset, Charset charset) throws ISO8583Exception {
         return interpreter.unpack(message, offset, charset);
     }
 
+    public UnpackContentResult unpack(ByteBuffer message, int offset, int limit, Charset charset) throws ISO8583Exception {
+        return interpreter.unpack(message, offset, limit, charset);
+    }
+
     @Override
     public String toString() {
         return String.format("@Header[content: %s, interpreter: %s]", content, interpreter.getName());
     }
+
+    // The value of a header content, encoded by its charset when it has been frozen
+    private static final class FrozenContent implements HeaderContent {
+
+        private final byte[] value;
+        private final String valueAsString;
+        private final String description;
+
+        private FrozenContent(HeaderContent content) {
+            this.value = content.getValue().clone();
+            this.valueAsString = content.getValueAsString();
+            this.description = content.toString();
+        }
+
+        @Override
+        public void setCharset(Charset charset) {
+            // The value has been encoded already
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value.clone();
+        }
+
+        @Override
+        public String getValueAsString() {
+            return valueAsString;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
 }
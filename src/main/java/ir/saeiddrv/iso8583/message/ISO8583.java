@@ -8,6 +8,7 @@ import ir.saeiddrv.iso8583.message.interpreters.base.*;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
 import ir.saeiddrv.iso8583.message.utilities.Validator;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Objects;
 
@@ -116,16 +117,39 @@ public class ISO8583 {
 
     public Message buildMessage() throws ISO8583Exception {
         message.setBitmaps();
+        message.markDefaults();
         return message;
     }
 
+    public MessageTemplate compile() throws ISO8583Exception {
+        return MessageTemplate.compile(message);
+    }
+
     public Message unpackMessage(byte[] packMessage) throws ISO8583Exception {
         message.clearAllValue(false);
         return message.unpack(packMessage);
     }
 
+    public Message unpackMessage(byte[] packMessage, boolean lazy) throws ISO8583Exception {
+        message.clearAllValue(false);
+        return message.unpack(packMessage, lazy);
+    }
+
     public Message unpackMessage(byte[] packMessage, PrintStream printStream) throws ISO8583Exception {
         message.clearAllValue(false);
         return message.unpack(packMessage, printStream);
     }
+
+    public Message unpackMessage(ByteBuffer packMessage, int offset, int limit) throws ISO8583Exception {
+        message.clearAllValue(false);
+        return message.unpack(packMessage, offset, limit);
+    }
+
+    public Message unpackMessage(ByteBuffer packMessage,
+                                 int offset,
+                                 int limit,
+                                 PrintStream printStream) throws ISO8583Exception {
+        message.clearAllValue(false);
+        return message.unpack(packMessage, offset, limit, printStream);
+    }
 }
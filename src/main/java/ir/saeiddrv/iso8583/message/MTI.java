@@ -2,6 +2,7 @@ package ir.saeiddrv.iso8583.message;
 
 import ir.saeiddrv.iso8583.message.interpreters.base.MTIInterpreter;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackMTIResult;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Locale;
 
@@ -167,10 +168,35 @@ public class MTI {
      * @return a string representation of ISO-8583 MTI numbers
      */
     public String getLiteral() {
+        if (hasValue())
+            return new String(new char[]{
+                    (char) ('0' + value[0]), (char) ('0' + value[1]), (char) ('0' + value[2]), (char) ('0' + value[3])});
         return String.format(Locale.ENGLISH, "%d%d%d%d",
                 getIsoVersion(), getMessageClass(), getMessageFunction(), getMessageOrigin());
     }
 
+    /**
+     * Check if the MTI is a request, an advice, a notification or an instruction (an even message function),
+     * that is answered by a response MTI.
+     *
+     * @return true if MTI has been set and expects a response
+     */
+    public boolean isRequest() {
+        return hasValue() && value[2] % 2 == 0;
+    }
+
+    /**
+     * ISO-8583 MTI of the response to this message as a numeric string,
+     * the next message function and the origin without repeat (0200 -> 0210, 0221 -> 0230, 0800 -> 0810).
+     *
+     * @return a string representation of the response MTI, or null if MTI is not a request
+     */
+    public String getResponseLiteral() {
+        if (!isRequest()) return null;
+        return new String(new char[]{
+                (char) ('0' + value[0]), (char) ('0' + value[1]), (char) ('0' + value[2] + 1), (char) ('0' + (value[3] & ~1))});
+    }
+
     /**
      * ISO-8583 MTI numeric with descriptions.
      *
@@ -195,6 +221,17 @@ public class MTI {
         return hasValue() ? interpreter.pack(getLiteral(), charset) : new byte[0];
     }
 
+    /**
+     * Pack MTI directly into a buffer
+     *
+     * @param charset for byte conversions
+     * @param target the buffer to write into, from its current position
+     * @throws ISO8583Exception if an exception occurred from interpreter
+     */
+    public void pack(Charset charset, ByteBuffer target) throws ISO8583Exception {
+        if (hasValue()) interpreter.pack(getLiteral(), charset, target);
+    }
+
     /**
      * Unpack MTI from received message
      *
@@ -208,6 +245,20 @@ public class MTI {
         return interpreter.unpack(message, offset, charset);
     }
 
+    /**
+     * Unpack MTI from a received message buffer
+     *
+     * @param message received message as a buffer (heap or direct)
+     * @param offset an index of message bytes
+     * @param limit the end index of message bytes (exclusive)
+     * @param charset for byte conversions
+     * @return a unpack object {@link ir.saeiddrv.iso8583.message.unpacks.UnpackMTIResult} as a result of unpack process
+     * @throws ISO8583Exception if an exception occurred from interpreter
+     */
+    public UnpackMTIResult unpack(ByteBuffer message, int offset, int limit, Charset charset) throws ISO8583Exception {
+        return interpreter.unpack(message, offset, limit, charset);
+    }
+
     /**
      * Convert MTI object to String in log format.
      *
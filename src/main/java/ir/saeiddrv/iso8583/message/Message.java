@@ -7,12 +7,16 @@ import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackMTIResult;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
 import ir.saeiddrv.iso8583.message.utilities.Validator;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class provide an ISO-8583 Message object.
@@ -23,14 +27,95 @@ public class Message {
 
     Message() {}
 
+    private static final int INITIAL_PACK_BUFFER_SIZE = 512;
+    private static final int MAXIMUM_PACK_BUFFER_SIZE = 16 * 1024 * 1024;
+    private static final int MAXIMUM_FIELD_NUMBER = 192;
+    private static final int BITSET_WORDS = (MAXIMUM_FIELD_NUMBER >>> 6) + 1;
+
+    /**
+     * The field of the response code of a response
+     */
+    public static final int RESPONSE_CODE_FIELD = 39;
+
     private Charset charset = Charset.defaultCharset();
     private int lengthCount;
     private MessageLengthInterpreter lengthInterpreter;
     private Header header = null;
     private MTI mti = null;
     private String description = "UNDEFINED";
-    private final List<Integer> skipFields = new ArrayList<>();
-    private final Map<Integer, Field> fields = new HashMap<>();
+    private final Field[] fields = new Field[MAXIMUM_FIELD_NUMBER + 1];
+    private final long[] definedFields = new long[BITSET_WORDS];
+    private final long[] skipFields = new long[BITSET_WORDS];
+    private ByteBuffer packBuffer = null;
+
+    // The state that is restored by reset(), saved by markDefaults()
+    private MTI defaultMTI = null;
+    private final long[] defaultSkipFields = new long[BITSET_WORDS];
+    private BitmapField[] defaultBitmapFields = new BitmapField[0];
+    private int[][] defaultBitmapFieldNumbers = new int[0][];
+
+    // True while this message is idle in a pool, changed by markPooled()
+    private final AtomicBoolean pooled = new AtomicBoolean(false);
+
+    private static boolean isBitSet(long[] bits, int number) {
+        return (bits[number >>> 6] & (1L << number)) != 0;
+    }
+
+    private static void setBit(long[] bits, int number) {
+        bits[number >>> 6] |= 1L << number;
+    }
+
+    private static int nextSetBit(long[] bits, int fromNumber) {
+        int wordIndex = fromNumber >>> 6;
+        if (wordIndex >= bits.length) return -1;
+        long word = bits[wordIndex] & (-1L << fromNumber);
+        while (true) {
+            if (word != 0) return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            if (++wordIndex == bits.length) return -1;
+            word = bits[wordIndex];
+        }
+    }
+
+    // The number of the next defined bitmap field, from a field number, or -1
+    private int nextBitmapFieldNumber(int fromNumber) {
+        for (int number = nextSetBit(definedFields, fromNumber); number >= 0; number = nextSetBit(definedFields, number + 1))
+            if (fields[number] instanceof BitmapField) return number;
+        return -1;
+    }
+
+    private long fieldWord(int wordIndex, boolean doSkipping) {
+        long word = definedFields[wordIndex];
+        return doSkipping ? word & ~skipFields[wordIndex] : word;
+    }
+
+    private int[] collectFieldNumbers(int start, int end, boolean doSkipping) {
+        start = Math.max(start, 0);
+        end = Math.min(end, MAXIMUM_FIELD_NUMBER);
+        if (start > end) return new int[0];
+
+        // Mask each word to the [start, end] range, then count and collect the set bits
+        int firstWord = start >>> 6, lastWord = end >>> 6;
+        long[] words = new long[lastWord - firstWord + 1];
+        int count = 0;
+        for (int wordIndex = firstWord; wordIndex <= lastWord; wordIndex++) {
+            long word = fieldWord(wordIndex, doSkipping);
+            if (wordIndex == firstWord) word &= -1L << start;
+            if (wordIndex == lastWord) word &= -1L >>> (63 - (end & 63));
+            words[wordIndex - firstWord] = word;
+            count += Long.bitCount(word);
+        }
+
+        int[] numbers = new int[count];
+        int index = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                numbers[index++] = ((firstWord + i) << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return numbers;
+    }
 
     private boolean isValueOK(int fieldNumber, Object value) throws ISO8583Exception {
         if (!hasField(fieldNumber))
@@ -55,8 +140,10 @@ public class Message {
     }
 
     private BitmapField getBitmapField(BitmapType type) {
-        for (BitmapField field : getBitmapFields())
+        for (int number = nextBitmapFieldNumber(0); number >= 0; number = nextBitmapFieldNumber(number + 1)) {
+            BitmapField field = (BitmapField) fields[number];
             if (field.getBitmap().getType() == type) return field;
+        }
         return null;
     }
 
@@ -74,12 +161,12 @@ public class Message {
         if (!hasField(parentNumber))
             throw new ISO8583Exception("The FIELD[%d] is not defined.", parentNumber);
 
-        if (sequenceLength == 1) return fields.get(parentNumber);
+        if (sequenceLength == 1) return fields[parentNumber];
 
         if (!isCombineField(parentNumber))
             throw new ISO8583Exception("The FIELD[%d] (parent of the %s sequence) is not a CombineField.", parentNumber, fieldNumberSequence);
 
-        CombineField field = (CombineField) fields.get(parentNumber);
+        CombineField field = (CombineField) fields[parentNumber];
         for (int index = 1; index < sequenceLength; index++) {
             int fieldNumber = fieldNumbers[index];
             if (field.hasSubField(fieldNumber)) {
@@ -95,15 +182,9 @@ public class Message {
         throw new ISO8583Exception("The last field of the %s sequence cannot be a CombineField.", fieldNumberSequence);
     }
 
-    private void setSkipFieldsInUnpack(List<Integer> skipFields) {
-        int[] differences = IntStream.of(getFieldNumbers(false))
-                .filter(element -> !skipFields.contains(element))
-                .toArray();
-        setSkipFieldNumbers(differences);
-    }
-
     void setBitmaps() {
-        for (BitmapField field : getBitmapFields()) {
+        for (int number = nextBitmapFieldNumber(0); number >= 0; number = nextBitmapFieldNumber(number + 1)) {
+            BitmapField field = (BitmapField) fields[number];
             Range bitmapRange = field.getBitmap().getRange();
             field.setFieldNumbers(rangeOfFieldNumbers(bitmapRange.getStart(), bitmapRange.getEnd(), true));
         }
@@ -113,6 +194,15 @@ public class Message {
         this.description  = description;
     }
 
+    /**
+     * Get the interpreter for length of this message
+     *
+     * @return the interpreter for length of this message, or null if it has not been defined
+     */
+    public MessageLengthInterpreter getLengthInterpreter() {
+        return lengthInterpreter;
+    }
+
     void setLengthCount(int lengthCount) {
         this.lengthCount = lengthCount;
     }
@@ -134,19 +224,32 @@ public class Message {
     }
 
     void addField(int number, Field field) throws ISO8583Exception {
-        if (!fields.containsKey(number)) {
+        if (number < 0 || number > MAXIMUM_FIELD_NUMBER)
+            throw new ISO8583Exception("The field number cannot be less than '0' or greater than '%d': %d.",
+                    MAXIMUM_FIELD_NUMBER, number);
+        if (!hasField(number)) {
             field.setCharset(charset);
-            fields.put(number, field);
+            fields[number] = field;
+            setBit(definedFields, number);
         } else throw new ISO8583Exception("The FIELD[%d] is already defined.", number);
     }
 
     void replaceField(int number, Field field) throws ISO8583Exception {
-        if (fields.containsKey(number)) {
+        if (hasField(number)) {
             field.setCharset(charset);
-            fields.put(number, field);
+            fields[number] = field;
         } else throw new ISO8583Exception("The FIELD[%d] is not defined.", number);
     }
 
+    /**
+     * Get the description of this message
+     *
+     * @return message description
+     */
+    public String getDescription() {
+        return description;
+    }
+
     /**
      * Get current charset of this message
      *
@@ -225,6 +328,23 @@ public class Message {
         else throw new ISO8583Exception("The MTI has not been defined.");
     }
 
+    /**
+     * Change this request to its response in place: the response MTI of the request (such as "0210" for "0200")
+     * and the response code in the field 39, which is packed even if it has not been present in the request.
+     * The field 39 must be defined in this message.
+     *
+     * @param responseCode the value of the field 39. example: "00"
+     * @return true if the message has been changed, false if it is not a request
+     * @throws ISO8583Exception if the field 39 has not been defined or the response code is invalid
+     */
+    public boolean changeToResponse(String responseCode) throws ISO8583Exception {
+        if (mti == null || !mti.isRequest()) return false;
+        changeMTI(mti.getResponseLiteral());
+        if (isSkipField(RESPONSE_CODE_FIELD)) removeSkipFieldNumbers(true, RESPONSE_CODE_FIELD);
+        setValue(RESPONSE_CODE_FIELD, responseCode);
+        return true;
+    }
+
     /**
      * Get the MTI of this message
      *
@@ -263,7 +383,11 @@ public class Message {
      * @return an array of the fields (Field object) defined in this message
      */
     public Field[] getFields() {
-        return fields.values().toArray(new Field[0]);
+        int[] fieldNumbers = getFieldNumbers(false);
+        Field[] result = new Field[fieldNumbers.length];
+        for (int index = 0; index < fieldNumbers.length; index++)
+            result[index] = fields[fieldNumbers[index]];
+        return result;
     }
 
     /**
@@ -272,11 +396,15 @@ public class Message {
      * @return an array of BitmapField type
      */
     public BitmapField[] getBitmapFields() {
-        return fields.values().stream()
-                .filter(field -> field instanceof BitmapField)
-                .map(field -> (BitmapField) field)
-                .sorted(Comparator.comparingInt(BitmapField::getNumber))
-                .toArray(BitmapField[]::new);
+        int count = 0;
+        for (int number = nextBitmapFieldNumber(0); number >= 0; number = nextBitmapFieldNumber(number + 1))
+            count++;
+
+        BitmapField[] bitmapFields = new BitmapField[count];
+        int index = 0;
+        for (int number = nextBitmapFieldNumber(0); number >= 0; number = nextBitmapFieldNumber(number + 1))
+            bitmapFields[index++] = (BitmapField) fields[number];
+        return bitmapFields;
     }
 
     /**
@@ -285,10 +413,11 @@ public class Message {
      * @return an array of BitmapField indexes
      */
     public int[] getBitmapFieldNumbers() {
-        return fields.values().stream()
-                .filter(field -> field instanceof BitmapField)
-                .mapToInt(Field::getNumber)
-                .toArray();
+        BitmapField[] bitmapFields = getBitmapFields();
+        int[] numbers = new int[bitmapFields.length];
+        for (int index = 0; index < bitmapFields.length; index++)
+            numbers[index] = bitmapFields[index].getNumber();
+        return numbers;
     }
 
     /**
@@ -297,10 +426,9 @@ public class Message {
      * @return an array of SingleField type
      */
     public SingleField[] getSingleFields() {
-        return fields.values().stream()
+        return Arrays.stream(getFields())
                 .filter(field -> field instanceof SingleField)
                 .map(field -> (SingleField) field)
-                .sorted(Comparator.comparingInt(SingleField::getNumber))
                 .toArray(SingleField[]::new);
     }
 
@@ -310,10 +438,9 @@ public class Message {
      * @return an array of CombineField type
      */
     public CombineField[] getCombineFields() {
-        return fields.values().stream()
+        return Arrays.stream(getFields())
                 .filter(field -> field instanceof CombineField)
                 .map(field -> (CombineField) field)
-                .sorted(Comparator.comparingInt(CombineField::getNumber))
                 .toArray(CombineField[]::new);
     }
 
@@ -324,9 +451,7 @@ public class Message {
      * @return an array of field indexes
      */
     public int[] getFieldNumbers(boolean doSkipping) {
-        IntStream stream = fields.keySet().stream().mapToInt(number -> number);
-        if (doSkipping) stream = stream.filter(number -> !skipFields.contains(number));
-        return stream.sorted().toArray();
+        return collectFieldNumbers(0, MAXIMUM_FIELD_NUMBER, doSkipping);
     }
 
     /**
@@ -336,9 +461,7 @@ public class Message {
      * @return an array of field indexes
      */
     public int[] rangeOfFieldNumbers(int start, int end, boolean doSkipping) {
-        return Arrays.stream(getFieldNumbers(doSkipping)).
-                filter(number -> number >= start && number <= end)
-                .toArray();
+        return collectFieldNumbers(start, end, doSkipping);
     }
 
     /**
@@ -348,9 +471,9 @@ public class Message {
      * @param fieldNumbers the index of fields that must be skipped, as a vararg
      */
     public void setSkipFieldNumbers(boolean updateBitmap, int... fieldNumbers) {
-        skipFields.clear();
-        List<Integer> list = Arrays.stream(fieldNumbers).boxed().collect(Collectors.toList());
-        skipFields.addAll(list);
+        Arrays.fill(skipFields, 0L);
+        for (int fieldNumber : fieldNumbers)
+            if (fieldNumber >= 0 && fieldNumber <= MAXIMUM_FIELD_NUMBER) setBit(skipFields, fieldNumber);
 
         if (updateBitmap) setBitmaps();
     }
@@ -362,11 +485,32 @@ public class Message {
      * @param fieldNumbers the index of fields that must be skipped, as a vararg
      */
     public void setSkipFieldNumbers(int... fieldNumbers) {
-        skipFields.clear();
-        List<Integer> list = Arrays.stream(fieldNumbers).boxed().collect(Collectors.toList());
-        skipFields.addAll(list);
+        setSkipFieldNumbers(true, fieldNumbers);
+    }
 
-        setBitmaps();
+    /**
+     * Remove some fields from the skipped fields, so they are packed again (such as a field of a response
+     * that has not been present in the unpacked request)
+     *
+     * @param updateBitmap if true, then regenerate bitmap
+     * @param fieldNumbers the index of fields that must not be skipped anymore, as a vararg
+     */
+    public void removeSkipFieldNumbers(boolean updateBitmap, int... fieldNumbers) {
+        for (int fieldNumber : fieldNumbers)
+            if (fieldNumber >= 0 && fieldNumber <= MAXIMUM_FIELD_NUMBER) skipFields[fieldNumber >>> 6] &= ~(1L << fieldNumber);
+
+        if (updateBitmap) setBitmaps();
+    }
+
+    /**
+     * Check if a field is skipped from the bitmap generation and pack processing
+     * (after unpacking, the defined fields that have not been present in the message)
+     *
+     * @param fieldNumber the index of the field
+     * @return true if the field is skipped
+     */
+    public boolean isSkipField(int fieldNumber) {
+        return fieldNumber >= 0 && fieldNumber <= MAXIMUM_FIELD_NUMBER && isBitSet(skipFields, fieldNumber);
     }
 
     /**
@@ -375,14 +519,21 @@ public class Message {
      * @return an array of field indexes
      */
     public int[] getSkipFieldNumbers() {
-        return skipFields.stream().mapToInt(number -> number).toArray();
+        int count = 0;
+        for (long word : skipFields) count += Long.bitCount(word);
+
+        int[] numbers = new int[count];
+        int index = 0;
+        for (int number = nextSetBit(skipFields, 0); number >= 0; number = nextSetBit(skipFields, number + 1))
+            numbers[index++] = number;
+        return numbers;
     }
 
     /**
      * Undo the "setSkipFieldNumbers" method operation
      */
     public void clearSkipFields() {
-        skipFields.clear();
+        Arrays.fill(skipFields, 0L);
         setBitmaps();
     }
 
@@ -420,7 +571,7 @@ public class Message {
      * @return true if field has been defined
      */
     public boolean hasField(int fieldNumber) {
-        return fields.containsKey(fieldNumber);
+        return fieldNumber >= 0 && fieldNumber <= MAXIMUM_FIELD_NUMBER && fields[fieldNumber] != null;
     }
 
     /**
@@ -430,7 +581,7 @@ public class Message {
      * @return the field object, if defined
      */
     public Field getField(int fieldNumber) {
-        return fields.get(fieldNumber);
+        return hasField(fieldNumber) ? fields[fieldNumber] : null;
     }
 
     /**
@@ -440,7 +591,7 @@ public class Message {
      * @return true if field type is BitmapField
      */
     public boolean isBitmapField(int fieldNumber) {
-        return fields.get(fieldNumber) instanceof BitmapField;
+        return getField(fieldNumber) instanceof BitmapField;
     }
 
     /**
@@ -450,7 +601,7 @@ public class Message {
      * @return true if field type is SingleField
      */
     public boolean isSingleField(int fieldNumber) {
-        return fields.get(fieldNumber) instanceof SingleField;
+        return getField(fieldNumber) instanceof SingleField;
     }
 
     /**
@@ -460,7 +611,7 @@ public class Message {
      * @return true if field type is CombineField
      */
     public boolean isCombineField(int fieldNumber) {
-        return fields.get(fieldNumber) instanceof CombineField;
+        return getField(fieldNumber) instanceof CombineField;
     }
 
     /**
@@ -497,7 +648,7 @@ public class Message {
      */
     public void setValue(int fieldNumber, byte[] value) throws ISO8583Exception {
         if (isValueOK(fieldNumber, value))
-            ((SingleField) fields.get(fieldNumber)).setValue(value);
+            ((SingleField) fields[fieldNumber]).setValue(value);
     }
 
     /**
@@ -510,7 +661,7 @@ public class Message {
      */
     public void setValue(int fieldNumber, String value) throws ISO8583Exception {
         if (isValueOK(fieldNumber, value))
-            ((SingleField) fields.get(fieldNumber)).setValue(value, charset);
+            ((SingleField) fields[fieldNumber]).setValue(value, charset);
     }
 
     /**
@@ -551,7 +702,7 @@ public class Message {
      */
     public byte[] getValue(int fieldNumber) {
         if (hasField(fieldNumber))
-            return fields.get(fieldNumber).getValue();
+            return fields[fieldNumber].getValue();
         else return null;
     }
 
@@ -563,7 +714,7 @@ public class Message {
      */
     public String getValueAsString(int fieldNumber) {
         if (hasField(fieldNumber))
-            return fields.get(fieldNumber).getValueAsString();
+            return fields[fieldNumber].getValueAsString();
         else return null;
     }
 
@@ -603,7 +754,7 @@ public class Message {
      */
     public String getValueFormatted(int fieldNumber) {
         if (hasField(fieldNumber))
-            return fields.get(fieldNumber).getValueFormatted();
+            return fields[fieldNumber].getValueFormatted();
         else return null;
     }
 
@@ -628,7 +779,7 @@ public class Message {
      */
     public void clearValue(int fieldNumber) {
         if (hasField(fieldNumber))
-            fields.get(fieldNumber).clear();
+            fields[fieldNumber].clear();
     }
 
     /**
@@ -649,8 +800,59 @@ public class Message {
      * @param doSkipping if true, then only the index of fields that exist in bitmap will be cleared.
      */
     public void clearAllValue(boolean doSkipping) {
-        for(int fieldNumber : getFieldNumbers(doSkipping))
-            fields.get(fieldNumber).clear();
+        for (int wordIndex = 0; wordIndex < BITSET_WORDS; wordIndex++) {
+            long word = fieldWord(wordIndex, doSkipping);
+            while (word != 0) {
+                fields[(wordIndex << 6) + Long.numberOfTrailingZeros(word)].clear();
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Save the current MTI, skipped fields and bitmaps of this message as its defaults, to be restored by {@link #reset()}.
+     * The defaults are saved by {@link ISO8583#buildMessage()} as well.
+     */
+    public void markDefaults() {
+        defaultMTI = mti;
+        System.arraycopy(skipFields, 0, defaultSkipFields, 0, BITSET_WORDS);
+        defaultBitmapFields = getBitmapFields();
+        defaultBitmapFieldNumbers = new int[defaultBitmapFields.length][];
+        for (int index = 0; index < defaultBitmapFields.length; index++)
+            defaultBitmapFieldNumbers[index] = defaultBitmapFields[index].getBitmap().getFiledNumbers();
+    }
+
+    /**
+     * Reset this message for the next transaction without any allocation:
+     * the values of all the fields are cleared to a shared empty value (the views into an unpacked buffer are dropped),
+     * and the MTI, the skipped fields and the bitmaps are restored to the defaults saved by {@link #markDefaults()}.
+     */
+    public void reset() {
+        clearAllValue(false);
+        mti = defaultMTI;
+        System.arraycopy(defaultSkipFields, 0, skipFields, 0, BITSET_WORDS);
+        for (int index = 0; index < defaultBitmapFields.length; index++)
+            defaultBitmapFields[index].setFieldNumbers(defaultBitmapFieldNumbers[index]);
+    }
+
+    /**
+     * Mark this message as idle in a pool or as taken from it, atomically, so a pool can reject a message
+     * that is released twice
+     *
+     * @param pooled true when the message is given back to a pool, false when it is taken from a pool
+     * @return false if the message has already been in that state
+     */
+    public boolean markPooled(boolean pooled) {
+        return this.pooled.compareAndSet(!pooled, pooled);
+    }
+
+    /**
+     * Check if this message is idle in a pool
+     *
+     * @return true if the message has been given back to a pool and has not been taken again
+     */
+    public boolean isPooled() {
+        return pooled.get();
     }
 
     /**
@@ -685,6 +887,62 @@ public class Message {
             setValue(entry.getKey(), entry.getValue());
     }
 
+    private int packInto(ByteBuffer target) throws ISO8583Exception {
+        int start = target.position();
+
+        // RESERVE THE LENGTH OF THE MESSAGE (IF EXIST)
+        int lengthSize = hasLength() ? lengthInterpreter.getPackLength(lengthCount, charset) : 0;
+        if (target.remaining() < lengthSize) throw new BufferOverflowException();
+        target.position(start + lengthSize);
+
+        // PACK THE HEADER (IF EXIST)
+        if (hasHeader())
+            header.pack(charset, target);
+
+        // PACK THE MTI (IF EXIST)
+        if (hasMTI())
+            mti.pack(charset, target);
+
+        // PACK THE ALL AVAILABLE FIELDS
+        for (int wordIndex = 0; wordIndex < BITSET_WORDS; wordIndex++) {
+            long word = fieldWord(wordIndex, true);
+            while (word != 0) {
+                fields[(wordIndex << 6) + Long.numberOfTrailingZeros(word)].pack(target);
+                word &= word - 1;
+            }
+        }
+
+        // BACK-PATCH THE LENGTH OF THE MESSAGE INTO THE RESERVED BYTES
+        int end = target.position();
+        if (hasLength()) {
+            target.position(start);
+            lengthInterpreter.pack(lengthCount, end - start - lengthSize, charset, target);
+            if (target.position() != start + lengthSize)
+                throw new ISO8583Exception("The packed message length (%s bytes) does not match the reserved length (%s bytes).",
+                        target.position() - start, lengthSize);
+            target.position(end);
+        }
+
+        // FINISH
+        return end - start;
+    }
+
+    private int packIntoBuffer() throws ISO8583Exception {
+        if (packBuffer == null) packBuffer = ByteBuffer.allocate(INITIAL_PACK_BUFFER_SIZE);
+        while (true) {
+            packBuffer.clear();
+            try {
+                return packInto(packBuffer);
+            } catch (BufferOverflowException exception) {
+                if (packBuffer.capacity() >= MAXIMUM_PACK_BUFFER_SIZE)
+                    throw new ISO8583Exception("PACK ERROR: The message is larger than %s bytes.", MAXIMUM_PACK_BUFFER_SIZE);
+                packBuffer = ByteBuffer.allocate(packBuffer.capacity() * 2);
+            } catch (Exception exception) {
+                throw new ISO8583Exception("PACK ERROR: %s", exception.getMessage());
+            }
+        }
+    }
+
     /**
      * Pack the message
      *
@@ -692,39 +950,73 @@ public class Message {
      * @throws ISO8583Exception If throws from the pack process
      */
     public byte[] pack() throws ISO8583Exception {
-        try {
-            // CREATE THE PACK BUFFER
-            ByteArrayOutputStream messageBuffer = new ByteArrayOutputStream();
-
-            // PACK THE HEADER (IF EXIST)
-            if (hasHeader())
-                messageBuffer.write(header.pack(charset));
-
-            // PACK THE MTI (IF EXIST)
-            if (hasMTI())
-                messageBuffer.write(mti.pack(charset));
+        int length = packIntoBuffer();
+        return Arrays.copyOf(packBuffer.array(), length);
+    }
 
-            // PACK THE ALL AVAILABLE FIELDS
-            for (int fieldNumber : getFieldNumbers(true))
-                messageBuffer.write(fields.get(fieldNumber).pack());
+    /**
+     * Pack the message directly into a buffer, starting from its current position.
+     * The length of the message (if exist) is reserved first and back-patched after the body has been written.
+     * On success the position of the buffer is advanced by the number of written bytes,
+     * otherwise the position is restored.
+     *
+     * @param target the buffer to write into (heap or direct)
+     * @return the number of written bytes
+     * @throws ISO8583Exception If throws from the pack process, or the buffer does not have enough space
+     *                          (then its cause is a {@link BufferOverflowException})
+     */
+    public int pack(ByteBuffer target) throws ISO8583Exception {
+        int start = target.position();
+        try {
+            return packInto(target);
+        } catch (BufferOverflowException exception) {
+            target.position(start);
+            ISO8583Exception overflow = new ISO8583Exception(
+                    "PACK ERROR: The target buffer does not have enough space (remaining: %s bytes).", target.remaining());
+            overflow.initCause(exception);
+            throw overflow;
+        } catch (Exception exception) {
+            target.position(start);
+            throw new ISO8583Exception("PACK ERROR: %s", exception.getMessage());
+        }
+    }
 
-            // PACK THE LENGTH OF THE MESSAGE AND MERGE WITH IT
-            ByteArrayOutputStream finalPack = new ByteArrayOutputStream();
-            byte[] messageBytes =  messageBuffer.toByteArray();
-            if (hasLength()) {
-                byte[] messageLengthBytes = lengthInterpreter.pack(lengthCount, messageBytes.length, charset);
-                finalPack.write(messageLengthBytes);
-            }
-            finalPack.write(messageBytes);
+    /**
+     * Pack the message into an output stream.
+     * The message is packed into a buffer that is reused by the next pack operations of this message.
+     *
+     * @param output the stream to write into
+     * @return the number of written bytes
+     * @throws ISO8583Exception If throws from the pack process
+     * @throws IOException If throws from the output stream
+     */
+    public int packTo(OutputStream output) throws ISO8583Exception, IOException {
+        int length = packIntoBuffer();
+        output.write(packBuffer.array(), 0, length);
+        return length;
+    }
 
-            // FINISH
-            return finalPack.toByteArray();
+    private long[] startUnpackFields() {
+        // The first bitmap is always present, the other fields are present if their bit has been set
+        long[] presentFields = new long[BITSET_WORDS];
+        int firstBitmapNumber = nextBitmapFieldNumber(0);
+        if (firstBitmapNumber >= 0) setBit(presentFields, firstBitmapNumber);
+        return presentFields;
+    }
 
-        } catch (Exception exception) {
-            throw new ISO8583Exception("PACK ERROR: %s", exception.getMessage());
+    private void markBitmapFields(BitmapField bitmapField, long[] presentFields) throws ISO8583Exception {
+        for (int fieldNumber : bitmapField.getBitmap().getFiledNumbers()) {
+            if (!hasField(fieldNumber))
+                throw new ISO8583Exception("The FIELD[%d] is not defined.", fieldNumber);
+            setBit(presentFields, fieldNumber);
         }
     }
 
+    private void finishUnpackFields(long[] presentFields) {
+        for (int wordIndex = 0; wordIndex < BITSET_WORDS; wordIndex++)
+            skipFields[wordIndex] = definedFields[wordIndex] & ~presentFields[wordIndex];
+    }
+
     /**
      * Unpack the message
      *
@@ -736,6 +1028,22 @@ public class Message {
         return unpack(packMessage, null);
     }
 
+    /**
+     * Unpack the message
+     *
+     * @param packMessage the packed message as a byte array object
+     * @param lazy if true, only the position of each field is recorded and its value is decoded on the first access,
+     *             so the array must not be modified while the unpacked values are in use.
+     *             An invalid value is found only on its first access, by an {@link IllegalStateException}
+     *             of the getter ({@link Field#decode()} reports it as an {@link ISO8583Exception})
+     * @return the unpack process result as a Message object
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public Message unpack(byte[] packMessage, boolean lazy) throws ISO8583Exception {
+        if (lazy) return unpack(ByteBuffer.wrap(packMessage), 0, packMessage.length, true, null);
+        return unpack(packMessage, null);
+    }
+
     /**
      * Unpack the message
      *
@@ -776,30 +1084,126 @@ public class Message {
             }
 
             // UNPACK THE ALL AVAILABLE FIELDS
-            List<Integer> fieldNumbers = new ArrayList<>();
-
-            BitmapField[] bitmapFields = getBitmapFields();
-            for (BitmapField bitmapField : bitmapFields) {
-                bitmapField.clear();
-                offset = bitmapField.unpack(packMessage, offset);
-                fieldNumbers.add(bitmapField.getNumber());
-                printField(bitmapField.getNumber(), printStream);
-
-                for (int fieldNumber : bitmapField.getBitmap().getFiledNumbers()) {
-                    if (!hasField(fieldNumber))
-                        throw new ISO8583Exception("The FIELD[%d] is not defined.", fieldNumber);
-
-                    Field field = fields.get(fieldNumber);
-                    if (field instanceof BitmapField) continue;
-
-                    field.clear();
-                    offset = field.unpack(packMessage, offset);
-                    fieldNumbers.add(fieldNumber);
-                    printField(fieldNumber, printStream);
-                }
+            long[] presentFields = startUnpackFields();
+            for (int fieldNumber = nextSetBit(presentFields, 0);
+                 fieldNumber >= 0;
+                 fieldNumber = nextSetBit(presentFields, fieldNumber + 1)) {
+                Field field = fields[fieldNumber];
+                field.clear();
+                offset = field.unpack(packMessage, offset);
+                if (field instanceof BitmapField) markBitmapFields((BitmapField) field, presentFields);
+                printField(fieldNumber, printStream);
+            }
+
+            finishUnpackFields(presentFields);
+            printSkipFields(printStream);
+
+            // FINISH
+            return this;
+
+        } catch (Exception exception) {
+            throw new ISO8583Exception("UNPACK ERROR: %s", exception.getMessage());
+        }
+    }
+
+    /**
+     * Unpack the message from a buffer, the values of the fields are decoded at once
+     *
+     * @param packMessage the packed message as a buffer (heap or direct)
+     * @param offset the index of the first byte of the message in the buffer
+     * @param limit the index after the last byte of the message in the buffer
+     * @return the unpack process result as a Message object
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public Message unpack(ByteBuffer packMessage, int offset, int limit) throws ISO8583Exception {
+        return unpack(packMessage, offset, limit, false, null);
+    }
+
+    /**
+     * Unpack the message from a buffer
+     *
+     * @param packMessage the packed message as a buffer (heap or direct)
+     * @param offset the index of the first byte of the message in the buffer
+     * @param limit the index after the last byte of the message in the buffer
+     * @param lazy if true, the field contents are not copied: each field keeps only a view (offset, length)
+     *             into the buffer and its value is decoded on the first access,
+     *             so the buffer must not be modified while the unpacked values are in use.
+     *             An invalid value is found only on its first access, by an {@link IllegalStateException}
+     *             of the getter ({@link Field#decode()} reports it as an {@link ISO8583Exception})
+     * @return the unpack process result as a Message object
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public Message unpack(ByteBuffer packMessage, int offset, int limit, boolean lazy) throws ISO8583Exception {
+        return unpack(packMessage, offset, limit, lazy, null);
+    }
+
+    /**
+     * Unpack the message from a buffer, the values of the fields are decoded at once
+     *
+     * @param packMessage the packed message as a buffer (heap or direct)
+     * @param offset the index of the first byte of the message in the buffer
+     * @param limit the index after the last byte of the message in the buffer
+     * @param printStream an output stream for log the result of the every step from the unpack process
+     * @return the unpack process result as a Message object
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public Message unpack(ByteBuffer packMessage, int offset, int limit, PrintStream printStream) throws ISO8583Exception {
+        return unpack(packMessage, offset, limit, false, printStream);
+    }
+
+    private Message unpack(ByteBuffer packMessage,
+                           int offset,
+                           int limit,
+                           boolean lazy,
+                           PrintStream printStream) throws ISO8583Exception {
+        try {
+            printDescription(printStream);
+
+            if (offset < 0 || limit > packMessage.limit() || offset > limit)
+                throw new ISO8583Exception("Invalid bounds [offset: %s, limit: %s] for a buffer with limit %s.",
+                        offset, limit, packMessage.limit());
+
+            // UNPACK THE LENGTH OF THE MESSAGE (IF EXIST)
+            if (hasLength()) {
+                UnpackLengthResult unpackMessageLength =
+                        lengthInterpreter.unpack(packMessage, offset, limit, lengthCount, charset);
+                offset = unpackMessageLength.getNextOffset();
+                printLength(printStream);
+            }
+
+            // UNPACK THE HEADER (IF EXIST)
+            if (hasHeader()) {
+                UnpackContentResult unpackHeader = header.unpack(packMessage, offset, limit, charset);
+                offset = unpackHeader.getNextOffset();
+                printHeader(printStream);
+            }
+
+            // UNPACK THE MTI (IF EXIST)
+            if (hasMTI()) {
+                UnpackMTIResult unpackMTI = mti.unpack(packMessage, offset, limit, charset);
+                String mtiLiteral = unpackMTI.getValue();
+                if (!Validator.mti(mtiLiteral))
+                    throw new ISO8583Exception("[%s] Is an invalid value for ISO8583 MTI.", mtiLiteral);
+                setMTI(new MTI(mtiLiteral.charAt(0) - '0', mtiLiteral.charAt(1) - '0',
+                        mtiLiteral.charAt(2) - '0', mtiLiteral.charAt(3) - '0', mti.getInterpreter()));
+                offset = unpackMTI.getNextOffset();
+                printMTI(printStream);
+            }
+
+            // UNPACK THE ALL AVAILABLE FIELDS
+            long[] presentFields = startUnpackFields();
+            for (int fieldNumber = nextSetBit(presentFields, 0);
+                 fieldNumber >= 0;
+                 fieldNumber = nextSetBit(presentFields, fieldNumber + 1)) {
+                Field field = fields[fieldNumber];
+                if (field instanceof BitmapField) field.clear();
+                offset = field.unpack(packMessage, offset, limit);
+                if (!lazy) field.decode();
+                if (field instanceof BitmapField) markBitmapFields((BitmapField) field, presentFields);
+                printField(fieldNumber, printStream);
             }
 
-            setSkipFieldsInUnpack(fieldNumbers);
+            finishUnpackFields(presentFields);
             printSkipFields(printStream);
 
             // FINISH
@@ -969,7 +1373,7 @@ public class Message {
             builder.append("-> F[")
                     .append(String.format(Locale.ENGLISH, "%03d", fieldNumber))
                     .append("]: ")
-                    .append(fields.get(fieldNumber))
+                    .append(fields[fieldNumber])
                     .append("\n");
         return builder.toString();
     }
@@ -980,7 +1384,7 @@ public class Message {
      * @return a string representation of the skipping fields in log format.
      */
     public String skipFieldsToString() {
-        return "-> SKIPPING FIELDS: " + Arrays.toString(skipFields.toArray()) + "\n";
+        return "-> SKIPPING FIELDS: " + Arrays.toString(getSkipFieldNumbers()) + "\n";
     }
 
     /**
@@ -0,0 +1,448 @@
+package ir.saeiddrv.iso8583.message;
+
+import ir.saeiddrv.iso8583.message.fields.LengthValue;
+import ir.saeiddrv.iso8583.message.interpreters.base.ContentInterpreter;
+import ir.saeiddrv.iso8583.message.utilities.BCDCodec;
+import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import ir.saeiddrv.iso8583.message.utilities.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class provide the values of a single ISO-8583 transaction, defined by a {@link MessageTemplate}.
+ * An instance is cheap to create and is not thread-safe, while its template is shared between all instances.
+ *
+ * @author Saeid Darvish
+ */
+public final class MessageInstance {
+
+    private static final int INITIAL_PACK_BUFFER_SIZE = 512;
+    private static final int MAXIMUM_PACK_BUFFER_SIZE = 16 * 1024 * 1024;
+
+    private final MessageTemplate template;
+    private final FieldValues values;
+    private String mti;
+    private ByteBuffer packBuffer = null;
+
+    MessageInstance(MessageTemplate template) {
+        this.template = template;
+        this.values = new FieldValues(template.getFieldTable());
+        this.mti = template.getDefaultMTI();
+    }
+
+    MessageTemplate getTemplate() {
+        return template;
+    }
+
+    FieldValues getFieldValues() {
+        return values;
+    }
+
+    private void checkValue(FieldTable table, int fieldNumber, Object value) throws ISO8583Exception {
+        if (!table.isDefined(fieldNumber))
+            throw new ISO8583Exception("The FIELD[%d] is not defined.", fieldNumber);
+        if (table.kinds[fieldNumber] == FieldTable.BITMAP)
+            throw new ISO8583Exception("The FIELD[%d] is related to 'ISO Bitmap'. " +
+                    "The bitmap fields will be set automatically.", fieldNumber);
+        if (table.kinds[fieldNumber] == FieldTable.COMBINE)
+            throw new ISO8583Exception("The FIELD[%d] is a CombineField, " +
+                    "use the 'setDeepValue' method to set its subfields.", fieldNumber);
+        if (value == null)
+            throw new ISO8583Exception("The content of the FIELD[%d] cannot be set to null. " +
+                    "You can use 'clearValue' method to skip from this field in pack processing and bitmap generation.", fieldNumber);
+    }
+
+    private FieldValues findParentValues(int[] fieldNumbers, String fieldNumberSequence) throws ISO8583Exception {
+        FieldValues current = values;
+        for (int index = 0; index < fieldNumbers.length - 1; index++) {
+            FieldTable table = current.getTable();
+            int fieldNumber = fieldNumbers[index];
+            if (!table.isDefined(fieldNumber))
+                throw new ISO8583Exception("The FIELD[%d] (from %s sequence) is not defined.", fieldNumber, fieldNumberSequence);
+            if (table.kinds[fieldNumber] != FieldTable.COMBINE)
+                throw new ISO8583Exception("The FIELD[%d] (from %s sequence) is not a CombineField.", fieldNumber, fieldNumberSequence);
+            current = current.nested(fieldNumber);
+        }
+        return current;
+    }
+
+    private static int[] parseSequence(String fieldNumberSequence) {
+        return Arrays.stream(fieldNumberSequence.split("\\.")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static byte[] toBytes(FieldTable table, int fieldNumber, String value) {
+        ContentInterpreter interpreter = table.contentInterpreters[fieldNumber];
+        if (interpreter != null) return interpreter.transfer(value, table.charsets[fieldNumber]);
+        return TypeUtils.encodeBytes(value, table.charsets[fieldNumber]);
+    }
+
+    private static String toString(FieldValues values, int fieldNumber) {
+        FieldTable table = values.getTable();
+        if (!table.isDefined(fieldNumber) || !values.isPresent(fieldNumber)) return null;
+        if (table.kinds[fieldNumber] == FieldTable.COMBINE) {
+            FieldValues subValues = values.nested(fieldNumber);
+            StringBuilder builder = new StringBuilder();
+            for (int subFieldNumber : subValues.getTable().numbers) {
+                String subValue = toString(subValues, subFieldNumber);
+                if (subValue != null) builder.append(subValue);
+            }
+            return builder.toString();
+        }
+        ContentInterpreter interpreter = table.contentInterpreters[fieldNumber];
+        if (interpreter != null) return interpreter.transfer(values.get(fieldNumber), table.charsets[fieldNumber]);
+        return TypeUtils.decodeBytes(values.get(fieldNumber), table.charsets[fieldNumber]);
+    }
+
+    private static String toFormatted(FieldValues values, int fieldNumber) {
+        FieldTable table = values.getTable();
+        if (!table.isDefined(fieldNumber) || table.formatters[fieldNumber] == null) return null;
+        return table.formatters[fieldNumber].getFormatted(fieldNumber, toString(values, fieldNumber));
+    }
+
+    /**
+     * Get the template of this message instance
+     *
+     * @return the message template
+     */
+    public MessageTemplate template() {
+        return template;
+    }
+
+    /**
+     * Change the MTI of this message instance
+     *
+     * @param mtiLiteral a four-digit numeric string
+     * @throws ISO8583Exception If MTI has not been defined in the template, or the value is invalid
+     */
+    public void setMTI(String mtiLiteral) throws ISO8583Exception {
+        if (!template.hasMTI())
+            throw new ISO8583Exception("The MTI has not been defined for this message.");
+        if (!Validator.mti(mtiLiteral))
+            throw new ISO8583Exception("[%s] Is an invalid value for ISO8583 MTI, " +
+                    "The message type indicator is a four-digit numeric field " +
+                    "which indicates the overall function of the message.", mtiLiteral);
+        this.mti = mtiLiteral;
+    }
+
+    /**
+     * Get the MTI of this message instance
+     *
+     * @return a four-digit numeric string, if has been set
+     */
+    public String getMTI() {
+        return mti;
+    }
+
+    /**
+     * Check if the MTI of this message instance has been set
+     *
+     * @return true if MTI has been set
+     */
+    public boolean hasMTI() {
+        return mti != null;
+    }
+
+    /**
+     * Clear the MTI of this message instance
+     */
+    public void clearMTI() {
+        this.mti = null;
+    }
+
+    /**
+     * Set the value of a field
+     * This method is for setting the value of the SingleField types
+     *
+     * @param fieldNumber the index of the field
+     * @param value the field value as a byte array
+     * @throws ISO8583Exception If the value is invalid
+     */
+    public void setValue(int fieldNumber, byte[] value) throws ISO8583Exception {
+        checkValue(values.getTable(), fieldNumber, value);
+        values.set(fieldNumber, value);
+    }
+
+    /**
+     * Set the value of a field
+     * This method is for setting the value of the SingleField types
+     *
+     * @param fieldNumber the index of the field
+     * @param value the field value as a string
+     * @throws ISO8583Exception If the value is invalid
+     */
+    public void setValue(int fieldNumber, String value) throws ISO8583Exception {
+        checkValue(values.getTable(), fieldNumber, value);
+        values.set(fieldNumber, toBytes(values.getTable(), fieldNumber, value));
+    }
+
+    /**
+     * Set the value of a field as decimal digits, without any String conversion (amounts, STAN, ...)
+     * The digits of a fixed length field are padded with zeros at the left
+     *
+     * @param fieldNumber the index of the field
+     * @param value the field value as a non-negative number
+     * @throws ISO8583Exception If the value is invalid
+     */
+    public void setValue(int fieldNumber, long value) throws ISO8583Exception {
+        FieldTable table = values.getTable();
+        checkValue(table, fieldNumber, value);
+        if (value < 0)
+            throw new ISO8583Exception("The content of the FIELD[%d] cannot be set to a negative number (%d).", fieldNumber, value);
+        LengthValue length = table.lengthValues[fieldNumber];
+        int digitCount = length != null && length.getCount() == 0 ? length.getMaximumValue() : 0;
+        values.set(fieldNumber, BCDCodec.longToDigits(value, digitCount, table.charsets[fieldNumber]));
+    }
+
+    /**
+     * Set the value of a subfield defined in a combination field
+     *
+     * @param fieldNumberSequence field and subfield numbers that are separated using a dot character.
+     *                            If the subfield is itself a combination field, this sequence continues
+     * @param value the field value as a byte array
+     * @throws ISO8583Exception If the value or sequence number are invalid
+     */
+    public void setDeepValue(String fieldNumberSequence, byte[] value) throws ISO8583Exception {
+        if (Validator.deepField(fieldNumberSequence)) {
+            int[] fieldNumbers = parseSequence(fieldNumberSequence);
+            FieldValues parent = findParentValues(fieldNumbers, fieldNumberSequence);
+            int fieldNumber = fieldNumbers[fieldNumbers.length - 1];
+            checkValue(parent.getTable(), fieldNumber, value);
+            parent.set(fieldNumber, value);
+            markParentsPresent(fieldNumbers);
+        }
+    }
+
+    /**
+     * Set the value of a subfield defined in a combination field
+     *
+     * @param fieldNumberSequence field and subfield numbers that are separated using a dot character.
+     *                            If the subfield is itself a combination field, this sequence continues
+     * @param value the field value as a string
+     * @throws ISO8583Exception If the value or sequence number are invalid
+     */
+    public void setDeepValue(String fieldNumberSequence, String value) throws ISO8583Exception {
+        if (Validator.deepField(fieldNumberSequence)) {
+            int[] fieldNumbers = parseSequence(fieldNumberSequence);
+            FieldValues parent = findParentValues(fieldNumbers, fieldNumberSequence);
+            int fieldNumber = fieldNumbers[fieldNumbers.length - 1];
+            checkValue(parent.getTable(), fieldNumber, value);
+            parent.set(fieldNumber, toBytes(parent.getTable(), fieldNumber, value));
+            markParentsPresent(fieldNumbers);
+        }
+    }
+
+    private void markParentsPresent(int[] fieldNumbers) {
+        FieldValues current = values;
+        for (int index = 0; index < fieldNumbers.length - 1; index++) {
+            current.markPresent(fieldNumbers[index]);
+            current = current.nested(fieldNumbers[index]);
+        }
+    }
+
+    /**
+     * Get the value of a field
+     *
+     * @param fieldNumber the index of the field
+     * @return the value of field as byte array, if has been set
+     */
+    public byte[] getValue(int fieldNumber) {
+        if (values.getTable().kindOf(fieldNumber) == FieldTable.SINGLE && values.isPresent(fieldNumber))
+            return values.get(fieldNumber);
+        else return null;
+    }
+
+    /**
+     * Get the value of a field
+     *
+     * @param fieldNumber the index of the field
+     * @return the value of field as string, if has been set
+     */
+    public String getValueAsString(int fieldNumber) {
+        return toString(values, fieldNumber);
+    }
+
+    /**
+     * Get the value of a field as a number, without any String conversion (amounts, STAN, ...)
+     *
+     * @param fieldNumber the index of the field
+     * @return the value of field as number
+     * @throws ISO8583Exception If the value has not been set or is not decimal digits
+     */
+    public long getValueAsLong(int fieldNumber) throws ISO8583Exception {
+        byte[] value = getValue(fieldNumber);
+        if (value == null)
+            throw new ISO8583Exception("The content of the FIELD[%d] has not been set.", fieldNumber);
+        try {
+            return BCDCodec.digitsToLong(value, values.getTable().charsets[fieldNumber]);
+        } catch (NumberFormatException exception) {
+            throw new ISO8583Exception("The content of the FIELD[%d] is not a number: %s", fieldNumber, exception.getMessage());
+        }
+    }
+
+    /**
+     * Get the value of a subfield defined in a combination field
+     *
+     * @param fieldNumberSequence field and subfield numbers that are separated using a dot character.
+     *                            If the subfield is itself a combination field, this sequence continues
+     * @return the value of field as byte array, if has been set
+     * @throws ISO8583Exception If the sequence number is invalid
+     */
+    public byte[] getDeepValue(String fieldNumberSequence) throws ISO8583Exception {
+        if (Validator.deepField(fieldNumberSequence)) {
+            int[] fieldNumbers = parseSequence(fieldNumberSequence);
+            FieldValues parent = findParentValues(fieldNumbers, fieldNumberSequence);
+            int fieldNumber = fieldNumbers[fieldNumbers.length - 1];
+            if (parent.getTable().kindOf(fieldNumber) == FieldTable.SINGLE && parent.isPresent(fieldNumber))
+                return parent.get(fieldNumber);
+        }
+        return null;
+    }
+
+    /**
+     * Get the value of a subfield defined in a combination field
+     *
+     * @param fieldNumberSequence field and subfield numbers that are separated using a dot character.
+     *                            If the subfield is itself a combination field, this sequence continues
+     * @return the value of field as string, if has been set
+     * @throws ISO8583Exception If the sequence number is invalid
+     */
+    public String getDeepValueAsString(String fieldNumberSequence) throws ISO8583Exception {
+        if (Validator.deepField(fieldNumberSequence)) {
+            int[] fieldNumbers = parseSequence(fieldNumberSequence);
+            FieldValues parent = findParentValues(fieldNumbers, fieldNumberSequence);
+            return toString(parent, fieldNumbers[fieldNumbers.length - 1]);
+        }
+        return null;
+    }
+
+    /**
+     * Get the value of a field from a ValueFormatter, if defined
+     *
+     * @param fieldNumber the index of the field
+     * @return the value formatted of field, if ValueFormatter has been defined
+     */
+    public String getValueFormatted(int fieldNumber) {
+        return toFormatted(values, fieldNumber);
+    }
+
+    /**
+     * Check if the value of a field is still a view into an unpacked buffer and has not been decoded yet
+     *
+     * @param fieldNumber the index of the field
+     * @return true if the value has not been decoded yet
+     */
+    public boolean isView(int fieldNumber) {
+        return values.getTable().isDefined(fieldNumber) && values.isView(fieldNumber);
+    }
+
+    /**
+     * Check if the value of a field has been set
+     *
+     * @param fieldNumber the index of the field
+     * @return true if the field will be packed
+     */
+    public boolean hasValue(int fieldNumber) {
+        return values.getTable().kindOf(fieldNumber) != FieldTable.BITMAP && values.isPresent(fieldNumber);
+    }
+
+    /**
+     * Clear the value of a field, the field will not be packed and its bit will not be set in bitmap
+     *
+     * @param fieldNumber the index of the field
+     */
+    public void clearValue(int fieldNumber) {
+        if (values.getTable().isDefined(fieldNumber))
+            values.remove(fieldNumber);
+    }
+
+    /**
+     * Clear the MTI (set to the default of the template) and the value of all fields
+     */
+    public void clear() {
+        values.clear();
+        this.mti = template.getDefaultMTI();
+    }
+
+    /**
+     * Get the index of fields that have a value (including the bitmaps after pack or unpack)
+     *
+     * @return an array of field indexes, sorted
+     */
+    public int[] getFieldNumbers() {
+        return values.presentNumbers();
+    }
+
+    private int packIntoBuffer() throws ISO8583Exception {
+        if (packBuffer == null) packBuffer = ByteBuffer.allocate(INITIAL_PACK_BUFFER_SIZE);
+        while (true) {
+            packBuffer.clear();
+            try {
+                return template.packInto(this, packBuffer);
+            } catch (BufferOverflowException exception) {
+                if (packBuffer.capacity() >= MAXIMUM_PACK_BUFFER_SIZE)
+                    throw new ISO8583Exception("PACK ERROR: The message is larger than %s bytes.", MAXIMUM_PACK_BUFFER_SIZE);
+                packBuffer = ByteBuffer.allocate(packBuffer.capacity() * 2);
+            } catch (Exception exception) {
+                throw new ISO8583Exception("PACK ERROR: %s", exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Pack this message instance
+     *
+     * @return the pack process result as a byte array object
+     * @throws ISO8583Exception If throws from the pack process
+     */
+    public byte[] pack() throws ISO8583Exception {
+        int length = packIntoBuffer();
+        return Arrays.copyOf(packBuffer.array(), length);
+    }
+
+    /**
+     * Pack this message instance directly into a buffer, starting from its current position.
+     *
+     * @param target the buffer to write into (heap or direct)
+     * @return the number of written bytes
+     * @throws ISO8583Exception If throws from the pack process, or the buffer does not have enough space
+     */
+    public int pack(ByteBuffer target) throws ISO8583Exception {
+        return template.pack(this, target);
+    }
+
+    /**
+     * Pack this message instance into an output stream.
+     *
+     * @param output the stream to write into
+     * @return the number of written bytes
+     * @throws ISO8583Exception If throws from the pack process
+     * @throws IOException If throws from the output stream
+     */
+    public int packTo(OutputStream output) throws ISO8583Exception, IOException {
+        int length = packIntoBuffer();
+        output.write(packBuffer.array(), 0, length);
+        return length;
+    }
+
+    /**
+     * Convert the message instance to String in log format.
+     *
+     * @return a string representation of the message instance in log format.
+     */
+    @Override
+    public String toString() {
+        StringBuilder fieldsString = new StringBuilder();
+        FieldTable table = values.getTable();
+        for (int fieldNumber : values.presentNumbers()) {
+            if (table.kinds[fieldNumber] == FieldTable.BITMAP) continue;
+            String formatted = toFormatted(values, fieldNumber);
+            fieldsString.append(String.format("%n  FIELD[%d]: %s", fieldNumber,
+                    formatted != null ? formatted : toString(values, fieldNumber)));
+        }
+        return String.format("@MessageInstance[description: %s, mti: %s, fields: %s]",
+                template.getDescription(), mti, fieldsString);
+    }
+}
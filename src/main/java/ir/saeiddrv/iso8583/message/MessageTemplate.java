@@ -0,0 +1,772 @@
+package ir.saeiddrv.iso8583.message;
+
+import ir.saeiddrv.iso8583.message.fields.Bitmap;
+import ir.saeiddrv.iso8583.message.fields.ContentPad;
+import ir.saeiddrv.iso8583.message.fields.LengthValue;
+import ir.saeiddrv.iso8583.message.interpreters.BitmapBinaryInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.ContentInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.LengthInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.MTIInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.MessageLengthInterpreter;
+import ir.saeiddrv.iso8583.message.unpacks.UnpackBitmapResult;
+import ir.saeiddrv.iso8583.message.unpacks.UnpackContentResult;
+import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
+import ir.saeiddrv.iso8583.message.unpacks.UnpackMTIResult;
+import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * This class provide an immutable, compiled ISO-8583 message definition.
+ * A template is compiled once from an {@link ISO8583} builder and can be shared by any number of threads,
+ * the values of each transaction are held by a lightweight {@link MessageInstance}.
+ *
+ * @author Saeid Darvish
+ */
+public final class MessageTemplate {
+
+    private final String description;
+    private final Charset charset;
+    private final int lengthCount;
+    private final MessageLengthInterpreter lengthInterpreter;
+    private final Header header;
+    private final MTIInterpreter mtiInterpreter;
+    private final String mtiLiteral;
+    private final FieldTable fields;
+    private final SpecializedCodec codec;
+
+    private MessageTemplate(String description,
+                            Charset charset,
+                            int lengthCount,
+                            MessageLengthInterpreter lengthInterpreter,
+                            Header header,
+                            MTIInterpreter mtiInterpreter,
+                            String mtiLiteral,
+                            FieldTable fields,
+                            SpecializedCodec codec) {
+        this.description = description;
+        this.charset = charset;
+        this.lengthCount = lengthCount;
+        this.lengthInterpreter = lengthInterpreter;
+        this.header = header;
+        this.mtiInterpreter = mtiInterpreter;
+        this.mtiLiteral = mtiLiteral;
+        this.fields = fields;
+        this.codec = codec;
+    }
+
+    static MessageTemplate compile(Message message) throws ISO8583Exception {
+        MTI mti = message.getMti();
+        return new MessageTemplate(message.getDescription(),
+                message.getCharset(),
+                message.getLengthCount(),
+                message.getLengthInterpreter(),
+                message.hasHeader() ? message.getHeader().freeze() : null,
+                mti != null ? mti.getInterpreter() : null,
+                mti != null && mti.hasValue() ? mti.getLiteral() : null,
+                FieldTable.compile(message.getFields(), message.getCharset()),
+                null);
+    }
+
+    /**
+     * Create a specialized copy of this template: the pack and the unpack of its fields are generated
+     * as a class at runtime, with the interpreters as constants of their exact types, so the JIT can inline them.
+     * The copy shares the fields of this template, so the instances of either one can be used by the other.
+     * The lazy unpack is not specialized. A runtime that cannot generate the class (see {@link #isSpecializationSupported()})
+     * keeps this template, so {@link #isSpecialized()} tells which one is used.
+     *
+     * @return a specialized template, or this template if it is specialized already or the runtime cannot specialize it
+     * @throws ISO8583Exception If the generated class cannot be compiled or defined
+     */
+    public MessageTemplate specialize() throws ISO8583Exception {
+        if (codec != null || !isSpecializationSupported()) return this;
+        return new MessageTemplate(description, charset, lengthCount, lengthInterpreter,
+                header, mtiInterpreter, mtiLiteral, fields, TemplateSpecializer.specialize(this));
+    }
+
+    /**
+     * Check if the templates can be specialized by this runtime, the generated classes are compiled by
+     * the system Java compiler, so a runtime without the jdk.compiler module (a JRE) cannot specialize them
+     *
+     * @return true if {@link #specialize()} can generate the classes
+     */
+    public static boolean isSpecializationSupported() {
+        return TemplateSpecializer.isSupported();
+    }
+
+    /**
+     * Check if the pack and the unpack of the fields have been specialized
+     *
+     * @return true if this template has been created by {@link #specialize()}
+     */
+    public boolean isSpecialized() {
+        return codec != null;
+    }
+
+    FieldTable getFieldTable() {
+        return fields;
+    }
+
+    /**
+     * Get the MTI of the new instances of this template
+     *
+     * @return the default MTI, or null if the MTI has no value
+     */
+    public String getDefaultMTI() {
+        return mtiLiteral;
+    }
+
+    /**
+     * Check if the messages of another template have the same length, header and MTI layout,
+     * so the MTI of their messages can be read by {@link #unpackMTI(ByteBuffer, int, int)} of either one
+     *
+     * @param other the other template
+     * @return true if the charsets, the length counts and the types of the length, header and MTI interpreters are equal
+     */
+    public boolean hasSameMTILayout(MessageTemplate other) {
+        Objects.requireNonNull(other, "The 'MessageTemplate' cannot be set to null.");
+        return Objects.equals(charset, other.charset)
+                && lengthCount == other.lengthCount
+                && sameType(lengthInterpreter, other.lengthInterpreter)
+                && sameType(header != null ? header.getInterpreter() : null,
+                            other.header != null ? other.header.getInterpreter() : null)
+                && sameType(mtiInterpreter, other.mtiInterpreter);
+    }
+
+    private static boolean sameType(Object interpreter, Object otherInterpreter) {
+        if (interpreter == null || otherInterpreter == null) return interpreter == otherInterpreter;
+        return interpreter.getClass() == otherInterpreter.getClass();
+    }
+
+    /**
+     * Get the description of this message definition
+     *
+     * @return message description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Get the charset of this message definition
+     *
+     * @return message charset
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Check if an interpreter for length of the messages has been defined
+     *
+     * @return true if an interpreter for length of the messages has been defined
+     */
+    public boolean hasLength() {
+        return lengthInterpreter != null;
+    }
+
+    /**
+     * Get number of length digits of the messages
+     *
+     * @return the number of length digits
+     */
+    public int getLengthCount() {
+        return lengthCount;
+    }
+
+    /**
+     * Get the interpreter for length of the messages, if defined
+     *
+     * @return the message length interpreter
+     */
+    public MessageLengthInterpreter getMessageLengthInterpreter() {
+        return lengthInterpreter;
+    }
+
+    /**
+     * Check if a header for the messages has been defined
+     *
+     * @return true if a header has been defined
+     */
+    public boolean hasHeader() {
+        return header != null;
+    }
+
+    /**
+     * Get the header of the messages, if defined
+     *
+     * @return the header
+     */
+    public Header getHeader() {
+        return header;
+    }
+
+    /**
+     * Check if a MTI for the messages has been defined
+     *
+     * @return true if a MTI has been defined
+     */
+    public boolean hasMTI() {
+        return mtiInterpreter != null;
+    }
+
+    /**
+     * Check if a field has been defined
+     *
+     * @param fieldNumber the index of the field
+     * @return true if field has been defined
+     */
+    public boolean hasField(int fieldNumber) {
+        return fields.isDefined(fieldNumber);
+    }
+
+    /**
+     * Get the index of fields defined in this template
+     *
+     * @return an array of field indexes, sorted
+     */
+    public int[] getFieldNumbers() {
+        return fields.numbers.clone();
+    }
+
+    /**
+     * Get the description of a field defined in this template
+     *
+     * @param fieldNumber the index of the field
+     * @return the description of the field, if defined
+     */
+    public String getFieldDescription(int fieldNumber) {
+        return hasField(fieldNumber) ? fields.descriptions[fieldNumber] : null;
+    }
+
+    /**
+     * Create a new empty instance of this message definition, with the default MTI (if defined)
+     *
+     * @return a new message instance
+     */
+    public MessageInstance newInstance() {
+        return new MessageInstance(this);
+    }
+
+    /**
+     * Pack a message instance directly into a buffer, starting from its current position.
+     * On success the position of the buffer is advanced by the number of written bytes,
+     * otherwise the position is restored.
+     *
+     * @param instance the message instance created by this template, or by its original or specialized copy
+     * @param target the buffer to write into (heap or direct)
+     * @return the number of written bytes
+     * @throws ISO8583Exception If throws from the pack process, or the buffer does not have enough space
+     */
+    public int pack(MessageInstance instance, ByteBuffer target) throws ISO8583Exception {
+        int start = target.position();
+        try {
+            return packInto(instance, target);
+        } catch (BufferOverflowException exception) {
+            target.position(start);
+            throw new ISO8583Exception("PACK ERROR: The target buffer does not have enough space (remaining: %s bytes).",
+                    target.remaining());
+        } catch (Exception exception) {
+            target.position(start);
+            throw new ISO8583Exception("PACK ERROR: %s", exception.getMessage());
+        }
+    }
+
+    int packInto(MessageInstance instance, ByteBuffer target) throws ISO8583Exception {
+        if (instance.getTemplate().fields != fields)
+            throw new ISO8583Exception("The message instance has not been created by this template.");
+
+        int start = target.position();
+
+        // RESERVE THE LENGTH OF THE MESSAGE (IF EXIST)
+        int lengthSize = hasLength() ? lengthInterpreter.getPackLength(lengthCount, charset) : 0;
+        if (target.remaining() < lengthSize) throw new BufferOverflowException();
+        target.position(start + lengthSize);
+
+        // PACK THE HEADER (IF EXIST)
+        if (hasHeader())
+            header.pack(charset, target);
+
+        // PACK THE MTI (IF EXIST)
+        if (hasMTI() && instance.hasMTI())
+            mtiInterpreter.pack(instance.getMTI(), charset, target);
+
+        // PACK THE ALL PRESENT FIELDS
+        if (codec != null)
+            codec.pack(instance.getFieldValues(), target);
+        else
+            packFields(fields, instance.getFieldValues(), target, false);
+
+        // BACK-PATCH THE LENGTH OF THE MESSAGE INTO THE RESERVED BYTES
+        int end = target.position();
+        if (hasLength()) {
+            target.position(start);
+            lengthInterpreter.pack(lengthCount, end - start - lengthSize, charset, target);
+            if (target.position() != start + lengthSize)
+                throw new ISO8583Exception("The packed message length (%s bytes) does not match the reserved length (%s bytes).",
+                        target.position() - start, lengthSize);
+            target.position(end);
+        }
+
+        // FINISH
+        return end - start;
+    }
+
+    /**
+     * Unpack a message into a new instance
+     *
+     * @param packMessage the packed message as a byte array object
+     * @return the unpack process result as a new message instance
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public MessageInstance unpack(byte[] packMessage) throws ISO8583Exception {
+        return unpack(ByteBuffer.wrap(packMessage), 0, packMessage.length, false);
+    }
+
+    /**
+     * Unpack a message into a new instance
+     *
+     * @param packMessage the packed message as a byte array object
+     * @param lazy if true, only the position of each field is recorded and its value is decoded on the first access,
+     *             so the array must not be modified while the instance is in use.
+     *             An invalid value is found only on its first access, by an {@link IllegalStateException} of the getter
+     * @return the unpack process result as a new message instance
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public MessageInstance unpack(byte[] packMessage, boolean lazy) throws ISO8583Exception {
+        return unpack(ByteBuffer.wrap(packMessage), 0, packMessage.length, lazy);
+    }
+
+    /**
+     * Unpack a message from a buffer into a new instance
+     *
+     * @param packMessage the packed message as a buffer (heap or direct)
+     * @param offset the index of the first byte of the message in the buffer
+     * @param limit the index after the last byte of the message in the buffer
+     * @return the unpack process result as a new message instance
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public MessageInstance unpack(ByteBuffer packMessage, int offset, int limit) throws ISO8583Exception {
+        return unpack(packMessage, offset, limit, false);
+    }
+
+    /**
+     * Unpack a message from a buffer into a new instance
+     *
+     * @param packMessage the packed message as a buffer (heap or direct)
+     * @param offset the index of the first byte of the message in the buffer
+     * @param limit the index after the last byte of the message in the buffer
+     * @param lazy if true, only the position of each field is recorded and its value is decoded on the first access,
+     *             so the buffer must not be modified while the instance is in use.
+     *             An invalid value is found only on its first access, by an {@link IllegalStateException} of the getter
+     * @return the unpack process result as a new message instance
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public MessageInstance unpack(ByteBuffer packMessage, int offset, int limit, boolean lazy) throws ISO8583Exception {
+        MessageInstance instance = newInstance();
+        unpack(instance, packMessage, offset, limit, lazy);
+        return instance;
+    }
+
+    /**
+     * Unpack a message from a buffer into an existing instance, the previous values of the instance are cleared
+     *
+     * @param instance the message instance created by this template, or by its original or specialized copy
+     * @param packMessage the packed message as a buffer (heap or direct)
+     * @param offset the index of the first byte of the message in the buffer
+     * @param limit the index after the last byte of the message in the buffer
+     * @return the next offset after the message in the buffer
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public int unpack(MessageInstance instance, ByteBuffer packMessage, int offset, int limit) throws ISO8583Exception {
+        return unpack(instance, packMessage, offset, limit, false);
+    }
+
+    /**
+     * Unpack a message from a buffer into an existing instance, the previous values of the instance are cleared.
+     * In lazy mode the fields are only scanned to find their positions (the length prefixes are still decoded),
+     * and the value of each field is decoded on the first access, so the untouched fields cost nothing more.
+     *
+     * @param instance the message instance created by this template, or by its original or specialized copy
+     * @param packMessage the packed message as a buffer (heap or direct)
+     * @param offset the index of the first byte of the message in the buffer
+     * @param limit the index after the last byte of the message in the buffer
+     * @param lazy if true, the values are decoded on demand, so the buffer must not be modified while the instance is in use
+     *             and an invalid value is found only on its first access, by an {@link IllegalStateException} of the getter
+     * @return the next offset after the message in the buffer
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public int unpack(MessageInstance instance,
+                      ByteBuffer packMessage,
+                      int offset,
+                      int limit,
+                      boolean lazy) throws ISO8583Exception {
+        try {
+            if (instance.getTemplate().fields != fields)
+                throw new ISO8583Exception("The message instance has not been created by this template.");
+            if (offset < 0 || limit > packMessage.limit() || offset > limit)
+                throw new ISO8583Exception("Invalid bounds [offset: %s, limit: %s] for a buffer with limit %s.",
+                        offset, limit, packMessage.limit());
+
+            instance.clear();
+
+            // UNPACK THE LENGTH OF THE MESSAGE (IF EXIST)
+            if (hasLength()) {
+                UnpackLengthResult unpackMessageLength =
+                        lengthInterpreter.unpack(packMessage, offset, limit, lengthCount, charset);
+                offset = unpackMessageLength.getNextOffset();
+            }
+
+            // UNPACK THE HEADER (IF EXIST)
+            if (hasHeader()) {
+                UnpackContentResult unpackHeader = header.unpack(packMessage, offset, limit, charset);
+                offset = unpackHeader.getNextOffset();
+            }
+
+            // UNPACK THE MTI (IF EXIST)
+            if (hasMTI()) {
+                UnpackMTIResult unpackMTI = mtiInterpreter.unpack(packMessage, offset, limit, charset);
+                instance.setMTI(unpackMTI.getValue());
+                offset = unpackMTI.getNextOffset();
+            }
+
+            // UNPACK THE ALL AVAILABLE FIELDS
+            if (codec != null && !lazy)
+                return codec.unpack(instance.getFieldValues(), packMessage, offset, limit);
+            return unpackFields(fields, instance.getFieldValues(), packMessage, offset, limit, false, lazy);
+
+        } catch (Exception exception) {
+            throw new ISO8583Exception("UNPACK ERROR: %s", exception.getMessage());
+        }
+    }
+
+    /**
+     * Unpack only the MTI of a message, the length and the header are skipped and the fields are not read,
+     * so the definition of the message can be chosen by its MTI
+     *
+     * @param packMessage the packed message as a buffer (heap or direct)
+     * @param offset the index of the first byte of the message in the buffer
+     * @param limit the index after the last byte of the message in the buffer
+     * @return the MTI, or null if no MTI has been defined
+     * @throws ISO8583Exception If throws from the unpack process
+     */
+    public String unpackMTI(ByteBuffer packMessage, int offset, int limit) throws ISO8583Exception {
+        if (!hasMTI()) return null;
+        try {
+            if (offset < 0 || limit > packMessage.limit() || offset > limit)
+                throw new ISO8583Exception("Invalid bounds [offset: %s, limit: %s] for a buffer with limit %s.",
+                        offset, limit, packMessage.limit());
+
+            // SKIP THE LENGTH AND THE HEADER OF THE MESSAGE (IF EXIST)
+            if (hasLength())
+                offset = lengthInterpreter.unpack(packMessage, offset, limit, lengthCount, charset).getNextOffset();
+            if (hasHeader())
+                offset = header.unpack(packMessage, offset, limit, charset).getNextOffset();
+
+            return mtiInterpreter.unpack(packMessage, offset, limit, charset).getValue();
+
+        } catch (Exception exception) {
+            throw new ISO8583Exception("UNPACK ERROR: %s", exception.getMessage());
+        }
+    }
+
+    static void updateBitmaps(FieldTable table, FieldValues values, boolean all) {
+        // From the last bitmap to the first one, each bitmap is present if any field in its range is present
+        int primary = table.primaryBitmapNumber();
+        for (int index = table.bitmapNumbers.length - 1; index >= 0; index--) {
+            int number = table.bitmapNumbers[index];
+            Range range = table.bitmapRanges[number];
+            if (all || number == primary || values.isAnyPresent(range.getStart(), range.getEnd()))
+                values.markPresent(number);
+            else
+                values.unmarkPresent(number);
+        }
+    }
+
+    private static void packFields(FieldTable table,
+                                   FieldValues values,
+                                   ByteBuffer target,
+                                   boolean all) throws ISO8583Exception {
+        updateBitmaps(table, values, all);
+        for (int number : table.numbers) {
+            if (!all && !values.isPresent(number)) continue;
+            switch (table.kinds[number]) {
+                case FieldTable.BITMAP:
+                    packBitmap(table, values, number, target, all);
+                    break;
+                case FieldTable.SINGLE:
+                    packSingle(table, number, values.get(number), target);
+                    break;
+                case FieldTable.COMBINE:
+                    packCombine(table, number, values.nested(number), target);
+                    break;
+            }
+        }
+    }
+
+    static void packBitmap(FieldTable table,
+                           FieldValues values,
+                           int number,
+                           ByteBuffer target,
+                           boolean all) throws ISO8583Exception {
+        try {
+            Range range = table.bitmapRanges[number];
+
+            // A BINARY BITMAP: THE 64-BIT WORDS OF THE PRESENT FIELDS, WRITTEN DIRECTLY INTO THE TARGET
+            if (table.bitmapInterpreters[number].getClass() == BitmapBinaryInterpreter.class) {
+                int length = table.bitmapLengths[number];
+                if (target.remaining() < length) throw new BufferOverflowException();
+                for (int wordIndex = 0, rest = length; rest > 0; wordIndex++, rest -= 8)
+                    TypeUtils.putLongWord(target, bitmapWord(table, values, range, wordIndex, length, all), Math.min(rest, 8));
+                return;
+            }
+
+            int[] fieldNumbers = new int[table.numbers.length];
+            int count = 0;
+            for (int fieldNumber : table.numbers)
+                if (fieldNumber >= range.getStart() && fieldNumber <= range.getEnd()
+                        && (all || values.isPresent(fieldNumber)))
+                    fieldNumbers[count++] = fieldNumber;
+
+            Bitmap bitmap = Bitmap.create(Arrays.copyOf(fieldNumbers, count),
+                    table.bitmapTypes[number], range, table.bitmapLengths[number]);
+            table.bitmapInterpreters[number].pack(bitmap, table.charsets[number], target);
+
+        } catch (BufferOverflowException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
+    // A word of a bitmap, the first field of the word is the most significant bit (as Bitmap.getWord)
+    private static long bitmapWord(FieldTable table, FieldValues values, Range range, int wordIndex, int length, boolean all) {
+        int start = range.getStart() + (wordIndex << 6);
+        int end = Math.min(Math.min(start + 64, range.getStart() + length * 8), range.getEnd() + 1);
+        long word = 0;
+        for (int fieldNumber : table.numbers) {
+            if (fieldNumber >= end) break;
+            if (fieldNumber >= start && (all || values.isPresent(fieldNumber)))
+                word |= Long.MIN_VALUE >>> (fieldNumber - start);
+        }
+        return word;
+    }
+
+    private static void packSingle(FieldTable table,
+                                   int number,
+                                   byte[] value,
+                                   ByteBuffer target) throws ISO8583Exception {
+        try {
+            Charset charset = table.charsets[number];
+            LengthValue lengthValue = table.lengthValues[number];
+            ContentPad pad = table.pads[number];
+
+            // PREPARE CONTENT VALUE
+            if (lengthValue.isFixed())
+                value = pad.doPad(value, lengthValue.getMaximumValue());
+
+            // WRITE THE LENGTH AND THE CONTENT DIRECTLY INTO THE TARGET
+            LengthInterpreter lengthInterpreter = table.lengthInterpreters[number];
+            if (lengthInterpreter != null)
+                lengthInterpreter.pack(number, lengthValue, value.length, charset, target);
+
+            ContentInterpreter contentInterpreter = table.contentInterpreters[number];
+            if (contentInterpreter != null)
+                contentInterpreter.pack(number, lengthValue, value, pad, charset, target);
+            else
+                target.put(value);
+
+        } catch (BufferOverflowException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
+    static void packCombine(FieldTable table,
+                            int number,
+                            FieldValues values,
+                            ByteBuffer target) throws ISO8583Exception {
+        try {
+            Charset charset = table.charsets[number];
+            LengthValue lengthValue = table.lengthValues[number];
+            LengthInterpreter lengthInterpreter = table.lengthInterpreters[number];
+
+            // RESERVE THE LENGTH BYTES
+            int lengthPosition = target.position();
+            int lengthSize = lengthInterpreter != null ? lengthInterpreter.getPackLength(number, lengthValue, charset) : 0;
+            if (target.remaining() < lengthSize) throw new BufferOverflowException();
+            target.position(lengthPosition + lengthSize);
+
+            // PACK ALL SUBFIELDS DIRECTLY INTO THE TARGET
+            packFields(table.combines[number], values, target, true);
+
+            // BACK-PATCH THE LENGTH INTO THE RESERVED BYTES
+            if (lengthInterpreter != null) {
+                int endPosition = target.position();
+                target.position(lengthPosition);
+                lengthInterpreter.pack(number, lengthValue, endPosition - lengthPosition - lengthSize, charset, target);
+                if (target.position() != lengthPosition + lengthSize)
+                    throw new ISO8583Exception("The packed length (%s bytes) does not match the reserved length (%s bytes).",
+                            target.position() - lengthPosition, lengthSize);
+                target.position(endPosition);
+            }
+
+        } catch (BufferOverflowException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
+    private static int unpackFields(FieldTable table,
+                                    FieldValues values,
+                                    ByteBuffer message,
+                                    int offset,
+                                    int limit,
+                                    boolean all,
+                                    boolean lazy) throws ISO8583Exception {
+        // The first bitmap is always present, the others are present if their bit has been set
+        int primary = table.primaryBitmapNumber();
+        if (primary >= 0) values.markPresent(primary);
+
+        for (int number : table.numbers) {
+            if (!all && !values.isPresent(number)) continue;
+            switch (table.kinds[number]) {
+                case FieldTable.BITMAP:
+                    offset = unpackBitmap(table, values, number, message, offset, limit, all);
+                    break;
+                case FieldTable.SINGLE:
+                    offset = unpackSingle(table, values, number, message, offset, limit, lazy);
+                    break;
+                case FieldTable.COMBINE:
+                    offset = unpackCombine(table, values, number, message, offset, limit, lazy);
+                    break;
+            }
+        }
+        return offset;
+    }
+
+    static int unpackBitmap(FieldTable table,
+                            FieldValues values,
+                            int number,
+                            ByteBuffer message,
+                            int offset,
+                            int limit,
+                            boolean all) throws ISO8583Exception {
+        UnpackBitmapResult unpackBitmap;
+        try {
+            unpackBitmap = table.bitmapInterpreters[number].unpack(message, offset, limit,
+                    table.bitmapLengths[number], table.bitmapRanges[number], table.charsets[number]);
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+
+        values.markPresent(number);
+        if (!all) {
+            for (int fieldNumber : unpackBitmap.getValue()) {
+                if (!table.isDefined(fieldNumber))
+                    throw new ISO8583Exception("The FIELD[%d] is not defined.", fieldNumber);
+                values.markPresent(fieldNumber);
+            }
+        }
+        return unpackBitmap.getNextOffset();
+    }
+
+    private static int unpackSingle(FieldTable table,
+                                    FieldValues values,
+                                    int number,
+                                    ByteBuffer message,
+                                    int offset,
+                                    int limit,
+                                    boolean lazy) throws ISO8583Exception {
+        try {
+            Charset charset = table.charsets[number];
+            LengthValue lengthValue = table.lengthValues[number];
+            LengthInterpreter lengthInterpreter = table.lengthInterpreters[number];
+
+            // UNPACK LENGTH
+            int messageLength = 0;
+            if (lengthValue.isFixed()) {
+                messageLength = lengthValue.getMaximumValue();
+            } else if (lengthInterpreter != null) {
+                UnpackLengthResult unpackLength = lengthInterpreter.unpack(message, offset, limit, number, lengthValue, charset);
+                messageLength = unpackLength.getValue();
+                offset = unpackLength.getNextOffset();
+            }
+
+            // UNPACK CONTENT (OR ONLY RECORD ITS POSITION)
+            ContentInterpreter contentInterpreter = table.contentInterpreters[number];
+            if (lazy) {
+                int endOffset = offset + (contentInterpreter != null ? contentInterpreter.getPackLength(messageLength) : messageLength);
+                if (limit < endOffset)
+                    throw new ISO8583Exception("UNPACKING ERROR, Content (%s): The received message length is less than the required amount. " +
+                            "[messageLength: %s, startIndex: %s, endIndex: %s]",
+                            contentInterpreter != null ? contentInterpreter.getName() : "RAW", limit, offset, endOffset);
+                values.setView(number, message, offset, messageLength);
+                return endOffset;
+            } else if (contentInterpreter != null) {
+                UnpackContentResult unpackContent = contentInterpreter.unpack(message, offset, limit,
+                        number, messageLength, table.pads[number], charset);
+                values.set(number, unpackContent.getValue());
+                return unpackContent.getNextOffset();
+            } else {
+                int endOffset = offset + messageLength;
+                if (limit < endOffset)
+                    throw new ISO8583Exception("UNPACKING ERROR, Content (RAW): The received message length is less than the required amount. " +
+                            "[messageLength: %s, startIndex: %s, endIndex: %s]", limit, offset, endOffset);
+                byte[] unpack = new byte[messageLength];
+                message.get(offset, unpack);
+                values.set(number, TypeUtils.translateBytes(unpack, charset));
+                return endOffset;
+            }
+
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
+    static int unpackCombine(FieldTable table,
+                             FieldValues values,
+                             int number,
+                             ByteBuffer message,
+                             int offset,
+                             int limit,
+                             boolean lazy) throws ISO8583Exception {
+        try {
+            // UNPACK LENGTH
+            LengthInterpreter lengthInterpreter = table.lengthInterpreters[number];
+            if (lengthInterpreter != null)
+                offset = lengthInterpreter.unpack(message, offset, limit, number,
+                        table.lengthValues[number], table.charsets[number]).getNextOffset();
+
+            // UNPACK INNER FIELDS
+            FieldValues subValues = values.nested(number);
+            offset = unpackFields(table.combines[number], subValues, message, offset, limit, true, lazy);
+            values.markPresent(number);
+            return offset;
+
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
+    /**
+     * Convert the template to String in log format.
+     *
+     * @return a string representation of the template in log format.
+     */
+    @Override
+    public String toString() {
+        return String.format("@MessageTemplate[description: %s, charset: %s, lengthCount: %s, header: %s, mti: %s, fields: %s]",
+                description,
+                charset.displayName(),
+                lengthCount,
+                header,
+                mtiLiteral,
+                Arrays.toString(fields.numbers));
+    }
+}
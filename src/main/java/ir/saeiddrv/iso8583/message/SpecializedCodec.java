@@ -0,0 +1,16 @@
+package ir.saeiddrv.iso8583.message;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The fields of a {@link MessageTemplate}, packed and unpacked by a class generated for its definition
+ * at runtime (see {@link TemplateSpecializer}), instead of the loop over its {@link FieldTable}.
+ *
+ * @author Saeid Darvish
+ */
+interface SpecializedCodec {
+
+    void pack(FieldValues values, ByteBuffer target) throws ISO8583Exception;
+
+    int unpack(FieldValues values, ByteBuffer message, int offset, int limit) throws ISO8583Exception;
+}
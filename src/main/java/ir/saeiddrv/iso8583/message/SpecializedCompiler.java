@@ -0,0 +1,201 @@
+package ir.saeiddrv.iso8583.message;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compiles a generated source in memory by the system Java compiler. The class path of the compiler is not
+ * the file system: the class files of the used classes (and of the classes in their signatures) are read from their
+ * modules or class loaders, so the library and the interpreters are found in nested (fat) jars, on the module path,
+ * or in any class loader that provides its class files as resources.
+ * This class is linked only if the runtime has the java.compiler module.
+ *
+ * @author Saeid Darvish
+ */
+final class SpecializedCompiler {
+
+    private SpecializedCompiler() {}
+
+    static boolean isAvailable() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    /**
+     * Compile the source of a class
+     *
+     * @param className the binary name of the class
+     * @param source the source of the class
+     * @param classes the classes that the source uses (the platform classes are found by the compiler)
+     * @return the class file
+     * @throws ISO8583Exception If there is no system Java compiler, or the source cannot be compiled
+     */
+    static byte[] compile(String className, String source, Collection<Class<?>> classes) throws ISO8583Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+            throw new ISO8583Exception("There is no system Java compiler (the runtime has no jdk.compiler module).");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager standardManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            JavaFileManager fileManager = new LoaderFileManager(standardManager, classFiles(classes), output);
+            JavaFileObject sourceFile = new SimpleJavaFileObject(
+                    URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                    JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+            List<String> options = List.of("-proc:none", "-g:source,lines");
+            if (!compiler.getTask(null, fileManager, diagnostics, options, null, List.of(sourceFile)).call())
+                throw new ISO8583Exception("Unable to compile the specialized template: %s", diagnostics.getDiagnostics());
+        } catch (ISO8583Exception exception) {
+            throw exception;
+        } catch (Exception exception) {
+            ISO8583Exception compileException = new ISO8583Exception("Unable to compile the specialized template: %s", exception);
+            compileException.initCause(exception);
+            throw compileException;
+        }
+        return output.toByteArray();
+    }
+
+    // The class files of the used classes and the classes of their signatures, by package (the platform classes excluded)
+    private static Map<String, List<JavaFileObject>> classFiles(Collection<Class<?>> used) {
+        Map<String, List<JavaFileObject>> packages = new HashMap<>();
+        Set<Class<?>> visited = new HashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>(used);
+        while (!pending.isEmpty()) {
+            Class<?> type = pending.pop();
+            while (type.isArray()) type = type.getComponentType();
+            ClassLoader loader = type.getClassLoader();
+            if (type.isPrimitive() || type.isHidden() || loader == null || loader == ClassLoader.getPlatformClassLoader()
+                    || !visited.add(type)) continue;
+            packages.computeIfAbsent(type.getPackageName(), name -> new ArrayList<>()).add(new LoaderClassFile(type));
+
+            try {
+                if (type.getEnclosingClass() != null) pending.push(type.getEnclosingClass());
+                Collections.addAll(pending, type.getDeclaredClasses());
+                addTypes(pending, type.getGenericSuperclass());
+                addTypes(pending, type.getGenericInterfaces());
+                for (Field field : type.getDeclaredFields()) addTypes(pending, field.getGenericType());
+                for (Method method : type.getDeclaredMethods()) {
+                    addTypes(pending, method.getGenericReturnType());
+                    addTypes(pending, method.getGenericParameterTypes());
+                    addTypes(pending, method.getGenericExceptionTypes());
+                }
+                for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+                    addTypes(pending, constructor.getGenericParameterTypes());
+                    addTypes(pending, constructor.getGenericExceptionTypes());
+                }
+            } catch (LinkageError | TypeNotPresentException | MalformedParameterizedTypeException ignored) {
+                // An optional dependency of the class is missing, the members that use it are not used by the source
+            }
+        }
+        return packages;
+    }
+
+    private static void addTypes(Deque<Class<?>> pending, Type... types) {
+        for (Type type : types) {
+            if (type instanceof Class) {
+                pending.push((Class<?>) type);
+            } else if (type instanceof ParameterizedType) {
+                ParameterizedType parameterized = (ParameterizedType) type;
+                addTypes(pending, parameterized.getRawType());
+                addTypes(pending, parameterized.getActualTypeArguments());
+            } else if (type instanceof GenericArrayType) {
+                addTypes(pending, ((GenericArrayType) type).getGenericComponentType());
+            } else if (type instanceof WildcardType) {
+                addTypes(pending, ((WildcardType) type).getUpperBounds());
+                addTypes(pending, ((WildcardType) type).getLowerBounds());
+            }
+            // The bounds of a type variable are the types of its declaration, which are added by their own class
+        }
+    }
+
+    // A class file read from the module (or the class loader) of its class
+    private static final class LoaderClassFile extends SimpleJavaFileObject {
+
+        private final Class<?> type;
+
+        LoaderClassFile(Class<?> type) {
+            super(URI.create("class:///" + type.getName().replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.type = type;
+        }
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+            String name = type.getName().replace('.', '/') + Kind.CLASS.extension;
+            Module module = type.getModule();
+            InputStream input = module.isNamed() ? module.getResourceAsStream(name) : type.getClassLoader().getResourceAsStream(name);
+            if (input == null) throw new FileNotFoundException("The class file of " + type.getName() + " is not available.");
+            return input;
+        }
+    }
+
+    // The class path of the compiler is the used classes, the generated class is written into the output
+    private static final class LoaderFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, List<JavaFileObject>> classFiles;
+        private final OutputStream output;
+
+        LoaderFileManager(StandardJavaFileManager fileManager, Map<String, List<JavaFileObject>> classFiles, OutputStream output) {
+            super(fileManager);
+            this.classFiles = classFiles;
+            this.output = output;
+        }
+
+        @Override
+        public boolean hasLocation(Location location) {
+            return location == StandardLocation.CLASS_PATH || super.hasLocation(location);
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(Location location,
+                                             String packageName,
+                                             Set<JavaFileObject.Kind> kinds,
+                                             boolean recurse) throws IOException {
+            if (location != StandardLocation.CLASS_PATH) return super.list(location, packageName, kinds, recurse);
+            return kinds.contains(JavaFileObject.Kind.CLASS) ? classFiles.getOrDefault(packageName, List.of()) : List.of();
+        }
+
+        @Override
+        public String inferBinaryName(Location location, JavaFileObject file) {
+            if (file instanceof LoaderClassFile) return ((LoaderClassFile) file).type.getName();
+            return super.inferBinaryName(location, file);
+        }
+
+        @Override
+        public boolean isSameFile(FileObject first, FileObject second) {
+            if (first instanceof LoaderClassFile || second instanceof LoaderClassFile)
+                return first.toUri().equals(second.toUri());
+            return super.isSameFile(first, second);
+        }
+
+        @Override
+        public boolean contains(Location location, FileObject file) throws IOException {
+            if (file instanceof LoaderClassFile) return location == StandardLocation.CLASS_PATH;
+            return super.contains(location, file);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location,
+                                                   String className,
+                                                   JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return output;
+                }
+            };
+        }
+    }
+}
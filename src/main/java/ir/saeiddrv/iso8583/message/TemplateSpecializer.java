@@ -0,0 +1,326 @@
+package ir.saeiddrv.iso8583.message;
+
+import ir.saeiddrv.iso8583.message.fields.ContentPad;
+import ir.saeiddrv.iso8583.message.fields.LengthValue;
+import ir.saeiddrv.iso8583.message.interpreters.BitmapBinaryInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.ContentInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.LengthInterpreter;
+import ir.saeiddrv.iso8583.message.unpacks.UnpackContentResult;
+import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
+import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a class for the fields of a compiled template at runtime: a straight-line pack and unpack
+ * of its fields, where each interpreter, length, pad and charset is a constant of its exact type,
+ * so the calls are devirtualized and inlined by the JIT instead of the megamorphic loop over the field table.
+ * The source is compiled by the system Java compiler (see {@link SpecializedCompiler}) and defined as a hidden class
+ * of this package, which is unloaded with its template.
+ * The binary bitmaps and the single fields are generated, the combination fields and the other bitmaps
+ * are delegated to the interpreted path of {@link MessageTemplate}.
+ *
+ * @author Saeid Darvish
+ */
+final class TemplateSpecializer {
+
+    private static final String CLASS_NAME = "ir.saeiddrv.iso8583.message.SpecializedTemplate";
+
+    private final FieldTable table;
+    private final StringBuilder constants = new StringBuilder();
+    private final List<Object> data = new ArrayList<>();
+    private final Set<Class<?>> classes = new LinkedHashSet<>(List.of(FieldTable.class, FieldValues.class,
+            MessageTemplate.class, SpecializedCodec.class, ISO8583Exception.class, TypeUtils.class,
+            UnpackContentResult.class, UnpackLengthResult.class));
+
+    private TemplateSpecializer(FieldTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Generate, compile and define the specialized codec of the fields of a template
+     *
+     * @param template the compiled template
+     * @return the codec of its fields
+     * @throws ISO8583Exception If there is no system Java compiler (a JRE), or the class cannot be compiled or defined
+     */
+    static SpecializedCodec specialize(MessageTemplate template) throws ISO8583Exception {
+        TemplateSpecializer specializer = new TemplateSpecializer(template.getFieldTable());
+        if (!isSupported())
+            throw new ISO8583Exception("There is no system Java compiler (the runtime has no jdk.compiler module).");
+        byte[] bytes = SpecializedCompiler.compile(CLASS_NAME, specializer.source(), specializer.classes);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(bytes, specializer.data.toArray(), true);
+            return (SpecializedCodec) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable throwable) {
+            ISO8583Exception exception = new ISO8583Exception("Unable to define the specialized template: %s", throwable);
+            exception.initCause(throwable);
+            throw exception;
+        }
+    }
+
+    // The compiler classes are not touched if the runtime has no java.compiler module (they would not be linked)
+    static boolean isSupported() {
+        return ModuleLayer.boot().findModule("java.compiler").isPresent() && SpecializedCompiler.isAvailable();
+    }
+
+    // A constant of the generated class, declared by its exact type if the class can be resolved from this package
+    private String constant(String name, Object value, Class<?> baseType) {
+        Class<?> type = value.getClass();
+        if (!isAccessible(type)) type = baseType;
+        classes.add(type);
+        String typeName = type.getCanonicalName();
+        constants.append("    private static final ").append(typeName).append(' ').append(name)
+                .append(" = (").append(typeName).append(") DATA[").append(data.size()).append("];\n");
+        data.add(value);
+        return name;
+    }
+
+    private static boolean isAccessible(Class<?> type) {
+        if (type.isAnonymousClass() || type.isLocalClass() || type.isHidden()) return false;
+        if (!type.getModule().isExported(type.getPackageName())) return false;
+        if (!TemplateSpecializer.class.getModule().canRead(type.getModule())) return false;
+        for (Class<?> item = type; item != null; item = item.getEnclosingClass())
+            if (!Modifier.isPublic(item.getModifiers())) return false;
+        try {
+            return Class.forName(type.getName(), false, TemplateSpecializer.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException exception) {
+            return false;
+        }
+    }
+
+    private String source() {
+        constant("TABLE", table, FieldTable.class);
+        StringBuilder pack = new StringBuilder();
+        StringBuilder unpack = new StringBuilder();
+
+        int primary = table.primaryBitmapNumber();
+        if (primary >= 0) unpack.append("            values.markPresent(").append(primary).append(");\n");
+        for (int number : table.numbers) {
+            switch (table.kinds[number]) {
+                case FieldTable.BITMAP:
+                    if (table.bitmapInterpreters[number].getClass() == BitmapBinaryInterpreter.class) {
+                        packBitmap(pack, number);
+                        unpackBitmap(unpack, number);
+                    } else {
+                        pack.append("\n            // FIELD[").append(number).append("], INTERPRETED\n")
+                                .append("            if (values.isPresent(").append(number).append(")) {\n")
+                                .append("                field = -1;\n")
+                                .append("                MessageTemplate.packBitmap(TABLE, values, ").append(number).append(", target, false);\n")
+                                .append("            }\n");
+                        unpack.append("\n            // FIELD[").append(number).append("], INTERPRETED\n")
+                                .append("            if (values.isPresent(").append(number).append(")) {\n")
+                                .append("                field = -1;\n")
+                                .append("                offset = MessageTemplate.unpackBitmap(TABLE, values, ").append(number)
+                                .append(", message, offset, limit, false);\n")
+                                .append("            }\n");
+                    }
+                    break;
+                case FieldTable.SINGLE:
+                    single(pack, unpack, number);
+                    break;
+                case FieldTable.COMBINE:
+                    pack.append("\n            // FIELD[").append(number).append("], INTERPRETED\n")
+                            .append("            if (values.isPresent(").append(number).append(")) {\n")
+                            .append("                field = -1;\n")
+                            .append("                MessageTemplate.packCombine(TABLE, ").append(number)
+                            .append(", values.nested(").append(number).append("), target);\n")
+                            .append("            }\n");
+                    unpack.append("\n            // FIELD[").append(number).append("], INTERPRETED\n")
+                            .append("            if (values.isPresent(").append(number).append(")) {\n")
+                            .append("                field = -1;\n")
+                            .append("                offset = MessageTemplate.unpackCombine(TABLE, values, ").append(number)
+                            .append(", message, offset, limit, false);\n")
+                            .append("            }\n");
+                    break;
+            }
+        }
+
+        return "package ir.saeiddrv.iso8583.message;\n\n" +
+                "import ir.saeiddrv.iso8583.message.unpacks.UnpackContentResult;\n" +
+                "import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;\n" +
+                "import ir.saeiddrv.iso8583.message.utilities.TypeUtils;\n" +
+                "import java.lang.constant.ConstantDescs;\n" +
+                "import java.lang.invoke.MethodHandles;\n" +
+                "import java.nio.BufferOverflowException;\n" +
+                "import java.nio.ByteBuffer;\n\n" +
+                "final class SpecializedTemplate implements SpecializedCodec {\n\n" +
+                "    private static final Object[] DATA = data();\n" +
+                constants +
+                "\n    private static Object[] data() {\n" +
+                "        try {\n" +
+                "            return MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, Object[].class);\n" +
+                "        } catch (IllegalAccessException exception) {\n" +
+                "            throw new IllegalStateException(exception);\n" +
+                "        }\n" +
+                "    }\n\n" +
+                "    @Override\n" +
+                "    public void pack(FieldValues values, ByteBuffer target) throws ISO8583Exception {\n" +
+                "        int field = -1;\n" +
+                "        try {\n" +
+                "            MessageTemplate.updateBitmaps(TABLE, values, false);\n" +
+                pack +
+                "        } catch (BufferOverflowException exception) {\n" +
+                "            throw exception;\n" +
+                "        } catch (Exception exception) {\n" +
+                "            if (field < 0 && exception instanceof ISO8583Exception) throw (ISO8583Exception) exception;\n" +
+                "            throw new ISO8583Exception(\"FIELD[%s]: %s\", field, exception.getMessage());\n" +
+                "        }\n" +
+                "    }\n\n" +
+                "    @Override\n" +
+                "    public int unpack(FieldValues values, ByteBuffer message, int offset, int limit) throws ISO8583Exception {\n" +
+                "        int field = -1;\n" +
+                "        try {\n" +
+                unpack +
+                "            return offset;\n" +
+                "        } catch (Exception exception) {\n" +
+                "            if (field < 0 && exception instanceof ISO8583Exception) throw (ISO8583Exception) exception;\n" +
+                "            throw new ISO8583Exception(\"FIELD[%s]: %s\", field, exception.getMessage());\n" +
+                "        }\n" +
+                "    }\n" +
+                "}\n";
+    }
+
+    // The bits of the defined fields of each 64-bit word of a bitmap, the first field is the most significant bit
+    private List<long[]> bitmapWords(int number) {
+        Range range = table.bitmapRanges[number];
+        int bitSize = table.bitmapLengths[number] * 8;
+        List<long[]> bits = new ArrayList<>();
+        for (int fieldNumber : table.numbers) {
+            int index = fieldNumber - range.getStart();
+            if (fieldNumber > range.getEnd() || index < 0 || index >= bitSize) continue;
+            bits.add(new long[]{fieldNumber, index >>> 6, Long.MIN_VALUE >>> (index & 63)});
+        }
+        return bits;
+    }
+
+    private void packBitmap(StringBuilder pack, int number) {
+        int length = table.bitmapLengths[number];
+        int wordCount = (length + 7) >>> 3;
+        pack.append("\n            // FIELD[").append(number).append("], BITMAP\n")
+                .append("            if (values.isPresent(").append(number).append(")) {\n")
+                .append("                field = ").append(number).append(";\n");
+        for (int word = 0; word < wordCount; word++)
+            pack.append("                long word").append(number).append('_').append(word).append(" = 0L;\n");
+        for (long[] bit : bitmapWords(number))
+            pack.append("                if (values.isPresent(").append(bit[0]).append(")) word").append(number).append('_')
+                    .append(bit[1]).append(" |= ").append(hex(bit[2])).append(";\n");
+        pack.append("                if (target.remaining() < ").append(length).append(") throw new BufferOverflowException();\n");
+        for (int word = 0; word < wordCount; word++)
+            pack.append("                TypeUtils.putLongWord(target, word").append(number).append('_').append(word).append(", ")
+                    .append(Math.min(length - word * 8, 8)).append(");\n");
+        pack.append("            }\n");
+    }
+
+    private void unpackBitmap(StringBuilder unpack, int number) {
+        int length = table.bitmapLengths[number];
+        int wordCount = (length + 7) >>> 3;
+        Range range = table.bitmapRanges[number];
+        long[] defined = new long[wordCount];
+        List<long[]> bits = bitmapWords(number);
+        for (long[] bit : bits) defined[(int) bit[1]] |= bit[2];
+
+        unpack.append("\n            // FIELD[").append(number).append("], BITMAP\n")
+                .append("            if (values.isPresent(").append(number).append(")) {\n")
+                .append("                field = ").append(number).append(";\n")
+                .append("                if (limit < offset + ").append(length).append(")\n")
+                .append("                    throw new ISO8583Exception(\"UNPACKING ERROR, Bitmap (%s): The received message length is less than the required amount. \" +\n")
+                .append("                            \"[messageLength: %s, startIndex: %s, endIndex: %s]\", \"")
+                .append(table.bitmapInterpreters[number].getName()).append("\", limit, offset, offset + ").append(length).append(");\n");
+        for (int word = 0; word < wordCount; word++)
+            unpack.append("                long word").append(number).append('_').append(word)
+                    .append(" = TypeUtils.bytesToLongWord(message, offset + ").append(word * 8).append(", ")
+                    .append(Math.min(length - word * 8, 8)).append(");\n");
+
+        // THE BITS OF THE UNDEFINED FIELDS, THE FIRST ONE IS REPORTED
+        unpack.append("                values.markPresent(").append(number).append(");\n")
+                .append("                field = -1;\n");
+        for (int word = 0; word < wordCount; word++) {
+            String name = "word" + number + "_" + word;
+            unpack.append("                if ((").append(name).append(" & ").append(hex(~defined[word])).append(") != 0)\n")
+                    .append("                    throw new ISO8583Exception(\"The FIELD[%d] is not defined.\", ")
+                    .append(range.getStart() + word * 64).append(" + Long.numberOfLeadingZeros(").append(name)
+                    .append(" & ").append(hex(~defined[word])).append("));\n");
+        }
+        for (long[] bit : bits)
+            unpack.append("                if ((word").append(number).append('_').append(bit[1]).append(" & ").append(hex(bit[2]))
+                    .append(") != 0) values.markPresent(").append(bit[0]).append(");\n");
+        unpack.append("                offset += ").append(length).append(";\n")
+                .append("            }\n");
+    }
+
+    private void single(StringBuilder pack, StringBuilder unpack, int number) {
+        LengthValue lengthValue = table.lengthValues[number];
+        ContentPad pad = table.pads[number];
+        String charset = constant("CHARSET_" + number, table.charsets[number], Charset.class);
+        String length = constant("LENGTH_" + number, lengthValue, LengthValue.class);
+        String padName = constant("PAD_" + number, pad, ContentPad.class);
+        LengthInterpreter lengthInterpreter = table.lengthInterpreters[number];
+        String lengthName = lengthInterpreter == null ? null :
+                constant("LENGTH_INTERPRETER_" + number, lengthInterpreter, LengthInterpreter.class);
+        ContentInterpreter contentInterpreter = table.contentInterpreters[number];
+        String contentName = contentInterpreter == null ? null :
+                constant("CONTENT_INTERPRETER_" + number, contentInterpreter, ContentInterpreter.class);
+
+        // PACK: THE PAD OF A FIXED FIELD, THE LENGTH AND THE CONTENT
+        pack.append("\n            // FIELD[").append(number).append("]\n")
+                .append("            if (values.isPresent(").append(number).append(")) {\n")
+                .append("                field = ").append(number).append(";\n")
+                .append("                byte[] value").append(number).append(" = values.get(").append(number).append(");\n");
+        if (lengthValue.isFixed())
+            pack.append("                value").append(number).append(" = ").append(padName).append(".doPad(value").append(number)
+                    .append(", ").append(lengthValue.getMaximumValue()).append(");\n");
+        if (lengthName != null)
+            pack.append("                ").append(lengthName).append(".pack(").append(number).append(", ").append(length)
+                    .append(", value").append(number).append(".length, ").append(charset).append(", target);\n");
+        if (contentName != null)
+            pack.append("                ").append(contentName).append(".pack(").append(number).append(", ").append(length)
+                    .append(", value").append(number).append(", ").append(padName).append(", ").append(charset).append(", target);\n");
+        else
+            pack.append("                target.put(value").append(number).append(");\n");
+        pack.append("            }\n");
+
+        // UNPACK: THE LENGTH (NOT PACKED FOR A FIXED FIELD) AND THE CONTENT
+        String messageLength = "length" + number;
+        unpack.append("\n            // FIELD[").append(number).append("]\n")
+                .append("            if (values.isPresent(").append(number).append(")) {\n")
+                .append("                field = ").append(number).append(";\n");
+        if (lengthValue.isFixed())
+            messageLength = String.valueOf(lengthValue.getMaximumValue());
+        else if (lengthName != null)
+            unpack.append("                UnpackLengthResult unpackLength").append(number).append(" = ").append(lengthName)
+                    .append(".unpack(message, offset, limit, ").append(number).append(", ").append(length).append(", ")
+                    .append(charset).append(");\n")
+                    .append("                int length").append(number).append(" = unpackLength").append(number).append(".getValue();\n")
+                    .append("                offset = unpackLength").append(number).append(".getNextOffset();\n");
+        else
+            messageLength = "0";
+        if (contentName != null)
+            unpack.append("                UnpackContentResult unpackContent").append(number).append(" = ").append(contentName)
+                    .append(".unpack(message, offset, limit, ").append(number).append(", ").append(messageLength).append(", ")
+                    .append(padName).append(", ").append(charset).append(");\n")
+                    .append("                values.set(").append(number).append(", unpackContent").append(number).append(".getValue());\n")
+                    .append("                offset = unpackContent").append(number).append(".getNextOffset();\n");
+        else
+            unpack.append("                if (limit < offset + ").append(messageLength).append(")\n")
+                    .append("                    throw new ISO8583Exception(\"UNPACKING ERROR, Content (RAW): The received message length is less than the required amount. \" +\n")
+                    .append("                            \"[messageLength: %s, startIndex: %s, endIndex: %s]\", limit, offset, offset + ").append(messageLength).append(");\n")
+                    .append("                byte[] raw").append(number).append(" = new byte[").append(messageLength).append("];\n")
+                    .append("                message.get(offset, raw").append(number).append(");\n")
+                    .append("                values.set(").append(number).append(", TypeUtils.translateBytes(raw").append(number)
+                    .append(", ").append(charset).append("));\n")
+                    .append("                offset += ").append(messageLength).append(";\n");
+        unpack.append("            }\n");
+    }
+
+    private static String hex(long value) {
+        return "0x" + Long.toHexString(value).toUpperCase() + "L";
+    }
+}
@@ -2,10 +2,10 @@ package ir.saeiddrv.iso8583.message.fields;
 
 import ir.saeiddrv.iso8583.message.Range;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
-import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.BitSet;
-import java.util.stream.IntStream;
 
 public class Bitmap {
 
@@ -27,12 +27,18 @@ public class Bitmap {
         this.length = length;
     }
 
+    public static Bitmap create(int[] filedNumbers, BitmapType type, Range range, int length) {
+        return new Bitmap(filedNumbers, type, range, length);
+    }
+
     public void setFiledNumbers(int[] filedNumbers) {
         this.filedNumbers = filedNumbers;
     }
 
     public boolean isContainsFieldNumber(int fieldNumber) {
-        return IntStream.of(filedNumbers).anyMatch(number -> number == fieldNumber);
+        for (int number : filedNumbers)
+            if (number == fieldNumber) return true;
+        return false;
     }
 
     public int[] getFiledNumbers() {
@@ -55,16 +61,58 @@ public class Bitmap {
         return range;
     }
 
+    public int getWordCount() {
+        return (length + 7) >>> 3;
+    }
+
+    /**
+     * Get a 64-bit word of this bitmap, the first field of each word is the most significant bit,
+     * so the big-endian bytes of the words are the bytes of the bitmap
+     *
+     * @param wordIndex the index of the word
+     * @return the word value
+     */
+    public long getWord(int wordIndex) {
+        int start = range.getStart() + (wordIndex << 6);
+        int end = Math.min(start + 64, range.getStart() + getBitSize());
+        long word = 0;
+        for (int number : filedNumbers)
+            if (number >= start && number < end) word |= Long.MIN_VALUE >>> (number - start);
+        return word;
+    }
+
+    public long[] getWords() {
+        long[] words = new long[getWordCount()];
+        for (int wordIndex = 0; wordIndex < words.length; wordIndex++)
+            words[wordIndex] = getWord(wordIndex);
+        return words;
+    }
+
+    /**
+     * Write the bytes of this bitmap (always {@link #getLength()} bytes) into a buffer, from its current position
+     *
+     * @param target the buffer to write into
+     */
+    public void writeTo(ByteBuffer target) {
+        if (target.remaining() < length) throw new BufferOverflowException();
+        for (int wordIndex = 0, rest = length; rest > 0; wordIndex++, rest -= 8)
+            TypeUtils.putLongWord(target, getWord(wordIndex), Math.min(rest, 8));
+    }
+
     public BitSet getBitSet() {
         int size = getBitSize();
         BitSet bitSet = new BitSet(size);
-        for (int i = 0; i < size; i++)
-            if (isContainsFieldNumber(i + range.getStart())) bitSet.set(i);
+        for (int number : filedNumbers) {
+            int index = number - range.getStart();
+            if (index >= 0 && index < size) bitSet.set(index);
+        }
         return bitSet;
     }
 
     public byte[] getValue() {
-       return new BigInteger(getValueAsBinaryString(), 2).toByteArray();
+        byte[] value = new byte[length];
+        writeTo(ByteBuffer.wrap(value));
+        return value;
     }
 
     public String getValueAsBinaryString() {
@@ -72,7 +120,7 @@ public class Bitmap {
     }
 
     public String getValueAsHexString() {
-        return new BigInteger(getValueAsBinaryString(), 2).toString(16);
+        return TypeUtils.byteArrayToHexString(getValue());
     }
 
     @Override
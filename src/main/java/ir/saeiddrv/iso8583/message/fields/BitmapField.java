@@ -7,11 +7,16 @@ import ir.saeiddrv.iso8583.message.fields.formatters.ValueFormatter;
 import ir.saeiddrv.iso8583.message.interpreters.BitmapBinaryInterpreter;
 import ir.saeiddrv.iso8583.message.interpreters.base.BitmapInterpreter;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Objects;
 
 public class BitmapField implements Field {
 
+    // The shared field numbers of the cleared bitmaps
+    private static final int[] NO_FIELD_NUMBERS = new int[0];
+
     private final int number;
     private final Bitmap bitmap;
     private final BitmapInterpreter interpreter;
@@ -73,6 +78,10 @@ public class BitmapField implements Field {
         return bitmap;
     }
 
+    public BitmapInterpreter getInterpreter() {
+        return interpreter;
+    }
+
     @Override
     public int getNumber() {
         return number;
@@ -88,11 +97,21 @@ public class BitmapField implements Field {
         if(this.charset == null) this.charset = charset;
     }
 
+    @Override
+    public Charset getCharset() {
+        return charset;
+    }
+
     @Override
     public void setValueFormatter(ValueFormatter formatter) {
         this.formatter = formatter;
     }
 
+    @Override
+    public ValueFormatter getValueFormatter() {
+        return formatter;
+    }
+
     @Override
     public String getValueFormatted() {
         if (hasFormatter()) return formatter.getFormatted(number, getValueAsString());
@@ -121,7 +140,7 @@ public class BitmapField implements Field {
 
     @Override
     public void clear() {
-        setFieldNumbers(new int[0]);
+        setFieldNumbers(NO_FIELD_NUMBERS);
     }
 
     @Override
@@ -133,6 +152,17 @@ public class BitmapField implements Field {
         }
     }
 
+    @Override
+    public void pack(ByteBuffer target) throws ISO8583Exception {
+        try {
+            interpreter.pack(bitmap, charset, target);
+        } catch (BufferOverflowException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
     @Override
     public int unpack(byte[] message, int offset) throws ISO8583Exception {
         try {
@@ -147,6 +177,21 @@ public class BitmapField implements Field {
         }
     }
 
+    @Override
+    public int unpack(ByteBuffer message, int offset, int limit) throws ISO8583Exception {
+        try {
+            // UNPACK BITMAP
+            UnpackBitmapResult unpackBitmap = interpreter.unpack(message, offset, limit,
+                    bitmap.getLength(), bitmap.getRange(), charset);
+            bitmap.setFiledNumbers(unpackBitmap.getValue());
+
+            return unpackBitmap.getNextOffset();
+
+        }  catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("@BitmapField[number: %s, value: %s, bitmap: %s, charset: %s, interpreter: %s, description: %s]",
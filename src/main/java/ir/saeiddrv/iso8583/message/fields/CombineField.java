@@ -6,6 +6,8 @@ import ir.saeiddrv.iso8583.message.interpreters.base.LengthInterpreter;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
 import ir.saeiddrv.iso8583.message.fields.formatters.ValueFormatter;
 import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.*;
 
@@ -14,6 +16,8 @@ public class CombineField implements Field {
     private final int number;
     private final Length length;
     private final Map<Integer, Field> fields = new HashMap<>();
+    // The subfields in order of their numbers, to clear them without allocation
+    private final Field[] orderedFields;
     private Charset charset;
     private ValueFormatter formatter;
     private String description = "UNDEFINED";
@@ -27,6 +31,8 @@ public class CombineField implements Field {
         for (Field field : fields)
             this.fields.put(field.getNumber(), Objects.requireNonNull(field,
                     "The FIELD[" + number + "] can not contain null subfields."));
+        this.orderedFields = this.fields.values().stream()
+                .sorted(Comparator.comparingInt(Field::getNumber)).toArray(Field[]::new);
     }
 
     public static CombineField create(int number,
@@ -57,6 +63,10 @@ public class CombineField implements Field {
         return new CombineField(number, LengthValue.UNDEFINED, null, fields);
     }
 
+    public Length getLength() {
+        return length;
+    }
+
     public boolean hasSubField(int fieldNumber) {
         return fields.containsKey(fieldNumber);
     }
@@ -111,11 +121,21 @@ public class CombineField implements Field {
         if(this.charset == null) this.charset = charset;
     }
 
+    @Override
+    public Charset getCharset() {
+        return charset;
+    }
+
     @Override
     public void setValueFormatter(ValueFormatter formatter) {
         this.formatter = formatter;
     }
 
+    @Override
+    public ValueFormatter getValueFormatter() {
+        return formatter;
+    }
+
     @Override
     public String getValueFormatted() {
         if (hasFormatter()) return formatter.getFormatted(number, getValueAsString());
@@ -155,8 +175,8 @@ public class CombineField implements Field {
 
     @Override
     public void clear() {
-        for (int fieldNumber : getFieldNumbers())
-            fields.get(fieldNumber).clear();
+        for (Field field : orderedFields)
+            field.clear();
     }
 
     @Override
@@ -183,6 +203,37 @@ public class CombineField implements Field {
         }
     }
 
+    @Override
+    public void pack(ByteBuffer target) throws ISO8583Exception {
+        try {
+            setBitmaps();
+
+            // RESERVE THE LENGTH BYTES
+            int lengthPosition = target.position();
+            int lengthSize = length.getPackLength(number, charset);
+            if (target.remaining() < lengthSize) throw new BufferOverflowException();
+            target.position(lengthPosition + lengthSize);
+
+            // PACK ALL AVAILABLE FIELDS DIRECTLY INTO THE TARGET
+            for (int fieldNumber : getFieldNumbers())
+                fields.get(fieldNumber).pack(target);
+
+            // BACK-PATCH THE LENGTH INTO THE RESERVED BYTES
+            int endPosition = target.position();
+            target.position(lengthPosition);
+            length.pack(number, endPosition - lengthPosition - lengthSize, charset, target);
+            if (target.position() != lengthPosition + lengthSize)
+                throw new ISO8583Exception("The packed length (%s bytes) does not match the reserved length (%s bytes).",
+                        target.position() - lengthPosition, lengthSize);
+            target.position(endPosition);
+
+        } catch (BufferOverflowException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
     @Override
     public int unpack(byte[] message, int offset) throws ISO8583Exception {
         try {
@@ -202,6 +253,35 @@ public class CombineField implements Field {
         }
     }
 
+    @Override
+    public void decode() throws ISO8583Exception {
+        try {
+            for (int fieldNumber : getFieldNumbers())
+                fields.get(fieldNumber).decode();
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
+    @Override
+    public int unpack(ByteBuffer message, int offset, int limit) throws ISO8583Exception {
+        try {
+            // UNPACK LENGTH
+            UnpackLengthResult unpackLength = length.unpack(message, offset, limit, number, charset);
+            if (unpackLength != null)
+                offset = unpackLength.getNextOffset();
+
+            // UNPACK INNER FIELDS
+            for (int fieldNumber : getFieldNumbers())
+                offset = fields.get(fieldNumber).unpack(message, offset, limit);
+
+            return offset;
+
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder fieldsString = new StringBuilder();
@@ -4,30 +4,85 @@ import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackContentResult;
 import ir.saeiddrv.iso8583.message.interpreters.base.ContentInterpreter;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 
 public class Content {
 
+    // The shared value of the new and the cleared contents, so a content allocates nothing until it is set
+    static final byte[] EMPTY_VALUE = new byte[0];
+
     private final ContentInterpreter interpreter;
     private final ContentPad pad;
-    private byte[] value = new byte[]{0};
+    private byte[] value = EMPTY_VALUE;
+
+    // A view into an unpacked buffer, decoded on the first access to the value
+    private ByteBuffer viewBuffer = null;
+    private int viewOffset;
+    private int viewFieldNumber;
+    private int viewLength;
+    private Charset viewCharset;
 
     Content(ContentInterpreter interpreter, ContentPad contentPad) {
         this.interpreter = interpreter;
         this.pad = contentPad;
     }
 
+    private void decodeView() throws ISO8583Exception {
+        ByteBuffer buffer = viewBuffer;
+        viewBuffer = null;
+        if (hasInterpreter())
+            value = interpreter.unpack(buffer, viewOffset, buffer.limit(), viewFieldNumber,
+                    viewLength, pad, viewCharset).getValue();
+        else {
+            byte[] unpack = new byte[viewLength];
+            buffer.get(viewOffset, unpack);
+            value = TypeUtils.translateBytes(unpack, viewCharset);
+        }
+    }
+
+    /**
+     * Decode the value if it is still a view into an unpacked buffer
+     *
+     * @throws ISO8583Exception if the bytes of the view are not a valid value
+     */
+    public void decode() throws ISO8583Exception {
+        if (isView()) decodeView();
+    }
+
+    public ContentInterpreter getInterpreter() {
+        return interpreter;
+    }
+
+    public ContentPad getPad() {
+        return pad;
+    }
+
+    /**
+     * Get the value, a view is decoded on the first access
+     *
+     * @return the value
+     * @throws IllegalStateException if the bytes of the view are not a valid value
+     */
     public byte[] getValue() {
+        if (isView()) {
+            try {
+                decodeView();
+            } catch (ISO8583Exception exception) {
+                throw new IllegalStateException(String.format("FIELD[%s]: %s", viewFieldNumber, exception.getMessage()));
+            }
+        }
         return value;
     }
 
     public String getValueAsString(Charset charset) {
-        if (hasInterpreter()) return interpreter.transfer(value, charset);
-        return TypeUtils.decodeBytes(value, charset);
+        if (hasInterpreter()) return interpreter.transfer(getValue(), charset);
+        return TypeUtils.decodeBytes(getValue(), charset);
     }
 
     public void setValue(byte[] value) {
+        this.viewBuffer = null;
         this.value = value;
     }
 
@@ -37,20 +92,39 @@ public class Content {
     }
 
     public void doPad(int maximumLength) {
-        value = pad.doPad(value, maximumLength);
+        value = pad.doPad(getValue(), maximumLength);
     }
 
     public boolean hasInterpreter() {
         return interpreter != null;
     }
 
+    /**
+     * Check if the value is still a view into an unpacked buffer and has not been decoded yet
+     *
+     * @return true if the value has not been decoded yet
+     */
+    public boolean isView() {
+        return viewBuffer != null;
+    }
+
     public byte[] pack(int filedNumber,
                        LengthValue length,
                        Charset charset) throws ISO8583Exception {
         if (hasInterpreter())
-            return interpreter.pack(filedNumber, length, value, pad, charset);
+            return interpreter.pack(filedNumber, length, getValue(), pad, charset);
+        else
+            return getValue();
+    }
+
+    public void pack(int filedNumber,
+                     LengthValue length,
+                     Charset charset,
+                     ByteBuffer target) throws ISO8583Exception {
+        if (hasInterpreter())
+            interpreter.pack(filedNumber, length, getValue(), pad, charset, target);
         else
-            return value;
+            target.put(getValue());
     }
 
     public UnpackContentResult unpack(byte[] message,
@@ -63,14 +137,48 @@ public class Content {
         else {
             int endOffset = offset + length;
             byte[] unpack = Arrays.copyOfRange(message, offset, offset + length);
-            unpack = TypeUtils.encodeBytes(unpack, charset);
+            unpack = TypeUtils.translateBytes(unpack, charset);
             return new UnpackContentResult(unpack, endOffset);
         }
     }
 
+    /**
+     * Unpack the content as a view into the buffer, the value is decoded on the first access.
+     * The buffer must not be modified until the value is decoded or replaced.
+     *
+     * @param message the packed message buffer
+     * @param offset an index of message bytes
+     * @param limit the end index of message bytes (exclusive)
+     * @param filedNumber the index of the field
+     * @param length the length of the content
+     * @param charset for byte conversions
+     * @return the next offset in the buffer
+     * @throws ISO8583Exception if the buffer is shorter than the content
+     */
+    public int unpack(ByteBuffer message,
+                      int offset,
+                      int limit,
+                      int filedNumber,
+                      int length,
+                      Charset charset) throws ISO8583Exception {
+        int endOffset = offset + (hasInterpreter() ? interpreter.getPackLength(length) : length);
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, Content (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]",
+                    hasInterpreter() ? interpreter.getName() : "RAW", limit, offset, endOffset);
+
+        this.viewBuffer = message;
+        this.viewOffset = offset;
+        this.viewFieldNumber = filedNumber;
+        this.viewLength = length;
+        this.viewCharset = charset;
+        return endOffset;
+    }
+
     @Override
     public String toString() {
         return String.format("@Content[value: %s, pad: %s, interpreter: %s]",
-                Arrays.toString(value), pad, interpreter.getName());
+                Arrays.toString(getValue()), pad, interpreter.getName());
     }
 }
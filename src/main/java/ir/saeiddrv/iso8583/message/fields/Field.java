@@ -2,6 +2,7 @@ package ir.saeiddrv.iso8583.message.fields;
 
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.fields.formatters.ValueFormatter;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public interface Field {
@@ -12,6 +13,11 @@ public interface Field {
 
     public void setCharset(Charset charset);
 
+    // The own charset of the field, or null to use the charset of the message
+    public default Charset getCharset() {
+        return null;
+    }
+
     public void setDescription(String description);
 
     public byte[] getValue();
@@ -20,6 +26,10 @@ public interface Field {
 
     public void setValueFormatter(ValueFormatter formatter);
 
+    public default ValueFormatter getValueFormatter() {
+        return null;
+    }
+
     public String getValueFormatted();
 
     public String getDescription();
@@ -28,5 +38,23 @@ public interface Field {
 
     public byte[] pack() throws ISO8583Exception;
 
+    // Write the packed field at the position of the target, by default through pack()
+    public default void pack(ByteBuffer target) throws ISO8583Exception {
+        target.put(pack());
+    }
+
     public int unpack(byte[] message, int offset) throws ISO8583Exception;
+
+    // Decode the value that is still a view of a lazy unpack, so an invalid value is reported by a checked exception
+    public default void decode() throws ISO8583Exception { }
+
+    // Unpack the field from the bytes of the message before the limit, by default through unpack(byte[], int)
+    public default int unpack(ByteBuffer message, int offset, int limit) throws ISO8583Exception {
+        if (offset < 0 || offset > limit || limit > message.limit())
+            throw new ISO8583Exception("FIELD[%s]: Invalid bounds [offset: %s, limit: %s] for a buffer with limit %s.",
+                    getNumber(), offset, limit, message.limit());
+        byte[] bytes = new byte[limit - offset];
+        message.get(offset, bytes);
+        return offset + unpack(bytes, 0);
+    }
 }
@@ -3,6 +3,7 @@ package ir.saeiddrv.iso8583.message.fields;
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
 import ir.saeiddrv.iso8583.message.interpreters.base.LengthInterpreter;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public class Length {
@@ -56,6 +57,21 @@ public class Length {
             return new byte[0];
     }
 
+    public void pack(int fieldNumber,
+                     int valueBytesLength,
+                     Charset charset,
+                     ByteBuffer target) throws ISO8583Exception {
+        if (hasInterpreter())
+            interpreter.pack(fieldNumber, value, valueBytesLength, charset, target);
+    }
+
+    public int getPackLength(int fieldNumber, Charset charset) throws ISO8583Exception {
+        if (hasInterpreter())
+            return interpreter.getPackLength(fieldNumber, value, charset);
+        else
+            return 0;
+    }
+
     public UnpackLengthResult unpack(byte[] message,
                                      int offset,
                                      int fieldNumber,
@@ -66,6 +82,17 @@ public class Length {
             return null;
     }
 
+    public UnpackLengthResult unpack(ByteBuffer message,
+                                     int offset,
+                                     int limit,
+                                     int fieldNumber,
+                                     Charset charset) throws ISO8583Exception {
+        if (hasInterpreter())
+            return interpreter.unpack(message, offset, limit, fieldNumber, value, charset);
+        else
+            return null;
+    }
+
     @Override
     public String toString() {
         return String.format("@Length[value: %s, interpreter: %s]",
@@ -7,6 +7,8 @@ import ir.saeiddrv.iso8583.message.interpreters.base.LengthInterpreter;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackContentResult;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
 import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Objects;
 
@@ -101,11 +103,21 @@ public class SingleField implements Field {
         if (this.charset == null) this.charset = charset;
     }
 
+    @Override
+    public Charset getCharset() {
+        return charset;
+    }
+
     @Override
     public void setValueFormatter(ValueFormatter formatter) {
         this.formatter = formatter;
     }
 
+    @Override
+    public ValueFormatter getValueFormatter() {
+        return formatter;
+    }
+
     @Override
     public String getValueFormatted() {
         if (hasFormatter()) return formatter.getFormatted(number, getValueAsString());
@@ -134,7 +146,7 @@ public class SingleField implements Field {
 
     @Override
     public void clear() {
-        setValue(new byte[0]);
+        setValue(Content.EMPTY_VALUE);
     }
 
     @Override
@@ -157,6 +169,24 @@ public class SingleField implements Field {
         }
     }
 
+    @Override
+    public void pack(ByteBuffer target) throws ISO8583Exception {
+        try {
+            // PREPARE CONTENT VALUE
+            if (length.isFixed())
+                content.doPad(length.getMaximumValue());
+
+            // WRITE THE LENGTH AND THE CONTENT DIRECTLY INTO THE TARGET
+            length.pack(number, content.getValue().length, charset, target);
+            content.pack(number, length.getValue(), charset, target);
+
+        } catch (BufferOverflowException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
     @Override
     public int unpack(byte[] message, int offset) throws ISO8583Exception {
         try {
@@ -185,6 +215,38 @@ public class SingleField implements Field {
         }
     }
 
+    @Override
+    public void decode() throws ISO8583Exception {
+        try {
+            content.decode();
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
+    @Override
+    public int unpack(ByteBuffer message, int offset, int limit) throws ISO8583Exception {
+        try {
+            // UNPACK LENGTH
+            int messageLength = 0;
+            if (length.isFixed()) {
+                messageLength = length.getMaximumValue();
+            } else if (length.hasInterpreter()) {
+                UnpackLengthResult unpackLength = length.unpack(message, offset, limit, number, charset);
+                if (unpackLength != null) {
+                    messageLength = unpackLength.getValue();
+                    offset = unpackLength.getNextOffset();
+                }
+            }
+
+            // UNPACK CONTENT (AS A VIEW, DECODED ON DEMAND)
+            return content.unpack(message, offset, limit, number, messageLength, charset);
+
+        }  catch (Exception exception) {
+            throw new ISO8583Exception("FIELD[%s]: %s", number, exception.getMessage());
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("@SingleField[number: %s, value: %s, length: %s, content: %s, charset: %s, description: %s]",
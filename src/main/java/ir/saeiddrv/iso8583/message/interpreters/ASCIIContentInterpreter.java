@@ -36,7 +36,7 @@ public class ASCIIContentInterpreter implements ContentInterpreter {
         byte[] pack = TypeUtils.byteArrayToHexArray(value, charset);
 
         // Encoding data with charset
-        return TypeUtils.encodeBytes(pack, charset);
+        return TypeUtils.translateBytes(pack, charset);
     }
 
     @Override
@@ -57,7 +57,7 @@ public class ASCIIContentInterpreter implements ContentInterpreter {
         byte[] pack = Arrays.copyOfRange(message, offset, endOffset);
 
         // Unpacking data
-        byte[] unpack = TypeUtils.encodeBytes(pack, charset);
+        byte[] unpack = TypeUtils.translateBytes(pack, charset);
 
         // Creating result object
         return new UnpackContentResult(unpack, endOffset);
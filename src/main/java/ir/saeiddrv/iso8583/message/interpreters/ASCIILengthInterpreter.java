@@ -6,6 +6,7 @@ import ir.saeiddrv.iso8583.message.interpreters.base.LengthInterpreter;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
 import ir.saeiddrv.iso8583.message.utilities.PadUtils;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 
@@ -26,7 +27,12 @@ public class ASCIILengthInterpreter implements LengthInterpreter {
 
         // Packing data
         byte[] data = TypeUtils.encodeBytes(lengthString, charset);
-        return TypeUtils.byteArrayToHexArray(data, charset);
+        return TypeUtils.translateBytes(data, charset);
+    }
+
+    @Override
+    public int getPackLength(int fieldNumber, LengthValue length, Charset charset) {
+        return length.getCount();
     }
 
     @Override
@@ -53,4 +59,25 @@ public class ASCIILengthInterpreter implements LengthInterpreter {
         return new UnpackLengthResult(lengthNumber, endOffset);
     }
 
+    @Override
+    public UnpackLengthResult unpack(ByteBuffer message,
+                                     int offset,
+                                     int limit,
+                                     int fieldNumber,
+                                     LengthValue length,
+                                     Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + length.getCount();
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, Length (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
+
+        // Unpacking the decimal digits directly from the buffer
+        int lengthNumber = TypeUtils.asciiBytesToInt(message, offset, endOffset, charset);
+
+        // Creating result object
+        return new UnpackLengthResult(lengthNumber, endOffset);
+    }
+
 }
@@ -4,6 +4,7 @@ import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.interpreters.base.MTIInterpreter;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackMTIResult;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 
@@ -17,7 +18,7 @@ public class ASCIIMTIInterpreter implements MTIInterpreter {
     @Override
     public byte[] pack(String mti, Charset charset) {
         // Packing data
-        return TypeUtils.byteArrayToHexArray(TypeUtils.encodeBytes(mti, charset), charset);
+        return TypeUtils.translateBytes(TypeUtils.encodeBytes(mti, charset), charset);
     }
 
     @Override
@@ -41,4 +42,26 @@ public class ASCIIMTIInterpreter implements MTIInterpreter {
         return new UnpackMTIResult(unpack, endOffset);
     }
 
+    @Override
+    public UnpackMTIResult unpack(ByteBuffer message,
+                                  int offset,
+                                  int limit,
+                                  Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + 4;
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, MTI (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
+
+        // Copying the data related to this unit
+        byte[] pack = new byte[endOffset - offset];
+        message.get(offset, pack);
+
+        // Unpacking
+        String unpack = TypeUtils.decodeBytes(pack, charset);
+
+        // Creating result object
+        return new UnpackMTIResult(unpack, endOffset);
+    }
 }
@@ -5,6 +5,7 @@ import ir.saeiddrv.iso8583.message.interpreters.base.MessageLengthInterpreter;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
 import ir.saeiddrv.iso8583.message.utilities.PadUtils;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 
@@ -22,7 +23,12 @@ public class ASCIIMessageLengthInterpreter implements MessageLengthInterpreter {
 
         // Packing data
         byte[] data = TypeUtils.encodeBytes(length, charset);
-        return TypeUtils.byteArrayToHexArray(data, charset);
+        return TypeUtils.translateBytes(data, charset);
+    }
+
+    @Override
+    public int getPackLength(int count, Charset charset) {
+        return count;
     }
 
     @Override
@@ -39,7 +45,7 @@ public class ASCIIMessageLengthInterpreter implements MessageLengthInterpreter {
 
         // Copying the data related to this unit and encoding it with charset
         byte[] data = Arrays.copyOfRange(message, offset, endOffset);
-        data = TypeUtils.encodeBytes(data, charset);
+        data = TypeUtils.translateBytes(data, charset);
 
         // Length: byte[] -> Integer
         int length =  Integer.parseInt(TypeUtils.decodeBytes(data, charset));
@@ -47,4 +53,24 @@ public class ASCIIMessageLengthInterpreter implements MessageLengthInterpreter {
         // Creating result object
         return new UnpackLengthResult(length, endOffset);
     }
+
+    @Override
+    public UnpackLengthResult unpack(ByteBuffer message,
+                                     int offset,
+                                     int limit,
+                                     int count,
+                                     Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + count;
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, MessageLength (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
+
+        // Length: decimal digits -> Integer
+        int length = TypeUtils.asciiBytesToInt(message, offset, endOffset, charset);
+
+        // Creating result object
+        return new UnpackLengthResult(length, endOffset);
+    }
 }
@@ -6,9 +6,12 @@ import ir.saeiddrv.iso8583.message.fields.ContentPad;
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.fields.LengthValue;
 import ir.saeiddrv.iso8583.message.interpreters.base.ContentInterpreter;
+import ir.saeiddrv.iso8583.message.utilities.BCDCodec;
+import ir.saeiddrv.iso8583.message.utilities.CharsetTable;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.Arrays;
 
 public class BCDContentInterpreter implements ContentInterpreter {
 
@@ -27,6 +30,11 @@ public class BCDContentInterpreter implements ContentInterpreter {
         return TypeUtils.decodeBytes(value, charset);
     }
 
+    @Override
+    public int getPackLength(int length) {
+        return TypeUtils.findPreferredLengthInBCD(length);
+    }
+
     @Override
     public byte[] pack(int fieldNumber,
                        LengthValue length,
@@ -47,7 +55,40 @@ public class BCDContentInterpreter implements ContentInterpreter {
         byte[] pack = TypeUtils.byteArrayToBCD(value);
 
         // Encoding data with charset
-        return TypeUtils.encodeBytes(pack, charset);
+        return TypeUtils.translateBytes(pack, charset);
+    }
+
+    @Override
+    public void pack(int fieldNumber,
+                     LengthValue length,
+                     byte[] value,
+                     ContentPad pad,
+                     Charset charset,
+                     ByteBuffer target) throws ISO8583Exception {
+
+        // Packing BCD bytes that change with charset by the byte array version
+        CharsetTable table = CharsetTable.of(charset);
+        if (table == null || !table.isIdentity()) {
+            target.put(pack(fieldNumber, length, value, pad, charset));
+            return;
+        }
+
+        int valueLength = value.length;
+        boolean odd = valueLength % 2 != 0;
+        if (odd && !pad.hasPadding())
+            throw new ISO8583Exception("FIELD[%d] length is odd and no pad have been set for it.", fieldNumber);
+
+        // Packing data by BCD coding directly into the target, the pad is put in place of the missing digit
+        int packLength = TypeUtils.findPreferredLengthInBCD(valueLength);
+        if (target.remaining() < packLength) throw new BufferOverflowException();
+        int shift = odd && pad.getPadDirection() == PadDirection.LEFT ? 1 : 0;
+        byte padByte = odd ? TypeUtils.charToByte(pad.getCharacter()) : 0;
+        for (int i = 0; i < packLength * 2; i += 2)
+            target.put(BCDCodec.pack(digitAt(value, i - shift, padByte), digitAt(value, i + 1 - shift, padByte)));
+    }
+
+    private static byte digitAt(byte[] value, int index, byte padByte) {
+        return index < 0 || index >= value.length ? padByte : value[index];
     }
 
     @Override
@@ -65,22 +106,48 @@ public class BCDContentInterpreter implements ContentInterpreter {
             throw new ISO8583Exception("UNPACKING ERROR, Content (%s): The received message length is less than the required amount. " +
                     "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), message.length, offset, endOffset);
 
-        // Copying the data related to this unit
-        byte[] pack = Arrays.copyOfRange(message, offset, endOffset);
+        // Unpacking from BCD coding directly to the digits, without the pad (if necessary)
+        byte[] unpack = BCDCodec.toDigits(message, offset, skipDigits(length, pad),
+                digitCount(offset, endOffset, length, pad), charset);
+
+        // Creating result object
+        return new UnpackContentResult(unpack, endOffset);
+    }
+
+    @Override
+    public UnpackContentResult unpack(ByteBuffer message,
+                                      int offset,
+                                      int limit,
+                                      int fieldNumber,
+                                      int length,
+                                      ContentPad pad,
+                                      Charset charset) throws ISO8583Exception {
+
+        // Finding the latest data position
+        int endOffset = offset + TypeUtils.findPreferredLengthInBCD(length);
 
-        // Unpacking from BCD coding
-        String unpackText = TypeUtils.bcdBytesToText(pack);
-        byte[] unpack = TypeUtils.encodeBytes(unpackText, charset);
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, Content (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
 
-        // Undoing pad (if necessary)
-        if ((length % 2) != 0)
-            if (pad.hasPadding())
-                if (pad.getPadDirection() == PadDirection.LEFT)
-                    unpack = Arrays.copyOfRange(unpack, 1, unpack.length);
-                else if (pad.getPadDirection() == PadDirection.RIGHT)
-                    unpack = Arrays.copyOfRange(unpack, 0, unpack.length - 1);
+        // Unpacking from BCD coding directly from the buffer, without the pad (if necessary)
+        byte[] unpack = BCDCodec.toDigits(message, offset, skipDigits(length, pad),
+                digitCount(offset, endOffset, length, pad), charset);
 
         // Creating result object
         return new UnpackContentResult(unpack, endOffset);
     }
+
+    private static boolean isPadded(int length, ContentPad pad, PadDirection direction) {
+        return (length % 2) != 0 && pad.hasPadding() && pad.getPadDirection() == direction;
+    }
+
+    private static int skipDigits(int length, ContentPad pad) {
+        return isPadded(length, pad, PadDirection.LEFT) ? 1 : 0;
+    }
+
+    private static int digitCount(int offset, int endOffset, int length, ContentPad pad) {
+        int count = (endOffset - offset) * 2;
+        return isPadded(length, pad, PadDirection.LEFT) || isPadded(length, pad, PadDirection.RIGHT) ? count - 1 : count;
+    }
 }
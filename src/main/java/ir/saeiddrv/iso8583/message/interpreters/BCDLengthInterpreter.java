@@ -4,10 +4,10 @@ import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
 import ir.saeiddrv.iso8583.message.fields.LengthValue;
 import ir.saeiddrv.iso8583.message.interpreters.base.LengthInterpreter;
-import ir.saeiddrv.iso8583.message.utilities.PadUtils;
+import ir.saeiddrv.iso8583.message.utilities.BCDCodec;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.Arrays;
 
 public class BCDLengthInterpreter implements LengthInterpreter {
 
@@ -27,19 +27,34 @@ public class BCDLengthInterpreter implements LengthInterpreter {
             // Replace count with preferred in BCD coding
             int bcdLength = TypeUtils.findPreferredLengthInBCD(lengthCount);
 
-            // Setting pad
-            String decimalLength = PadUtils.padLeft(String.valueOf(valueBytesLength), bcdLength * 2, '0');
-
-            // Encoding data with charset
-            byte[] data = TypeUtils.encodeBytes(decimalLength, charset);
-
-            // Packing data by BCD coding
-            return TypeUtils.byteArrayToBCD(data);
+            // Packing data by BCD coding (padded with zeros at the left)
+            return BCDCodec.fromLong(valueBytesLength, bcdLength);
         } else {
             return new byte[0]; // FIXED LENGTH
         }
     }
 
+    @Override
+    public void pack(int fieldNumber,
+                     LengthValue length,
+                     int valueBytesLength,
+                     Charset charset,
+                     ByteBuffer target) throws ISO8583Exception {
+        if (valueBytesLength > length.getMaximumValue())
+            throw new ISO8583Exception("Length of FIELD[%d] value is larger than allowed maximum size (%d).",
+                    fieldNumber, length.getMaximumValue());
+
+        // Packing data by BCD coding directly into the target (FIXED LENGTH writes nothing)
+        int lengthCount = length.getCount();
+        if (lengthCount > 0)
+            TypeUtils.putIntAsBCD(target, valueBytesLength, TypeUtils.findPreferredLengthInBCD(lengthCount));
+    }
+
+    @Override
+    public int getPackLength(int fieldNumber, LengthValue length, Charset charset) {
+        return TypeUtils.findPreferredLengthInBCD(length.getCount());
+    }
+
     @Override
     public UnpackLengthResult unpack(byte[] message,
                                      int offset,
@@ -53,13 +68,29 @@ public class BCDLengthInterpreter implements LengthInterpreter {
             throw new ISO8583Exception("UNPACKING ERROR, Length (%s): The received message length is less than the required amount. " +
                     "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), message.length, offset, endOffset);
 
-        // Copying the data related to this unit and encoding it with charset
-        byte[] pack = Arrays.copyOfRange(message, offset, endOffset);
-        pack = TypeUtils.encodeBytes(pack, charset);
+        // Unpacking from BCD coding directly to Integer
+        int lengthNumber = BCDCodec.toInt(message, offset, endOffset);
+
+        // Creating result object
+        return new UnpackLengthResult(lengthNumber, endOffset);
+    }
+
+    @Override
+    public UnpackLengthResult unpack(ByteBuffer message,
+                                     int offset,
+                                     int limit,
+                                     int fieldNumber,
+                                     LengthValue length,
+                                     Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + TypeUtils.findPreferredLengthInBCD(length.getCount());
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, Length (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
 
-        // Unpacking from BCD coding and cast to Integer
-        String unpack = TypeUtils.bcdBytesToText(pack);
-        int lengthNumber = Integer.parseInt(unpack);
+        // Unpacking from BCD coding directly from the buffer
+        int lengthNumber = TypeUtils.bcdBytesToInt(message, offset, endOffset);
 
         // Creating result object
         return new UnpackLengthResult(lengthNumber, endOffset);
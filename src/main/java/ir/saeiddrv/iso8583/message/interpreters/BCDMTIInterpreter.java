@@ -3,7 +3,9 @@ package ir.saeiddrv.iso8583.message.interpreters;
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackMTIResult;
 import ir.saeiddrv.iso8583.message.interpreters.base.MTIInterpreter;
+import ir.saeiddrv.iso8583.message.utilities.BCDCodec;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 
@@ -16,11 +18,18 @@ public class BCDMTIInterpreter implements MTIInterpreter {
 
     @Override
     public byte[] pack(String mti, Charset charset) throws ISO8583Exception {
-        // Encoding data with charset
-        byte[] data =  TypeUtils.encodeBytes(mti, charset);
+        // Packing the four digits by BCD coding, the same as the ByteBuffer version
+        ByteBuffer pack = ByteBuffer.allocate(2);
+        pack(mti, charset, pack);
+        return pack.array();
+    }
 
-        // Packing data by BCD coding
-        return TypeUtils.byteArrayToBCD(data);
+    @Override
+    public void pack(String mti, Charset charset, ByteBuffer target) throws ISO8583Exception {
+        // Packing the four digits by BCD coding directly into the target,
+        // the nibbles of the digits are the same for any charset (such as EBCDIC)
+        for (int i = 0; i < 4; i += 2)
+            target.put(BCDCodec.pack(mti.charAt(i), mti.charAt(i + 1)));
     }
 
     @Override
@@ -34,12 +43,27 @@ public class BCDMTIInterpreter implements MTIInterpreter {
             throw new ISO8583Exception("UNPACKING ERROR, MTI (%s): The received message length is less than the required amount. " +
                     "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), message.length, offset, endOffset);
 
-        // Copying the data related to this unit and encoding it with charset
-        byte[] pack = Arrays.copyOfRange(message, offset, endOffset);
-        pack = TypeUtils.encodeBytes(pack, charset);
+        // Unpacking from BCD coding, the same for any charset
+        String unpack = TypeUtils.bcdBytesToText(Arrays.copyOfRange(message, offset, endOffset));
+
+        // Creating result object
+        return new UnpackMTIResult(unpack, endOffset);
+    }
+
+    @Override
+    public UnpackMTIResult unpack(ByteBuffer message,
+                                  int offset,
+                                  int limit,
+                                  Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + 2;
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, MTI (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
 
-        // Unpacking from BCD coding
-        String unpack = TypeUtils.bcdBytesToText(pack);
+        // Unpacking from BCD coding directly from the buffer
+        String unpack = TypeUtils.bcdBytesToText(message, offset, endOffset);
 
         // Creating result object
         return new UnpackMTIResult(unpack, endOffset);
@@ -3,10 +3,10 @@ package ir.saeiddrv.iso8583.message.interpreters;
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
 import ir.saeiddrv.iso8583.message.interpreters.base.MessageLengthInterpreter;
-import ir.saeiddrv.iso8583.message.utilities.PadUtils;
+import ir.saeiddrv.iso8583.message.utilities.BCDCodec;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.Arrays;
 
 public class BCDMessageLengthInterpreter implements MessageLengthInterpreter {
 
@@ -22,19 +22,30 @@ public class BCDMessageLengthInterpreter implements MessageLengthInterpreter {
             if (count % 2 != 0)
                 throw new ISO8583Exception("The message length count for BCD coding must be even.");
 
-            // Setting pad
-            String decimalLength = PadUtils.padLeft(String.valueOf(messageBytesLength), count * 2, '0');
-
-            // Encoding data with charset
-            byte[] data = TypeUtils.encodeBytes(decimalLength, charset);
-
-            // Packing data by BCD coding
-            return TypeUtils.byteArrayToBCD(data);
+            // Packing data by BCD coding (padded with zeros at the left)
+            return BCDCodec.fromLong(messageBytesLength, count);
         } else {
             return new byte[0]; // WITHOUT LENGTH
         }
     }
 
+    @Override
+    public void pack(int count, int messageBytesLength, Charset charset, ByteBuffer target) throws ISO8583Exception {
+        if (count > 0) {
+            // Checking count of the length
+            if (count % 2 != 0)
+                throw new ISO8583Exception("The message length count for BCD coding must be even.");
+
+            // Packing data by BCD coding directly into the target
+            TypeUtils.putIntAsBCD(target, messageBytesLength, count);
+        }
+    }
+
+    @Override
+    public int getPackLength(int count, Charset charset) {
+        return Math.max(count, 0);
+    }
+
     @Override
     public UnpackLengthResult unpack(byte[] message,
                                      int offset,
@@ -47,13 +58,28 @@ public class BCDMessageLengthInterpreter implements MessageLengthInterpreter {
             throw new ISO8583Exception("UNPACKING ERROR, MessageLength (%s): The received message length is less than the required amount. " +
                     "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), message.length, offset, endOffset);
 
-        // Copying the data related to this unit and encoding it with charset
-        byte[] pack = Arrays.copyOfRange(message, offset, endOffset);
-        pack = TypeUtils.encodeBytes(pack, charset);
+        // Unpacking from BCD coding directly to Integer
+        int length = BCDCodec.toInt(message, offset, endOffset);
+
+        // Creating result object
+        return new UnpackLengthResult(length, endOffset);
+    }
+
+    @Override
+    public UnpackLengthResult unpack(ByteBuffer message,
+                                     int offset,
+                                     int limit,
+                                     int count,
+                                     Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + count;
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, MessageLength (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
 
-        // Unpacking from BCD coding and cast to Integer
-        String unpack = TypeUtils.bcdBytesToText(pack);
-        int length = Integer.parseInt(unpack);
+        // Unpacking from BCD coding directly from the buffer
+        int length = TypeUtils.bcdBytesToInt(message, offset, endOffset);
 
         // Creating result object
         return new UnpackLengthResult(length, endOffset);
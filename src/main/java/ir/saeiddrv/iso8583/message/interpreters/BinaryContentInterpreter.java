@@ -19,7 +19,7 @@ public class BinaryContentInterpreter implements ContentInterpreter {
     @Override
     public byte[] transfer(String value, Charset charset) {
         byte[] bytes = TypeUtils.hexStringToByteArray(value);
-        return TypeUtils.encodeBytes(bytes, charset);
+        return TypeUtils.translateBytes(bytes, charset);
     }
 
     @Override
@@ -70,7 +70,7 @@ public class BinaryContentInterpreter implements ContentInterpreter {
 
         // Copying the data related to this unit and encoding it with charset
         byte[] data = Arrays.copyOfRange(message, offset, endOffset);
-        data = TypeUtils.encodeBytes(data, charset);
+        data = TypeUtils.translateBytes(data, charset);
 
         // Creating result object
         return new UnpackContentResult(data, endOffset);
@@ -6,11 +6,8 @@ import ir.saeiddrv.iso8583.message.fields.Bitmap;
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.interpreters.base.BitmapInterpreter;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.BitSet;
-import java.util.List;
 
 public class BitmapBinaryInterpreter implements BitmapInterpreter {
 
@@ -21,8 +18,14 @@ public class BitmapBinaryInterpreter implements BitmapInterpreter {
 
     @Override
     public byte[] pack(Bitmap bitmap, Charset charset) throws ISO8583Exception {
-        // Encoding data with charset
-        return TypeUtils.encodeBytes(bitmap.getValue(), charset);
+        // The bitmap is binary data, so it is written as is
+        return bitmap.getValue();
+    }
+
+    @Override
+    public void pack(Bitmap bitmap, Charset charset, ByteBuffer target) throws ISO8583Exception {
+        // Writing the 64-bit words directly into the target
+        bitmap.writeTo(target);
     }
 
     @Override
@@ -38,23 +41,59 @@ public class BitmapBinaryInterpreter implements BitmapInterpreter {
             throw new ISO8583Exception("UNPACKING ERROR, Bitmap (%s): The received message length is less than the required amount. " +
                     "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), message.length, offset, endOffset);
 
-        // Copying the data related to this unit and encoding it with charset
-        byte[] data = Arrays.copyOfRange(message, offset, endOffset);
-        data = TypeUtils.encodeBytes(data, charset);
-
-        // Creating bitset from bytes
-        BitSet bitSet = TypeUtils.byteArray2BitSet(data, length, range.getStart());
+        // Counting the set bits of the 64-bit words
+        int count = 0;
+        for (int i = 0; i < length; i += 8)
+            count += Long.bitCount(TypeUtils.bytesToLongWord(message, offset + i, Math.min(length - i, 8)));
 
         // Finding field numbers
-        List<Integer> filedNumbers = new ArrayList<>();
-        for (int i = 0; i < length * 8; i++)
-            if (bitSet.get(i))
-                filedNumbers.add(i + range.getStart());
+        int[] fieldNumbers = new int[count];
+        int index = 0;
+        for (int i = 0; i < length; i += 8)
+            index = collectFieldNumbers(TypeUtils.bytesToLongWord(message, offset + i, Math.min(length - i, 8)),
+                    range.getStart() + (i << 3), fieldNumbers, index);
+
+        // Creating result object
+        return new UnpackBitmapResult(fieldNumbers, endOffset);
+    }
+
+    @Override
+    public UnpackBitmapResult unpack(ByteBuffer message,
+                                     int offset,
+                                     int limit,
+                                     int length,
+                                     Range range,
+                                     Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + length;
 
-        // fieldNumbers: List -> Array
-        int[] fieldNumbers = filedNumbers.stream().mapToInt(number -> number).toArray();
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, Bitmap (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
+
+        // Counting the set bits of the 64-bit words, directly from the buffer
+        int count = 0;
+        for (int i = 0; i < length; i += 8)
+            count += Long.bitCount(TypeUtils.bytesToLongWord(message, offset + i, Math.min(length - i, 8)));
+
+        // Finding field numbers
+        int[] fieldNumbers = new int[count];
+        int index = 0;
+        for (int i = 0; i < length; i += 8)
+            index = collectFieldNumbers(TypeUtils.bytesToLongWord(message, offset + i, Math.min(length - i, 8)),
+                    range.getStart() + (i << 3), fieldNumbers, index);
 
         // Creating result object
         return new UnpackBitmapResult(fieldNumbers, endOffset);
     }
+
+    private static int collectFieldNumbers(long word, int firstFieldNumber, int[] fieldNumbers, int index) {
+        // The first field of the word is the most significant bit
+        while (word != 0) {
+            int bit = Long.numberOfLeadingZeros(word);
+            fieldNumbers[index++] = firstFieldNumber + bit;
+            word &= ~(Long.MIN_VALUE >>> bit);
+        }
+        return index;
+    }
 }
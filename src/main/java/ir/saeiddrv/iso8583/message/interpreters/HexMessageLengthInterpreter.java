@@ -18,27 +18,34 @@ public class HexMessageLengthInterpreter implements MessageLengthInterpreter {
     @Override
     public byte[] pack(int count, int messageBytesLength, Charset charset) throws ISO8583Exception {
         if (count > 0) {
-            // Length: Integer -> HEX -> byte[]
-            byte[] data = TypeUtils.hexStringToByteArray(Integer.toHexString(messageBytesLength));
+            ByteBuffer data = ByteBuffer.allocate(count);
+            pack(count, messageBytesLength, charset, data);
+            return data.array();
+        } else {
+            return new byte[0]; // WITHOUT LENGTH
+        }
+    }
 
+    @Override
+    public void pack(int count, int messageBytesLength, Charset charset, ByteBuffer target) throws ISO8583Exception {
+        if (count > 0) {
             // Checking count of the length bytes
-            int lengthCount = data.length;
+            int lengthCount = (Integer.SIZE - Integer.numberOfLeadingZeros(messageBytesLength) + 7) / 8;
             if (lengthCount > count)
                 throw new ISO8583Exception("The length count of the generated message " +
                         "(%s: %s bytes in HEX) is greater than the specified length (%s).",
                         messageBytesLength, lengthCount, count);
 
-            // Setting left-pad by zero (if necessary)
-            byte[] padData = (count > lengthCount) ? new byte[count - lengthCount] : new byte[0];
-            data = ByteBuffer.allocate(count).put(padData).put(data).array();
-
-            // Encoding data with charset
-            return TypeUtils.encodeBytes(data, charset);
-        } else {
-            return new byte[0]; // WITHOUT LENGTH
+            // Length: Integer -> big-endian bytes, left-padded by zero
+            TypeUtils.putUnsignedInt(target, messageBytesLength, count);
         }
     }
 
+    @Override
+    public int getPackLength(int count, Charset charset) {
+        return Math.max(count, 0);
+    }
+
     @Override
     public UnpackLengthResult unpack(byte[] message,
                                      int offset,
@@ -53,7 +60,7 @@ public class HexMessageLengthInterpreter implements MessageLengthInterpreter {
 
         // Copying the data related to this unit and encoding it with charset
         byte[] data = Arrays.copyOfRange(message, offset, endOffset);
-        data = TypeUtils.encodeBytes(data, charset);
+        data = TypeUtils.translateBytes(data, charset);
 
         // Length: byte[] -> HEX -> Integer
         int length =  Integer.parseInt(TypeUtils.byteArrayToHexString(data), 16);
@@ -61,4 +68,24 @@ public class HexMessageLengthInterpreter implements MessageLengthInterpreter {
         // Creating result object
         return new UnpackLengthResult(length, endOffset);
     }
+
+    @Override
+    public UnpackLengthResult unpack(ByteBuffer message,
+                                     int offset,
+                                     int limit,
+                                     int count,
+                                     Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + count;
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, MessageLength (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
+
+        // Length: big-endian bytes -> Integer
+        int length = TypeUtils.bytesToUnsignedInt(message, offset, endOffset);
+
+        // Creating result object
+        return new UnpackLengthResult(length, endOffset);
+    }
 }
@@ -5,6 +5,7 @@ import ir.saeiddrv.iso8583.message.headers.HeaderContent;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackContentResult;
 import ir.saeiddrv.iso8583.message.interpreters.base.HeaderInterpreter;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 
@@ -36,7 +37,28 @@ public class TPDUHeaderInterpreter implements HeaderInterpreter {
 
         // Copying the data related to this unit and encode it with charset
         byte[] data = Arrays.copyOfRange(message, offset, endOffset);
-        data = TypeUtils.encodeBytes(data, charset);
+        data = TypeUtils.translateBytes(data, charset);
+
+        // Creating result object
+        return new UnpackContentResult(data, endOffset);
+    }
+
+    @Override
+    public UnpackContentResult unpack(ByteBuffer message,
+                                      int offset,
+                                      int limit,
+                                      Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + 5;
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, HEADER (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
+
+        // Copying the data related to this unit and encode it with charset
+        byte[] data = new byte[endOffset - offset];
+        message.get(offset, data);
+        data = TypeUtils.translateBytes(data, charset);
 
         // Creating result object
         return new UnpackContentResult(data, endOffset);
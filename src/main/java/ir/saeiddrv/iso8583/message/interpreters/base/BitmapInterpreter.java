@@ -4,6 +4,7 @@ import ir.saeiddrv.iso8583.message.Range;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackBitmapResult;
 import ir.saeiddrv.iso8583.message.fields.Bitmap;
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public interface BitmapInterpreter {
@@ -13,10 +14,38 @@ public interface BitmapInterpreter {
     public byte[] pack(Bitmap bitmap,
                        Charset charset) throws ISO8583Exception;
 
+    public default void pack(Bitmap bitmap,
+                             Charset charset,
+                             ByteBuffer target) throws ISO8583Exception {
+        target.put(pack(bitmap, charset));
+    }
+
     public UnpackBitmapResult unpack(byte[] message,
                                      int offset,
                                      int length,
                                      Range range,
                                      Charset charset) throws ISO8583Exception;
 
+    public default UnpackBitmapResult unpack(ByteBuffer message,
+                                             int offset,
+                                             int limit,
+                                             int length,
+                                             Range range,
+                                             Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + length;
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, Bitmap (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
+
+        // Copying the data related to this unit and delegating to the byte array version
+        byte[] pack = new byte[length];
+        message.get(offset, pack);
+        UnpackBitmapResult unpack = unpack(pack, 0, length, range, charset);
+
+        // Creating result object
+        return new UnpackBitmapResult(unpack.getValue(), offset + unpack.getNextOffset());
+    }
+
 }
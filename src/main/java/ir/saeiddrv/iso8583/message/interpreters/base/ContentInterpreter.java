@@ -4,6 +4,7 @@ import ir.saeiddrv.iso8583.message.unpacks.UnpackContentResult;
 import ir.saeiddrv.iso8583.message.fields.ContentPad;
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.fields.LengthValue;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public interface ContentInterpreter {
@@ -20,6 +21,15 @@ public interface ContentInterpreter {
                        ContentPad pad,
                        Charset charset) throws ISO8583Exception;
 
+    public default void pack(int fieldNumber,
+                             LengthValue length,
+                             byte[] value,
+                             ContentPad pad,
+                             Charset charset,
+                             ByteBuffer target) throws ISO8583Exception {
+        target.put(pack(fieldNumber, length, value, pad, charset));
+    }
+
     public UnpackContentResult unpack(byte[] message,
                                       int offset,
                                       int fieldNumber,
@@ -27,4 +37,31 @@ public interface ContentInterpreter {
                                       ContentPad pad,
                                       Charset charset) throws ISO8583Exception;
 
+    public default int getPackLength(int length) {
+        return length;
+    }
+
+    public default UnpackContentResult unpack(ByteBuffer message,
+                                              int offset,
+                                              int limit,
+                                              int fieldNumber,
+                                              int length,
+                                              ContentPad pad,
+                                              Charset charset) throws ISO8583Exception {
+        // Finding the latest data position
+        int endOffset = offset + getPackLength(length);
+
+        if (limit < endOffset)
+            throw new ISO8583Exception("UNPACKING ERROR, Content (%s): The received message length is less than the required amount. " +
+                    "[messageLength: %s, startIndex: %s, endIndex: %s]", getName(), limit, offset, endOffset);
+
+        // Copying the data related to this unit and delegating to the byte array version
+        byte[] pack = new byte[endOffset - offset];
+        message.get(offset, pack);
+        UnpackContentResult unpack = unpack(pack, 0, fieldNumber, length, pad, charset);
+
+        // Creating result object
+        return new UnpackContentResult(unpack.getValue(), offset + unpack.getNextOffset());
+    }
+
 }
@@ -3,6 +3,7 @@ package ir.saeiddrv.iso8583.message.interpreters.base;
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.headers.HeaderContent;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackContentResult;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public interface HeaderInterpreter {
@@ -11,7 +12,24 @@ public interface HeaderInterpreter {
 
     public byte[] pack(HeaderContent content, Charset charset) throws ISO8583Exception;
 
+    public default void pack(HeaderContent content, Charset charset, ByteBuffer target) throws ISO8583Exception {
+        target.put(pack(content, charset));
+    }
+
     public UnpackContentResult unpack(byte[] message,
                                       int offset,
                                       Charset charset) throws ISO8583Exception;
+
+    public default UnpackContentResult unpack(ByteBuffer message,
+                                              int offset,
+                                              int limit,
+                                              Charset charset) throws ISO8583Exception {
+        // Copying the remaining data and delegating to the byte array version
+        byte[] pack = new byte[Math.max(limit - offset, 0)];
+        message.get(offset, pack);
+        UnpackContentResult unpack = unpack(pack, 0, charset);
+
+        // Creating result object
+        return new UnpackContentResult(unpack.getValue(), offset + unpack.getNextOffset());
+    }
 }
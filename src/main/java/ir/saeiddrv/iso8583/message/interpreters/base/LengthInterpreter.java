@@ -3,6 +3,7 @@ package ir.saeiddrv.iso8583.message.interpreters.base;
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
 import ir.saeiddrv.iso8583.message.fields.LengthValue;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public interface LengthInterpreter {
@@ -14,10 +15,39 @@ public interface LengthInterpreter {
                        int valueBytesLength,
                        Charset charset) throws ISO8583Exception;
 
+    public default void pack(int fieldNumber,
+                             LengthValue length,
+                             int valueBytesLength,
+                             Charset charset,
+                             ByteBuffer target) throws ISO8583Exception {
+        target.put(pack(fieldNumber, length, valueBytesLength, charset));
+    }
+
+    public default int getPackLength(int fieldNumber,
+                                     LengthValue length,
+                                     Charset charset) throws ISO8583Exception {
+        return pack(fieldNumber, length, 0, charset).length;
+    }
+
     public UnpackLengthResult unpack(byte[] message,
                                      int offset,
                                      int fieldNumber,
                                      LengthValue length,
                                      Charset charset) throws ISO8583Exception;
 
+    public default UnpackLengthResult unpack(ByteBuffer message,
+                                             int offset,
+                                             int limit,
+                                             int fieldNumber,
+                                             LengthValue length,
+                                             Charset charset) throws ISO8583Exception {
+        // Copying the remaining data and delegating to the byte array version
+        byte[] pack = new byte[Math.max(limit - offset, 0)];
+        message.get(offset, pack);
+        UnpackLengthResult unpack = unpack(pack, 0, fieldNumber, length, charset);
+
+        // Creating result object
+        return new UnpackLengthResult(unpack.getValue(), offset + unpack.getNextOffset());
+    }
+
 }
@@ -2,6 +2,7 @@ package ir.saeiddrv.iso8583.message.interpreters.base;
 
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackMTIResult;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public interface MTIInterpreter {
@@ -10,8 +11,25 @@ public interface MTIInterpreter {
 
     public byte[] pack(String mti, Charset charset) throws ISO8583Exception;
 
+    public default void pack(String mti, Charset charset, ByteBuffer target) throws ISO8583Exception {
+        target.put(pack(mti, charset));
+    }
+
     public UnpackMTIResult unpack(byte[] message,
                                   int offset,
                                   Charset charset) throws ISO8583Exception;
 
+    public default UnpackMTIResult unpack(ByteBuffer message,
+                                          int offset,
+                                          int limit,
+                                          Charset charset) throws ISO8583Exception {
+        // Copying the remaining data and delegating to the byte array version
+        byte[] pack = new byte[Math.max(limit - offset, 0)];
+        message.get(offset, pack);
+        UnpackMTIResult unpack = unpack(pack, 0, charset);
+
+        // Creating result object
+        return new UnpackMTIResult(unpack.getValue(), offset + unpack.getNextOffset());
+    }
+
 }
@@ -2,6 +2,7 @@ package ir.saeiddrv.iso8583.message.interpreters.base;
 
 import ir.saeiddrv.iso8583.message.ISO8583Exception;
 import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public interface MessageLengthInterpreter {
@@ -12,9 +13,34 @@ public interface MessageLengthInterpreter {
                        int messageBytesLength,
                        Charset charset) throws ISO8583Exception;
 
+    public default void pack(int count,
+                             int messageBytesLength,
+                             Charset charset,
+                             ByteBuffer target) throws ISO8583Exception {
+        target.put(pack(count, messageBytesLength, charset));
+    }
+
+    public default int getPackLength(int count, Charset charset) throws ISO8583Exception {
+        return pack(count, 0, charset).length;
+    }
+
     public UnpackLengthResult unpack(byte[] message,
                                      int offset,
                                      int count,
                                      Charset charset) throws ISO8583Exception;
 
+    public default UnpackLengthResult unpack(ByteBuffer message,
+                                             int offset,
+                                             int limit,
+                                             int count,
+                                             Charset charset) throws ISO8583Exception {
+        // Copying the remaining data and delegating to the byte array version
+        byte[] pack = new byte[Math.max(limit - offset, 0)];
+        message.get(offset, pack);
+        UnpackLengthResult unpack = unpack(pack, 0, count, charset);
+
+        // Creating result object
+        return new UnpackLengthResult(unpack.getValue(), offset + unpack.getNextOffset());
+    }
+
 }
@@ -0,0 +1,119 @@
+package ir.saeiddrv.iso8583.message.spec;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Range;
+import ir.saeiddrv.iso8583.message.fields.BitmapType;
+import ir.saeiddrv.iso8583.message.fields.ContentPad;
+import ir.saeiddrv.iso8583.message.fields.LengthType;
+import ir.saeiddrv.iso8583.message.fields.formatters.ValueFormatter;
+import ir.saeiddrv.iso8583.message.fields.shortcuts.*;
+import ir.saeiddrv.iso8583.message.interpreters.ASCIILengthInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.BCDLengthInterpreter;
+import java.util.List;
+
+/**
+ * The parsed definition of a field of a {@link MessageSpec}, each call of {@link #toShortcut()}
+ * creates a new shortcut (and new sub fields of a combined field), so the messages share nothing but
+ * the stateless formatter.
+ *
+ * @author Saeid Darvish
+ */
+final class FieldSpec {
+
+    enum Type { ASCII, ASCIIBCD, BCD, BCDASCII, BINARY, BITMAP, COMBINE, RAW }
+
+    private final int number;
+    private final Type type;
+    private final LengthType lengthType;
+    private final int maximumLength;
+    private final ContentPad pad;
+    private final BitmapType bitmapType;
+    private final String lengthInterpreter;
+    private final ValueFormatter formatter;
+    private final String description;
+    private final List<FieldSpec> subFields;
+
+    FieldSpec(int number,
+              Type type,
+              LengthType lengthType,
+              int maximumLength,
+              ContentPad pad,
+              BitmapType bitmapType,
+              String lengthInterpreter,
+              ValueFormatter formatter,
+              String description,
+              List<FieldSpec> subFields) {
+        this.number = number;
+        this.type = type;
+        this.lengthType = lengthType;
+        this.maximumLength = maximumLength;
+        this.pad = pad;
+        this.bitmapType = bitmapType;
+        this.lengthInterpreter = lengthInterpreter;
+        this.formatter = formatter;
+        this.description = description;
+        this.subFields = List.copyOf(subFields);
+    }
+
+    int getNumber() {
+        return number;
+    }
+
+    ShortcutField toShortcut() throws ISO8583Exception {
+        ShortcutField shortcut;
+        switch (type) {
+            case ASCII:
+                shortcut = ASCII.create(lengthType, maximumLength, pad);
+                break;
+            case ASCIIBCD:
+                shortcut = ASCIIBCD.create(lengthType, maximumLength, pad);
+                break;
+            case BCD:
+                shortcut = BCD.create(lengthType, maximumLength, pad);
+                break;
+            case BCDASCII:
+                shortcut = BCDASCII.create(lengthType, maximumLength, pad);
+                break;
+            case BINARY:
+                shortcut = BINARY.create(maximumLength);
+                break;
+            case BITMAP:
+                shortcut = BITMAP.create(bitmapType, maximumLength, rangeOf(bitmapType));
+                break;
+            case RAW:
+                shortcut = RAW.create();
+                break;
+            case COMBINE:
+                COMBINE combine = COMBINE.create();
+                if (lengthType != null)
+                    combine.setLength(lengthType, maximumLength, "BCD".equals(lengthInterpreter) ?
+                            new BCDLengthInterpreter() : new ASCIILengthInterpreter());
+                for (FieldSpec subField : subFields)
+                    combine.addSubField(subField.getNumber(), subField.toShortcut());
+                shortcut = combine;
+                break;
+            default:
+                throw new ISO8583Exception("The type of the FIELD[%d] is not supported: %s", number, type);
+        }
+        if (description != null) shortcut.setDescription(description);
+        if (formatter != null) shortcut.setValueFormatter(formatter);
+        return shortcut;
+    }
+
+    private static Range rangeOf(BitmapType bitmapType) {
+        switch (bitmapType) {
+            case SECONDARY:
+                return Range.OF_SECONDARY_BITMAP;
+            case TERTIARY:
+                return Range.OF_TERTIARY_BITMAP;
+            default:
+                return Range.OF_PRIMARY_BITMAP;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@FieldSpec[number: %s, type: %s, lengthType: %s, maximumLength: %s, subFields: %s]",
+                number, type, lengthType, maximumLength, subFields.size());
+    }
+}
@@ -0,0 +1,451 @@
+package ir.saeiddrv.iso8583.message.spec;
+
+import ir.saeiddrv.iso8583.message.ISO8583;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.MessageTemplate;
+import ir.saeiddrv.iso8583.message.fields.BitmapType;
+import ir.saeiddrv.iso8583.message.fields.ContentPad;
+import ir.saeiddrv.iso8583.message.fields.LengthType;
+import ir.saeiddrv.iso8583.message.fields.formatters.ValueFormatter;
+import ir.saeiddrv.iso8583.message.headers.TPDU;
+import ir.saeiddrv.iso8583.message.interpreters.*;
+import ir.saeiddrv.iso8583.message.interpreters.base.MTIInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.MessageLengthInterpreter;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A message definition declared by an XML spec file (parsed with the JDK alone) instead of the Java code
+ * of an {@link ISO8583} builder:
+ * <pre>
+ * &lt;message description="POS" charset="ISO-8859-1"&gt;
+ *     &lt;length count="2" interpreter="HEX"/&gt;
+ *     &lt;header type="TPDU" protocol="60" source="121" destination="121"/&gt;
+ *     &lt;mti value="0200" interpreter="BCD"/&gt;
+ *     &lt;field number="0" type="BITMAP" bitmap="PRIMARY" bytes="8"/&gt;
+ *     &lt;field number="2" type="BCD" length="LL" max="19" pad="RIGHT_0" formatter="MaskCardNumber"/&gt;
+ *     &lt;field number="52" type="BINARY" bytes="8"/&gt;
+ *     &lt;field number="48" type="COMBINE" length="LLL" max="999" lengthInterpreter="ASCII"&gt;
+ *         &lt;field number="1" type="ASCII" length="FIXED" max="3"/&gt;
+ *     &lt;/field&gt;
+ * &lt;/message&gt;
+ * </pre>
+ * The message length interpreters are ASCII, BCD or HEX, the MTI interpreters are ASCII or BCD, the header is TPDU
+ * (by the DECIMAL or HEX format), the field types are the shortcuts (ASCII, ASCIIBCD, BCD, BCDASCII, BINARY, BITMAP,
+ * COMBINE and RAW), the pads are the constants of {@link ContentPad} and a formatter is the simple name of a built-in
+ * formatter or the class name of a stateless {@link ValueFormatter} with a public no-argument constructor.
+ * <p>
+ * A spec is immutable and thread-safe, the loaded files are cached by their path (until they are modified),
+ * so each service instance and each variant of an interface parses its spec once.
+ *
+ * @author Saeid Darvish
+ */
+public final class MessageSpec {
+
+    private static final String FORMATTERS_PACKAGE = "ir.saeiddrv.iso8583.message.fields.formatters.";
+    private static final DocumentBuilderFactory DOCUMENT_FACTORY = documentFactory();
+    private static final Map<Path, Loaded> CACHE = new ConcurrentHashMap<>();
+
+    private final String description;
+    private final Charset charset;
+    private final int lengthCount;
+    private final String lengthInterpreter;
+    private final String headerFormat;
+    private final String[] tpdu;
+    private final String mtiLiteral;
+    private final String mtiInterpreter;
+    private final List<FieldSpec> fields;
+    private volatile MessageTemplate template = null;
+
+    private MessageSpec(String description,
+                        Charset charset,
+                        int lengthCount,
+                        String lengthInterpreter,
+                        String headerFormat,
+                        String[] tpdu,
+                        String mtiLiteral,
+                        String mtiInterpreter,
+                        List<FieldSpec> fields) {
+        this.description = description;
+        this.charset = charset;
+        this.lengthCount = lengthCount;
+        this.lengthInterpreter = lengthInterpreter;
+        this.headerFormat = headerFormat;
+        this.tpdu = tpdu;
+        this.mtiLiteral = mtiLiteral;
+        this.mtiInterpreter = mtiInterpreter;
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    private static final class Loaded {
+        private final FileTime modified;
+        private final long size;
+        private final MessageSpec spec;
+
+        private Loaded(FileTime modified, long size, MessageSpec spec) {
+            this.modified = modified;
+            this.size = size;
+            this.spec = spec;
+        }
+    }
+
+    private static DocumentBuilderFactory documentFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setIgnoringComments(true);
+        factory.setExpandEntityReferences(false);
+        try {
+            // A SPEC NEVER NEEDS A DTD, SO THE EXTERNAL ENTITIES CANNOT BE RESOLVED
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        } catch (ParserConfigurationException exception) {
+            throw new IllegalStateException(exception);
+        }
+        return factory;
+    }
+
+    /**
+     * Load the spec of a file, from the cache if the file has not been modified since it was parsed
+     *
+     * @param path the path of the spec file
+     * @return the spec
+     * @throws ISO8583Exception If the file cannot be read, or it is an invalid spec
+     */
+    public static MessageSpec load(Path path) throws ISO8583Exception {
+        Path key = Objects.requireNonNull(path, "The 'Path' cannot be set to null.").toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (IOException exception) {
+            throw new ISO8583Exception("Unable to read the spec file [%s]: %s", key, exception.getMessage());
+        }
+
+        // REUSE THE PARSED SPEC OF AN UNMODIFIED FILE
+        Loaded loaded = CACHE.get(key);
+        if (loaded != null && loaded.modified.equals(attributes.lastModifiedTime()) && loaded.size == attributes.size())
+            return loaded.spec;
+
+        MessageSpec spec;
+        try (InputStream inputStream = Files.newInputStream(key)) {
+            spec = parse(inputStream);
+        } catch (IOException exception) {
+            throw new ISO8583Exception("Unable to read the spec file [%s]: %s", key, exception.getMessage());
+        } catch (ISO8583Exception exception) {
+            throw new ISO8583Exception("Invalid spec file [%s]: %s", key, exception.getMessage());
+        }
+        CACHE.put(key, new Loaded(attributes.lastModifiedTime(), attributes.size(), spec));
+        return spec;
+    }
+
+    /**
+     * Parse a spec (not cached)
+     *
+     * @param inputStream the XML of the spec
+     * @return the spec
+     * @throws ISO8583Exception If the XML cannot be read, or it is an invalid spec
+     */
+    public static MessageSpec parse(InputStream inputStream) throws ISO8583Exception {
+        Objects.requireNonNull(inputStream, "The 'InputStream' cannot be set to null.");
+        Document document;
+        try {
+            DocumentBuilder documentBuilder;
+            synchronized (DOCUMENT_FACTORY) {
+                documentBuilder = DOCUMENT_FACTORY.newDocumentBuilder();
+            }
+            document = documentBuilder.parse(inputStream);
+        } catch (ParserConfigurationException | SAXException | IOException exception) {
+            throw new ISO8583Exception("Unable to parse the spec: %s", exception.getMessage());
+        }
+
+        Element root = document.getDocumentElement();
+        if (!root.getTagName().equals("message"))
+            throw new ISO8583Exception("The root element of a spec must be <message>: <%s>", root.getTagName());
+
+        // FIND THE PARTS OF THE MESSAGE
+        int lengthCount = 0;
+        String lengthInterpreter = null;
+        String headerFormat = null;
+        String[] tpdu = null;
+        String mtiLiteral = null;
+        String mtiInterpreter = null;
+        List<FieldSpec> fields = new ArrayList<>();
+        for (Element element : children(root)) {
+            switch (element.getTagName()) {
+                case "length":
+                    lengthCount = integer(element, "count", null);
+                    lengthInterpreter = oneOf(element, "interpreter", "ASCII", "BCD", "HEX");
+                    break;
+                case "header":
+                    oneOf(element, "type", "TPDU");
+                    headerFormat = element.hasAttribute("format") ? oneOf(element, "format", "DECIMAL", "HEX") : "DECIMAL";
+                    tpdu = new String[]{required(element, "protocol"),
+                            required(element, "source"),
+                            required(element, "destination")};
+                    break;
+                case "mti":
+                    mtiLiteral = required(element, "value");
+                    mtiInterpreter = oneOf(element, "interpreter", "ASCII", "BCD");
+                    break;
+                case "field":
+                    fields.add(field(element));
+                    break;
+                default:
+                    throw new ISO8583Exception("Unknown element of the spec: <%s>", element.getTagName());
+            }
+        }
+
+        Charset charset;
+        try {
+            charset = root.hasAttribute("charset") ? Charset.forName(root.getAttribute("charset")) : null;
+        } catch (IllegalArgumentException exception) {
+            throw new ISO8583Exception("Unsupported charset of the spec: %s", root.getAttribute("charset"));
+        }
+        MessageSpec spec = new MessageSpec(root.hasAttribute("description") ? root.getAttribute("description") : null,
+                charset, lengthCount, lengthInterpreter, headerFormat, tpdu, mtiLiteral, mtiInterpreter, fields);
+
+        // DEFINE ONCE, SO AN INVALID SPEC FAILS ON LOADING INSTEAD OF ON THE FIRST MESSAGE
+        try {
+            spec.define();
+        } catch (IllegalArgumentException exception) {
+            throw new ISO8583Exception(exception.getMessage());
+        }
+        return spec;
+    }
+
+    private static FieldSpec field(Element element) throws ISO8583Exception {
+        int number = integer(element, "number", null);
+        FieldSpec.Type type;
+        try {
+            type = FieldSpec.Type.valueOf(required(element, "type"));
+        } catch (IllegalArgumentException exception) {
+            throw new ISO8583Exception("Unknown type of the FIELD[%d]: %s", number, element.getAttribute("type"));
+        }
+
+        LengthType lengthType = null;
+        int maximumLength = 0;
+        BitmapType bitmapType = null;
+        String lengthInterpreter = null;
+        List<FieldSpec> subFields = new ArrayList<>();
+        switch (type) {
+            case BINARY:
+                maximumLength = integer(element, "bytes", number);
+                break;
+            case BITMAP:
+                bitmapType = BitmapType.valueOf(oneOf(element, "bitmap", "PRIMARY", "SECONDARY", "TERTIARY"));
+                maximumLength = integer(element, "bytes", number);
+                break;
+            case RAW:
+                break;
+            case COMBINE:
+                if (element.hasAttribute("length")) {
+                    lengthType = lengthType(element, number);
+                    maximumLength = integer(element, "max", number);
+                    lengthInterpreter = element.hasAttribute("lengthInterpreter") ?
+                            oneOf(element, "lengthInterpreter", "ASCII", "BCD") : "ASCII";
+                }
+                for (Element child : children(element)) {
+                    if (!child.getTagName().equals("field"))
+                        throw new ISO8583Exception("Unknown element of the FIELD[%d]: <%s>", number, child.getTagName());
+                    subFields.add(field(child));
+                }
+                break;
+            default:
+                lengthType = lengthType(element, number);
+                maximumLength = integer(element, "max", number);
+        }
+
+        return new FieldSpec(number,
+                type,
+                lengthType,
+                maximumLength,
+                element.hasAttribute("pad") ? pad(element.getAttribute("pad"), number) : ContentPad.NO_PADDING,
+                bitmapType,
+                lengthInterpreter,
+                element.hasAttribute("formatter") ? formatter(element.getAttribute("formatter"), number) : null,
+                element.hasAttribute("description") ? element.getAttribute("description") : null,
+                subFields);
+    }
+
+    private static LengthType lengthType(Element element, int number) throws ISO8583Exception {
+        try {
+            return LengthType.valueOf(required(element, "length"));
+        } catch (IllegalArgumentException exception) {
+            throw new ISO8583Exception("Unknown length type of the FIELD[%d]: %s", number, element.getAttribute("length"));
+        }
+    }
+
+    private static ContentPad pad(String name, int number) throws ISO8583Exception {
+        switch (name) {
+            case "NO_PADDING":
+                return ContentPad.NO_PADDING;
+            case "LEFT_0":
+                return ContentPad.LEFT_0;
+            case "LEFT_F":
+                return ContentPad.LEFT_F;
+            case "LEFT_S":
+                return ContentPad.LEFT_S;
+            case "RIGHT_0":
+                return ContentPad.RIGHT_0;
+            case "RIGHT_F":
+                return ContentPad.RIGHT_F;
+            case "RIGHT_S":
+                return ContentPad.RIGHT_S;
+            default:
+                throw new ISO8583Exception("Unknown pad of the FIELD[%d]: %s", number, name);
+        }
+    }
+
+    private static ValueFormatter formatter(String name, int number) throws ISO8583Exception {
+        String className = name.indexOf('.') < 0 ? FORMATTERS_PACKAGE + name : name;
+        try {
+            Class<?> type = Class.forName(className);
+            if (!ValueFormatter.class.isAssignableFrom(type))
+                throw new ISO8583Exception("The formatter of the FIELD[%d] is not a ValueFormatter: %s", number, name);
+            return (ValueFormatter) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException exception) {
+            throw new ISO8583Exception("Unable to create the formatter of the FIELD[%d]: %s", number, name);
+        }
+    }
+
+    private static List<Element> children(Element parent) {
+        List<Element> elements = new ArrayList<>();
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling())
+            if (node.getNodeType() == Node.ELEMENT_NODE) elements.add((Element) node);
+        return elements;
+    }
+
+    private static String required(Element element, String attribute) throws ISO8583Exception {
+        if (!element.hasAttribute(attribute))
+            throw new ISO8583Exception("The attribute '%s' of <%s> is required.", attribute, element.getTagName());
+        return element.getAttribute(attribute);
+    }
+
+    private static String oneOf(Element element, String attribute, String... values) throws ISO8583Exception {
+        String value = required(element, attribute);
+        for (String item : values)
+            if (item.equals(value)) return value;
+        throw new ISO8583Exception("The attribute '%s' of <%s> must be one of %s: %s",
+                attribute, element.getTagName(), String.join(", ", values), value);
+    }
+
+    private static int integer(Element element, String attribute, Integer number) throws ISO8583Exception {
+        String value = required(element, attribute);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException exception) {
+            if (number == null)
+                throw new ISO8583Exception("The attribute '%s' of <%s> must be a number: %s",
+                        attribute, element.getTagName(), value);
+            throw new ISO8583Exception("The attribute '%s' of the FIELD[%d] must be a number: %s", attribute, number, value);
+        }
+    }
+
+    /**
+     * Clear all the cached specs of the loaded files
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    public static int getCacheSize() {
+        return CACHE.size();
+    }
+
+    /**
+     * Create a new builder of this spec, with the same structures as a builder defined by the Java code
+     *
+     * @return the builder
+     * @throws ISO8583Exception If a part of this spec is rejected by the builder
+     */
+    public ISO8583 define() throws ISO8583Exception {
+        ISO8583 builder = ISO8583.create();
+        if (description != null) builder.setDescription(description);
+        builder.setCharset(charset);
+        if (lengthInterpreter != null)
+            builder.setMessageLengthInterpreter(lengthCount, messageLengthInterpreter());
+        if (tpdu != null)
+            builder.setHeader(headerFormat.equals("HEX") ?
+                    TPDU.fromHexString(tpdu[0], tpdu[1], tpdu[2]) :
+                    TPDU.fromDecimal(tpdu[0], tpdu[1], tpdu[2]), new TPDUHeaderInterpreter());
+        if (mtiLiteral != null)
+            builder.setMTI(mtiLiteral, mtiInterpreter());
+        for (FieldSpec field : fields)
+            builder.defineField(field.getNumber(), field.toShortcut());
+        return builder;
+    }
+
+    /**
+     * Build a new message of this spec, so it can be used as a message factory ({@code spec::buildMessage})
+     *
+     * @return the message
+     * @throws ISO8583Exception If a part of this spec is rejected by the builder
+     */
+    public Message buildMessage() throws ISO8583Exception {
+        return define().buildMessage();
+    }
+
+    /**
+     * Get the compiled definition of this spec, it is compiled once and shared by all the callers
+     *
+     * @return the compiled definition
+     * @throws ISO8583Exception If a part of this spec is rejected by the builder
+     */
+    public MessageTemplate compile() throws ISO8583Exception {
+        MessageTemplate compiled = template;
+        if (compiled == null) {
+            synchronized (this) {
+                compiled = template;
+                if (compiled == null) template = compiled = define().compile();
+            }
+        }
+        return compiled;
+    }
+
+    private MessageLengthInterpreter messageLengthInterpreter() {
+        switch (lengthInterpreter) {
+            case "ASCII":
+                return new ASCIIMessageLengthInterpreter();
+            case "BCD":
+                return new BCDMessageLengthInterpreter();
+            default:
+                return new HexMessageLengthInterpreter();
+        }
+    }
+
+    private MTIInterpreter mtiInterpreter() {
+        return mtiInterpreter.equals("BCD") ? new BCDMTIInterpreter() : new ASCIIMTIInterpreter();
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int[] getFieldNumbers() {
+        return fields.stream().mapToInt(FieldSpec::getNumber).toArray();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@MessageSpec[description: %s, charset: %s, mti: %s, fields: %s]",
+                description, charset, mtiLiteral, fields.size());
+    }
+}
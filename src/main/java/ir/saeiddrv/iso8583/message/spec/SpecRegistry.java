@@ -0,0 +1,269 @@
+package ir.saeiddrv.iso8583.message.spec;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.MessageInstance;
+import ir.saeiddrv.iso8583.message.MessageTemplate;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A registry of the compiled message definitions of each interface (e.g. a POS network or an issuer link), by MTI,
+ * so a definition can be replaced (a widened field 48, a new field 62) while the switch is running:
+ * <pre>
+ * SpecRegistry registry = new SpecRegistry();
+ * registry.reload("POS", Path.of("pos-0200.xml"));
+ * SpecRegistry.Decoded decoded = registry.unpack("POS", frame);
+ * decoded.getInstance().getValueAsString(48);  // decoded by the version decoded.getVersion()
+ * </pre>
+ * The registry is copy-on-write: a replacement publishes a new immutable snapshot of all the definitions,
+ * the readers never lock and each unpack uses a single snapshot, so an unpack in progress finishes on the definition
+ * it has started with and the next frames are decoded by the new one. The version of a definition is increased by
+ * each replacement of the same interface and MTI.
+ * <p>
+ * The definitions of an interface must share the same length, header and MTI layout
+ * (see {@link MessageTemplate#hasSameMTILayout(MessageTemplate)}), since the MTI of a frame is read before
+ * its definition is known, a definition of another layout is rejected by the registration.
+ *
+ * @author Saeid Darvish
+ */
+public final class SpecRegistry {
+
+    private final Object writeLock = new Object();
+    private volatile Map<String, Map<String, Definition>> snapshot = Map.of();
+
+    /**
+     * A registered message definition, immutable
+     */
+    public static final class Definition {
+        private final String interfaceName;
+        private final String mti;
+        private final long version;
+        private final MessageTemplate template;
+
+        private Definition(String interfaceName, String mti, long version, MessageTemplate template) {
+            this.interfaceName = interfaceName;
+            this.mti = mti;
+            this.version = version;
+            this.template = template;
+        }
+
+        public String getInterfaceName() {
+            return interfaceName;
+        }
+
+        public String getMTI() {
+            return mti;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public MessageTemplate getTemplate() {
+            return template;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("@Definition[interface: %s, mti: %s, version: %s]", interfaceName, mti, version);
+        }
+    }
+
+    /**
+     * An unpacked message, with the definition that has decoded it
+     */
+    public static final class Decoded {
+        private final Definition definition;
+        private final MessageInstance instance;
+
+        private Decoded(Definition definition, MessageInstance instance) {
+            this.definition = definition;
+            this.instance = instance;
+        }
+
+        public Definition getDefinition() {
+            return definition;
+        }
+
+        public long getVersion() {
+            return definition.getVersion();
+        }
+
+        public MessageInstance getInstance() {
+            return instance;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("@Decoded[definition: %s, instance: %s]", definition, instance);
+        }
+    }
+
+    /**
+     * Register (or replace) the definition of an MTI of an interface, the MTI is the default MTI of the template.
+     * Registering the current template again does not create a new version.
+     *
+     * @param interfaceName the name of the interface
+     * @param template the compiled definition
+     * @return the registered definition
+     * @throws ISO8583Exception If the template has no default MTI,
+     *                          or its layout differs from the other definitions of the interface
+     */
+    public Definition register(String interfaceName, MessageTemplate template) throws ISO8583Exception {
+        Objects.requireNonNull(interfaceName, "The 'Interface Name' cannot be set to null.");
+        Objects.requireNonNull(template, "The 'MessageTemplate' cannot be set to null.");
+        String mti = template.getDefaultMTI();
+        if (mti == null)
+            throw new ISO8583Exception("The definition of the interface '%s' has no MTI.", interfaceName);
+
+        synchronized (writeLock) {
+            Map<String, Map<String, Definition>> current = snapshot;
+            Map<String, Definition> definitions = current.getOrDefault(interfaceName, Map.of());
+            Definition previous = definitions.get(mti);
+            if (previous != null && previous.getTemplate() == template) return previous;
+
+            // THE MTI OF A FRAME IS READ BY ANY DEFINITION OF THE INTERFACE
+            for (Definition other : definitions.values())
+                if (!other.getMTI().equals(mti) && !other.getTemplate().hasSameMTILayout(template))
+                    throw new ISO8583Exception("The length, header or MTI layout of the definition '%s' of the interface '%s' " +
+                            "differs from the definition '%s'.", mti, interfaceName, other.getMTI());
+
+            // COPY, MODIFY AND PUBLISH A NEW SNAPSHOT
+            Definition definition = new Definition(interfaceName, mti,
+                    previous != null ? previous.getVersion() + 1 : 1, template);
+            Map<String, Definition> nextDefinitions = new HashMap<>(definitions);
+            nextDefinitions.put(mti, definition);
+            Map<String, Map<String, Definition>> next = new HashMap<>(current);
+            next.put(interfaceName, Map.copyOf(nextDefinitions));
+            snapshot = Map.copyOf(next);
+            return definition;
+        }
+    }
+
+    /**
+     * Register (or replace) the definition of an MTI of an interface by a spec
+     *
+     * @param interfaceName the name of the interface
+     * @param spec the spec of the definition
+     * @return the registered definition
+     * @throws ISO8583Exception If the spec cannot be compiled, or it has no MTI
+     */
+    public Definition register(String interfaceName, MessageSpec spec) throws ISO8583Exception {
+        return register(interfaceName, Objects.requireNonNull(spec, "The 'MessageSpec' cannot be set to null.").compile());
+    }
+
+    /**
+     * Register (or replace) the definition of an MTI of an interface by a spec file.
+     * The file is parsed again only if it has been modified, otherwise the current definition is kept.
+     * If the file is invalid, the current definition is kept and an exception is thrown.
+     *
+     * @param interfaceName the name of the interface
+     * @param specFile the path of the spec file
+     * @return the registered definition
+     * @throws ISO8583Exception If the file cannot be read, or it is an invalid spec
+     */
+    public Definition reload(String interfaceName, Path specFile) throws ISO8583Exception {
+        return register(interfaceName, MessageSpec.load(specFile));
+    }
+
+    /**
+     * Remove the definition of an MTI of an interface, the unpacks in progress are not affected
+     *
+     * @param interfaceName the name of the interface
+     * @param mti the MTI of the definition
+     * @return true if the definition has been registered
+     */
+    public boolean unregister(String interfaceName, String mti) {
+        synchronized (writeLock) {
+            Map<String, Map<String, Definition>> current = snapshot;
+            Map<String, Definition> definitions = current.get(interfaceName);
+            if (definitions == null || !definitions.containsKey(mti)) return false;
+
+            Map<String, Definition> nextDefinitions = new HashMap<>(definitions);
+            nextDefinitions.remove(mti);
+            Map<String, Map<String, Definition>> next = new HashMap<>(current);
+            if (nextDefinitions.isEmpty()) next.remove(interfaceName);
+            else next.put(interfaceName, Map.copyOf(nextDefinitions));
+            snapshot = Map.copyOf(next);
+            return true;
+        }
+    }
+
+    /**
+     * Get the current definition of an MTI of an interface, without locking
+     *
+     * @param interfaceName the name of the interface
+     * @param mti the MTI of the definition
+     * @return the definition, or null if not registered
+     */
+    public Definition get(String interfaceName, String mti) {
+        Map<String, Definition> definitions = snapshot.get(interfaceName);
+        return definitions != null ? definitions.get(mti) : null;
+    }
+
+    /**
+     * Get the current definitions of an interface
+     *
+     * @param interfaceName the name of the interface
+     * @return the definitions, empty if the interface is not registered
+     */
+    public Collection<Definition> getDefinitions(String interfaceName) {
+        return snapshot.getOrDefault(interfaceName, Map.of()).values();
+    }
+
+    public Set<String> getInterfaceNames() {
+        return snapshot.keySet();
+    }
+
+    /**
+     * Unpack a message of an interface by the current definition of its MTI
+     *
+     * @param interfaceName the name of the interface
+     * @param packMessage the packed message as a byte array object
+     * @return the unpacked message and its definition
+     * @throws ISO8583Exception If the MTI is not registered, or throws from the unpack process
+     */
+    public Decoded unpack(String interfaceName, byte[] packMessage) throws ISO8583Exception {
+        return unpack(interfaceName, ByteBuffer.wrap(packMessage), 0, packMessage.length);
+    }
+
+    /**
+     * Unpack a message of an interface by the current definition of its MTI
+     *
+     * @param interfaceName the name of the interface
+     * @param packMessage the packed message as a buffer (heap or direct)
+     * @param offset the index of the first byte of the message in the buffer
+     * @param limit the index after the last byte of the message in the buffer
+     * @return the unpacked message and its definition
+     * @throws ISO8583Exception If the MTI is not registered, or throws from the unpack process
+     */
+    public Decoded unpack(String interfaceName, ByteBuffer packMessage, int offset, int limit) throws ISO8583Exception {
+        // ONE SNAPSHOT FOR THE WHOLE UNPACK
+        Map<String, Definition> definitions = snapshot.get(interfaceName);
+        if (definitions == null || definitions.isEmpty())
+            throw new ISO8583Exception("The interface '%s' is not registered.", interfaceName);
+
+        // READ THE MTI BY ANY DEFINITION OF THE INTERFACE (ALL OF THE SAME LAYOUT)
+        String mti = definitions.values().iterator().next().getTemplate().unpackMTI(packMessage, offset, limit);
+        Definition definition = definitions.get(mti);
+        if (definition == null)
+            throw new ISO8583Exception("The MTI '%s' of the interface '%s' is not registered.", mti, interfaceName);
+
+        return new Decoded(definition, definition.getTemplate().unpack(packMessage, offset, limit));
+    }
+
+    @Override
+    public String toString() {
+        Map<String, Map<String, Definition>> current = snapshot;
+        StringBuilder definitions = new StringBuilder();
+        for (Map<String, Definition> interfaceDefinitions : current.values())
+            for (Definition definition : interfaceDefinitions.values())
+                definitions.append(definitions.length() > 0 ? ", " : "").append(definition);
+        return String.format("@SpecRegistry[interfaces: %s, definitions: [%s]]", current.size(), definitions);
+    }
+}
@@ -0,0 +1,216 @@
+package ir.saeiddrv.iso8583.message.utilities;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Table-driven BCD coding of numbers and digits, without any String conversion.
+ *
+ * @author Saeid Darvish
+ */
+public final class BCDCodec {
+
+    // digit character -> nibble (the same as TypeUtils.byteToBCD)
+    private static final byte[] NIBBLES = new byte[256];
+    // BCD byte -> its two-digit value, or -1 if one of the nibbles is not a decimal digit
+    private static final byte[] VALUES = new byte[256];
+    // two-digit value -> BCD byte
+    private static final byte[] BYTES = new byte[100];
+    // nibble -> hexadecimal digit character
+    private static final char[] DIGITS = "0123456789ABCDEF".toCharArray();
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            NIBBLES[i] = TypeUtils.byteToBCD((byte) i);
+            int high = i >> 4, low = i & 0x0f;
+            VALUES[i] = (byte) (high > 9 || low > 9 ? -1 : high * 10 + low);
+        }
+        for (int i = 0; i < 100; i++)
+            BYTES[i] = (byte) (((i / 10) << 4) | (i % 10));
+    }
+
+    private BCDCodec() {}
+
+    private static int value(int aByte) {
+        int value = VALUES[aByte & 0xff];
+        if (value < 0)
+            throw new IllegalArgumentException("Invalid BCD digits (convert BCD to number): "
+                    + TypeUtils.byteToHexString((byte) aByte));
+        return value;
+    }
+
+    private static void checkFit(long rest, long value, int byteCount) {
+        if (rest != 0)
+            throw new IllegalArgumentException(String.format(
+                    "Invalid value (%s does not fit in %s BCD bytes)", value, byteCount));
+    }
+
+    /**
+     * Pack two digit characters into a BCD byte
+     *
+     * @param high the first digit character
+     * @param low the second digit character
+     * @return the BCD byte
+     */
+    public static byte pack(int high, int low) {
+        return (byte) ((NIBBLES[high & 0xff] << 4) + NIBBLES[low & 0xff]);
+    }
+
+    /**
+     * Write a number as BCD bytes into a buffer, from its current position, padded with zeros at the left
+     *
+     * @param target the buffer to write into
+     * @param value a non-negative number
+     * @param byteCount the number of BCD bytes (two digits per byte)
+     */
+    public static void putLong(ByteBuffer target, long value, int byteCount) {
+        if (value < 0)
+            throw new IllegalArgumentException("Invalid value (convert negative number to BCD): " + value);
+
+        int position = target.position();
+        if (target.remaining() < byteCount) throw new BufferOverflowException();
+
+        long rest = value;
+        for (int i = position + byteCount - 1; i >= position; i--) {
+            target.put(i, BYTES[(int) (rest % 100)]);
+            rest /= 100;
+        }
+        checkFit(rest, value, byteCount);
+
+        target.position(position + byteCount);
+    }
+
+    public static void putInt(ByteBuffer target, int value, int byteCount) {
+        putLong(target, value, byteCount);
+    }
+
+    public static byte[] fromLong(long value, int byteCount) {
+        byte[] bytes = new byte[byteCount];
+        putLong(ByteBuffer.wrap(bytes), value, byteCount);
+        return bytes;
+    }
+
+    public static long toLong(byte[] bytes, int offset, int endOffset) {
+        long value = 0;
+        for (int i = offset; i < endOffset; i++)
+            value = value * 100 + value(bytes[i]);
+        return value;
+    }
+
+    public static long toLong(ByteBuffer buffer, int offset, int endOffset) {
+        long value = 0;
+        for (int i = offset; i < endOffset; i++)
+            value = value * 100 + value(buffer.get(i));
+        return value;
+    }
+
+    public static int toInt(byte[] bytes, int offset, int endOffset) {
+        int value = 0;
+        for (int i = offset; i < endOffset; i++)
+            value = value * 100 + value(bytes[i]);
+        return value;
+    }
+
+    public static int toInt(ByteBuffer buffer, int offset, int endOffset) {
+        int value = 0;
+        for (int i = offset; i < endOffset; i++)
+            value = value * 100 + value(buffer.get(i));
+        return value;
+    }
+
+    /**
+     * Pack an even number of digit characters into a buffer, from its current position
+     *
+     * @param target the buffer to write into
+     * @param digits the digit characters
+     */
+    public static void putDigits(ByteBuffer target, byte[] digits) {
+        if (target.remaining() < digits.length / 2) throw new BufferOverflowException();
+        for (int i = 0; i + 1 < digits.length; i += 2)
+            target.put(pack(digits[i], digits[i + 1]));
+    }
+
+    /**
+     * Unpack BCD bytes into digit characters of a charset
+     *
+     * @param bytes the packed message
+     * @param offset the index of the first BCD byte
+     * @param skipFirst the number of leading nibbles to skip (a left pad)
+     * @param digitCount the number of digits
+     * @param charset for byte conversions
+     * @return the digit characters as bytes of the charset
+     */
+    public static byte[] toDigits(byte[] bytes, int offset, int skipFirst, int digitCount, Charset charset) {
+        CharsetTable table = CharsetTable.of(charset);
+        byte[] digits = new byte[digitCount];
+        for (int i = 0, nibble = skipFirst; i < digitCount; i++, nibble++) {
+            int aByte = bytes[offset + (nibble >> 1)];
+            digits[i] = digitByte(table, (nibble & 1) == 0 ? (aByte >> 4) & 0x0f : aByte & 0x0f);
+        }
+        return table != null ? digits : TypeUtils.encodeBytes(new String(digits, StandardCharsets.ISO_8859_1), charset);
+    }
+
+    public static byte[] toDigits(ByteBuffer buffer, int offset, int skipFirst, int digitCount, Charset charset) {
+        CharsetTable table = CharsetTable.of(charset);
+        byte[] digits = new byte[digitCount];
+        for (int i = 0, nibble = skipFirst; i < digitCount; i++, nibble++) {
+            int aByte = buffer.get(offset + (nibble >> 1));
+            digits[i] = digitByte(table, (nibble & 1) == 0 ? (aByte >> 4) & 0x0f : aByte & 0x0f);
+        }
+        return table != null ? digits : TypeUtils.encodeBytes(new String(digits, StandardCharsets.ISO_8859_1), charset);
+    }
+
+    private static byte digitByte(CharsetTable table, int nibble) {
+        char digit = DIGITS[nibble];
+        return table != null ? table.encode(digit) : (byte) digit;
+    }
+
+    /**
+     * Write a number as digit characters of a charset, padded with zeros at the left
+     *
+     * @param value a non-negative number
+     * @param digitCount the minimum number of digits
+     * @param charset for byte conversions
+     * @return the digit characters as bytes of the charset
+     */
+    public static byte[] longToDigits(long value, int digitCount, Charset charset) {
+        if (value < 0)
+            throw new IllegalArgumentException("Invalid value (convert negative number to digits): " + value);
+
+        int count = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) count++;
+        count = Math.max(count, digitCount);
+
+        CharsetTable table = CharsetTable.of(charset);
+        byte[] digits = new byte[count];
+        long rest = value;
+        for (int i = count - 1; i >= 0; i--) {
+            digits[i] = digitByte(table, (int) (rest % 10));
+            rest /= 10;
+        }
+        return table != null ? digits : TypeUtils.encodeBytes(new String(digits, StandardCharsets.ISO_8859_1), charset);
+    }
+
+    /**
+     * Read digit characters of a charset as a number
+     *
+     * @param digits the digit characters as bytes of the charset
+     * @param charset for byte conversions
+     * @return the number
+     */
+    public static long digitsToLong(byte[] digits, Charset charset) {
+        CharsetTable table = CharsetTable.of(charset);
+        if (table == null) return Long.parseLong(TypeUtils.decodeBytes(digits, charset));
+
+        long value = 0;
+        for (byte digit : digits) {
+            int number = table.decode(digit) - '0';
+            if (number < 0 || number > 9)
+                throw new NumberFormatException("Invalid digit (convert digits to number): " + table.decode(digit));
+            value = value * 10 + number;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,167 @@
+package ir.saeiddrv.iso8583.message.utilities;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Translation tables of a single-byte charset (US-ASCII, ISO-8859-1, Cp1047, ...).
+ * The tables are built once per charset by the charset itself, so the conversions give the same result as
+ * the {@link Charset} encoder and decoder (with replacement), without any intermediate buffers.
+ * Multibyte charsets have no table and are converted by the {@link Charset} itself.
+ *
+ * @author Saeid Darvish
+ */
+public final class CharsetTable {
+
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+    private static final ConcurrentMap<Charset, CharsetTable> TABLES = new ConcurrentHashMap<>();
+    private static volatile CharsetTable latest = new CharsetTable(null, null, null, null, (byte) 0, false);
+
+    private final Charset charset;
+    private final char[] decodeTable;
+    private final byte[] encodeTable;
+    private final byte[] translateTable;
+    private final byte replacement;
+    private final boolean identity;
+
+    private CharsetTable(Charset charset,
+                         char[] decodeTable,
+                         byte[] encodeTable,
+                         byte[] translateTable,
+                         byte replacement,
+                         boolean identity) {
+        this.charset = charset;
+        this.decodeTable = decodeTable;
+        this.encodeTable = encodeTable;
+        this.translateTable = translateTable;
+        this.replacement = replacement;
+        this.identity = identity;
+    }
+
+    /**
+     * Get the translation tables of a charset
+     *
+     * @param charset the charset
+     * @return the tables, or null if the charset is not a single-byte charset
+     */
+    public static CharsetTable of(Charset charset) {
+        CharsetTable table = latest;
+        if (table.charset != charset) {
+            table = TABLES.computeIfAbsent(charset, CharsetTable::build);
+            latest = table;
+        }
+        return table.decodeTable != null ? table : null;
+    }
+
+    private static CharsetTable build(Charset charset) {
+        CharsetTable none = new CharsetTable(charset, null, null, null, (byte) 0, false);
+        if (!charset.canEncode()) return none;
+
+        CharsetEncoder encoder = charset.newEncoder();
+        if (encoder.maxBytesPerChar() != 1.0f || encoder.replacement().length != 1) return none;
+
+        // DECODE TABLE: byte -> char
+        char[] decodeTable = new char[256];
+        char maximumChar = 0;
+        for (int i = 0; i < 256; i++) {
+            String decoded = new String(new byte[]{(byte) i}, charset);
+            if (decoded.length() != 1) return none;
+            decodeTable[i] = decoded.charAt(0);
+            if (decodeTable[i] != REPLACEMENT_CHARACTER && decodeTable[i] > maximumChar)
+                maximumChar = decodeTable[i];
+        }
+
+        // ENCODE TABLE: char -> byte (up to the largest decoded char)
+        byte replacement = encoder.replacement()[0];
+        byte[] encodeTable = new byte[maximumChar + 1];
+        for (int c = 0; c <= maximumChar; c++) {
+            if (Character.isSurrogate((char) c)) {
+                encodeTable[c] = replacement;
+                continue;
+            }
+            byte[] encoded = String.valueOf((char) c).getBytes(charset);
+            if (encoded.length != 1) return none;
+            encodeTable[c] = encoded[0];
+        }
+
+        // TRANSLATE TABLE: byte -> char -> byte
+        byte[] translateTable = new byte[256];
+        boolean identity = true;
+        for (int i = 0; i < 256; i++) {
+            char c = decodeTable[i];
+            translateTable[i] = c > maximumChar ? replacement : encodeTable[c];
+            identity &= translateTable[i] == (byte) i;
+        }
+
+        return new CharsetTable(charset, decodeTable, encodeTable, translateTable, replacement, identity);
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Check if the bytes of this charset remain unchanged by a decode and encode
+     *
+     * @return true if the translation is the identity (ISO-8859-1, Cp1047, ...)
+     */
+    public boolean isIdentity() {
+        return identity;
+    }
+
+    public char decode(byte aByte) {
+        return decodeTable[aByte & 0xff];
+    }
+
+    public byte encode(char character) {
+        return character < encodeTable.length ? encodeTable[character] : replacement;
+    }
+
+    public byte translate(byte aByte) {
+        return translateTable[aByte & 0xff];
+    }
+
+    public String decode(byte[] bytes) {
+        char[] chars = new char[bytes.length];
+        for (int i = 0; i < bytes.length; i++)
+            chars[i] = decodeTable[bytes[i] & 0xff];
+        return new String(chars);
+    }
+
+    public byte[] encode(String value) {
+        int length = value.length();
+        byte[] bytes = new byte[length];
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < encodeTable.length) bytes[index++] = encodeTable[c];
+            else {
+                // An unmappable surrogate pair is replaced by a single byte
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) i++;
+                bytes[index++] = replacement;
+            }
+        }
+        return index == length ? bytes : Arrays.copyOf(bytes, index);
+    }
+
+    /**
+     * Translate the bytes in place, the same result as decoding the bytes and encoding them again
+     *
+     * @param bytes the bytes to translate
+     * @return the same array
+     */
+    public byte[] translate(byte[] bytes) {
+        if (!identity)
+            for (int i = 0; i < bytes.length; i++)
+                bytes[i] = translateTable[bytes[i] & 0xff];
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@CharsetTable[charset: %s, identity: %s]", charset, identity);
+    }
+}
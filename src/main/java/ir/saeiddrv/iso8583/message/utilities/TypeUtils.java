@@ -1,6 +1,8 @@
 package ir.saeiddrv.iso8583.message.utilities;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
@@ -32,16 +34,42 @@ public final class TypeUtils {
                 .toArray();
     }
 
+    private static byte[] toByteArray(ByteBuffer buffer) {
+        // The backing array of an encoded buffer can be larger than its content
+        byte[] array = buffer.array();
+        return buffer.limit() == array.length ? array : Arrays.copyOf(array, buffer.limit());
+    }
+
     public static String decodeBytes(byte[] bytes, Charset charset) {
+        CharsetTable table = CharsetTable.of(charset);
+        if (table != null) return table.decode(bytes);
         return charset.decode(ByteBuffer.wrap(bytes)).toString();
     }
 
     public static byte[] encodeBytes(byte[] bytes, Charset charset) {
-        return charset.encode(new String(bytes, charset)).array();
+        CharsetTable table = CharsetTable.of(charset);
+        if (table != null) return table.translate(bytes.clone());
+        return toByteArray(charset.encode(new String(bytes, charset)));
+    }
+
+    /**
+     * Same as {@link #encodeBytes(byte[], Charset)}, but a single-byte charset translates the array in place,
+     * so it is only for the arrays that have been copied from the message
+     *
+     * @param bytes the bytes to translate
+     * @param charset for byte conversions
+     * @return the translated bytes, the same array for a single-byte charset
+     */
+    public static byte[] translateBytes(byte[] bytes, Charset charset) {
+        CharsetTable table = CharsetTable.of(charset);
+        if (table != null) return table.translate(bytes);
+        return toByteArray(charset.encode(new String(bytes, charset)));
     }
 
     public static byte[] encodeBytes(String value, Charset charset) {
-        return charset.encode(value).array();
+        CharsetTable table = CharsetTable.of(charset);
+        if (table != null) return table.encode(value);
+        return toByteArray(charset.encode(value));
     }
 
     public static byte charToByte(char character) {
@@ -94,6 +122,92 @@ public final class TypeUtils {
         return new String(temp);
     }
 
+    public static String bcdBytesToText(ByteBuffer buffer, int offset, int endOffset) {
+        char[] temp = new char[(endOffset - offset) * 2];
+        char val;
+        for (int i = offset, j = 0; i < endOffset; i++, j += 2) {
+            byte aByte = buffer.get(i);
+            val = (char) (((aByte & 0xf0) >> 4) & 0x0f);
+            temp[j] = (char) (val > 9 ? val + 'A' - 10 : val + '0');
+
+            val = (char) (aByte & 0x0f);
+            temp[j + 1] = (char) (val > 9 ? val + 'A' - 10 : val + '0');
+        }
+        return new String(temp);
+    }
+
+    public static int bcdBytesToInt(ByteBuffer buffer, int offset, int endOffset) {
+        return BCDCodec.toInt(buffer, offset, endOffset);
+    }
+
+    public static int asciiBytesToInt(ByteBuffer buffer, int offset, int endOffset, Charset charset) {
+        int value = 0;
+        for (int i = offset; i < endOffset; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                // Not an ASCII digit, decoding with charset
+                byte[] bytes = new byte[endOffset - offset];
+                buffer.get(offset, bytes);
+                return Integer.parseInt(decodeBytes(bytes, charset));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    public static int bytesToUnsignedInt(ByteBuffer buffer, int offset, int endOffset) {
+        int value = 0;
+        for (int i = offset; i < endOffset; i++)
+            value = (value << 8) | (buffer.get(i) & 0xff);
+        return value;
+    }
+
+    public static void putIntAsBCD(ByteBuffer target, int value, int byteCount) {
+        BCDCodec.putInt(target, value, byteCount);
+    }
+
+    public static void putUnsignedInt(ByteBuffer target, int value, int byteCount) {
+        int position = target.position();
+        if (target.remaining() < byteCount) throw new BufferOverflowException();
+
+        int rest = value;
+        for (int i = position + byteCount - 1; i >= position; i--) {
+            target.put(i, (byte) (rest & 0xff));
+            rest >>>= 8;
+        }
+        if (rest != 0)
+            throw new IllegalArgumentException(String.format(
+                    "Invalid value (%s does not fit in %s bytes)", value, byteCount));
+
+        target.position(position + byteCount);
+    }
+
+    public static long bytesToLongWord(byte[] bytes, int offset, int byteCount) {
+        long word = 0;
+        for (int i = 0; i < 8; i++)
+            word = (word << 8) | (i < byteCount ? bytes[offset + i] & 0xff : 0);
+        return word;
+    }
+
+    public static long bytesToLongWord(ByteBuffer buffer, int offset, int byteCount) {
+        if (byteCount == 8 && buffer.order() == ByteOrder.BIG_ENDIAN)
+            return buffer.getLong(offset);
+        long word = 0;
+        for (int i = 0; i < 8; i++)
+            word = (word << 8) | (i < byteCount ? buffer.get(offset + i) & 0xff : 0);
+        return word;
+    }
+
+    public static void putLongWord(ByteBuffer target, long word, int byteCount) {
+        if (target.remaining() < byteCount) throw new BufferOverflowException();
+        if (byteCount == 8 && target.order() == ByteOrder.BIG_ENDIAN) {
+            target.putLong(word);
+            return;
+        }
+        for (int i = 0; i < byteCount; i++)
+            target.put((byte) (word >>> (56 - (i << 3))));
+    }
+
     public static byte[] generateByteArrayFromCharacter(char character, int length) {
         byte[] bytes = new byte[length];
         for (int i = 0; i < length; i++)
@@ -140,7 +254,7 @@ public final class TypeUtils {
     }
 
     public static byte[] byteArrayToHexArray(byte[] bytes, Charset charset) {
-        return new String(bytes, charset).getBytes(charset);
+        return encodeBytes(bytes, charset);
     }
 
     public static String bitSetToBinaryString(BitSet bitSet) {
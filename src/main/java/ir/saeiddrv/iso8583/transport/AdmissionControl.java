@@ -0,0 +1,201 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of the received requests in flight (from their arrival to the end of their handling)
+ * of a server, by a global limit, a limit of each connection and an optional adaptive limit
+ * (additive increase, multiplicative decrease by the handling latency).
+ * A request over the limits is never queued: it is answered at once by the response MTI with the
+ * decline response code in the field 39, on the thread that has read it.
+ *
+ * @author Saeid Darvish
+ */
+public final class AdmissionControl {
+
+    public static final String SYSTEM_MALFUNCTION = "96";
+    public static final String ISSUER_UNAVAILABLE = "91";
+
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final LongAdder declined = new LongAdder();
+    private int globalLimit = Integer.MAX_VALUE;
+    private int connectionLimit = Integer.MAX_VALUE;
+    private String declineResponseCode = SYSTEM_MALFUNCTION;
+
+    // The adaptive limit (as the bits of a double), disabled by a maximum limit of zero
+    private final AtomicLong adaptiveLimit = new AtomicLong(Double.doubleToLongBits(0));
+    private int minimumLimit = 0;
+    private int maximumLimit = 0;
+    private long targetLatencyNanos = 0;
+    private double backoffRatio = 0.9;
+
+    private AdmissionControl() {}
+
+    public static AdmissionControl create() {
+        return new AdmissionControl();
+    }
+
+    /**
+     * Set the maximum number of the requests in flight of all the connections
+     *
+     * @param globalLimit the global limit
+     * @return this admission control
+     */
+    public AdmissionControl setGlobalLimit(int globalLimit) {
+        if (globalLimit <= 0)
+            throw new IllegalArgumentException("The global limit must be greater than zero: " + globalLimit);
+        this.globalLimit = globalLimit;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of the requests in flight of each connection
+     *
+     * @param connectionLimit the limit of each connection
+     * @return this admission control
+     */
+    public AdmissionControl setConnectionLimit(int connectionLimit) {
+        if (connectionLimit <= 0)
+            throw new IllegalArgumentException("The connection limit must be greater than zero: " + connectionLimit);
+        this.connectionLimit = connectionLimit;
+        return this;
+    }
+
+    /**
+     * Enable the adaptive limit (AIMD) beside the global limit: the limit grows by one for each request that is
+     * handled within the target latency while the requests in flight use at least half of the limit,
+     * and is multiplied by the backoff ratio (0.9) for each request that is handled slower or fails.
+     *
+     * @param initialLimit the limit to start with
+     * @param minimumLimit the lowest limit
+     * @param maximumLimit the highest limit
+     * @param targetLatency the highest latency of a request (from its arrival to the end of its handling) that is not congestion
+     * @param unit the unit of the target latency
+     * @return this admission control
+     */
+    public AdmissionControl setAdaptiveLimit(int initialLimit, int minimumLimit, int maximumLimit, long targetLatency, TimeUnit unit) {
+        if (minimumLimit <= 0 || maximumLimit < minimumLimit || initialLimit < minimumLimit || initialLimit > maximumLimit)
+            throw new IllegalArgumentException(String.format("Invalid adaptive limits [initial: %s, minimum: %s, maximum: %s]",
+                    initialLimit, minimumLimit, maximumLimit));
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.targetLatencyNanos = unit.toNanos(targetLatency);
+        this.adaptiveLimit.set(Double.doubleToLongBits(initialLimit));
+        return this;
+    }
+
+    public AdmissionControl setBackoffRatio(double backoffRatio) {
+        if (backoffRatio <= 0 || backoffRatio >= 1)
+            throw new IllegalArgumentException("The backoff ratio must be between 0 and 1: " + backoffRatio);
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    /**
+     * Set the value of the field 39 of the decline responses,
+     * by default {@link #SYSTEM_MALFUNCTION} (96), or such as {@link #ISSUER_UNAVAILABLE} (91)
+     *
+     * @param declineResponseCode the response code
+     * @return this admission control
+     */
+    public AdmissionControl setDeclineResponseCode(String declineResponseCode) {
+        this.declineResponseCode = Objects.requireNonNull(declineResponseCode, "The 'DeclineResponseCode' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Get the current limit of the requests in flight of all the connections
+     *
+     * @return the global limit, or the adaptive limit if it is lower
+     */
+    public int getLimit() {
+        if (maximumLimit == 0) return globalLimit;
+        return Math.min(globalLimit, (int) Double.longBitsToDouble(adaptiveLimit.get()));
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Get the number of the requests that have been declined (or dropped, if they were not requests)
+     *
+     * @return the number of the declined requests
+     */
+    public long getDeclinedCount() {
+        return declined.sum();
+    }
+
+    /**
+     * Take a place for a received request
+     *
+     * @param connection the connection of the request
+     * @return true if the request is admitted, then it must be released
+     */
+    boolean tryAcquire(Connection connection) {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                declined.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) break;
+        }
+
+        if (connection.admitted.incrementAndGet() > connectionLimit) {
+            connection.admitted.decrementAndGet();
+            inFlight.decrementAndGet();
+            declined.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Release the place of a handled request
+     *
+     * @param connection the connection of the request
+     * @param latencyNanos the time from the arrival of the request to the end of its handling
+     * @param failed true if the handling has failed
+     */
+    void release(Connection connection, long latencyNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        connection.admitted.decrementAndGet();
+        if (maximumLimit > 0) adapt(current, latencyNanos, failed);
+    }
+
+    private void adapt(int inFlight, long latencyNanos, boolean failed) {
+        while (true) {
+            long bits = adaptiveLimit.get();
+            double limit = Double.longBitsToDouble(bits);
+            double next;
+            if (failed || latencyNanos > targetLatencyNanos) next = Math.max(minimumLimit, limit * backoffRatio);
+            else if (inFlight * 2 >= limit) next = Math.min(maximumLimit, limit + 1);
+            else return;
+            if (next == limit || adaptiveLimit.compareAndSet(bits, Double.doubleToLongBits(next))) return;
+        }
+    }
+
+    /**
+     * Build the decline response of a request over the limits, from the request itself
+     *
+     * @param request the unpacked request, it is changed to the response
+     * @return the response, or null if the message is not a request
+     * @throws ISO8583Exception If the response MTI or the field 39 cannot be set
+     */
+    Message decline(Message request) throws ISO8583Exception {
+        return request.changeToResponse(declineResponseCode) ? request : null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@AdmissionControl[limit: %s, inFlight: %s, declined: %s]", getLimit(), getInFlight(), getDeclinedCount());
+    }
+}
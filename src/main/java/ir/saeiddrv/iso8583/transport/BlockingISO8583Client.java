@@ -0,0 +1,156 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A blocking client of length-prefixed ISO-8583 messages over a single persistent connection,
+ * the same framing as {@link ISO8583Client}. The messages are written on the calling thread without waiting
+ * for the responses, the received messages are read, unpacked and handled in order on a thread of the connection
+ * (a virtual thread on JDK 21 and later).
+ *
+ * @author Saeid Darvish
+ */
+public final class BlockingISO8583Client implements Closeable {
+
+    private final MessageFactory factory;
+    private final MessageHandler handler;
+    private int maximumFrameLength = ISO8583Server.DEFAULT_MAXIMUM_FRAME_LENGTH;
+    private int connectTimeout = 15000;
+    private BiConsumer<Connection, Throwable> exceptionHandler = Connection.PRINT_EXCEPTION;
+    private Consumer<Connection> closeHandler = null;
+
+    private ExecutorService executor = null;
+    private StreamConnection connection = null;
+
+    private BlockingISO8583Client(MessageFactory factory, MessageHandler handler) {
+        this.factory = factory;
+        this.handler = handler;
+    }
+
+    /**
+     * Create a client
+     *
+     * @param factory creates a message of the definition for each received frame
+     * @param handler handles the received messages on the thread of the connection
+     * @return the client, to be connected by {@link #connect(SocketAddress)}
+     */
+    public static BlockingISO8583Client create(MessageFactory factory, MessageHandler handler) {
+        return new BlockingISO8583Client(
+                Objects.requireNonNull(factory, "The 'MessageFactory' cannot be set to null."),
+                Objects.requireNonNull(handler, "The 'MessageHandler' cannot be set to null."));
+    }
+
+    public BlockingISO8583Client setMaximumFrameLength(int maximumFrameLength) {
+        this.maximumFrameLength = maximumFrameLength;
+        return this;
+    }
+
+    public BlockingISO8583Client setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    public BlockingISO8583Client setExceptionHandler(BiConsumer<Connection, Throwable> exceptionHandler) {
+        this.exceptionHandler = Objects.requireNonNull(exceptionHandler, "The 'ExceptionHandler' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Set the handler of closing the connection (by the host, an I/O error or the client itself)
+     *
+     * @param closeHandler the close handler
+     * @return this client
+     */
+    public BlockingISO8583Client setCloseHandler(Consumer<Connection> closeHandler) {
+        this.closeHandler = closeHandler;
+        return this;
+    }
+
+    /**
+     * Connect to a host
+     *
+     * @param address the address of the host
+     * @return this client
+     * @throws ISO8583Exception If the message definition has no length for framing
+     * @throws IOException If the connection cannot be established
+     */
+    public BlockingISO8583Client connect(SocketAddress address) throws ISO8583Exception, IOException {
+        if (connection != null)
+            throw new ISO8583Exception("The client is already connected to %s.", connection.getRemoteAddress());
+
+        MessageFraming framing = MessageFraming.of(factory.create());
+        MessageDispatcher dispatcher = new MessageDispatcher(factory, handler, Runnable::run, exceptionHandler);
+        dispatcher.setCloseHandler(closeHandler);
+
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.connect(address, connectTimeout);
+            connection = new StreamConnection(socket, framing, maximumFrameLength, dispatcher);
+        } catch (IOException exception) {
+            socket.close();
+            throw exception;
+        }
+        dispatcher.opened(connection);
+
+        executor = VirtualThreads.newThreadPerTaskExecutor("iso8583-blocking-client-" + address);
+        executor.execute(connection);
+        return this;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public boolean isConnected() {
+        return connection != null && connection.isOpen();
+    }
+
+    /**
+     * Pack a message and write it on the calling thread, without waiting for the response
+     *
+     * @param message the message to send
+     * @throws ISO8583Exception If throws from the pack process, or the client is not connected
+     */
+    public void send(Message message) throws ISO8583Exception {
+        if (connection == null)
+            throw new ISO8583Exception("The client is not connected.");
+        connection.send(message);
+    }
+
+    /**
+     * Write a packed message (its length included) on the calling thread, without waiting for the response
+     *
+     * @param frame the packed message
+     * @throws ISO8583Exception If the client is not connected
+     */
+    public void send(byte[] frame) throws ISO8583Exception {
+        if (connection == null)
+            throw new ISO8583Exception("The client is not connected.");
+        connection.send(frame);
+    }
+
+    /**
+     * Close the connection, the thread of the connection ends
+     */
+    @Override
+    public void close() {
+        if (connection != null) connection.close();
+        if (executor != null) executor.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@BlockingISO8583Client[connection: %s]", connection);
+    }
+}
@@ -0,0 +1,213 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * A blocking server of length-prefixed ISO-8583 messages, the same framing as {@link ISO8583Server}.
+ * Each connection is served by a thread of its own (a virtual thread on JDK 21 and later) that reads
+ * the frames from the socket stream, unpacks and handles them and writes the responses, in order.
+ *
+ * @author Saeid Darvish
+ */
+public final class BlockingISO8583Server implements Closeable {
+
+    private final MessageFactory factory;
+    private final MessageHandler handler;
+    private ExecutorService executor = null;
+    private boolean ownExecutor = false;
+    private int maximumFrameLength = ISO8583Server.DEFAULT_MAXIMUM_FRAME_LENGTH;
+    private int backlog = 1024;
+    private BiConsumer<Connection, Throwable> exceptionHandler = Connection.PRINT_EXCEPTION;
+    private AdmissionControl admissionControl = null;
+    private MessagePool messagePool = null;
+
+    private MessageFraming framing = null;
+    private MessageDispatcher dispatcher = null;
+    private ServerSocket serverSocket = null;
+
+    private BlockingISO8583Server(MessageFactory factory, MessageHandler handler) {
+        this.factory = factory;
+        this.handler = handler;
+    }
+
+    /**
+     * Create a server
+     *
+     * @param factory creates a message of the definition for each received frame
+     * @param handler handles the received messages on the thread of their connection
+     * @return the server, to be started by {@link #bind(SocketAddress)}
+     */
+    public static BlockingISO8583Server create(MessageFactory factory, MessageHandler handler) {
+        return new BlockingISO8583Server(
+                Objects.requireNonNull(factory, "The 'MessageFactory' cannot be set to null."),
+                Objects.requireNonNull(handler, "The 'MessageHandler' cannot be set to null."));
+    }
+
+    /**
+     * Set the threads of the connections, each connection holds a thread for its whole life.
+     * By default a new virtual thread (or a platform thread before JDK 21) is started for each connection
+     * by an executor that is shut down by the server.
+     *
+     * @param executor the threads of the connections
+     * @return this server
+     */
+    public BlockingISO8583Server setExecutor(ExecutorService executor) {
+        this.executor = Objects.requireNonNull(executor, "The 'Executor' cannot be set to null.");
+        return this;
+    }
+
+    public BlockingISO8583Server setMaximumFrameLength(int maximumFrameLength) {
+        this.maximumFrameLength = maximumFrameLength;
+        return this;
+    }
+
+    public BlockingISO8583Server setBacklog(int backlog) {
+        this.backlog = backlog;
+        return this;
+    }
+
+    /**
+     * Set the handler of the exceptions of the connections (I/O, unpack and handle processes),
+     * by default the exceptions are printed to the standard error
+     *
+     * @param exceptionHandler the exception handler
+     * @return this server
+     */
+    public BlockingISO8583Server setExceptionHandler(BiConsumer<Connection, Throwable> exceptionHandler) {
+        this.exceptionHandler = Objects.requireNonNull(exceptionHandler, "The 'ExceptionHandler' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Set the admission control of the received requests, the requests over its limits are declined at once
+     *
+     * @param admissionControl the admission control, or null for no limit
+     * @return this server
+     */
+    public BlockingISO8583Server setAdmissionControl(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+        return this;
+    }
+
+    /**
+     * Set the pool of the received messages instead of creating a message for each frame by the factory.
+     * A received message is released to the pool once the handler returns and its response is sent,
+     * so the handler must not keep the received message (nor return a message that is kept elsewhere).
+     *
+     * @param messagePool the message pool, or null to create the messages by the factory
+     * @return this server
+     */
+    public BlockingISO8583Server setMessagePool(MessagePool messagePool) {
+        this.messagePool = messagePool;
+        return this;
+    }
+
+    /**
+     * Bind the server to a local address and start accepting connections
+     *
+     * @param address the local address (port 0 for an ephemeral port)
+     * @return this server
+     * @throws ISO8583Exception If the message definition has no length for framing
+     * @throws IOException If the address cannot be bound
+     */
+    public BlockingISO8583Server bind(SocketAddress address) throws ISO8583Exception, IOException {
+        if (serverSocket != null)
+            throw new ISO8583Exception("The server is already bound to %s.", getLocalAddress());
+
+        framing = MessageFraming.of(factory.create());
+        if (executor == null) {
+            executor = VirtualThreads.newThreadPerTaskExecutor("iso8583-blocking-connection");
+            ownExecutor = true;
+        }
+        // The frames are handled on the thread of their connection
+        dispatcher = new MessageDispatcher(factory, handler, Runnable::run, exceptionHandler);
+        dispatcher.setAdmissionControl(admissionControl);
+        dispatcher.setMessagePool(messagePool);
+
+        serverSocket = new ServerSocket();
+        try {
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(address, backlog);
+        } catch (IOException exception) {
+            close();
+            throw exception;
+        }
+
+        Thread acceptor = new Thread(this::accept, "iso8583-blocking-server-" + getLocalAddress().getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return this;
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException exception) {
+                // The server socket is closed
+                return;
+            }
+
+            try {
+                socket.setTcpNoDelay(true);
+                socket.setKeepAlive(true);
+                StreamConnection connection = new StreamConnection(socket, framing, maximumFrameLength, dispatcher);
+                dispatcher.opened(connection);
+                try {
+                    executor.execute(connection);
+                } catch (RejectedExecutionException exception) {
+                    connection.close();
+                }
+            } catch (IOException exception) {
+                try {
+                    socket.close();
+                } catch (IOException ignored) { }
+            }
+        }
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        return serverSocket == null ? null : (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    /**
+     * Get the number of the open connections
+     *
+     * @return the number of the open connections
+     */
+    public int getConnectionCount() {
+        return dispatcher == null ? 0 : dispatcher.getConnections().size();
+    }
+
+    /**
+     * Stop accepting, close all the connections and shut down the own executor
+     */
+    @Override
+    public void close() {
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException ignored) { }
+        }
+        if (dispatcher != null)
+            for (Connection connection : new ArrayList<>(dispatcher.getConnections())) connection.close();
+        if (ownExecutor) executor.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@BlockingISO8583Server[localAddress: %s, connections: %s]", getLocalAddress(), getConnectionCount());
+    }
+}
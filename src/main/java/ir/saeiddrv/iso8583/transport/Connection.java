@@ -0,0 +1,95 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * A TCP connection that carries length-prefixed ISO-8583 messages,
+ * served by an event loop ({@link ISO8583Server}, {@link ISO8583Client})
+ * or by a thread of its own ({@link BlockingISO8583Server}, {@link BlockingISO8583Client}).
+ * Sending is thread-safe.
+ *
+ * @author Saeid Darvish
+ */
+public abstract class Connection {
+
+    /**
+     * The default exception handler of the servers and clients, prints the connection and the exception to the standard error
+     */
+    public static final BiConsumer<Connection, Throwable> PRINT_EXCEPTION = (connection, exception) ->
+            System.err.printf("%s: %s%n", connection, exception);
+
+    // The receiver of the frames and the close event of a connection, called on the thread that serves the connection
+    interface Listener {
+        void onFrame(Connection connection, byte[] frame);
+
+        // A frame in the read buffer of an event loop, valid only during the call (copied by default)
+        default void onFrame(Connection connection, ByteBuffer buffer, int offset, int length) {
+            byte[] frame = new byte[length];
+            buffer.get(offset, frame);
+            onFrame(connection, frame);
+        }
+
+        void onClose(Connection connection, Throwable cause);
+    }
+
+    private final SocketAddress remoteAddress;
+    private volatile Object attachment = null;
+    // The admitted requests of this connection in flight, counted by the AdmissionControl
+    final AtomicInteger admitted = new AtomicInteger(0);
+
+    Connection(SocketAddress remoteAddress) {
+        this.remoteAddress = remoteAddress;
+    }
+
+    public SocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public abstract boolean isOpen();
+
+    /**
+     * Get the object attached to this connection by the application
+     *
+     * @return the attached object, or null
+     */
+    public Object getAttachment() {
+        return attachment;
+    }
+
+    public void setAttachment(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    /**
+     * Pack a message on the calling thread and send it
+     *
+     * @param message the message to send
+     * @throws ISO8583Exception If throws from the pack process, or the connection is closed
+     */
+    public void send(Message message) throws ISO8583Exception {
+        send(message.pack());
+    }
+
+    /**
+     * Send a packed message (its length included)
+     *
+     * @param frame the packed message
+     * @throws ISO8583Exception If the connection is closed
+     */
+    public abstract void send(byte[] frame) throws ISO8583Exception;
+
+    /**
+     * Close the connection
+     */
+    public abstract void close();
+
+    @Override
+    public String toString() {
+        return String.format("@Connection[remoteAddress: %s, open: %s]", remoteAddress, isOpen());
+    }
+}
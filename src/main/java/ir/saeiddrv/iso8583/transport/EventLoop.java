@@ -0,0 +1,212 @@
+package ir.saeiddrv.iso8583.transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A selector thread that owns its channels: all the reads, writes and registrations of a channel
+ * are done on this thread, other threads pass their work to it by {@link #execute(Runnable)}.
+ * The channels of a loop read into its scratch buffer, so the received bytes never cross the loop threads.
+ *
+ * @author Saeid Darvish
+ */
+final class EventLoop implements Executor {
+
+    // The attachment of every registered key
+    interface SelectHandler {
+        void handle(SelectionKey key);
+
+        // Called when the loop is closed with the channel still registered
+        default void closed() { }
+    }
+
+    // A task that runs on the loop thread after its deadline
+    private static final class Timer implements Comparable<Timer> {
+        private final long deadline;
+        private final Runnable task;
+
+        private Timer(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            return Long.compare(deadline - other.deadline, 0);
+        }
+    }
+
+    private static final int READ_SCRATCH_SIZE = 64 * 1024;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakenUp = new AtomicBoolean(false);
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    // Owned by the loop thread
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+    private final ByteBuffer readScratch = ByteBuffer.allocate(READ_SCRATCH_SIZE);
+    private volatile boolean running = true;
+    private boolean started = false;
+
+    EventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        started = true;
+        thread.start();
+    }
+
+    boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (!inLoop() && wakenUp.compareAndSet(false, true))
+            selector.wakeup();
+    }
+
+    /**
+     * Run a task on the loop thread after a delay, with the precision of a millisecond
+     *
+     * @param task the task
+     * @param delayNanos the delay in nanoseconds
+     */
+    void schedule(Runnable task, long delayNanos) {
+        long deadline = System.nanoTime() + delayNanos;
+        if (inLoop()) timers.add(new Timer(deadline, task));
+        else execute(() -> timers.add(new Timer(deadline, task)));
+    }
+
+    SelectionKey register(SelectableChannel channel, int interestOps, SelectHandler handler) throws ClosedChannelException {
+        return channel.register(selector, interestOps, handler);
+    }
+
+    /**
+     * Get the scratch buffer of the reads, shared by all the channels of this loop
+     *
+     * @return the cleared scratch buffer, must be used only on the loop thread and only during a single read
+     */
+    ByteBuffer getReadScratch() {
+        return readScratch.clear();
+    }
+
+    int getChannelCount() {
+        return selector.keys().size();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                try {
+                    select();
+                    wakenUp.set(false);
+
+                    // HANDLE THE READY CHANNELS
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isValid())
+                            ((SelectHandler) key.attachment()).handle(key);
+                    }
+
+                    // RUN THE TASKS OF THE OTHER THREADS AND THE DUE TIMERS
+                    runTasks();
+                    runTimers();
+                } catch (IOException exception) {
+                    // The selector itself has failed
+                    running = false;
+                }
+            }
+        } finally {
+            runTasks();
+            for (SelectionKey key : selector.keys()) {
+                ((SelectHandler) key.attachment()).closed();
+                closeQuietly(key);
+            }
+            closeQuietly(selector);
+            terminated.countDown();
+        }
+    }
+
+    private void select() throws IOException {
+        Timer timer = timers.peek();
+        if (timer == null) {
+            selector.select();
+            return;
+        }
+        long delay = timer.deadline - System.nanoTime();
+        if (delay <= 0) selector.selectNow();
+        else selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(delay + 999_999)));
+    }
+
+    private void runTimers() {
+        long now = System.nanoTime();
+        Timer timer;
+        while ((timer = timers.peek()) != null && timer.deadline - now <= 0) {
+            timers.poll();
+            try {
+                timer.task.run();
+            } catch (RuntimeException exception) {
+                // A timer must not stop the loop
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException exception) {
+                // A task must not stop the loop
+            }
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        try {
+            key.channel().close();
+        } catch (IOException ignored) { }
+    }
+
+    private static void closeQuietly(Selector selector) {
+        try {
+            selector.close();
+        } catch (IOException ignored) { }
+    }
+
+    void close() {
+        running = false;
+        if (!started) {
+            closeQuietly(selector);
+            return;
+        }
+        selector.wakeup();
+        if (!inLoop()) {
+            try {
+                terminated.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A non-blocking client of length-prefixed ISO-8583 messages over a single persistent connection.
+ * The messages are sent without waiting for the responses, the received messages are unpacked and
+ * handled on the worker threads (or on the loop, see {@link #setHandleOnEventLoop(boolean)}).
+ *
+ * @author Saeid Darvish
+ */
+public final class ISO8583Client implements Closeable {
+
+    private final MessageFactory factory;
+    private final MessageHandler handler;
+    private ExecutorService workers = null;
+    private boolean ownWorkers = false;
+    private int maximumFrameLength = ISO8583Server.DEFAULT_MAXIMUM_FRAME_LENGTH;
+    private int connectTimeout = 15000;
+    private BiConsumer<Connection, Throwable> exceptionHandler = Connection.PRINT_EXCEPTION;
+    private WriteCoalescing writeCoalescing = WriteCoalescing.DEFAULT;
+    private Consumer<Connection> closeHandler = null;
+    private boolean handleOnEventLoop = false;
+
+    private EventLoop loop = null;
+    private boolean ownLoop = false;
+    private Connection connection = null;
+
+    private ISO8583Client(MessageFactory factory, MessageHandler handler) {
+        this.factory = factory;
+        this.handler = handler;
+    }
+
+    /**
+     * Create a client
+     *
+     * @param factory creates a message of the definition for each received frame
+     * @param handler handles the received messages on the worker threads
+     * @return the client, to be connected by {@link #connect(SocketAddress)}
+     */
+    public static ISO8583Client create(MessageFactory factory, MessageHandler handler) {
+        return new ISO8583Client(
+                Objects.requireNonNull(factory, "The 'MessageFactory' cannot be set to null."),
+                Objects.requireNonNull(handler, "The 'MessageHandler' cannot be set to null."));
+    }
+
+    /**
+     * Set the worker threads of the unpack and handle processes,
+     * by default a single thread is created and shut down by the client
+     *
+     * @param workers the worker threads
+     * @return this client
+     */
+    public ISO8583Client setWorkers(ExecutorService workers) {
+        this.workers = Objects.requireNonNull(workers, "The 'Workers' cannot be set to null.");
+        return this;
+    }
+
+    // Serve the connection by the event loop of a connection pool, the loop is not closed by the client
+    ISO8583Client setEventLoop(EventLoop loop) {
+        this.loop = Objects.requireNonNull(loop, "The 'EventLoop' cannot be set to null.");
+        return this;
+    }
+
+    public ISO8583Client setMaximumFrameLength(int maximumFrameLength) {
+        this.maximumFrameLength = maximumFrameLength;
+        return this;
+    }
+
+    public ISO8583Client setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Set the coalescing of the outbound frames of each connection: the queued frames are written by a single
+     * gathering write of at most the maximum batch size, and the first queued frame waits at most the maximum delay
+     * (with the precision of a millisecond) for the next frames. By default up to 64 frames without delay.
+     *
+     * @param maximumBatchSize the maximum number of frames of each write (up to 1024)
+     * @param maximumDelay the maximum time that a frame waits for the next frames, 0 for no delay
+     * @param unit the unit of the maximum delay
+     * @return this client
+     */
+    public ISO8583Client setWriteCoalescing(int maximumBatchSize, long maximumDelay, TimeUnit unit) {
+        this.writeCoalescing = WriteCoalescing.of(maximumBatchSize, maximumDelay, unit);
+        return this;
+    }
+
+    public ISO8583Client setExceptionHandler(BiConsumer<Connection, Throwable> exceptionHandler) {
+        this.exceptionHandler = Objects.requireNonNull(exceptionHandler, "The 'ExceptionHandler' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Set the handler of closing the connection (by the host, an I/O error or the client itself)
+     *
+     * @param closeHandler the close handler
+     * @return this client
+     */
+    public ISO8583Client setCloseHandler(Consumer<Connection> closeHandler) {
+        this.closeHandler = closeHandler;
+        return this;
+    }
+
+    /**
+     * Handle the received messages on the event loops instead of the worker threads: each message is unpacked
+     * from the read buffer of its loop without a copy and its response is packed into the slab of the loop thread,
+     * so the frames are decoded and encoded by the per-loop scratch only. The handler must not block,
+     * a blocked handler stops every connection of its loop.
+     *
+     * @param handleOnEventLoop true to handle the messages on the event loops
+     * @return this client
+     */
+    public ISO8583Client setHandleOnEventLoop(boolean handleOnEventLoop) {
+        this.handleOnEventLoop = handleOnEventLoop;
+        return this;
+    }
+
+    /**
+     * Connect to a host
+     *
+     * @param address the address of the host
+     * @return this client
+     * @throws ISO8583Exception If the message definition has no length for framing
+     * @throws IOException If the connection cannot be established
+     */
+    public ISO8583Client connect(SocketAddress address) throws ISO8583Exception, IOException {
+        if (connection != null)
+            throw new ISO8583Exception("The client is already connected to %s.", connection.getRemoteAddress());
+
+        MessageFraming framing = MessageFraming.of(factory.create());
+        if (workers == null) {
+            workers = Executors.newSingleThreadExecutor();
+            ownWorkers = true;
+        }
+        MessageDispatcher dispatcher = new MessageDispatcher(factory, handler, workers, exceptionHandler);
+        dispatcher.setCloseHandler(closeHandler);
+        dispatcher.setHandleOnEventLoop(handleOnEventLoop);
+
+        // CONNECT IN BLOCKING MODE, THEN SERVE THE CONNECTION BY THE EVENT LOOP
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            channel.socket().connect(address, connectTimeout);
+            channel.configureBlocking(false);
+
+            if (loop == null) {
+                loop = new EventLoop("iso8583-client-" + address);
+                loop.start();
+                ownLoop = true;
+            }
+            SelectorConnection connection = new SelectorConnection(channel, loop, framing, maximumFrameLength, writeCoalescing, dispatcher);
+            CompletableFuture<Void> registered = new CompletableFuture<>();
+            loop.execute(() -> {
+                try {
+                    connection.register();
+                    registered.complete(null);
+                } catch (IOException exception) {
+                    registered.completeExceptionally(exception);
+                }
+            });
+            registered.get();
+            dispatcher.opened(connection);
+            this.connection = connection;
+        } catch (IOException exception) {
+            channel.close();
+            close();
+            throw exception;
+        } catch (InterruptedException | ExecutionException exception) {
+            channel.close();
+            close();
+            if (exception instanceof InterruptedException) Thread.currentThread().interrupt();
+            throw new IOException("The connection cannot be registered: " + exception.getMessage(), exception);
+        }
+        return this;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public boolean isConnected() {
+        return connection != null && connection.isOpen();
+    }
+
+    /**
+     * Pack a message on the calling thread and send it, without waiting for the response
+     *
+     * @param message the message to send
+     * @throws ISO8583Exception If throws from the pack process, or the client is not connected
+     */
+    public void send(Message message) throws ISO8583Exception {
+        if (connection == null)
+            throw new ISO8583Exception("The client is not connected.");
+        connection.send(message);
+    }
+
+    /**
+     * Send a packed message (its length included), without waiting for the response
+     *
+     * @param frame the packed message
+     * @throws ISO8583Exception If the client is not connected
+     */
+    public void send(byte[] frame) throws ISO8583Exception {
+        if (connection == null)
+            throw new ISO8583Exception("The client is not connected.");
+        connection.send(frame);
+    }
+
+    /**
+     * Close the connection and shut down the own event loop and worker threads
+     */
+    @Override
+    public void close() {
+        if (ownLoop) loop.close();
+        else if (connection != null) connection.close();
+        if (ownWorkers) workers.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@ISO8583Client[connection: %s]", connection);
+    }
+}
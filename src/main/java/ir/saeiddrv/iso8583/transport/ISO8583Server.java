@@ -0,0 +1,349 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * A non-blocking server of length-prefixed ISO-8583 messages.
+ * The connections are served by a number of event loops (a selector thread for each processor by default),
+ * each connection is assigned to a single loop, the frames are found by the message length
+ * of the definition and unpacked and handled on the worker threads
+ * (or on the loops themselves, see {@link #setHandleOnEventLoop(boolean)}).
+ *
+ * @author Saeid Darvish
+ */
+public final class ISO8583Server implements Closeable {
+
+    /**
+     * The assignment of the accepted connections to the event loops
+     */
+    public enum LoopAssignment {
+        // Each accepted connection to the next loop
+        ROUND_ROBIN,
+        // By the hash of the remote host, so the connections of a host share a loop
+        REMOTE_ADDRESS_HASH
+    }
+
+    public static final int DEFAULT_MAXIMUM_FRAME_LENGTH = 64 * 1024;
+
+    private final MessageFactory factory;
+    private final MessageHandler handler;
+    private ExecutorService workers = null;
+    private boolean ownWorkers = false;
+    private int maximumFrameLength = DEFAULT_MAXIMUM_FRAME_LENGTH;
+    private int backlog = 1024;
+    private BiConsumer<Connection, Throwable> exceptionHandler = Connection.PRINT_EXCEPTION;
+    private AdmissionControl admissionControl = null;
+    private MessagePool messagePool = null;
+    private WriteCoalescing writeCoalescing = WriteCoalescing.DEFAULT;
+    private int eventLoopCount = Runtime.getRuntime().availableProcessors();
+    private LoopAssignment loopAssignment = LoopAssignment.ROUND_ROBIN;
+    private boolean reusePort = false;
+    private boolean handleOnEventLoop = false;
+
+    private MessageFraming framing = null;
+    private MessageDispatcher dispatcher = null;
+    private EventLoop[] loops = new EventLoop[0];
+    private ServerSocketChannel[] serverChannels = new ServerSocketChannel[0];
+    // Owned by the single acceptor (the first loop), if the port is not reused
+    private int nextLoop = 0;
+
+    private ISO8583Server(MessageFactory factory, MessageHandler handler) {
+        this.factory = factory;
+        this.handler = handler;
+    }
+
+    /**
+     * Create a server
+     *
+     * @param factory creates a message of the definition for each received frame
+     * @param handler handles the received messages on the worker threads
+     * @return the server, to be started by {@link #bind(SocketAddress)}
+     */
+    public static ISO8583Server create(MessageFactory factory, MessageHandler handler) {
+        return new ISO8583Server(
+                Objects.requireNonNull(factory, "The 'MessageFactory' cannot be set to null."),
+                Objects.requireNonNull(handler, "The 'MessageHandler' cannot be set to null."));
+    }
+
+    /**
+     * Set the worker threads of the unpack and handle processes,
+     * by default a fixed pool by the number of processors is created and shut down by the server
+     *
+     * @param workers the worker threads
+     * @return this server
+     */
+    public ISO8583Server setWorkers(ExecutorService workers) {
+        this.workers = Objects.requireNonNull(workers, "The 'Workers' cannot be set to null.");
+        return this;
+    }
+
+    public ISO8583Server setMaximumFrameLength(int maximumFrameLength) {
+        this.maximumFrameLength = maximumFrameLength;
+        return this;
+    }
+
+    public ISO8583Server setBacklog(int backlog) {
+        this.backlog = backlog;
+        return this;
+    }
+
+    /**
+     * Set the number of the event loops (selector threads) of the connections,
+     * by default the number of processors
+     *
+     * @param eventLoopCount the number of the event loops
+     * @return this server
+     */
+    public ISO8583Server setEventLoops(int eventLoopCount) {
+        if (eventLoopCount <= 0)
+            throw new IllegalArgumentException("The number of the event loops must be greater than zero: " + eventLoopCount);
+        this.eventLoopCount = eventLoopCount;
+        return this;
+    }
+
+    public ISO8583Server setLoopAssignment(LoopAssignment loopAssignment) {
+        this.loopAssignment = Objects.requireNonNull(loopAssignment, "The 'LoopAssignment' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Enable the SO_REUSEPORT option: each event loop binds an acceptor of its own to the same port,
+     * the kernel spreads the connections over them (the loop assignment is not used),
+     * and other servers with this option may bind the same port as well
+     *
+     * @param reusePort true to enable the SO_REUSEPORT option
+     * @return this server
+     */
+    public ISO8583Server setReusePort(boolean reusePort) {
+        this.reusePort = reusePort;
+        return this;
+    }
+
+    /**
+     * Set the coalescing of the outbound frames of each connection: the queued frames are written by a single
+     * gathering write of at most the maximum batch size, and the first queued frame waits at most the maximum delay
+     * (with the precision of a millisecond) for the next frames. By default up to 64 frames without delay.
+     *
+     * @param maximumBatchSize the maximum number of frames of each write (up to 1024)
+     * @param maximumDelay the maximum time that a frame waits for the next frames, 0 for no delay
+     * @param unit the unit of the maximum delay
+     * @return this server
+     */
+    public ISO8583Server setWriteCoalescing(int maximumBatchSize, long maximumDelay, TimeUnit unit) {
+        this.writeCoalescing = WriteCoalescing.of(maximumBatchSize, maximumDelay, unit);
+        return this;
+    }
+
+    /**
+     * Set the handler of the exceptions of the connections (I/O, unpack and handle processes),
+     * by default the exceptions are printed to the standard error
+     *
+     * @param exceptionHandler the exception handler
+     * @return this server
+     */
+    public ISO8583Server setExceptionHandler(BiConsumer<Connection, Throwable> exceptionHandler) {
+        this.exceptionHandler = Objects.requireNonNull(exceptionHandler, "The 'ExceptionHandler' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Set the admission control of the received requests, the requests over its limits are declined at once
+     *
+     * @param admissionControl the admission control, or null for no limit
+     * @return this server
+     */
+    public ISO8583Server setAdmissionControl(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+        return this;
+    }
+
+    /**
+     * Set the pool of the received messages instead of creating a message for each frame by the factory.
+     * A received message is released to the pool once the handler returns and its response is sent,
+     * so the handler must not keep the received message (nor return a message that is kept elsewhere).
+     *
+     * @param messagePool the message pool, or null to create the messages by the factory
+     * @return this server
+     */
+    public ISO8583Server setMessagePool(MessagePool messagePool) {
+        this.messagePool = messagePool;
+        return this;
+    }
+
+    /**
+     * Handle the received messages on the event loops instead of the worker threads: each message is unpacked
+     * from the read buffer of its loop without a copy and its response is packed into the slab of the loop thread,
+     * so the frames are decoded and encoded by the per-loop scratch only. The handler must not block,
+     * a blocked handler stops every connection of its loop.
+     *
+     * @param handleOnEventLoop true to handle the messages on the event loops
+     * @return this server
+     */
+    public ISO8583Server setHandleOnEventLoop(boolean handleOnEventLoop) {
+        this.handleOnEventLoop = handleOnEventLoop;
+        return this;
+    }
+
+    /**
+     * Bind the server to a local address and start accepting connections
+     *
+     * @param address the local address (port 0 for an ephemeral port)
+     * @return this server
+     * @throws ISO8583Exception If the message definition has no length for framing
+     * @throws IOException If the address cannot be bound
+     */
+    public ISO8583Server bind(SocketAddress address) throws ISO8583Exception, IOException {
+        if (serverChannels.length > 0)
+            throw new ISO8583Exception("The server is already bound to %s.", getLocalAddress());
+
+        framing = MessageFraming.of(factory.create());
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            ownWorkers = true;
+        }
+        dispatcher = new MessageDispatcher(factory, handler, workers, exceptionHandler);
+        dispatcher.setAdmissionControl(admissionControl);
+        dispatcher.setMessagePool(messagePool);
+        dispatcher.setHandleOnEventLoop(handleOnEventLoop);
+
+        try {
+            // BIND THE ACCEPTORS (ONE FOR EACH LOOP IF THE PORT IS REUSED)
+            serverChannels = new ServerSocketChannel[reusePort ? eventLoopCount : 1];
+            for (int index = 0; index < serverChannels.length; index++)
+                serverChannels[index] = openServerChannel(index == 0 ? address : getLocalAddress());
+
+            // START THE LOOPS, THE ACCEPTORS ARE SERVED BY THE FIRST LOOPS
+            int port = getLocalAddress().getPort();
+            loops = new EventLoop[eventLoopCount];
+            for (int index = 0; index < eventLoopCount; index++)
+                loops[index] = new EventLoop("iso8583-server-" + port + "-" + index);
+            for (int index = 0; index < serverChannels.length; index++) {
+                ServerSocketChannel serverChannel = serverChannels[index];
+                EventLoop loop = loops[index];
+                loop.register(serverChannel, SelectionKey.OP_ACCEPT, key -> accept(serverChannel, loop));
+            }
+            for (EventLoop loop : loops) loop.start();
+        } catch (ISO8583Exception | IOException exception) {
+            close();
+            throw exception;
+        }
+        return this;
+    }
+
+    private ServerSocketChannel openServerChannel(SocketAddress address) throws ISO8583Exception, IOException {
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            if (reusePort) {
+                if (!serverChannel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT))
+                    throw new ISO8583Exception("The SO_REUSEPORT option is not supported on this platform.");
+                serverChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            }
+            serverChannel.bind(address, backlog);
+            serverChannel.configureBlocking(false);
+            return serverChannel;
+        } catch (ISO8583Exception | IOException exception) {
+            serverChannel.close();
+            throw exception;
+        }
+    }
+
+    private void accept(ServerSocketChannel serverChannel, EventLoop acceptor) {
+        SocketChannel channel;
+        try {
+            while ((channel = serverChannel.accept()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+                    EventLoop loop = reusePort ? acceptor : assign(channel);
+                    SelectorConnection connection = new SelectorConnection(channel, loop, framing, maximumFrameLength, writeCoalescing, dispatcher);
+                    SocketChannel accepted = channel;
+                    loop.execute(() -> {
+                        // THE CHANNEL IS REGISTERED ON THE THREAD OF ITS OWN LOOP
+                        try {
+                            connection.register();
+                            dispatcher.opened(connection);
+                        } catch (IOException exception) {
+                            try {
+                                accepted.close();
+                            } catch (IOException ignored) { }
+                        }
+                    });
+                } catch (IOException exception) {
+                    channel.close();
+                }
+            }
+        } catch (IOException exception) {
+            // The server channel is closed
+        }
+    }
+
+    private EventLoop assign(SocketChannel channel) throws IOException {
+        if (loops.length == 1) return loops[0];
+        if (loopAssignment == LoopAssignment.REMOTE_ADDRESS_HASH) {
+            InetSocketAddress remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+            return loops[Math.floorMod(remoteAddress.getAddress().hashCode(), loops.length)];
+        }
+        EventLoop loop = loops[nextLoop];
+        nextLoop = (nextLoop + 1) % loops.length;
+        return loop;
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        try {
+            return serverChannels.length == 0 || serverChannels[0] == null ?
+                    null : (InetSocketAddress) serverChannels[0].getLocalAddress();
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    public int getEventLoopCount() {
+        return eventLoopCount;
+    }
+
+    /**
+     * Get the number of the open connections
+     *
+     * @return the number of the open connections
+     */
+    public int getConnectionCount() {
+        return dispatcher == null ? 0 : dispatcher.getConnections().size();
+    }
+
+    /**
+     * Stop accepting, close all the connections and shut down the own worker threads
+     */
+    @Override
+    public void close() {
+        for (EventLoop loop : loops)
+            if (loop != null) loop.close();
+        for (ServerSocketChannel serverChannel : serverChannels) {
+            if (serverChannel == null) continue;
+            try {
+                serverChannel.close();
+            } catch (IOException ignored) { }
+        }
+        if (ownWorkers) workers.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@ISO8583Server[localAddress: %s, connections: %s, eventLoops: %s, reusePort: %s]",
+                getLocalAddress(), getConnectionCount(), eventLoopCount, reusePort);
+    }
+}
@@ -0,0 +1,497 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Holds some persistent connections to each endpoint of a host, each one a {@link MessageMultiplexer}.
+ * Each request is sent on the connection with the fewest requests in flight, the lost connections are
+ * reconnected in the background (with an exponential backoff) and a removed endpoint is drained:
+ * its connections take no new requests and are closed after their requests in flight are completed.
+ * All the connections share a single event loop, the worker threads and the timeout wheel of the pool,
+ * so the reconnects create no threads.
+ *
+ * @author Saeid Darvish
+ */
+public final class MessageConnectionPool implements Closeable {
+
+    private static final int CONNECTING = 0;
+    private static final int ACTIVE = 1;
+    private static final int DRAINING = 2;
+    private static final int CLOSED = 3;
+
+    // A single connection of an endpoint
+    private static final class Link {
+        private final SocketAddress endpoint;
+        private final AtomicInteger state = new AtomicInteger(CONNECTING);
+        private final AtomicInteger inFlight = new AtomicInteger(0);
+        private final CompletableFuture<Void> drained = new CompletableFuture<>();
+        private volatile MessageMultiplexer multiplexer = null;
+        private long reconnectDelay;
+
+        private Link(SocketAddress endpoint, long reconnectDelay) {
+            this.endpoint = endpoint;
+            this.reconnectDelay = reconnectDelay;
+        }
+    }
+
+    private static final BiConsumer<SocketAddress, Throwable> PRINT_CONNECT_EXCEPTION = (endpoint, exception) ->
+            System.err.printf("Cannot connect to %s: %s%n", endpoint, exception);
+
+    private final MessageFactory factory;
+    private final ScheduledExecutorService scheduler;
+    private volatile Link[] links = new Link[0];
+    private final AtomicInteger next = new AtomicInteger(0);
+    private volatile boolean closed = false;
+
+    // Shared by all the connections, the timeouts of the wheel are passed to the multiplexer of their scope
+    private EventLoop loop = null;
+    private ExecutorService ownWorkers = null;
+    private MessageTimeoutWheel timeoutWheel = null;
+    private final ConcurrentMap<String, MessageMultiplexer> timeoutScopes = new ConcurrentHashMap<>();
+    private final AtomicLong nextTimeoutScope = new AtomicLong(0);
+
+    private int connectionsPerEndpoint = 1;
+    private MessageCorrelation correlation = MessageCorrelation.DEFAULT;
+    private MessageMultiplexer.UnmatchedHandler unmatchedHandler = (message, late) -> { };
+    private int maximumOutstanding = Integer.MAX_VALUE;
+    private long timeout = 0;
+    private TimeUnit timeoutUnit = null;
+    private MessageTimeoutWheel.TimeoutHandler timeoutHandler = null;
+    private ExecutorService workers = null;
+    private int connectTimeout = 15000;
+    private long minimumReconnectDelay = TimeUnit.MILLISECONDS.toNanos(100);
+    private long maximumReconnectDelay = TimeUnit.SECONDS.toNanos(30);
+    private BiConsumer<Connection, Throwable> exceptionHandler = Connection.PRINT_EXCEPTION;
+    private BiConsumer<SocketAddress, Throwable> connectExceptionHandler = PRINT_CONNECT_EXCEPTION;
+
+    private MessageConnectionPool(MessageFactory factory) {
+        this.factory = factory;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemon("iso8583-connection-pool"));
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Create a pool, the settings apply to the connections of the endpoints that are added after them
+     *
+     * @param factory creates a message of the definition for each received frame
+     * @return the pool, to be filled by {@link #addEndpoint(SocketAddress)}
+     */
+    public static MessageConnectionPool create(MessageFactory factory) {
+        return new MessageConnectionPool(Objects.requireNonNull(factory, "The 'MessageFactory' cannot be set to null."));
+    }
+
+    public MessageConnectionPool setConnectionsPerEndpoint(int connectionsPerEndpoint) {
+        if (connectionsPerEndpoint <= 0)
+            throw new IllegalArgumentException("The number of connections per endpoint must be greater than zero: " + connectionsPerEndpoint);
+        this.connectionsPerEndpoint = connectionsPerEndpoint;
+        return this;
+    }
+
+    public MessageConnectionPool setCorrelation(MessageCorrelation correlation) {
+        this.correlation = Objects.requireNonNull(correlation, "The 'MessageCorrelation' cannot be set to null.");
+        return this;
+    }
+
+    public MessageConnectionPool setUnmatchedHandler(MessageMultiplexer.UnmatchedHandler unmatchedHandler) {
+        this.unmatchedHandler = Objects.requireNonNull(unmatchedHandler, "The 'UnmatchedHandler' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Set the maximum number of outstanding requests of each connection
+     *
+     * @param maximumOutstanding the maximum number of outstanding requests of each connection
+     * @return this pool
+     */
+    public MessageConnectionPool setMaximumOutstanding(int maximumOutstanding) {
+        this.maximumOutstanding = maximumOutstanding;
+        return this;
+    }
+
+    /**
+     * Set the timeout of the requests, see {@link MessageMultiplexer#setTimeout},
+     * the timeouts of all the connections are expired by a single wheel
+     *
+     * @param timeout the time to wait for each response
+     * @param unit the unit of the timeout
+     * @param timeoutHandler handles the timed out requests
+     * @return this pool
+     */
+    public MessageConnectionPool setTimeout(long timeout, TimeUnit unit, MessageTimeoutWheel.TimeoutHandler timeoutHandler) {
+        this.timeout = timeout;
+        this.timeoutUnit = Objects.requireNonNull(unit, "The 'TimeUnit' cannot be set to null.");
+        this.timeoutHandler = Objects.requireNonNull(timeoutHandler, "The 'TimeoutHandler' cannot be set to null.");
+        synchronized (this) {
+            if (timeoutWheel == null && !closed) timeoutWheel = MessageTimeoutWheel.create(correlation, this::timedOut);
+        }
+        return this;
+    }
+
+    /**
+     * Set the worker threads of all the connections, by default the connections share a single worker thread
+     *
+     * @param workers the worker threads
+     * @return this pool
+     */
+    public MessageConnectionPool setWorkers(ExecutorService workers) {
+        this.workers = Objects.requireNonNull(workers, "The 'Workers' cannot be set to null.");
+        return this;
+    }
+
+    public MessageConnectionPool setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Set the delays of reconnecting a lost connection, the delay is doubled after each failed attempt
+     *
+     * @param minimum the delay of the first attempt
+     * @param maximum the maximum delay
+     * @param unit the unit of the delays
+     * @return this pool
+     */
+    public MessageConnectionPool setReconnectDelay(long minimum, long maximum, TimeUnit unit) {
+        if (minimum <= 0 || maximum < minimum)
+            throw new IllegalArgumentException(String.format("Invalid reconnect delays: [%s, %s]", minimum, maximum));
+        this.minimumReconnectDelay = unit.toNanos(minimum);
+        this.maximumReconnectDelay = unit.toNanos(maximum);
+        return this;
+    }
+
+    public MessageConnectionPool setExceptionHandler(BiConsumer<Connection, Throwable> exceptionHandler) {
+        this.exceptionHandler = Objects.requireNonNull(exceptionHandler, "The 'ExceptionHandler' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Set the handler of the failed connect attempts, by default they are printed to the standard error
+     *
+     * @param connectExceptionHandler the handler of the endpoint and the exception of each failed attempt
+     * @return this pool
+     */
+    public MessageConnectionPool setConnectExceptionHandler(BiConsumer<SocketAddress, Throwable> connectExceptionHandler) {
+        this.connectExceptionHandler = Objects.requireNonNull(connectExceptionHandler,
+                "The 'ConnectExceptionHandler' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Add an endpoint and connect its connections on the calling thread,
+     * the connections that cannot be established are retried in the background
+     *
+     * @param endpoint the address of the endpoint
+     * @return this pool
+     * @throws ISO8583Exception If the pool is closed, the endpoint has already been added,
+     *                          or the event loop of the connections cannot be opened
+     */
+    public MessageConnectionPool addEndpoint(SocketAddress endpoint) throws ISO8583Exception {
+        Objects.requireNonNull(endpoint, "The 'Endpoint' cannot be set to null.");
+        List<Link> added = new ArrayList<>(connectionsPerEndpoint);
+        synchronized (this) {
+            if (closed)
+                throw new ISO8583Exception("The connection pool is closed.");
+            if (getEndpoints().contains(endpoint))
+                throw new ISO8583Exception("The endpoint %s has already been added.", endpoint);
+            if (loop == null) {
+                try {
+                    loop = new EventLoop("iso8583-connection-pool-loop");
+                } catch (IOException exception) {
+                    throw new ISO8583Exception("The event loop of the connection pool cannot be opened: %s", exception.getMessage());
+                }
+                loop.start();
+            }
+            if (workers == null && ownWorkers == null)
+                ownWorkers = Executors.newSingleThreadExecutor(daemon("iso8583-connection-pool-worker"));
+            for (int index = 0; index < connectionsPerEndpoint; index++)
+                added.add(new Link(endpoint, minimumReconnectDelay));
+            Link[] links = Arrays.copyOf(this.links, this.links.length + added.size());
+            for (int index = 0; index < added.size(); index++) links[this.links.length + index] = added.get(index);
+            this.links = links;
+        }
+        for (Link link : added) connect(link);
+        return this;
+    }
+
+    /**
+     * Remove an endpoint, its connections take no new requests and are closed after their requests in flight
+     * are completed, or after the timeout (the requests that are still in flight are failed)
+     *
+     * @param endpoint the address of the endpoint
+     * @param timeout the maximum time to wait for the requests in flight
+     * @param unit the unit of the timeout
+     * @return the future that is completed when all the connections of the endpoint are closed
+     */
+    public CompletableFuture<Void> removeEndpoint(SocketAddress endpoint, long timeout, TimeUnit unit) {
+        List<Link> removed = new ArrayList<>();
+        synchronized (this) {
+            List<Link> kept = new ArrayList<>();
+            for (Link link : links) (link.endpoint.equals(endpoint) ? removed : kept).add(link);
+            links = kept.toArray(new Link[0]);
+        }
+        return drain(removed, unit.toNanos(timeout));
+    }
+
+    /**
+     * Get the endpoints of the pool
+     *
+     * @return the addresses of the endpoints, in the order they have been added
+     */
+    public Set<SocketAddress> getEndpoints() {
+        Set<SocketAddress> endpoints = new LinkedHashSet<>();
+        for (Link link : links) endpoints.add(link.endpoint);
+        return endpoints;
+    }
+
+    /**
+     * Get the number of the established connections that take new requests
+     *
+     * @return the number of the active connections
+     */
+    public int getConnectionCount() {
+        int count = 0;
+        for (Link link : links) if (link.state.get() == ACTIVE) count++;
+        return count;
+    }
+
+    /**
+     * Get the number of the requests in flight on all the connections
+     *
+     * @return the number of the requests in flight
+     */
+    public int getOutstandingCount() {
+        int count = 0;
+        for (Link link : links) count += link.inFlight.get();
+        return count;
+    }
+
+    /**
+     * Send a request on the active connection with the fewest requests in flight
+     *
+     * @param request the request message, it is packed on the calling thread
+     * @return the future of the response, failed if there is no active connection
+     */
+    public CompletableFuture<Message> send(Message request) {
+        while (true) {
+            Link link = select();
+            if (link == null) {
+                CompletableFuture<Message> response = new CompletableFuture<>();
+                response.completeExceptionally(closed ?
+                        new ISO8583Exception("The connection pool is closed.") :
+                        new ISO8583Exception("There is no active connection to the endpoints %s.", getEndpoints()));
+                return response;
+            }
+
+            // THE LINK MAY HAVE BEEN DRAINED AFTER THE SELECTION
+            link.inFlight.incrementAndGet();
+            if (link.state.get() != ACTIVE) {
+                completed(link);
+                continue;
+            }
+
+            CompletableFuture<Message> response = link.multiplexer.send(request);
+            response.whenComplete((message, exception) -> completed(link));
+            return response;
+        }
+    }
+
+    // The active link with the fewest requests in flight, starting from a rotating index to spread the ties
+    private Link select() {
+        Link[] links = this.links;
+        if (links.length == 0) return null;
+        int start = Math.floorMod(next.getAndIncrement(), links.length);
+        Link selected = null;
+        int fewest = Integer.MAX_VALUE;
+        for (int index = 0; index < links.length; index++) {
+            Link link = links[(start + index) % links.length];
+            int inFlight = link.inFlight.get();
+            if (link.state.get() == ACTIVE && inFlight < fewest) {
+                selected = link;
+                fewest = inFlight;
+            }
+        }
+        return selected;
+    }
+
+    private void completed(Link link) {
+        if (link.inFlight.decrementAndGet() == 0 && link.state.get() == DRAINING) finish(link);
+    }
+
+    private void connect(Link link) {
+        if (closed || link.state.get() != CONNECTING) return;
+
+        MessageMultiplexer multiplexer = MessageMultiplexer.create(factory)
+                .setCorrelation(correlation)
+                .setUnmatchedHandler(unmatchedHandler)
+                .setMaximumOutstanding(maximumOutstanding)
+                .setExceptionHandler(exceptionHandler)
+                .setConnectTimeout(connectTimeout)
+                .setEventLoop(loop)
+                .setWorkers(workers != null ? workers : ownWorkers);
+        if (timeoutHandler != null) {
+            String scope = nextTimeoutScope.incrementAndGet() + "/";
+            timeoutScopes.put(scope, multiplexer);
+            multiplexer.setTimeout(timeout, timeoutUnit, timeoutHandler, timeoutWheel, scope);
+        }
+        multiplexer.setCloseHandler(connection -> disconnected(link, multiplexer));
+
+        try {
+            multiplexer.connect(link.endpoint);
+        } catch (Exception exception) {
+            close(multiplexer);
+            connectExceptionHandler.accept(link.endpoint, exception);
+            reconnect(link);
+            return;
+        }
+
+        link.multiplexer = multiplexer;
+        link.reconnectDelay = minimumReconnectDelay;
+        if (!link.state.compareAndSet(CONNECTING, ACTIVE)) {
+            // The link has been drained while connecting
+            close(multiplexer);
+            return;
+        }
+        // The host may have closed the connection before it has been taken by the link
+        if (!multiplexer.getConnection().isOpen()) disconnected(link, multiplexer);
+    }
+
+    private void reconnect(Link link) {
+        if (closed || link.state.get() != CONNECTING) return;
+        long delay = link.reconnectDelay;
+        link.reconnectDelay = Math.min(delay * 2, maximumReconnectDelay);
+        try {
+            scheduler.schedule(() -> connect(link), delay, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException exception) {
+            // The scheduler is shut down
+        }
+    }
+
+    private void disconnected(Link link, MessageMultiplexer multiplexer) {
+        if (link.multiplexer != multiplexer) return;
+        if (link.state.compareAndSet(ACTIVE, CONNECTING)) {
+            // THE LOST CONNECTION IS CLOSED BEFORE ITS REPLACEMENT IS CONNECTED
+            close(multiplexer);
+            reconnect(link);
+        } else if (link.state.get() == DRAINING) finish(link);
+    }
+
+    private void close(MessageMultiplexer multiplexer) {
+        multiplexer.close();
+        timeoutScopes.remove(multiplexer.getTimeoutScope(), multiplexer);
+    }
+
+    // Pass a timeout of the shared wheel to the multiplexer of its scope
+    private void timedOut(Message request, String scopedKey) {
+        int separator = scopedKey.indexOf('/');
+        MessageMultiplexer multiplexer = timeoutScopes.get(scopedKey.substring(0, separator + 1));
+        if (multiplexer != null) multiplexer.timedOut(request, scopedKey.substring(separator + 1));
+    }
+
+    private CompletableFuture<Void> drain(List<Link> links, long timeoutNanos) {
+        CompletableFuture<?>[] drained = new CompletableFuture<?>[links.size()];
+        for (int index = 0; index < drained.length; index++) {
+            Link link = links.get(index);
+            drained[index] = link.drained;
+
+            // A link without connection is closed at once
+            if (link.state.compareAndSet(CONNECTING, CLOSED)) {
+                link.drained.complete(null);
+                continue;
+            }
+            if (!link.state.compareAndSet(ACTIVE, DRAINING)) continue;
+
+            if (link.inFlight.get() == 0 || timeoutNanos <= 0) finish(link);
+            else {
+                try {
+                    scheduler.schedule(() -> finish(link), timeoutNanos, TimeUnit.NANOSECONDS);
+                } catch (RuntimeException exception) {
+                    finish(link);
+                }
+            }
+        }
+        return CompletableFuture.allOf(drained);
+    }
+
+    private void finish(Link link) {
+        if (link.state.getAndSet(CLOSED) == CLOSED) return;
+        MessageMultiplexer multiplexer = link.multiplexer;
+        if (multiplexer != null) close(multiplexer);
+        link.drained.complete(null);
+    }
+
+    /**
+     * Drain all the connections and close the pool,
+     * waiting at most for the timeout for the requests in flight to be completed
+     *
+     * @param timeout the maximum time to wait for the requests in flight
+     * @param unit the unit of the timeout
+     */
+    public void close(long timeout, TimeUnit unit) {
+        List<Link> removed;
+        EventLoop loop;
+        MessageTimeoutWheel timeoutWheel;
+        synchronized (this) {
+            closed = true;
+            removed = Arrays.asList(links);
+            links = new Link[0];
+            loop = this.loop;
+            timeoutWheel = this.timeoutWheel;
+        }
+        try {
+            drain(removed, unit.toNanos(timeout)).get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            for (Link link : removed) finish(link);
+        } catch (ExecutionException ignored) {
+            // The drained futures are never failed
+        } finally {
+            scheduler.shutdownNow();
+            if (loop != null) loop.close();
+            if (timeoutWheel != null) timeoutWheel.close();
+            if (ownWorkers != null) ownWorkers.shutdown();
+        }
+    }
+
+    /**
+     * Close all the connections at once, the requests in flight are failed
+     */
+    @Override
+    public void close() {
+        close(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@MessageConnectionPool[endpoints: %s, connections: %s, outstanding: %s]",
+                getEndpoints(), getConnectionCount(), getOutstandingCount());
+    }
+}
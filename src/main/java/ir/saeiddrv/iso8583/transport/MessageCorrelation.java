@@ -0,0 +1,45 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.MTI;
+import ir.saeiddrv.iso8583.message.Message;
+
+/**
+ * Finds the key that a request and its response have in common, such as the MTI class with the STAN
+ * and the terminal identification. A request and its response must give the same key.
+ *
+ * @author Saeid Darvish
+ */
+@FunctionalInterface
+public interface MessageCorrelation {
+
+    /**
+     * The ISO version and class of the MTI (02 for 0200 and 0210), the field 11 (STAN)
+     * and the field 41 (Card Acceptor Terminal Identification)
+     */
+    public static final MessageCorrelation DEFAULT = of(11, 41);
+
+    public String keyOf(Message message) throws ISO8583Exception;
+
+    /**
+     * Create a correlation by the ISO version and class of the MTI and the values of some fields
+     *
+     * @param fieldNumbers the fields that a request and its response have in common
+     * @return the correlation
+     */
+    public static MessageCorrelation of(int... fieldNumbers) {
+        int[] numbers = fieldNumbers.clone();
+        return message -> {
+            StringBuilder key = new StringBuilder(32);
+            MTI mti = message.getMti();
+            if (mti != null && mti.hasValue())
+                key.append(mti.getIsoVersion()).append(mti.getMessageClass());
+            for (int fieldNumber : numbers) {
+                String value = message.getValueAsString(fieldNumber);
+                key.append('|');
+                if (value != null) key.append(value);
+            }
+            return key.toString();
+        };
+    }
+}
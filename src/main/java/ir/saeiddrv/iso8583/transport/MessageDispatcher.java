@@ -0,0 +1,156 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.Message;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Unpacks the received frames on the worker threads and passes them to the message handler,
+ * the response of the handler (if any) is sent back on the same connection.
+ * The frames over the limits of the admission control (if any) are declined at once on the reading thread.
+ * Handled on the event loop, a frame is unpacked from the read buffer of the loop without a copy and
+ * the response is packed into the slab of the loop thread, so the loop thread keeps its own scratch for both.
+ * With a message pool the received messages are acquired from the pool and released after their handling.
+ *
+ * @author Saeid Darvish
+ */
+final class MessageDispatcher implements Connection.Listener {
+
+    private final MessageFactory factory;
+    private final MessageHandler handler;
+    private final Executor workers;
+    private final BiConsumer<Connection, Throwable> exceptionHandler;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private volatile Consumer<Connection> closeHandler = null;
+    private volatile AdmissionControl admissionControl = null;
+    private volatile MessagePool messagePool = null;
+    private volatile boolean handleOnEventLoop = false;
+
+    MessageDispatcher(MessageFactory factory,
+                      MessageHandler handler,
+                      Executor workers,
+                      BiConsumer<Connection, Throwable> exceptionHandler) {
+        this.factory = factory;
+        this.handler = handler;
+        this.workers = workers;
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    void opened(Connection connection) {
+        connections.add(connection);
+    }
+
+    void setCloseHandler(Consumer<Connection> closeHandler) {
+        this.closeHandler = closeHandler;
+    }
+
+    void setAdmissionControl(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    void setMessagePool(MessagePool messagePool) {
+        this.messagePool = messagePool;
+    }
+
+    void setHandleOnEventLoop(boolean handleOnEventLoop) {
+        this.handleOnEventLoop = handleOnEventLoop;
+    }
+
+    Set<Connection> getConnections() {
+        return connections;
+    }
+
+    @Override
+    public void onFrame(Connection connection, byte[] frame) {
+        received(connection, ByteBuffer.wrap(frame), 0, frame.length, true);
+    }
+
+    @Override
+    public void onFrame(Connection connection, ByteBuffer buffer, int offset, int length) {
+        received(connection, buffer, offset, length, false);
+    }
+
+    // The frame is owned by this call, or it is in the read buffer of a loop that is reused after the call
+    private void received(Connection connection, ByteBuffer frame, int offset, int length, boolean owned) {
+        AdmissionControl admissionControl = this.admissionControl;
+        if (admissionControl != null && !admissionControl.tryAcquire(connection)) {
+            decline(connection, frame, offset, length, admissionControl);
+            return;
+        }
+
+        // HANDLE ON THE READING THREAD, FROM ITS BUFFER
+        long arrival = System.nanoTime();
+        if (handleOnEventLoop) {
+            dispatch(connection, frame, offset, length, admissionControl, arrival);
+            return;
+        }
+
+        // COPY THE FRAME OUT OF THE READ BUFFER FOR THE WORKERS
+        ByteBuffer copy = owned ? frame : copyOf(frame, offset, length);
+        int copyOffset = owned ? offset : 0;
+        try {
+            workers.execute(() -> dispatch(connection, copy, copyOffset, length, admissionControl, arrival));
+        } catch (RejectedExecutionException exception) {
+            if (admissionControl != null) admissionControl.release(connection, 0, true);
+            exceptionHandler.accept(connection, exception);
+        }
+    }
+
+    private static ByteBuffer copyOf(ByteBuffer buffer, int offset, int length) {
+        byte[] frame = new byte[length];
+        buffer.get(offset, frame);
+        return ByteBuffer.wrap(frame);
+    }
+
+    private void dispatch(Connection connection,
+                          ByteBuffer frame,
+                          int offset,
+                          int length,
+                          AdmissionControl admissionControl,
+                          long arrival) {
+        boolean failed = true;
+        MessagePool messagePool = this.messagePool;
+        Message message = null;
+        try {
+            message = messagePool == null ? factory.create() : messagePool.acquire();
+            message.unpack(frame, offset, offset + length);
+            Message response = handler.handle(message, connection);
+            if (response != null) connection.send(response);
+            failed = false;
+        } catch (Exception exception) {
+            exceptionHandler.accept(connection, exception);
+        } finally {
+            // THE RESPONSE HAS BEEN PACKED BY THE SEND, SO THE REQUEST CAN BE REUSED
+            if (messagePool != null && message != null) messagePool.release(message);
+            if (admissionControl != null) admissionControl.release(connection, System.nanoTime() - arrival, failed);
+        }
+    }
+
+    private void decline(Connection connection, ByteBuffer frame, int offset, int length, AdmissionControl admissionControl) {
+        MessagePool messagePool = this.messagePool;
+        Message request = null;
+        try {
+            request = messagePool == null ? factory.create() : messagePool.acquire();
+            request.unpack(frame, offset, offset + length);
+            Message response = admissionControl.decline(request);
+            if (response != null) connection.send(response);
+        } catch (Exception exception) {
+            exceptionHandler.accept(connection, exception);
+        } finally {
+            if (messagePool != null && request != null) messagePool.release(request);
+        }
+    }
+
+    @Override
+    public void onClose(Connection connection, Throwable cause) {
+        connections.remove(connection);
+        if (cause != null) exceptionHandler.accept(connection, cause);
+        Consumer<Connection> closeHandler = this.closeHandler;
+        if (closeHandler != null) closeHandler.accept(connection);
+    }
+}
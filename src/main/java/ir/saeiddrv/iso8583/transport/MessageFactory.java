@@ -0,0 +1,17 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+
+/**
+ * Creates a new message of a definition for each received frame,
+ * because a {@link Message} holds the values of a single transaction and is not thread-safe.
+ *
+ * @author Saeid Darvish
+ */
+@FunctionalInterface
+public interface MessageFactory {
+
+    public Message create() throws ISO8583Exception;
+
+}
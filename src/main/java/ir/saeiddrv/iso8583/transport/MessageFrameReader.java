@@ -0,0 +1,195 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+
+/**
+ * Reads the length-prefixed frames of a stream incrementally, by the {@link MessageFraming} of a definition
+ * (any {@link ir.saeiddrv.iso8583.message.interpreters.base.MessageLengthInterpreter}: HEX, BCD, ASCII, ...).
+ * The received bytes are kept in a single buffer that is reused for all the frames and grows up to the
+ * maximum frame length, so the message length and the message itself may be split across any number of reads.
+ * A reader is not thread-safe.
+ *
+ * @author Saeid Darvish
+ */
+public final class MessageFrameReader {
+
+    // The source of the received bytes
+    @FunctionalInterface
+    private interface Source {
+        int read(ByteBuffer buffer) throws IOException;
+    }
+
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
+    private final Source source;
+    private final MessageFraming framing;
+    private int maximumFrameLength = ISO8583Server.DEFAULT_MAXIMUM_FRAME_LENGTH;
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    // The received bytes that have not been read yet are in [start, end) of the buffer
+    private int start = 0;
+    private int end = 0;
+    private boolean endOfStream = false;
+
+    private MessageFrameReader(Source source, MessageFraming framing) {
+        this.source = source;
+        this.framing = Objects.requireNonNull(framing, "The 'MessageFraming' cannot be set to null.");
+    }
+
+    /**
+     * Create a reader of a blocking stream
+     *
+     * @param input the stream
+     * @param framing the framing of the message definition
+     * @return the reader
+     */
+    public static MessageFrameReader of(InputStream input, MessageFraming framing) {
+        Objects.requireNonNull(input, "The 'InputStream' cannot be set to null.");
+        return new MessageFrameReader(buffer -> {
+            int count = input.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            if (count > 0) buffer.position(buffer.position() + count);
+            return count;
+        }, framing);
+    }
+
+    /**
+     * Create a reader of a channel, if the channel is non-blocking {@link #nextFrame()} returns null
+     * whenever there is no complete frame in the received bytes
+     *
+     * @param channel the channel
+     * @param framing the framing of the message definition
+     * @return the reader
+     */
+    public static MessageFrameReader of(ReadableByteChannel channel, MessageFraming framing) {
+        Objects.requireNonNull(channel, "The 'ReadableByteChannel' cannot be set to null.");
+        return new MessageFrameReader(channel::read, framing);
+    }
+
+    public MessageFrameReader setMaximumFrameLength(int maximumFrameLength) {
+        this.maximumFrameLength = maximumFrameLength;
+        return this;
+    }
+
+    public MessageFraming getFraming() {
+        return framing;
+    }
+
+    /**
+     * Check the end of the stream, after that the reader returns no more frames
+     *
+     * @return true if the end of the stream has been reached
+     */
+    public boolean isEndOfStream() {
+        return endOfStream;
+    }
+
+    /**
+     * Get the number of the received bytes that have not been read as a frame yet
+     *
+     * @return the number of the buffered bytes
+     */
+    public int getBufferedLength() {
+        return end - start;
+    }
+
+    /**
+     * Read the next frame without copying it
+     *
+     * @return a slice of the internal buffer that holds the whole frame (the message length included),
+     *         valid until the next read of this reader, or null at the end of the stream
+     *         (or if a non-blocking channel has no more bytes)
+     * @throws IOException If throws from the source, or the stream ends in a frame
+     * @throws ISO8583Exception If the message length is invalid, or the frame is larger than the maximum frame length
+     */
+    public ByteBuffer nextFrame() throws IOException, ISO8583Exception {
+        while (true) {
+            // FIND A COMPLETE FRAME IN THE RECEIVED BYTES
+            int frameLength = framing.frameLength(buffer, start, end);
+            int required = framing.getPrefixLength();
+            if (frameLength >= 0) {
+                if (frameLength > maximumFrameLength)
+                    throw new ISO8583Exception("The received frame (%s bytes) is larger than the maximum frame length (%s bytes).",
+                            frameLength, maximumFrameLength);
+                if (end - start >= frameLength) {
+                    ByteBuffer frame = buffer.slice(start, frameLength);
+                    start += frameLength;
+                    return frame;
+                }
+                required = frameLength;
+            }
+
+            if (endOfStream) {
+                if (start == end) return null;
+                throw new EOFException(String.format("The stream has ended in a frame (%s of %s bytes).", end - start, required));
+            }
+
+            // MAKE ROOM FOR THE REST OF THE FRAME, THEN RECEIVE
+            ensureCapacity(required);
+            buffer.limit(buffer.capacity()).position(end);
+            int count = source.read(buffer);
+            if (count < 0) endOfStream = true;
+            else if (count == 0) return null;
+            else end = buffer.position();
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        int received = end - start;
+        if (start == end) start = end = 0;
+        if (buffer.capacity() - start >= required && end < buffer.capacity()) return;
+
+        // MOVE THE INCOMPLETE FRAME TO THE START OF THE BUFFER (OF A LARGER BUFFER IF NEEDED)
+        ByteBuffer target = buffer;
+        if (required > buffer.capacity())
+            target = ByteBuffer.allocate(Math.min(Math.max(required, buffer.capacity() * 2),
+                    Math.max(required, maximumFrameLength)));
+        System.arraycopy(buffer.array(), start, target.array(), 0, received);
+        buffer = target;
+        start = 0;
+        end = received;
+    }
+
+    /**
+     * Read the next frame as a new array
+     *
+     * @return the whole frame (the message length included), or null at the end of the stream
+     *         (or if a non-blocking channel has no more bytes)
+     * @throws IOException If throws from the source, or the stream ends in a frame
+     * @throws ISO8583Exception If the message length is invalid, or the frame is larger than the maximum frame length
+     */
+    public byte[] readFrame() throws IOException, ISO8583Exception {
+        ByteBuffer frame = nextFrame();
+        if (frame == null) return null;
+        byte[] bytes = new byte[frame.remaining()];
+        frame.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Read the next frame and unpack it into a message, directly from the internal buffer
+     * (see {@link Message#unpack(ByteBuffer, int, int)}), the values are decoded before the next read of this reader.
+     *
+     * @param message a message of the definition, its values are replaced
+     * @return the unpacked message, or null at the end of the stream (or if a non-blocking channel has no more bytes)
+     * @throws IOException If throws from the source, or the stream ends in a frame
+     * @throws ISO8583Exception If throws from the unpack process, or the frame is invalid
+     */
+    public Message readMessage(Message message) throws IOException, ISO8583Exception {
+        ByteBuffer frame = nextFrame();
+        if (frame == null) return null;
+        message.clearAllValue(false);
+        return message.unpack(frame, 0, frame.limit());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@MessageFrameReader[framing: %s, buffered: %s, capacity: %s, endOfStream: %s]",
+                framing, getBufferedLength(), buffer.capacity(), endOfStream);
+    }
+}
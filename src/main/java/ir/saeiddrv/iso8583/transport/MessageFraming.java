@@ -0,0 +1,85 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.interpreters.base.MessageLengthInterpreter;
+import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Finds the boundaries of the packed messages in a stream, by the length of the message (HEX, BCD, ASCII, ...)
+ * that is written before each one. A frame is the length of the message followed by the message itself,
+ * exactly the result of {@link Message#pack()}.
+ *
+ * @author Saeid Darvish
+ */
+public final class MessageFraming {
+
+    private final MessageLengthInterpreter interpreter;
+    private final int lengthCount;
+    private final Charset charset;
+    private final int prefixLength;
+
+    private MessageFraming(MessageLengthInterpreter interpreter, int lengthCount, Charset charset) throws ISO8583Exception {
+        this.interpreter = interpreter;
+        this.lengthCount = lengthCount;
+        this.charset = charset;
+        this.prefixLength = interpreter.getPackLength(lengthCount, charset);
+        if (prefixLength <= 0)
+            throw new ISO8583Exception("The message length count must be greater than zero for framing: %s", lengthCount);
+    }
+
+    /**
+     * Create the framing of a message definition
+     *
+     * @param message a message with a length interpreter
+     * @return the framing by the length of the message
+     * @throws ISO8583Exception If the message has no length
+     */
+    public static MessageFraming of(Message message) throws ISO8583Exception {
+        if (!message.hasLength())
+            throw new ISO8583Exception("The message has no length interpreter, so its frames cannot be found in a stream.");
+        return new MessageFraming(message.getLengthInterpreter(), message.getLengthCount(), message.getCharset());
+    }
+
+    /**
+     * Get the number of bytes of the message length at the start of each frame
+     *
+     * @return the length of the frame prefix
+     */
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    /**
+     * Find the length of the frame that starts at an offset of the buffer
+     *
+     * @param buffer the received bytes
+     * @param offset the index of the first byte of the frame
+     * @param limit the index after the last received byte
+     * @return the length of the whole frame (the message length included),
+     *         or -1 if the message length has not been received completely
+     * @throws ISO8583Exception If the message length is invalid
+     */
+    public int frameLength(ByteBuffer buffer, int offset, int limit) throws ISO8583Exception {
+        if (limit - offset < prefixLength) return -1;
+        try {
+            UnpackLengthResult result = interpreter.unpack(buffer, offset, offset + prefixLength, lengthCount, charset);
+            int messageLength = result.getValue();
+            if (messageLength < 0)
+                throw new ISO8583Exception("Invalid message length: %s", messageLength);
+            return result.getNextOffset() - offset + messageLength;
+        } catch (ISO8583Exception exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new ISO8583Exception("FRAMING ERROR, MessageLength (%s): %s", interpreter.getName(), exception.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@MessageFraming[interpreter: %s, count: %s, prefixLength: %s]",
+                interpreter.getName(), lengthCount, prefixLength);
+    }
+}
@@ -0,0 +1,23 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.Message;
+
+/**
+ * Handles a received message on a worker thread.
+ *
+ * @author Saeid Darvish
+ */
+@FunctionalInterface
+public interface MessageHandler {
+
+    /**
+     * Handle a received message
+     *
+     * @param message the unpacked message
+     * @param connection the connection that the message has been received from
+     * @return the response to send back on the same connection, or null for no response
+     * @throws Exception If the message cannot be handled
+     */
+    public Message handle(Message message, Connection connection) throws Exception;
+
+}
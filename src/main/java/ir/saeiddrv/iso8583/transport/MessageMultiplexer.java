@@ -0,0 +1,300 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Pipelines the requests over a single persistent connection to a host and correlates each response
+ * to its outstanding request by a {@link MessageCorrelation}, without waiting for the previous responses.
+ * The responses that have no outstanding request are passed to the unmatched handler,
+ * marked as late if their request has already been completed without a response (cancelled or timed out).
+ *
+ * @author Saeid Darvish
+ */
+public final class MessageMultiplexer implements Closeable {
+
+    // The handler of the received messages that have no outstanding request
+    @FunctionalInterface
+    public interface UnmatchedHandler {
+        void unmatched(Message message, boolean late);
+    }
+
+    private static final int MAXIMUM_ABANDONED_KEYS = 4096;
+
+    private final ISO8583Client client;
+    private final ConcurrentMap<String, CompletableFuture<Message>> outstanding = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> abandoned = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAXIMUM_ABANDONED_KEYS;
+        }
+    };
+    private MessageCorrelation correlation = MessageCorrelation.DEFAULT;
+    private UnmatchedHandler unmatchedHandler = (message, late) -> { };
+    private int maximumOutstanding = Integer.MAX_VALUE;
+    private MessageTimeoutWheel timeoutWheel = null;
+    private boolean ownTimeoutWheel = false;
+    private String timeoutScope = "";
+    private long timeoutNanos = 0;
+    private MessageTimeoutWheel.TimeoutHandler timeoutHandler = null;
+    private volatile Consumer<Connection> closeHandler = null;
+
+    private MessageMultiplexer(MessageFactory factory) {
+        this.client = ISO8583Client.create(factory, (message, connection) -> {
+            received(message);
+            return null;
+        }).setCloseHandler(this::closed);
+    }
+
+    /**
+     * Create a multiplexer
+     *
+     * @param factory creates a message of the definition for each received frame
+     * @return the multiplexer, to be connected by {@link #connect(SocketAddress)}
+     */
+    public static MessageMultiplexer create(MessageFactory factory) {
+        return new MessageMultiplexer(Objects.requireNonNull(factory, "The 'MessageFactory' cannot be set to null."));
+    }
+
+    /**
+     * Set the correlation of the requests and responses, by default {@link MessageCorrelation#DEFAULT}
+     *
+     * @param correlation the correlation
+     * @return this multiplexer
+     */
+    public MessageMultiplexer setCorrelation(MessageCorrelation correlation) {
+        this.correlation = Objects.requireNonNull(correlation, "The 'MessageCorrelation' cannot be set to null.");
+        return this;
+    }
+
+    public MessageMultiplexer setUnmatchedHandler(UnmatchedHandler unmatchedHandler) {
+        this.unmatchedHandler = Objects.requireNonNull(unmatchedHandler, "The 'UnmatchedHandler' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Set the maximum number of outstanding requests, the requests over the limit are failed immediately
+     *
+     * @param maximumOutstanding the maximum number of outstanding requests
+     * @return this multiplexer
+     */
+    public MessageMultiplexer setMaximumOutstanding(int maximumOutstanding) {
+        this.maximumOutstanding = maximumOutstanding;
+        return this;
+    }
+
+    /**
+     * Set the timeout of the requests, the future of a request without response is failed by a
+     * {@link TimeoutException} and the original request is passed to the timeout handler (such as for a reversal)
+     *
+     * @param timeout the time to wait for each response
+     * @param unit the unit of the timeout
+     * @param timeoutHandler handles the timed out requests on the timeout wheel thread
+     * @return this multiplexer
+     */
+    public MessageMultiplexer setTimeout(long timeout, TimeUnit unit, MessageTimeoutWheel.TimeoutHandler timeoutHandler) {
+        Objects.requireNonNull(timeoutHandler, "The 'TimeoutHandler' cannot be set to null.");
+        if (ownTimeoutWheel) timeoutWheel.close();
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.timeoutHandler = timeoutHandler;
+        this.timeoutWheel = MessageTimeoutWheel.create(correlation, this::timedOut);
+        this.ownTimeoutWheel = true;
+        this.timeoutScope = "";
+        return this;
+    }
+
+    // Use the timeout wheel of a connection pool, the keys of this multiplexer are prefixed by its scope on the wheel
+    // and the wheel passes its timeouts back to timedOut(request, key) without the scope
+    MessageMultiplexer setTimeout(long timeout,
+                                  TimeUnit unit,
+                                  MessageTimeoutWheel.TimeoutHandler timeoutHandler,
+                                  MessageTimeoutWheel sharedWheel,
+                                  String scope) {
+        if (ownTimeoutWheel) timeoutWheel.close();
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.timeoutHandler = Objects.requireNonNull(timeoutHandler, "The 'TimeoutHandler' cannot be set to null.");
+        this.timeoutWheel = Objects.requireNonNull(sharedWheel, "The 'MessageTimeoutWheel' cannot be set to null.");
+        this.ownTimeoutWheel = false;
+        this.timeoutScope = Objects.requireNonNull(scope, "The 'Scope' cannot be set to null.");
+        return this;
+    }
+
+    String getTimeoutScope() {
+        return timeoutScope;
+    }
+
+    void timedOut(Message request, String key) {
+        CompletableFuture<Message> response = outstanding.get(key);
+        if (response != null)
+            response.completeExceptionally(new TimeoutException(
+                    String.format("No response for the request [%s] in %s ms.", key, TimeUnit.NANOSECONDS.toMillis(timeoutNanos))));
+        timeoutHandler.timedOut(request, key);
+    }
+
+    public MessageMultiplexer setWorkers(ExecutorService workers) {
+        client.setWorkers(workers);
+        return this;
+    }
+
+    public MessageMultiplexer setExceptionHandler(BiConsumer<Connection, Throwable> exceptionHandler) {
+        client.setExceptionHandler(exceptionHandler);
+        return this;
+    }
+
+    public MessageMultiplexer setConnectTimeout(int connectTimeout) {
+        client.setConnectTimeout(connectTimeout);
+        return this;
+    }
+
+    // Serve the connection by the event loop of a connection pool
+    MessageMultiplexer setEventLoop(EventLoop loop) {
+        client.setEventLoop(loop);
+        return this;
+    }
+
+    /**
+     * Set the handler of closing the connection, called after the outstanding requests are failed
+     *
+     * @param closeHandler the close handler
+     * @return this multiplexer
+     */
+    public MessageMultiplexer setCloseHandler(Consumer<Connection> closeHandler) {
+        this.closeHandler = closeHandler;
+        return this;
+    }
+
+    public MessageMultiplexer connect(SocketAddress address) throws ISO8583Exception, IOException {
+        client.connect(address);
+        return this;
+    }
+
+    public MessageCorrelation getCorrelation() {
+        return correlation;
+    }
+
+    public Connection getConnection() {
+        return client.getConnection();
+    }
+
+    public int getOutstandingCount() {
+        return outstanding.size();
+    }
+
+    /**
+     * Send a request without waiting for the previous responses
+     *
+     * @param request the request message, it is packed on the calling thread
+     * @return the future of the response, the request is no more outstanding if the future is completed by the caller
+     *         (such as by {@link CompletableFuture#orTimeout}) and its response will be reported as late
+     */
+    public CompletableFuture<Message> send(Message request) {
+        CompletableFuture<Message> response = new CompletableFuture<>();
+        byte[] frame;
+        String key;
+        try {
+            // The key is found after packing, so the fixed fields have their pad as in the response
+            frame = request.pack();
+            key = correlation.keyOf(request);
+        } catch (Exception exception) {
+            response.completeExceptionally(exception);
+            return response;
+        }
+
+        if (outstanding.size() >= maximumOutstanding) {
+            response.completeExceptionally(new ISO8583Exception(
+                    "The number of outstanding requests has reached the maximum (%s).", maximumOutstanding));
+            return response;
+        }
+        if (outstanding.putIfAbsent(key, response) != null) {
+            response.completeExceptionally(new ISO8583Exception(
+                    "A request with the same correlation key [%s] is already outstanding.", key));
+            return response;
+        }
+
+        // THE REQUEST IS NO MORE OUTSTANDING WHEN ITS FUTURE IS COMPLETED BY ANY MEANS
+        MessageTimeoutWheel timeoutWheel = this.timeoutWheel;
+        String timeoutKey = timeoutScope + key;
+        response.whenComplete((message, exception) -> {
+            if (timeoutWheel != null) timeoutWheel.cancel(timeoutKey);
+            if (outstanding.remove(key, response) && message == null) abandon(key);
+        });
+        if (timeoutWheel != null) {
+            try {
+                timeoutWheel.schedule(timeoutKey, request, timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (ISO8583Exception exception) {
+                response.completeExceptionally(exception);
+                return response;
+            }
+        }
+
+        try {
+            client.send(frame);
+        } catch (Exception exception) {
+            outstanding.remove(key, response);
+            response.completeExceptionally(exception);
+        }
+        return response;
+    }
+
+    private void abandon(String key) {
+        synchronized (abandoned) {
+            abandoned.put(key, Boolean.TRUE);
+        }
+    }
+
+    private void received(Message message) throws ISO8583Exception {
+        String key = correlation.keyOf(message);
+        CompletableFuture<Message> response = outstanding.remove(key);
+        if (response != null) {
+            response.complete(message);
+            return;
+        }
+
+        boolean late;
+        synchronized (abandoned) {
+            late = abandoned.remove(key) != null;
+        }
+        unmatchedHandler.unmatched(message, late);
+    }
+
+    private void closed(Connection connection) {
+        failAll(new ISO8583Exception("The connection to %s has been closed.", connection.getRemoteAddress()));
+        Consumer<Connection> closeHandler = this.closeHandler;
+        if (closeHandler != null) closeHandler.accept(connection);
+    }
+
+    private void failAll(Exception cause) {
+        for (CompletableFuture<Message> response : new ArrayList<>(outstanding.values()))
+            response.completeExceptionally(cause);
+    }
+
+    /**
+     * Close the connection, the outstanding requests are failed
+     */
+    @Override
+    public void close() {
+        client.close();
+        if (ownTimeoutWheel) timeoutWheel.close();
+        failAll(new ISO8583Exception("The multiplexer has been closed."));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@MessageMultiplexer[connection: %s, outstanding: %s]", getConnection(), getOutstandingCount());
+    }
+}
@@ -0,0 +1,207 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A pool of pre-built messages of a definition, so a message is not defined and built for each transaction.
+ * The messages are taken by {@link #acquire()} and must be given back by {@link #release(Message)},
+ * which resets them without allocation (see {@link Message#reset()}). If the pool is empty a new message
+ * is created by the factory, and the released messages over the capacity are left to the garbage collector.
+ * A message that is released twice is rejected in every mode (by {@link Message#markPooled(boolean)}).
+ * <p>
+ * In the leak detection mode (for debugging) the place of each acquire is recorded, the messages that are
+ * garbage collected without release are reported with that place, and a message that is not of this pool is rejected.
+ *
+ * @author Saeid Darvish
+ */
+public final class MessagePool {
+
+    static final Consumer<Throwable> PRINT_LEAK = leak -> leak.printStackTrace(System.err);
+
+    // The acquire place of a message in the leak detection mode, enqueued if the message is collected before release
+    private static final class Lease extends PhantomReference<Message> {
+
+        private final Throwable acquiredAt;
+
+        Lease(Message message, ReferenceQueue<Message> queue, Throwable acquiredAt) {
+            super(message, queue);
+            this.acquiredAt = acquiredAt;
+        }
+    }
+
+    private final MessageFactory factory;
+    private final ArrayBlockingQueue<Message> idle;
+    private final LongAdder created = new LongAdder();
+    private final LongAdder outstanding = new LongAdder();
+    private final LongAdder leaked = new LongAdder();
+
+    private volatile boolean leakDetection = false;
+    private Consumer<Throwable> leakHandler = PRINT_LEAK;
+    private final ReferenceQueue<Message> collected = new ReferenceQueue<>();
+    private final Map<Message, Lease> leases = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Set<Lease> pendingLeases = ConcurrentHashMap.newKeySet();
+
+    private MessagePool(MessageFactory factory, int capacity) {
+        this.factory = factory;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Create a pool and build all its messages
+     *
+     * @param factory creates the messages of the definition
+     * @param capacity the number of the pooled messages
+     * @return the pool
+     * @throws ISO8583Exception If throws from the factory
+     */
+    public static MessagePool create(MessageFactory factory, int capacity) throws ISO8583Exception {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity must be greater than zero: " + capacity);
+        MessagePool pool = new MessagePool(Objects.requireNonNull(factory, "The 'MessageFactory' cannot be set to null."), capacity);
+        for (int count = 0; count < capacity; count++) {
+            Message message = pool.build();
+            message.markPooled(true);
+            pool.idle.offer(message);
+        }
+        return pool;
+    }
+
+    /**
+     * Enable or disable the leak detection before the first acquire, it records a stack trace for each acquire
+     *
+     * @param leakDetection true to enable the leak detection
+     * @return this pool
+     */
+    public MessagePool setLeakDetection(boolean leakDetection) {
+        this.leakDetection = leakDetection;
+        return this;
+    }
+
+    /**
+     * Set the handler of the detected leaks, by default they are printed to the standard error
+     *
+     * @param leakHandler receives an exception that holds the stack trace of the acquire of each leaked message
+     * @return this pool
+     */
+    public MessagePool setLeakHandler(Consumer<Throwable> leakHandler) {
+        this.leakHandler = Objects.requireNonNull(leakHandler, "The 'LeakHandler' cannot be set to null.");
+        return this;
+    }
+
+    private Message build() throws ISO8583Exception {
+        Message message = Objects.requireNonNull(factory.create(), "The 'MessageFactory' cannot create null messages.");
+        message.markDefaults();
+        created.increment();
+        return message;
+    }
+
+    /**
+     * Take a message of the pool, or create a new one if the pool is empty
+     *
+     * @return the message, with its default values
+     * @throws ISO8583Exception If a new message is needed and throws from the factory
+     */
+    public Message acquire() throws ISO8583Exception {
+        Message message = idle.poll();
+        if (message == null) message = build();
+        else message.markPooled(false);
+        outstanding.increment();
+
+        if (leakDetection) {
+            detectLeaks();
+            Lease lease = new Lease(message, collected, new IllegalStateException(
+                    "A pooled message has been garbage collected without release, it was acquired at:"));
+            leases.put(message, lease);
+            pendingLeases.add(lease);
+        }
+        return message;
+    }
+
+    /**
+     * Reset a message and give it back to the pool, the message must not be used after that
+     *
+     * @param message a message that is acquired from this pool
+     * @throws IllegalStateException If the message has been released already
+     */
+    public void release(Message message) {
+        Objects.requireNonNull(message, "The 'Message' cannot be set to null.");
+        if (leakDetection) {
+            Lease lease = leases.remove(message);
+            if (lease == null)
+                throw new IllegalStateException("The message has been released already, or it is not acquired from this pool.");
+            pendingLeases.remove(lease);
+            lease.clear();
+        }
+        if (!message.markPooled(true))
+            throw new IllegalStateException("The message has been released already.");
+
+        outstanding.decrement();
+        message.reset();
+        idle.offer(message);
+    }
+
+    /**
+     * Report the messages that are garbage collected without release,
+     * it is called by each acquire in the leak detection mode
+     *
+     * @return the number of the found leaks
+     */
+    public int detectLeaks() {
+        int count = 0;
+        Reference<? extends Message> reference;
+        while ((reference = collected.poll()) != null) {
+            Lease lease = (Lease) reference;
+            if (!pendingLeases.remove(lease)) continue;
+            outstanding.decrement();
+            leaked.increment();
+            count++;
+            leakHandler.accept(lease.acquiredAt);
+        }
+        return count;
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Get the number of the acquired messages that have not been released yet (the detected leaks excluded)
+     *
+     * @return the number of the outstanding messages
+     */
+    public long getOutstandingCount() {
+        return outstanding.sum();
+    }
+
+    /**
+     * Get the number of the messages that have been created by the factory (the pre-built ones included)
+     *
+     * @return the number of the created messages
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    public long getLeakedCount() {
+        return leaked.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@MessagePool[idle: %s, outstanding: %s, created: %s, leaked: %s, leakDetection: %s]",
+                getIdleCount(), getOutstandingCount(), getCreatedCount(), getLeakedCount(), leakDetection);
+    }
+}
@@ -0,0 +1,321 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel of the timeouts of the outstanding requests, keyed by their {@link MessageCorrelation}.
+ * Scheduling and cancelling are O(1) and thread-safe, the expired timeouts are found by a single thread
+ * that ticks over the wheel and passes the original request to the timeout handler (such as for a reversal).
+ * A timeout expires within one tick after its delay.
+ *
+ * @author Saeid Darvish
+ */
+public final class MessageTimeoutWheel implements Closeable {
+
+    // The handler of the expired timeouts, called on the wheel thread
+    @FunctionalInterface
+    public interface TimeoutHandler {
+        void timedOut(Message request, String key);
+    }
+
+    /**
+     * The timeout of a single request
+     */
+    public static final class Timeout {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final MessageTimeoutWheel wheel;
+        private final String key;
+        private final Message request;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Owned by the wheel thread
+        private long remainingRounds;
+        private Bucket bucket = null;
+        private Timeout next = null;
+        private Timeout previous = null;
+
+        private Timeout(MessageTimeoutWheel wheel, String key, Message request, long deadline) {
+            this.wheel = wheel;
+            this.key = key;
+            this.request = request;
+            this.deadline = deadline;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Message getRequest() {
+            return request;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        /**
+         * Cancel the timeout
+         *
+         * @return true if the timeout has been cancelled before its expiration
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) return false;
+            wheel.timeouts.remove(key, this);
+            wheel.cancelled.add(this);
+            return true;
+        }
+    }
+
+    // A doubly linked list of the timeouts of a slot of the wheel
+    private static final class Bucket {
+        private Timeout head = null;
+        private Timeout tail = null;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) head = tail = timeout;
+            else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.previous != null) timeout.previous.next = next;
+            if (timeout.next != null) timeout.next.previous = timeout.previous;
+            if (timeout == head) head = next;
+            if (timeout == tail) tail = timeout.previous;
+            timeout.previous = timeout.next = null;
+            timeout.bucket = null;
+            return next;
+        }
+    }
+
+    private static final int MAXIMUM_TRANSFERS_PER_TICK = 100_000;
+
+    private final MessageCorrelation correlation;
+    private final TimeoutHandler handler;
+    private final long tickNanos;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final ConcurrentMap<String, Timeout> timeouts = new ConcurrentHashMap<>();
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private final long startTime;
+    private volatile boolean running = true;
+
+    // Owned by the wheel thread
+    private long tick = 0;
+
+    private MessageTimeoutWheel(MessageCorrelation correlation,
+                                TimeoutHandler handler,
+                                long tickDuration,
+                                TimeUnit unit,
+                                int wheelSize) {
+        if (tickDuration <= 0)
+            throw new IllegalArgumentException("The tick duration must be greater than zero: " + tickDuration);
+        if (wheelSize <= 0 || wheelSize > (1 << 30))
+            throw new IllegalArgumentException("The wheel size must be between 1 and 2^30: " + wheelSize);
+
+        this.correlation = correlation;
+        this.handler = handler;
+        this.tickNanos = unit.toNanos(tickDuration);
+
+        // A power of two number of buckets, so the slot of a tick is found by a mask
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        if (wheelSize == 1) size = 1;
+        this.buckets = new Bucket[size];
+        for (int index = 0; index < size; index++) buckets[index] = new Bucket();
+        this.mask = size - 1;
+
+        this.startTime = System.nanoTime();
+        this.thread = new Thread(this::run, "iso8583-timeout-wheel");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Create a wheel of 512 slots with ticks of 10 milliseconds
+     *
+     * @param correlation finds the key of each request
+     * @param handler handles the expired timeouts
+     * @return the started wheel
+     */
+    public static MessageTimeoutWheel create(MessageCorrelation correlation, TimeoutHandler handler) {
+        return create(correlation, handler, 10, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * Create a wheel
+     *
+     * @param correlation finds the key of each request
+     * @param handler handles the expired timeouts
+     * @param tickDuration the duration of a tick, the precision of the timeouts
+     * @param unit the unit of the tick duration
+     * @param wheelSize the number of slots of the wheel (rounded up to a power of two)
+     * @return the started wheel
+     */
+    public static MessageTimeoutWheel create(MessageCorrelation correlation,
+                                             TimeoutHandler handler,
+                                             long tickDuration,
+                                             TimeUnit unit,
+                                             int wheelSize) {
+        return new MessageTimeoutWheel(
+                Objects.requireNonNull(correlation, "The 'MessageCorrelation' cannot be set to null."),
+                Objects.requireNonNull(handler, "The 'TimeoutHandler' cannot be set to null."),
+                tickDuration, unit, wheelSize);
+    }
+
+    /**
+     * Schedule the timeout of a request by its correlation key
+     *
+     * @param request the outstanding request
+     * @param delay the time to wait for the response
+     * @param unit the unit of the delay
+     * @return the timeout
+     * @throws ISO8583Exception If a timeout with the same key is already scheduled, or the wheel is closed
+     */
+    public Timeout schedule(Message request, long delay, TimeUnit unit) throws ISO8583Exception {
+        return schedule(correlation.keyOf(request), request, delay, unit);
+    }
+
+    /**
+     * Schedule the timeout of a request by a key that has already been found
+     *
+     * @param key the correlation key of the request
+     * @param request the outstanding request
+     * @param delay the time to wait for the response
+     * @param unit the unit of the delay
+     * @return the timeout
+     * @throws ISO8583Exception If a timeout with the same key is already scheduled, or the wheel is closed
+     */
+    public Timeout schedule(String key, Message request, long delay, TimeUnit unit) throws ISO8583Exception {
+        if (!running)
+            throw new ISO8583Exception("The timeout wheel is closed.");
+        Timeout timeout = new Timeout(this, key, request, System.nanoTime() - startTime + unit.toNanos(Math.max(delay, 0)));
+        if (timeouts.putIfAbsent(key, timeout) != null)
+            throw new ISO8583Exception("A timeout with the same correlation key [%s] is already scheduled.", key);
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Cancel the timeout of the request of a response
+     *
+     * @param response the received response
+     * @return the cancelled timeout, or null if there was no waiting timeout with the key of the response
+     * @throws ISO8583Exception If the key of the response cannot be found
+     */
+    public Timeout cancel(Message response) throws ISO8583Exception {
+        return cancel(correlation.keyOf(response));
+    }
+
+    public Timeout cancel(String key) {
+        Timeout timeout = timeouts.get(key);
+        return timeout != null && timeout.cancel() ? timeout : null;
+    }
+
+    /**
+     * Get the number of the waiting timeouts
+     *
+     * @return the number of the waiting timeouts
+     */
+    public int size() {
+        return timeouts.size();
+    }
+
+    public MessageCorrelation getCorrelation() {
+        return correlation;
+    }
+
+    private void run() {
+        while (running) {
+            // WAIT FOR THE END OF THE CURRENT TICK
+            long deadline = tickNanos * (tick + 1);
+            long sleep;
+            while (running && (sleep = deadline - (System.nanoTime() - startTime)) > 0)
+                LockSupport.parkNanos(this, sleep);
+            if (!running) break;
+
+            removeCancelled();
+            transferScheduled();
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null)
+            if (timeout.bucket != null) timeout.bucket.remove(timeout);
+    }
+
+    private void transferScheduled() {
+        Timeout timeout;
+        for (int count = 0; count < MAXIMUM_TRANSFERS_PER_TICK && (timeout = scheduled.poll()) != null; count++) {
+            if (timeout.state.get() != Timeout.WAITING) continue;
+            long ticks = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (ticks - tick) / buckets.length;
+            buckets[(int) (Math.max(ticks, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                timeout = timeout.next;
+                continue;
+            }
+
+            Timeout next = bucket.remove(timeout);
+            if (timeout.state.compareAndSet(Timeout.WAITING, Timeout.EXPIRED)) {
+                timeouts.remove(timeout.key, timeout);
+                try {
+                    handler.timedOut(timeout.request, timeout.key);
+                } catch (RuntimeException exception) {
+                    // A handler must not stop the wheel
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Stop the wheel, the waiting timeouts never expire
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        timeouts.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@MessageTimeoutWheel[slots: %s, tick: %sns, waiting: %s]", buckets.length, tickNanos, size());
+    }
+}
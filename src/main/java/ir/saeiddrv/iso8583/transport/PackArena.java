@@ -0,0 +1,48 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Packs the outbound messages of each thread directly into a slab of its own, the frames are slices of the slab
+ * that are queued for the gathering writes without any copy. A full slab is left to the queued slices and
+ * a new one is taken, so a slab is never written again after its slices have been queued.
+ * An invalid message fails without touching the slab.
+ * The responses handled on an event loop are packed into the slab of the loop thread.
+ *
+ * @author Saeid Darvish
+ */
+final class PackArena {
+
+    private static final int SLAB_SIZE = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> SLAB = new ThreadLocal<>();
+
+    private PackArena() {}
+
+    /**
+     * Pack a message into the slab of the calling thread
+     *
+     * @param message the message to pack
+     * @return the frame (the message length included) as a slice of the slab,
+     *         or as a new buffer if the message is larger than a slab
+     * @throws ISO8583Exception If throws from the pack process
+     */
+    static ByteBuffer pack(Message message) throws ISO8583Exception {
+        ByteBuffer slab = SLAB.get();
+        if (slab == null) SLAB.set(slab = ByteBuffer.allocate(SLAB_SIZE));
+        while (true) {
+            int start = slab.position();
+            try {
+                int length = message.pack(slab);
+                return slab.slice(start, length);
+            } catch (ISO8583Exception exception) {
+                // ONLY A FULL SLAB IS REPLACED, A MESSAGE LARGER THAN A NEW SLAB IS PACKED INTO ITS OWN BUFFER
+                if (!(exception.getCause() instanceof BufferOverflowException)) throw exception;
+                if (start == 0) return ByteBuffer.wrap(message.pack());
+                SLAB.set(slab = ByteBuffer.allocate(SLAB_SIZE));
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A non-blocking connection, owned by a single event loop thread, but sending is thread-safe:
+ * the messages are packed into the {@link PackArena} of the sending thread, queued in a lock-free queue
+ * and written by the event loop with gathering writes, coalesced by the {@link WriteCoalescing} of the connection.
+ *
+ * @author Saeid Darvish
+ */
+final class SelectorConnection extends Connection {
+
+    private static final int INITIAL_READ_BUFFER_SIZE = 4 * 1024;
+
+    private final SocketChannel channel;
+    private final EventLoop loop;
+    private final MessageFraming framing;
+    private final int maximumFrameLength;
+    private final Listener listener;
+    private final WriteCoalescing coalescing;
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean delayedFlushScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    // Owned by the event loop thread
+    private final ByteBuffer[] batch;
+    private int batchLength = 0;
+    // The incomplete frame, if any, the complete ones are read from the scratch buffer of the loop
+    private ByteBuffer readBuffer = null;
+    private SelectionKey key = null;
+
+    SelectorConnection(SocketChannel channel,
+                       EventLoop loop,
+                       MessageFraming framing,
+                       int maximumFrameLength,
+                       WriteCoalescing coalescing,
+                       Listener listener) throws IOException {
+        super(channel.getRemoteAddress());
+        this.channel = channel;
+        this.loop = loop;
+        this.framing = framing;
+        this.maximumFrameLength = maximumFrameLength;
+        this.coalescing = coalescing;
+        this.listener = listener;
+        this.batch = new ByteBuffer[coalescing.getMaximumBatchSize()];
+    }
+
+    // Must be called on the event loop thread
+    void register() throws IOException {
+        key = loop.register(channel, SelectionKey.OP_READ, new EventLoop.SelectHandler() {
+            @Override
+            public void handle(SelectionKey key) {
+                ready(key);
+            }
+
+            @Override
+            public void closed() {
+                if (closed.compareAndSet(false, true))
+                    listener.onClose(SelectorConnection.this, null);
+            }
+        });
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed.get();
+    }
+
+    /**
+     * Pack a message into the slab of the calling thread and queue it for sending
+     *
+     * @param message the message to send
+     * @throws ISO8583Exception If throws from the pack process, or the connection is closed
+     */
+    @Override
+    public void send(Message message) throws ISO8583Exception {
+        if (closed.get())
+            throw new ISO8583Exception("The connection to %s is closed.", getRemoteAddress());
+        queue(PackArena.pack(message));
+    }
+
+    /**
+     * Queue a packed message (its length included) for sending
+     *
+     * @param frame the packed message
+     * @throws ISO8583Exception If the connection is closed
+     */
+    @Override
+    public void send(byte[] frame) throws ISO8583Exception {
+        if (closed.get())
+            throw new ISO8583Exception("The connection to %s is closed.", getRemoteAddress());
+        queue(ByteBuffer.wrap(frame));
+    }
+
+    private void queue(ByteBuffer frame) {
+        outbound.add(frame);
+
+        // FLUSH AT ONCE IF THE BATCH IS FULL (OR THERE IS NO DELAY), OTHERWISE AFTER THE MAXIMUM DELAY
+        long delay = coalescing.getMaximumDelayNanos();
+        if (pending.incrementAndGet() >= batch.length || delay == 0) {
+            if (flushScheduled.compareAndSet(false, true))
+                loop.execute(this::flush);
+        } else if (delayedFlushScheduled.compareAndSet(false, true)) {
+            loop.schedule(() -> {
+                delayedFlushScheduled.set(false);
+                flush();
+            }, delay);
+        }
+    }
+
+    /**
+     * Close the connection, the queued messages that have not been written yet are dropped
+     */
+    @Override
+    public void close() {
+        loop.execute(() -> close(null));
+    }
+
+    private void ready(SelectionKey key) {
+        try {
+            if (key.isReadable()) read();
+            if (key.isValid() && key.isWritable()) flush();
+        } catch (Exception exception) {
+            close(exception);
+        }
+    }
+
+    private void read() throws IOException, ISO8583Exception {
+        // READ INTO THE SCRATCH BUFFER OF THE LOOP, UNLESS AN INCOMPLETE FRAME IS KEPT BY THIS CONNECTION
+        ByteBuffer buffer = readBuffer != null ? readBuffer : loop.getReadScratch();
+        if (channel.read(buffer) < 0) {
+            close(null);
+            return;
+        }
+
+        // FIND THE COMPLETE FRAMES
+        int offset = 0;
+        int limit = buffer.position();
+        int required = 0;
+        while (true) {
+            int frameLength = framing.frameLength(buffer, offset, limit);
+            if (frameLength < 0) break;
+            if (frameLength > maximumFrameLength)
+                throw new ISO8583Exception("The received frame (%s bytes) is larger than the maximum frame length (%s bytes).",
+                        frameLength, maximumFrameLength);
+            if (limit - offset < frameLength) {
+                required = frameLength;
+                break;
+            }
+
+            // THE LISTENER COPIES THE FRAME, UNLESS IT IS HANDLED ON THIS THREAD DURING THE CALL
+            listener.onFrame(this, buffer, offset, frameLength);
+            offset += frameLength;
+        }
+
+        // KEEP THE INCOMPLETE FRAME IN A BUFFER OF THIS CONNECTION (AN IDLE CONNECTION KEEPS NO BUFFER)
+        if (offset == limit) {
+            readBuffer = null;
+            return;
+        }
+        buffer.limit(limit).position(offset);
+        if (buffer == readBuffer && required <= readBuffer.capacity()) readBuffer.compact();
+        else {
+            int capacity = Math.max(required, buffer == readBuffer ? readBuffer.capacity() * 2 : INITIAL_READ_BUFFER_SIZE);
+            readBuffer = ByteBuffer.allocate(capacity).put(buffer);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        if (closed.get()) return;
+        try {
+            while (true) {
+                // FILL THE BATCH FROM THE QUEUE
+                ByteBuffer buffer;
+                while (batchLength < batch.length && (buffer = outbound.poll()) != null) {
+                    batch[batchLength++] = buffer;
+                    pending.decrementAndGet();
+                }
+                if (batchLength == 0) {
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+
+                // WRITE THE WHOLE BATCH BY A SINGLE GATHERING WRITE
+                channel.write(batch, 0, batchLength);
+                int written = 0;
+                while (written < batchLength && !batch[written].hasRemaining()) written++;
+                System.arraycopy(batch, written, batch, 0, batchLength - written);
+                for (int index = batchLength - written; index < batchLength; index++) batch[index] = null;
+                batchLength -= written;
+
+                // WAIT FOR THE SOCKET (IF IT IS FULL)
+                if (batchLength > 0) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+        } catch (IOException exception) {
+            close(exception);
+        }
+    }
+
+    private void close(Throwable cause) {
+        if (!closed.compareAndSet(false, true)) return;
+        if (key != null) key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) { }
+        outbound.clear();
+        pending.set(0);
+        listener.onClose(this, cause);
+    }
+}
@@ -0,0 +1,97 @@
+package ir.saeiddrv.iso8583.transport;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A blocking connection, served by a thread of its own (preferably a virtual thread) that reads
+ * whole frames from the socket stream by a {@link MessageFrameReader} and passes them to the listener on the same thread.
+ * Sending is thread-safe: each frame is written by a single write under a lock.
+ *
+ * @author Saeid Darvish
+ */
+final class StreamConnection extends Connection implements Runnable {
+
+    private final Socket socket;
+    private final MessageFrameReader reader;
+    private final OutputStream output;
+    private final Listener listener;
+    // A lock rather than synchronized, so a blocked writer does not pin a virtual thread to its carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    StreamConnection(Socket socket,
+                     MessageFraming framing,
+                     int maximumFrameLength,
+                     Listener listener) throws IOException {
+        super(socket.getRemoteSocketAddress());
+        this.socket = socket;
+        this.reader = MessageFrameReader.of(socket.getInputStream(), framing).setMaximumFrameLength(maximumFrameLength);
+        this.output = socket.getOutputStream();
+        this.listener = listener;
+    }
+
+    /**
+     * Read and pass the frames until the end of the stream
+     */
+    @Override
+    public void run() {
+        Throwable cause = null;
+        try {
+            byte[] frame;
+            while ((frame = reader.readFrame()) != null)
+                listener.onFrame(this, frame);
+        } catch (Exception exception) {
+            // The socket is closed by the close method
+            if (!closed.get()) cause = exception;
+        } finally {
+            close(cause);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed.get();
+    }
+
+    /**
+     * Write a packed message (its length included) on the calling thread
+     *
+     * @param frame the packed message
+     * @throws ISO8583Exception If the connection is closed, or the frame cannot be written
+     */
+    @Override
+    public void send(byte[] frame) throws ISO8583Exception {
+        if (closed.get())
+            throw new ISO8583Exception("The connection to %s is closed.", getRemoteAddress());
+        writeLock.lock();
+        try {
+            output.write(frame);
+        } catch (IOException exception) {
+            close(exception);
+            throw new ISO8583Exception("The frame cannot be written to %s: %s", getRemoteAddress(), exception.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Close the connection, the thread of the connection ends
+     */
+    @Override
+    public void close() {
+        close(null);
+    }
+
+    private void close(Throwable cause) {
+        if (!closed.compareAndSet(false, true)) return;
+        try {
+            socket.close();
+        } catch (IOException ignored) { }
+        listener.onClose(this, cause);
+    }
+}
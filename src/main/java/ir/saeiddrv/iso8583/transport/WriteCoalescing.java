@@ -0,0 +1,45 @@
+package ir.saeiddrv.iso8583.transport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of coalescing the outbound frames of a connection: the queued frames are written by a single
+ * gathering write of at most the maximum batch size, and the first queued frame waits at most the maximum delay
+ * for the next frames (unless the batch gets full before that).
+ *
+ * @author Saeid Darvish
+ */
+final class WriteCoalescing {
+
+    // Write as soon as possible, up to 64 frames by each write
+    static final WriteCoalescing DEFAULT = new WriteCoalescing(64, 0);
+
+    private final int maximumBatchSize;
+    private final long maximumDelayNanos;
+
+    private WriteCoalescing(int maximumBatchSize, long maximumDelayNanos) {
+        this.maximumBatchSize = maximumBatchSize;
+        this.maximumDelayNanos = maximumDelayNanos;
+    }
+
+    static WriteCoalescing of(int maximumBatchSize, long maximumDelay, TimeUnit unit) {
+        if (maximumBatchSize <= 0 || maximumBatchSize > 1024)
+            throw new IllegalArgumentException("The maximum batch size must be between 1 and 1024 (IOV_MAX): " + maximumBatchSize);
+        if (maximumDelay < 0)
+            throw new IllegalArgumentException("The maximum delay cannot be negative: " + maximumDelay);
+        return new WriteCoalescing(maximumBatchSize, unit.toNanos(maximumDelay));
+    }
+
+    int getMaximumBatchSize() {
+        return maximumBatchSize;
+    }
+
+    long getMaximumDelayNanos() {
+        return maximumDelayNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@WriteCoalescing[maximumBatchSize: %s, maximumDelay: %sns]", maximumBatchSize, maximumDelayNanos);
+    }
+}
@@ -0,0 +1,472 @@
+package ir.saeiddrv.iso8583.codec;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Generates a {@link MessageCodec} for each {@link IsoMessage} class at compile time.
+ * The generated code packs and unpacks each field in a straight line by the interpreters of its type,
+ * the numeric fields are converted from and to digits without any String or boxing.
+ *
+ * @author Saeid Darvish
+ */
+public class IsoCodecProcessor extends AbstractProcessor {
+
+    private static final Set<String> PADS = Set.of("NO_PADDING",
+            "LEFT_0", "LEFT_F", "LEFT_S", "RIGHT_0", "RIGHT_F", "RIGHT_S");
+
+    // The generation model of a field
+    private static final class Member {
+        private final IsoField field;
+        private final String javaType;
+        private final String getter;
+        private final String setter;
+
+        private Member(IsoField field, String javaType, String getter, String setter) {
+            this.field = field;
+            this.javaType = javaType;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        private int number() {
+            return field.number();
+        }
+
+        private boolean isPrimitive() {
+            return javaType.equals("long") || javaType.equals("int");
+        }
+
+        // The length of a FIXED field is not packed
+        private boolean hasLengthInterpreter() {
+            return field.type() != FieldType.BINARY && !field.lengthType().isFixed();
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(IsoMessage.class.getCanonicalName(), IsoField.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        for (Element element : roundEnvironment.getElementsAnnotatedWith(IsoField.class)) {
+            if (element.getEnclosingElement().getAnnotation(IsoMessage.class) == null)
+                error(element, "The class of an @IsoField must be annotated by @IsoMessage.");
+        }
+        for (TypeElement type : ElementFilter.typesIn(roundEnvironment.getElementsAnnotatedWith(IsoMessage.class))) {
+            try {
+                generate(type);
+            } catch (IllegalArgumentException exception) {
+                error(type, exception.getMessage());
+            } catch (IOException exception) {
+                error(type, "Unable to write the codec: " + exception.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        IsoMessage message = type.getAnnotation(IsoMessage.class);
+
+        // CHECK THE CLASS AND THE MESSAGE
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT))
+            throw new IllegalArgumentException("An @IsoMessage must be a concrete class.");
+        if (type.getModifiers().contains(Modifier.PRIVATE) ||
+                (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)))
+            throw new IllegalArgumentException("An @IsoMessage must be a top level or a static nested class, not private.");
+        boolean constructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .anyMatch(item -> item.getParameters().isEmpty() && !item.getModifiers().contains(Modifier.PRIVATE));
+        if (!constructor)
+            throw new IllegalArgumentException("An @IsoMessage must have a constructor without any parameter.");
+        if (!message.mti().matches("[0-9]{4}"))
+            throw new IllegalArgumentException("Invalid MTI: " + message.mti());
+        if (message.mtiInterpreter() == Encoding.HEX)
+            throw new IllegalArgumentException("The MTI interpreter must be ASCII or BCD.");
+        if (!message.header().matches("([0-9A-Fa-f]{2})*"))
+            throw new IllegalArgumentException("The header must be in hexadecimal: " + message.header());
+        if (message.lengthCount() < 0)
+            throw new IllegalArgumentException("The length count cannot be negative: " + message.lengthCount());
+        try {
+            Charset.forName(message.charset());
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Unsupported charset: " + message.charset());
+        }
+
+        // CHECK THE FIELDS
+        List<Member> members = new ArrayList<>();
+        Set<Integer> numbers = new HashSet<>();
+        boolean valid = true;
+        for (VariableElement element : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            IsoField field = element.getAnnotation(IsoField.class);
+            if (field == null) continue;
+            try {
+                Member member = member(type, element, field);
+                if (!numbers.add(field.number()))
+                    throw new IllegalArgumentException("The FIELD[" + field.number() + "] is already defined.");
+                members.add(member);
+            } catch (IllegalArgumentException exception) {
+                error(element, exception.getMessage());
+                valid = false;
+            }
+        }
+        if (!valid) return;
+        if (members.isEmpty())
+            throw new IllegalArgumentException("An @IsoMessage must have at least one @IsoField.");
+        members.sort(Comparator.comparingInt(Member::number));
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String codecName = type.getSimpleName() + "Codec";
+        String qualifiedName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source(packageName, codecName, type.getQualifiedName().toString(), message, members));
+        }
+    }
+
+    private Member member(TypeElement type, VariableElement element, IsoField field) {
+        int number = field.number();
+        if (number < 2 || number > 128)
+            throw new IllegalArgumentException("The field number must be from 2 to 128: " + number);
+        if (field.length() <= 0)
+            throw new IllegalArgumentException("The length of the FIELD[" + number + "] must be greater than zero.");
+        if (!PADS.contains(field.pad()))
+            throw new IllegalArgumentException("Unknown pad of the FIELD[" + number + "]: " + field.pad());
+        if (element.getModifiers().contains(Modifier.STATIC))
+            throw new IllegalArgumentException("The FIELD[" + number + "] cannot be static.");
+
+        // THE JAVA TYPE, BY THE TYPE OF THE FIELD
+        TypeMirror mirror = element.asType();
+        String javaType;
+        if (mirror.getKind() == TypeKind.LONG) javaType = "long";
+        else if (mirror.getKind() == TypeKind.INT) javaType = "int";
+        else if (mirror.toString().equals("byte[]")) javaType = "byte[]";
+        else if (mirror.toString().equals("java.lang.String")) javaType = "String";
+        else throw new IllegalArgumentException("The type of the FIELD[" + number + "] must be String, long, int or byte[]: " + mirror);
+
+        // THE DIGITS OF A NUMERIC FIELD MUST FIT IN ITS JAVA TYPE
+        if (javaType.equals("int") && field.length() > 9)
+            throw new IllegalArgumentException("The int FIELD[" + number + "] cannot hold " + field.length() + " digits, it must be long.");
+        if (javaType.equals("long") && field.length() > 18)
+            throw new IllegalArgumentException("The long FIELD[" + number + "] cannot hold " + field.length() + " digits, it must be String.");
+
+        if (field.type() == FieldType.BINARY) {
+            if (!field.lengthType().isFixed())
+                throw new IllegalArgumentException("The length of the BINARY FIELD[" + number + "] must be fixed.");
+            if (!javaType.equals("byte[]") && !javaType.equals("String"))
+                throw new IllegalArgumentException("The BINARY FIELD[" + number + "] must be byte[] or String.");
+        } else if (javaType.equals("byte[]"))
+            throw new IllegalArgumentException("The byte[] FIELD[" + number + "] must be BINARY.");
+
+        // DIRECT ACCESS, OR BY THE GETTER AND THE SETTER OF A PRIVATE FIELD
+        String name = element.getSimpleName().toString();
+        if (!element.getModifiers().contains(Modifier.PRIVATE))
+            return new Member(field, javaType, name, name);
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean getter = false;
+        boolean setter = false;
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) continue;
+            String methodName = method.getSimpleName().toString();
+            if (methodName.equals("get" + suffix) && method.getParameters().isEmpty()
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), mirror))
+                getter = true;
+            if (methodName.equals("set" + suffix) && method.getParameters().size() == 1
+                    && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), mirror))
+                setter = true;
+        }
+        if (!getter || !setter)
+            throw new IllegalArgumentException("The private FIELD[" + number + "] must have get" + suffix + "() and set" + suffix + "().");
+        return new Member(field, javaType, "get" + suffix + "()", "set" + suffix);
+    }
+
+    private static String source(String packageName,
+                                 String codecName,
+                                 String typeName,
+                                 IsoMessage message,
+                                 List<Member> members) {
+        boolean secondary = members.get(members.size() - 1).number() > 64;
+        long definedPrimary = secondary ? bit(1) : 0;
+        long definedSecondary = 0;
+        long presentPrimary = 0;
+        long presentSecondary = 0;
+        for (Member member : members) {
+            if (member.number() <= 64) definedPrimary |= bit(member.number());
+            else definedSecondary |= bit(member.number() - 64);
+            if (member.isPrimitive()) {
+                if (member.number() <= 64) presentPrimary |= bit(member.number());
+                else presentSecondary |= bit(member.number() - 64);
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+        source.append("import ir.saeiddrv.iso8583.codec.MessageCodec;\n")
+                .append("import ir.saeiddrv.iso8583.message.ISO8583Exception;\n")
+                .append("import ir.saeiddrv.iso8583.message.fields.ContentPad;\n")
+                .append("import ir.saeiddrv.iso8583.message.fields.LengthValue;\n")
+                .append("import ir.saeiddrv.iso8583.message.interpreters.*;\n")
+                .append("import ir.saeiddrv.iso8583.message.interpreters.base.*;\n")
+                .append("import ir.saeiddrv.iso8583.message.unpacks.UnpackContentResult;\n")
+                .append("import ir.saeiddrv.iso8583.message.unpacks.UnpackLengthResult;\n")
+                .append("import ir.saeiddrv.iso8583.message.unpacks.UnpackMTIResult;\n")
+                .append("import ir.saeiddrv.iso8583.message.utilities.BCDCodec;\n")
+                .append("import java.nio.BufferOverflowException;\n")
+                .append("import java.nio.ByteBuffer;\n")
+                .append("import java.nio.charset.Charset;\n\n")
+                .append("/**\n * The codec of {@link ").append(typeName).append("}, generated from its annotations.\n */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(IsoCodecProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(codecName).append(" implements MessageCodec<").append(typeName).append("> {\n\n");
+
+        // THE CONSTANTS OF THE MESSAGE AND THE FIELDS
+        source.append("    private static final Charset CHARSET = Charset.forName(\"").append(message.charset()).append("\");\n");
+        if (message.lengthCount() > 0)
+            source.append("    private static final int LENGTH_COUNT = ").append(message.lengthCount()).append(";\n")
+                    .append("    private static final MessageLengthInterpreter LENGTH_INTERPRETER = new ")
+                    .append(message.lengthInterpreter() == Encoding.HEX ? "Hex" : message.lengthInterpreter())
+                    .append("MessageLengthInterpreter();\n");
+        source.append("    private static final byte[] HEADER = {").append(headerBytes(message.header())).append("};\n")
+                .append("    private static final String MTI = \"").append(message.mti()).append("\";\n")
+                .append("    private static final MTIInterpreter MTI_INTERPRETER = new ")
+                .append(message.mtiInterpreter()).append("MTIInterpreter();\n")
+                .append("    private static final long DEFINED_PRIMARY = ").append(hex(definedPrimary)).append(";\n")
+                .append("    private static final long DEFINED_SECONDARY = ").append(hex(definedSecondary)).append(";\n");
+        for (Member member : members) {
+            IsoField field = member.field;
+            int number = member.number();
+            source.append("    private static final LengthValue LENGTH_").append(number).append(" = LengthValue.create(")
+                    .append(field.type() == FieldType.BINARY ? 0 : field.lengthType().getCount())
+                    .append(", ").append(field.length()).append(");\n");
+            if (member.hasLengthInterpreter())
+                source.append("    private static final LengthInterpreter LENGTH_INTERPRETER_").append(number).append(" = new ")
+                        .append(field.type() == FieldType.ASCII || field.type() == FieldType.ASCIIBCD ? "ASCII" : "BCD")
+                        .append("LengthInterpreter();\n");
+            source.append("    private static final ContentInterpreter CONTENT_INTERPRETER_").append(number).append(" = new ")
+                    .append(contentInterpreter(field.type())).append("ContentInterpreter();\n")
+                    .append("    private static final ContentPad PAD_").append(number).append(" = ")
+                    .append(field.type() == FieldType.BINARY ? "ContentPad.NO_PADDING" : "ContentPad." + field.pad())
+                    .append(";\n");
+        }
+
+        // PACK
+        source.append("\n    @Override\n")
+                .append("    public int pack(").append(typeName).append(" message, ByteBuffer target) throws ISO8583Exception {\n")
+                .append("        int start = target.position();\n")
+                .append("        int field = -1;\n")
+                .append("        try {\n");
+        if (message.lengthCount() > 0)
+            source.append("            // RESERVE THE LENGTH OF THE MESSAGE\n")
+                    .append("            int lengthSize = LENGTH_INTERPRETER.getPackLength(LENGTH_COUNT, CHARSET);\n")
+                    .append("            if (target.remaining() < lengthSize) throw new BufferOverflowException();\n")
+                    .append("            target.position(start + lengthSize);\n\n");
+        source.append("            // PACK THE HEADER AND THE MTI\n")
+                .append("            target.put(HEADER);\n")
+                .append("            MTI_INTERPRETER.pack(MTI, CHARSET, target);\n\n")
+                .append("            // PACK THE BITMAPS OF THE PRESENT FIELDS\n")
+                .append("            long primary = ").append(hex(presentPrimary)).append(";\n")
+                .append("            long secondary = ").append(hex(presentSecondary)).append(";\n");
+        for (Member member : members) {
+            if (member.isPrimitive()) continue;
+            boolean inPrimary = member.number() <= 64;
+            source.append("            if (message.").append(member.getter).append(" != null) ")
+                    .append(inPrimary ? "primary" : "secondary").append(" |= ")
+                    .append(hex(bit(inPrimary ? member.number() : member.number() - 64))).append(";\n");
+        }
+        if (secondary)
+            source.append("            if (secondary != 0) primary |= ").append(hex(bit(1))).append(";\n");
+        source.append("            target.putLong(primary);\n");
+        if (secondary)
+            source.append("            if (secondary != 0) target.putLong(secondary);\n");
+        for (Member member : members)
+            packField(source, member);
+        if (message.lengthCount() > 0)
+            source.append("\n            // BACK-PATCH THE LENGTH OF THE MESSAGE INTO THE RESERVED BYTES\n")
+                    .append("            field = -1;\n")
+                    .append("            int end = target.position();\n")
+                    .append("            target.position(start);\n")
+                    .append("            LENGTH_INTERPRETER.pack(LENGTH_COUNT, end - start - lengthSize, CHARSET, target);\n")
+                    .append("            target.position(end);\n");
+        source.append("            return target.position() - start;\n")
+                .append("        } catch (BufferOverflowException exception) {\n")
+                .append("            target.position(start);\n")
+                .append("            throw new ISO8583Exception(\"PACK ERROR: The target buffer does not have enough space (remaining: %s bytes).\",\n")
+                .append("                    target.remaining());\n")
+                .append("        } catch (Exception exception) {\n")
+                .append("            target.position(start);\n")
+                .append("            if (field < 0) throw new ISO8583Exception(\"PACK ERROR: %s\", exception.getMessage());\n")
+                .append("            throw new ISO8583Exception(\"PACK ERROR, FIELD[%s]: %s\", field, exception.getMessage());\n")
+                .append("        }\n")
+                .append("    }\n");
+
+        // UNPACK
+        source.append("\n    @Override\n")
+                .append("    public ").append(typeName).append(" unpack(ByteBuffer packMessage, int offset, int limit) throws ISO8583Exception {\n")
+                .append("        if (offset < 0 || limit > packMessage.limit() || offset > limit)\n")
+                .append("            throw new ISO8583Exception(\"Invalid bounds [offset: %s, limit: %s] for a buffer with limit %s.\",\n")
+                .append("                    offset, limit, packMessage.limit());\n")
+                .append("        ").append(typeName).append(" message = new ").append(typeName).append("();\n")
+                .append("        int field = -1;\n")
+                .append("        try {\n")
+                .append("            // SKIP THE LENGTH OF THE MESSAGE AND THE HEADER, CHECK THE MTI\n");
+        if (message.lengthCount() > 0)
+            source.append("            offset = LENGTH_INTERPRETER.unpack(packMessage, offset, limit, LENGTH_COUNT, CHARSET).getNextOffset();\n");
+        source.append("            offset += HEADER.length;\n")
+                .append("            UnpackMTIResult mti = MTI_INTERPRETER.unpack(packMessage, offset, limit, CHARSET);\n")
+                .append("            if (!MTI.equals(mti.getValue()))\n")
+                .append("                throw new ISO8583Exception(\"The MTI '%s' of the received message is not \" + MTI + \".\", mti.getValue());\n")
+                .append("            offset = mti.getNextOffset();\n\n")
+                .append("            // UNPACK THE BITMAPS\n")
+                .append("            field = 0;\n")
+                .append("            if (limit < offset + 8) throw new ISO8583Exception(\"The received message has no bitmap.\");\n")
+                .append("            long primary = packMessage.getLong(offset);\n")
+                .append("            long secondary = 0;\n")
+                .append("            offset += 8;\n")
+                .append("            if (primary < 0) {\n")
+                .append("                field = 1;\n")
+                .append("                if (limit < offset + 8) throw new ISO8583Exception(\"The received message has no secondary bitmap.\");\n")
+                .append("                secondary = packMessage.getLong(offset);\n")
+                .append("                offset += 8;\n")
+                .append("            }\n")
+                .append("            if ((primary & ~DEFINED_PRIMARY) != 0)\n")
+                .append("                throw new ISO8583Exception(\"The FIELD[%d] is not defined.\", Long.numberOfLeadingZeros(primary & ~DEFINED_PRIMARY) + 1);\n")
+                .append("            if ((secondary & ~DEFINED_SECONDARY) != 0)\n")
+                .append("                throw new ISO8583Exception(\"The FIELD[%d] is not defined.\", Long.numberOfLeadingZeros(secondary & ~DEFINED_SECONDARY) + 65);\n");
+        for (Member member : members)
+            unpackField(source, member);
+        source.append("            return message;\n")
+                .append("        } catch (Exception exception) {\n")
+                .append("            if (field < 0) throw new ISO8583Exception(\"UNPACK ERROR: %s\", exception.getMessage());\n")
+                .append("            throw new ISO8583Exception(\"UNPACK ERROR, FIELD[%s]: %s\", field, exception.getMessage());\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    private static void packField(StringBuilder source, Member member) {
+        int number = member.number();
+        IsoField field = member.field;
+        String value = "message." + member.getter;
+        String indent = member.isPrimitive() ? "            " : "                ";
+        source.append("\n            // FIELD[").append(number).append("]\n")
+                .append("            field = ").append(number).append(";\n");
+        if (!member.isPrimitive())
+            source.append("            if (").append(value).append(" != null) {\n");
+
+        // THE VALUE AS THE CONTENT BYTES (THE DIGITS OF A NUMBER, WITHOUT ANY STRING)
+        source.append(indent).append("byte[] value").append(number).append(" = ");
+        switch (member.javaType) {
+            case "long":
+            case "int":
+                source.append("BCDCodec.longToDigits(").append(value).append(", ")
+                        .append(field.lengthType().isFixed() ? field.length() : 0).append(", CHARSET);\n");
+                break;
+            case "byte[]":
+                source.append(value).append(";\n");
+                break;
+            default:
+                source.append("CONTENT_INTERPRETER_").append(number).append(".transfer(").append(value).append(", CHARSET);\n");
+        }
+        if (field.type() != FieldType.BINARY && field.lengthType().isFixed())
+            source.append(indent).append("value").append(number).append(" = PAD_").append(number)
+                    .append(".doPad(value").append(number).append(", ").append(field.length()).append(");\n");
+        if (member.hasLengthInterpreter())
+            source.append(indent).append("LENGTH_INTERPRETER_").append(number).append(".pack(").append(number)
+                    .append(", LENGTH_").append(number).append(", value").append(number).append(".length, CHARSET, target);\n");
+        source.append(indent).append("CONTENT_INTERPRETER_").append(number).append(".pack(").append(number)
+                .append(", LENGTH_").append(number).append(", value").append(number)
+                .append(", PAD_").append(number).append(", CHARSET, target);\n");
+        if (!member.isPrimitive())
+            source.append("            }\n");
+    }
+
+    private static void unpackField(StringBuilder source, Member member) {
+        int number = member.number();
+        IsoField field = member.field;
+        boolean inPrimary = number <= 64;
+        source.append("\n            // FIELD[").append(number).append("]\n")
+                .append("            field = ").append(number).append(";\n")
+                .append("            if ((").append(inPrimary ? "primary" : "secondary").append(" & ")
+                .append(hex(bit(inPrimary ? number : number - 64))).append(") != 0) {\n");
+
+        // THE LENGTH OF A FIXED FIELD IS NOT PACKED
+        String length = String.valueOf(field.length());
+        if (member.hasLengthInterpreter()) {
+            source.append("                UnpackLengthResult length").append(number).append(" = LENGTH_INTERPRETER_").append(number)
+                    .append(".unpack(packMessage, offset, limit, ").append(number).append(", LENGTH_").append(number).append(", CHARSET);\n")
+                    .append("                offset = length").append(number).append(".getNextOffset();\n");
+            length = "length" + number + ".getValue()";
+        }
+        source.append("                UnpackContentResult content").append(number).append(" = CONTENT_INTERPRETER_").append(number)
+                .append(".unpack(packMessage, offset, limit, ").append(number).append(", ").append(length)
+                .append(", PAD_").append(number).append(", CHARSET);\n");
+
+        String content = "content" + number + ".getValue()";
+        String value;
+        switch (member.javaType) {
+            case "long":
+                value = "BCDCodec.digitsToLong(" + content + ", CHARSET)";
+                break;
+            case "int":
+                value = "(int) BCDCodec.digitsToLong(" + content + ", CHARSET)";
+                break;
+            case "byte[]":
+                value = content;
+                break;
+            default:
+                value = "CONTENT_INTERPRETER_" + number + ".transfer(" + content + ", CHARSET)";
+        }
+        if (member.getter.equals(member.setter))
+            source.append("                message.").append(member.setter).append(" = ").append(value).append(";\n");
+        else
+            source.append("                message.").append(member.setter).append("(").append(value).append(");\n");
+        source.append("                offset = content").append(number).append(".getNextOffset();\n")
+                .append("            }\n");
+    }
+
+    private static String contentInterpreter(FieldType type) {
+        switch (type) {
+            case ASCII:
+            case BCDASCII:
+                return "ASCII";
+            case BINARY:
+                return "Binary";
+            default:
+                return "BCD";
+        }
+    }
+
+    private static String headerBytes(String header) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (int index = 0; index < header.length(); index += 2)
+            joiner.add("(byte) 0x" + header.substring(index, index + 2));
+        return joiner.toString();
+    }
+
+    // The bit of a field in its bitmap, the first field is the highest bit
+    private static long bit(int number) {
+        return 1L << (64 - number);
+    }
+
+    private static String hex(long value) {
+        return "0x" + Long.toHexString(value).toUpperCase() + "L";
+    }
+}
@@ -0,0 +1,240 @@
+package ir.saeiddrv.iso8583.simulator;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.MTI;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.transport.Connection;
+import ir.saeiddrv.iso8583.transport.ISO8583Server;
+import ir.saeiddrv.iso8583.transport.MessageFactory;
+import ir.saeiddrv.iso8583.transport.MessagePool;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * A local issuer host for the load and latency tests, on an {@link ISO8583Server} of the same definition as the clients.
+ * Each request (0100, 0200, 0400, 0800, ...) is answered by its response MTI and the response code (field 39)
+ * of the first matching {@link ResponseRule}, or the default response code. The responses are delayed by the
+ * {@link LatencyModel} of the rule or of the simulator: a delayed response is packed at once and sent later
+ * by a scheduler, so the worker threads never sleep. The field 39 must be defined in the definition.
+ *
+ * @author Saeid Darvish
+ */
+public final class IssuerSimulator implements Closeable {
+
+    public static final String APPROVED = "00";
+
+    private final MessageFactory factory;
+    private final List<ResponseRule> rules = new CopyOnWriteArrayList<>();
+    private volatile String defaultResponseCode = APPROVED;
+    private volatile LatencyModel latency = LatencyModel.NONE;
+    private int eventLoopCount = Runtime.getRuntime().availableProcessors();
+    private int workerCount = Runtime.getRuntime().availableProcessors();
+    private int poolCapacity = 1024;
+    private BiConsumer<Connection, Throwable> exceptionHandler = Connection.PRINT_EXCEPTION;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder responses = new LongAdder();
+    private ExecutorService workers = null;
+    private ScheduledExecutorService scheduler = null;
+    private ISO8583Server server = null;
+
+    private IssuerSimulator(MessageFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Create a simulator
+     *
+     * @param factory creates a message of the definition, with the field 39 defined
+     * @return the simulator, to be started by {@link #bind(SocketAddress)}
+     */
+    public static IssuerSimulator create(MessageFactory factory) {
+        return new IssuerSimulator(Objects.requireNonNull(factory, "The 'MessageFactory' cannot be set to null."));
+    }
+
+    /**
+     * Add a rule after the current rules, the rules are matched in order (also while the simulator is running)
+     *
+     * @param rule the rule
+     * @return this simulator
+     */
+    public IssuerSimulator addRule(ResponseRule rule) {
+        rules.add(Objects.requireNonNull(rule, "The 'ResponseRule' cannot be set to null."));
+        return this;
+    }
+
+    public IssuerSimulator clearRules() {
+        rules.clear();
+        return this;
+    }
+
+    /**
+     * Set the response code of the requests that match no rule, by default {@link #APPROVED} (00)
+     *
+     * @param defaultResponseCode the response code
+     * @return this simulator
+     */
+    public IssuerSimulator setDefaultResponseCode(String defaultResponseCode) {
+        this.defaultResponseCode = Objects.requireNonNull(defaultResponseCode, "The 'DefaultResponseCode' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Set the latency of the responses (except the ones of the rules with a latency of their own),
+     * by default {@link LatencyModel#NONE}
+     *
+     * @param latency the latency model
+     * @return this simulator
+     */
+    public IssuerSimulator setLatency(LatencyModel latency) {
+        this.latency = Objects.requireNonNull(latency, "The 'LatencyModel' cannot be set to null.");
+        return this;
+    }
+
+    public IssuerSimulator setEventLoops(int eventLoopCount) {
+        this.eventLoopCount = eventLoopCount;
+        return this;
+    }
+
+    public IssuerSimulator setWorkers(int workerCount) {
+        if (workerCount <= 0)
+            throw new IllegalArgumentException("The number of the workers must be greater than zero: " + workerCount);
+        this.workerCount = workerCount;
+        return this;
+    }
+
+    /**
+     * Set the number of the pooled messages of the received requests, by default 1024
+     *
+     * @param poolCapacity the capacity of the message pool
+     * @return this simulator
+     */
+    public IssuerSimulator setPoolCapacity(int poolCapacity) {
+        this.poolCapacity = poolCapacity;
+        return this;
+    }
+
+    public IssuerSimulator setExceptionHandler(BiConsumer<Connection, Throwable> exceptionHandler) {
+        this.exceptionHandler = Objects.requireNonNull(exceptionHandler, "The 'ExceptionHandler' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Bind the simulator to a local address and start answering
+     *
+     * @param address the local address (port 0 for an ephemeral port)
+     * @return this simulator
+     * @throws ISO8583Exception If the message definition has no length for framing, or throws from the factory
+     * @throws IOException If the address cannot be bound
+     */
+    public IssuerSimulator bind(SocketAddress address) throws ISO8583Exception, IOException {
+        if (server != null)
+            throw new ISO8583Exception("The simulator is already bound to %s.", getLocalAddress());
+
+        workers = Executors.newFixedThreadPool(workerCount);
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "iso8583-simulator-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            server = ISO8583Server.create(factory, this::answer)
+                    .setWorkers(workers)
+                    .setEventLoops(eventLoopCount)
+                    .setMessagePool(MessagePool.create(factory, poolCapacity))
+                    .setExceptionHandler(exceptionHandler)
+                    .bind(address);
+        } catch (ISO8583Exception | IOException exception) {
+            close();
+            throw exception;
+        }
+        return this;
+    }
+
+    private Message answer(Message request, Connection connection) throws ISO8583Exception {
+        requests.increment();
+        MTI mti = request.getMti();
+        if (mti == null || !mti.isRequest()) return null;
+
+        // FIND THE RULE OF THE REQUEST
+        String mtiLiteral = mti.getLiteral();
+        ResponseRule matched = null;
+        for (ResponseRule rule : rules) {
+            if (rule.matches(request, mtiLiteral)) {
+                matched = rule;
+                break;
+            }
+        }
+
+        // CHANGE THE REQUEST TO ITS RESPONSE
+        request.changeToResponse(matched == null ? defaultResponseCode : matched.getResponseCode());
+
+        // ANSWER AT ONCE, OR PACK NOW AND SEND AFTER THE DELAY
+        LatencyModel latency = matched != null && matched.getLatency() != null ? matched.getLatency() : this.latency;
+        long delayNanos = latency.nextDelayNanos();
+        responses.increment();
+        if (delayNanos <= 0) return request;
+        byte[] frame = request.pack();
+        scheduler.schedule(() -> {
+            try {
+                connection.send(frame);
+            } catch (ISO8583Exception exception) {
+                exceptionHandler.accept(connection, exception);
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+        return null;
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        return server == null ? null : server.getLocalAddress();
+    }
+
+    public int getConnectionCount() {
+        return server == null ? 0 : server.getConnectionCount();
+    }
+
+    /**
+     * Get the number of the received messages
+     *
+     * @return the number of the received messages
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Get the number of the answered requests (the delayed responses are counted before they are sent)
+     *
+     * @return the number of the responses
+     */
+    public long getResponseCount() {
+        return responses.sum();
+    }
+
+    /**
+     * Stop answering and close all the connections, the delayed responses that have not been sent are dropped
+     */
+    @Override
+    public void close() {
+        if (server != null) server.close();
+        if (scheduler != null) scheduler.shutdownNow();
+        if (workers != null) workers.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@IssuerSimulator[localAddress: %s, rules: %s, requests: %s, responses: %s]",
+                getLocalAddress(), rules.size(), getRequestCount(), getResponseCount());
+    }
+}
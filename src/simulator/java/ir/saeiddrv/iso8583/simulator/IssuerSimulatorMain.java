@@ -0,0 +1,115 @@
+package ir.saeiddrv.iso8583.simulator;
+
+import ir.saeiddrv.iso8583.message.ISO8583;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.fields.ContentPad;
+import ir.saeiddrv.iso8583.message.fields.LengthType;
+import ir.saeiddrv.iso8583.message.fields.shortcuts.ASCII;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a standalone issuer simulator of a message profile on the loopback (or any) address,
+ * so the clients can be benchmarked without any outside host:
+ * <pre>
+ * gradle simulator -Psimulator.args="--profile ASCII_0200 --port 5000 --latency longtail:5:50
+ *                                     --rule 05:pan:603799 --rule 51:amount:100000000:999999999999"
+ * </pre>
+ * The latencies are in milliseconds: {@code fixed:DELAY}, {@code normal:MEAN:DEVIATION} or {@code longtail:MEDIAN:P99}.
+ * The rules are {@code CODE:pan:PREFIX}, {@code CODE:amount:MINIMUM:MAXIMUM} or {@code CODE:mti:MTI}, matched in order.
+ *
+ * @author Saeid Darvish
+ */
+public final class IssuerSimulatorMain {
+
+    private IssuerSimulatorMain() {}
+
+    public static void main(String[] args) throws Exception {
+        MessageProfiles profile = MessageProfiles.ASCII_0200;
+        for (int index = 0; index < args.length - 1; index += 2)
+            if (args[index].equals("--profile")) profile = MessageProfiles.valueOf(args[index + 1]);
+
+        // PARSE THE OPTIONS OF THE SIMULATOR
+        MessageProfiles selected = profile;
+        IssuerSimulator simulator = IssuerSimulator.create(() -> define(selected));
+        String host = "127.0.0.1";
+        int port = 5000;
+        for (int index = 0; index < args.length - 1; index += 2) {
+            String value = args[index + 1];
+            switch (args[index]) {
+                case "--profile":
+                    break;
+                case "--host":
+                    host = value;
+                    break;
+                case "--port":
+                    port = Integer.parseInt(value);
+                    break;
+                case "--latency":
+                    simulator.setLatency(latency(value));
+                    break;
+                case "--rule":
+                    simulator.addRule(rule(value));
+                    break;
+                case "--event-loops":
+                    simulator.setEventLoops(Integer.parseInt(value));
+                    break;
+                case "--workers":
+                    simulator.setWorkers(Integer.parseInt(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[index]);
+            }
+        }
+        simulator.bind(new InetSocketAddress(host, port));
+        System.out.printf("%s (%s)%n", simulator, selected);
+
+        // PRINT THE THROUGHPUT EACH SECOND
+        long lastResponses = 0;
+        while (true) {
+            Thread.sleep(1000);
+            long responses = simulator.getResponseCount();
+            System.out.printf("connections: %s, responses/s: %s%n", simulator.getConnectionCount(), responses - lastResponses);
+            lastResponses = responses;
+        }
+    }
+
+    // The profiles have no response code, so the field 39 is added to their definitions
+    static Message define(MessageProfiles profile) throws ISO8583Exception {
+        ISO8583 builder = profile.define();
+        Message message = builder.buildMessage();
+        if (message.hasField(39)) return message;
+        builder.defineField(39, ASCII.create(LengthType.FIXED, 2, ContentPad.LEFT_0));
+        return builder.buildMessage();
+    }
+
+    private static LatencyModel latency(String value) {
+        String[] parts = value.split(":");
+        switch (parts[0]) {
+            case "fixed":
+                return LatencyModel.fixed(Long.parseLong(parts[1]), TimeUnit.MILLISECONDS);
+            case "normal":
+                return LatencyModel.normal(Long.parseLong(parts[1]), Long.parseLong(parts[2]), TimeUnit.MILLISECONDS);
+            case "longtail":
+                return LatencyModel.longTail(Long.parseLong(parts[1]), Long.parseLong(parts[2]), TimeUnit.MILLISECONDS);
+            default:
+                throw new IllegalArgumentException("Unknown latency: " + value);
+        }
+    }
+
+    private static ResponseRule rule(String value) {
+        String[] parts = value.split(":");
+        ResponseRule rule = ResponseRule.respond(parts[0]);
+        switch (parts[1]) {
+            case "pan":
+                return rule.whenPanPrefix(parts[2]);
+            case "amount":
+                return rule.whenAmountBetween(Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+            case "mti":
+                return rule.whenMTI(parts[2]);
+            default:
+                throw new IllegalArgumentException("Unknown rule: " + value);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ir.saeiddrv.iso8583.simulator;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A high dynamic range histogram of latencies in nanoseconds, from one nanosecond up to the largest long value,
+ * with a relative error of at most 1/128 (more than two significant decimal digits). The values below 256 are
+ * counted exactly, each next power of two is split into 128 linear buckets. Recording is lock-free and thread-safe.
+ *
+ * @author Saeid Darvish
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+    // The exact values below 256, then 128 buckets for each exponent from 1 to 55 (up to Long.MAX_VALUE)
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong minimum = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maximum = new AtomicLong(0);
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (exponent - 1) * SUB_BUCKET_COUNT + (int) ((value >>> exponent) - SUB_BUCKET_COUNT);
+    }
+
+    // The highest value of a bucket
+    private static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        long highest = ((subBucket + 1) << exponent) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+
+    /**
+     * Record a latency
+     *
+     * @param nanos the latency in nanoseconds, the negative ones are recorded as zero
+     */
+    public void recordNanos(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        long current;
+        while (value < (current = minimum.get()) && !minimum.compareAndSet(current, value)) { }
+        while (value > (current = maximum.get()) && !maximum.compareAndSet(current, value)) { }
+    }
+
+    /**
+     * Add all the recorded latencies of another histogram to this one
+     *
+     * @param other the other histogram
+     */
+    public void add(LatencyHistogram other) {
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            long bucket = other.counts.get(index);
+            if (bucket != 0) counts.addAndGet(index, bucket);
+        }
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+        long current;
+        long otherMinimum = other.minimum.get();
+        while (otherMinimum < (current = minimum.get()) && !minimum.compareAndSet(current, otherMinimum)) { }
+        long otherMaximum = other.maximum.get();
+        while (otherMaximum > (current = maximum.get()) && !maximum.compareAndSet(current, otherMaximum)) { }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMinimumNanos() {
+        return getCount() == 0 ? 0 : minimum.get();
+    }
+
+    public long getMaximumNanos() {
+        return maximum.get();
+    }
+
+    public double getMeanNanos() {
+        long total = getCount();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * Get the latency at a percentile, as the highest value of its bucket (but not over the maximum)
+     *
+     * @param percentile the percentile, from 0 to 100 (such as 50, 99 or 99.9)
+     * @return the latency in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("The percentile must be between 0 and 100: " + percentile);
+        long total = getCount();
+        if (total == 0) return 0;
+
+        // THE RANK OF THE PERCENTILE, AT LEAST THE FIRST VALUE
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long cumulative = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            cumulative += counts.get(index);
+            if (cumulative >= rank) return Math.min(highestValueOf(index), getMaximumNanos());
+        }
+        return getMaximumNanos();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@LatencyHistogram[count: %s, p50: %s, p99: %s, p99.9: %s, max: %s]", getCount(),
+                getValueAtPercentile(50), getValueAtPercentile(99), getValueAtPercentile(99.9), getMaximumNanos());
+    }
+}
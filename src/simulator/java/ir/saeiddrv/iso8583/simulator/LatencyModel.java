@@ -0,0 +1,68 @@
+package ir.saeiddrv.iso8583.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The injected latency of the simulated responses, a delay is drawn for each response.
+ *
+ * @author Saeid Darvish
+ */
+@FunctionalInterface
+public interface LatencyModel {
+
+    LatencyModel NONE = () -> 0;
+
+    public long nextDelayNanos();
+
+    /**
+     * The same delay for all the responses
+     *
+     * @param delay the delay
+     * @param unit the unit of the delay
+     * @return the latency model
+     */
+    public static LatencyModel fixed(long delay, TimeUnit unit) {
+        long delayNanos = unit.toNanos(delay);
+        if (delayNanos < 0)
+            throw new IllegalArgumentException("The delay cannot be negative: " + delay);
+        return () -> delayNanos;
+    }
+
+    /**
+     * Normally distributed delays (the negative ones are cut to zero)
+     *
+     * @param mean the mean of the delays
+     * @param standardDeviation the standard deviation of the delays
+     * @param unit the unit of the mean and the standard deviation
+     * @return the latency model
+     */
+    public static LatencyModel normal(long mean, long standardDeviation, TimeUnit unit) {
+        long meanNanos = unit.toNanos(mean);
+        long deviationNanos = unit.toNanos(standardDeviation);
+        if (meanNanos < 0 || deviationNanos < 0)
+            throw new IllegalArgumentException(String.format("Invalid normal latency [mean: %s, standardDeviation: %s]",
+                    mean, standardDeviation));
+        return () -> Math.max(0, Math.round(meanNanos + ThreadLocalRandom.current().nextGaussian() * deviationNanos));
+    }
+
+    /**
+     * Log-normally distributed delays, most of the responses are near the median and a few of them are far slower,
+     * as the latency of a real issuer host
+     *
+     * @param median the median of the delays
+     * @param p99 the 99th percentile of the delays
+     * @param unit the unit of the median and the 99th percentile
+     * @return the latency model
+     */
+    public static LatencyModel longTail(long median, long p99, TimeUnit unit) {
+        long medianNanos = unit.toNanos(median);
+        long p99Nanos = unit.toNanos(p99);
+        if (medianNanos <= 0 || p99Nanos < medianNanos)
+            throw new IllegalArgumentException(String.format("Invalid long-tail latency [median: %s, p99: %s]", median, p99));
+        double mu = Math.log(medianNanos);
+        // THE 99TH PERCENTILE IS 2.326 STANDARD DEVIATIONS ABOVE THE MEDIAN (IN LOG SCALE)
+        double sigma = Math.log((double) p99Nanos / medianNanos) / 2.3263478740408408;
+        return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+}
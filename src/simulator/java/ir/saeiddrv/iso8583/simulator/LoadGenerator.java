@@ -0,0 +1,232 @@
+package ir.saeiddrv.iso8583.simulator;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * An open-loop load generator: the requests of the templates are sent at a fixed arrival rate (constant or Poisson),
+ * whether or not the former requests have been answered. The latency of each request is measured from the time
+ * it should have been sent, so a stalled target or a late sender is not hidden (no coordinated omission).
+ * The latencies are recorded by the MTI of the requests into {@link LatencyHistogram}s.
+ *
+ * @author Saeid Darvish
+ */
+public final class LoadGenerator {
+
+    /**
+     * The arrival process of the requests
+     */
+    public enum Arrival {
+        // The same interval between all the requests
+        CONSTANT,
+        // Exponentially distributed intervals, as the independent arrivals of the real transactions
+        POISSON
+    }
+
+    private static final int MAXIMUM_STAN = 999999;
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Function<Message, CompletableFuture<Message>> sender;
+    private final List<RequestTemplate> templates = new ArrayList<>();
+    private double rate = 1000;
+    private Arrival arrival = Arrival.POISSON;
+    private long drainTimeoutNanos = TimeUnit.SECONDS.toNanos(5);
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder sent = new LongAdder();
+    private final AtomicInteger outstanding = new AtomicInteger(0);
+    private long elapsedNanos = 0;
+
+    private LoadGenerator(Function<Message, CompletableFuture<Message>> sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Create a load generator
+     *
+     * @param sender sends a request and completes with its response, such as
+     *               {@code multiplexer::send} of a {@link ir.saeiddrv.iso8583.transport.MessageMultiplexer}
+     *               or {@code pool::send} of a {@link ir.saeiddrv.iso8583.transport.MessageConnectionPool}
+     * @return the load generator
+     */
+    public static LoadGenerator create(Function<Message, CompletableFuture<Message>> sender) {
+        return new LoadGenerator(Objects.requireNonNull(sender, "The 'Sender' cannot be set to null."));
+    }
+
+    public LoadGenerator addTemplate(RequestTemplate template) {
+        templates.add(Objects.requireNonNull(template, "The 'RequestTemplate' cannot be set to null."));
+        return this;
+    }
+
+    /**
+     * Set the arrival rate of the requests
+     *
+     * @param requestsPerSecond the mean number of the requests in each second
+     * @return this load generator
+     */
+    public LoadGenerator setRate(double requestsPerSecond) {
+        if (!(requestsPerSecond > 0))
+            throw new IllegalArgumentException("The rate must be greater than zero: " + requestsPerSecond);
+        this.rate = requestsPerSecond;
+        return this;
+    }
+
+    public LoadGenerator setArrival(Arrival arrival) {
+        this.arrival = Objects.requireNonNull(arrival, "The 'Arrival' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Set the maximum time to wait for the outstanding responses at the end of a run, by default 5 seconds
+     *
+     * @param drainTimeout the maximum time
+     * @param unit the unit of the maximum time
+     * @return this load generator
+     */
+    public LoadGenerator setDrainTimeout(long drainTimeout, TimeUnit unit) {
+        this.drainTimeoutNanos = unit.toNanos(drainTimeout);
+        return this;
+    }
+
+    /**
+     * Send the requests on the calling thread for a duration, then wait for the outstanding responses.
+     * The results of the former run are cleared.
+     *
+     * @param duration the duration of sending
+     * @param unit the unit of the duration
+     * @return this load generator
+     * @throws ISO8583Exception If no template has been added, or a request cannot be generated
+     * @throws InterruptedException If the calling thread is interrupted
+     */
+    public LoadGenerator run(long duration, TimeUnit unit) throws ISO8583Exception, InterruptedException {
+        if (templates.isEmpty())
+            throw new ISO8583Exception("No request template has been added to the load generator.");
+        histograms.clear();
+        errors.clear();
+        sent.reset();
+
+        int[] cumulativeWeights = new int[templates.size()];
+        int totalWeight = 0;
+        for (int index = 0; index < templates.size(); index++)
+            cumulativeWeights[index] = totalWeight += templates.get(index).getWeight();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        int stan = random.nextInt(MAXIMUM_STAN);
+        long start = System.nanoTime();
+        long end = start + unit.toNanos(duration);
+        double offsetNanos = 0;
+        while (true) {
+            // WAIT FOR THE INTENDED TIME OF THE NEXT REQUEST (NOT FOR THE FORMER RESPONSES)
+            long intended = start + (long) offsetNanos;
+            if (intended - end >= 0) break;
+            waitUntil(intended);
+
+            // GENERATE THE REQUEST OF A TEMPLATE BY THE WEIGHTS
+            int pick = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= pick) index++;
+            stan = stan % MAXIMUM_STAN + 1;
+            Message request = templates.get(index).next(stan);
+            String mtiLiteral = request.getMti().getLiteral();
+            LatencyHistogram histogram = histograms.computeIfAbsent(mtiLiteral, key -> new LatencyHistogram());
+            LongAdder failures = errors.computeIfAbsent(mtiLiteral, key -> new LongAdder());
+
+            // SEND, THE LATENCY IS FROM THE INTENDED TIME
+            sent.increment();
+            outstanding.incrementAndGet();
+            sender.apply(request).whenComplete((response, exception) -> {
+                if (exception == null) histogram.recordNanos(System.nanoTime() - intended);
+                else failures.increment();
+                outstanding.decrementAndGet();
+            });
+
+            offsetNanos += arrival == Arrival.CONSTANT ?
+                    meanIntervalNanos : -Math.log(1 - random.nextDouble()) * meanIntervalNanos;
+        }
+        elapsedNanos = System.nanoTime() - start;
+
+        // WAIT FOR THE OUTSTANDING RESPONSES
+        long deadline = System.nanoTime() + drainTimeoutNanos;
+        while (outstanding.get() > 0 && System.nanoTime() - deadline < 0)
+            TimeUnit.MILLISECONDS.sleep(1);
+        return this;
+    }
+
+    private static void waitUntil(long time) throws InterruptedException {
+        long remaining;
+        while ((remaining = time - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            else Thread.onSpinWait();
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Get the latencies of the answered requests of the last run
+     *
+     * @return the histograms by the MTI of the requests
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * Get the number of the failed requests (not sent, timed out, ...) of the last run
+     *
+     * @param mtiLiteral the MTI of the requests
+     * @return the number of the failed requests
+     */
+    public long getErrorCount(String mtiLiteral) {
+        LongAdder failures = errors.get(mtiLiteral);
+        return failures == null ? 0 : failures.sum();
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public int getOutstandingCount() {
+        return outstanding.get();
+    }
+
+    /**
+     * Print the latencies of the last run by the MTI of the requests (p50, p99, p99.9 and max in milliseconds)
+     *
+     * @param printStream the stream to print on it
+     */
+    public void printReport(PrintStream printStream) {
+        double seconds = elapsedNanos / 1e9;
+        printStream.printf("SENT: %s in %.1f s (%.0f requests/s), OUTSTANDING: %s%n",
+                getSentCount(), seconds, seconds == 0 ? 0 : getSentCount() / seconds, getOutstandingCount());
+        printStream.printf("%-6s %10s %8s %10s %10s %10s %10s%n", "MTI", "COUNT", "ERRORS", "P50(ms)", "P99(ms)", "P99.9(ms)", "MAX(ms)");
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            printStream.printf("%-6s %10s %8s %10.3f %10.3f %10.3f %10.3f%n", entry.getKey(), histogram.getCount(),
+                    getErrorCount(entry.getKey()), histogram.getValueAtPercentile(50) / 1e6,
+                    histogram.getValueAtPercentile(99) / 1e6, histogram.getValueAtPercentile(99.9) / 1e6,
+                    histogram.getMaximumNanos() / 1e6);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@LoadGenerator[templates: %s, rate: %s, arrival: %s, sent: %s, outstanding: %s]",
+                templates.size(), rate, arrival, getSentCount(), getOutstandingCount());
+    }
+}
@@ -0,0 +1,102 @@
+package ir.saeiddrv.iso8583.simulator;
+
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.transport.MessageConnectionPool;
+import ir.saeiddrv.iso8583.transport.MessageFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the open-loop load generator of a message profile against a host (or a local issuer simulator),
+ * and prints the latencies by the MTI (0200 and 0100 requests, three to one):
+ * <pre>
+ * gradle loadgen -Ploadgen.args="--local true --rate 20000 --arrival POISSON --duration 30 --connections 8"
+ * gradle loadgen -Ploadgen.args="--host 127.0.0.1 --port 5000 --profile TPDU_BCD_0200 --rate 5000"
+ * </pre>
+ *
+ * @author Saeid Darvish
+ */
+public final class LoadGeneratorMain {
+
+    private LoadGeneratorMain() {}
+
+    public static void main(String[] args) throws Exception {
+        MessageProfiles profile = MessageProfiles.ASCII_0200;
+        String host = "127.0.0.1";
+        int port = 5000;
+        boolean local = false;
+        double rate = 1000;
+        LoadGenerator.Arrival arrival = LoadGenerator.Arrival.POISSON;
+        long duration = 10;
+        int connections = 4;
+
+        // PARSE THE OPTIONS
+        for (int index = 0; index < args.length - 1; index += 2) {
+            String value = args[index + 1];
+            switch (args[index]) {
+                case "--profile":
+                    profile = MessageProfiles.valueOf(value);
+                    break;
+                case "--host":
+                    host = value;
+                    break;
+                case "--port":
+                    port = Integer.parseInt(value);
+                    break;
+                case "--local":
+                    local = Boolean.parseBoolean(value);
+                    break;
+                case "--rate":
+                    rate = Double.parseDouble(value);
+                    break;
+                case "--arrival":
+                    arrival = LoadGenerator.Arrival.valueOf(value);
+                    break;
+                case "--duration":
+                    duration = Long.parseLong(value);
+                    break;
+                case "--connections":
+                    connections = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[index]);
+            }
+        }
+
+        // THE FACTORY OF THE TEMPLATES: THE PROFILE WITH ITS VALUES
+        MessageProfiles selected = profile;
+        MessageFactory factory = () -> {
+            Message message = IssuerSimulatorMain.define(selected);
+            selected.setValues(message);
+            return message;
+        };
+        Message sample = factory.create();
+
+        IssuerSimulator simulator = null;
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        if (local) {
+            simulator = IssuerSimulator.create(() -> IssuerSimulatorMain.define(selected)).bind(new InetSocketAddress(host, 0));
+            address = simulator.getLocalAddress();
+        }
+
+        MessageConnectionPool pool = MessageConnectionPool.create(() -> IssuerSimulatorMain.define(selected))
+                .setConnectionsPerEndpoint(connections)
+                .setMaximumOutstanding(Integer.MAX_VALUE)
+                .addEndpoint(address);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pool.getConnectionCount() < connections && System.nanoTime() < deadline) Thread.sleep(10);
+
+        LoadGenerator generator = LoadGenerator.create(pool::send).setRate(rate).setArrival(arrival);
+        for (String mtiLiteral : new String[]{"0200", "0100"}) {
+            RequestTemplate template = RequestTemplate.of(factory).setMTI(mtiLiteral).setWeight(mtiLiteral.equals("0200") ? 3 : 1);
+            if (sample.hasField(2)) template.setPan("603799", 16);
+            if (sample.hasField(4)) template.setAmountRange(1000, 5000000);
+            generator.addTemplate(template);
+        }
+
+        System.out.printf("%s -> %s (%s)%n", generator, address, selected);
+        generator.run(duration, TimeUnit.SECONDS).printReport(System.out);
+        pool.close();
+        if (simulator != null) simulator.close();
+    }
+}
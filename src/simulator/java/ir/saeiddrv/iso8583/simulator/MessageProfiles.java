@@ -0,0 +1,202 @@
+package ir.saeiddrv.iso8583.simulator;
+
+import ir.saeiddrv.iso8583.message.ISO8583;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.Range;
+import ir.saeiddrv.iso8583.message.fields.BitmapType;
+import ir.saeiddrv.iso8583.message.fields.ContentPad;
+import ir.saeiddrv.iso8583.message.fields.LengthType;
+import ir.saeiddrv.iso8583.message.fields.shortcuts.*;
+import ir.saeiddrv.iso8583.message.headers.TPDU;
+import ir.saeiddrv.iso8583.message.interpreters.ASCIILengthInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.ASCIIMTIInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.ASCIIMessageLengthInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.BCDMTIInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.HexMessageLengthInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.TPDUHeaderInterpreter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The reference message profiles of the simulator, the load generator and the benchmarks,
+ * each one builds a definition with its values.
+ *
+ * @author Saeid Darvish
+ */
+public enum MessageProfiles {
+
+    // The 0200 financial request with TPDU header, BCD fields and a hexadecimal message length
+    TPDU_BCD_0200 {
+        @Override
+        public ISO8583 define() throws ISO8583Exception {
+            ISO8583 builder = ISO8583.create()
+                    .setCharset(StandardCharsets.ISO_8859_1)
+                    .setMessageLengthInterpreter(2, new HexMessageLengthInterpreter())
+                    .setHeader(TPDU.fromDecimal("60", "121", "121"), new TPDUHeaderInterpreter())
+                    .setMTI("0200", new BCDMTIInterpreter());
+
+            builder.defineField(0, BITMAP.create(BitmapType.PRIMARY, 8, Range.OF_PRIMARY_BITMAP));
+            builder.defineField(2, BCD.create(LengthType.LL, 19, ContentPad.RIGHT_0));
+            builder.defineField(3, BCD.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+            builder.defineField(4, BCD.create(LengthType.FIXED, 12, ContentPad.LEFT_0));
+            builder.defineField(11, BCD.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+            builder.defineField(12, BCD.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+            builder.defineField(13, BCD.create(LengthType.FIXED, 4, ContentPad.LEFT_0));
+            builder.defineField(24, BCD.create(LengthType.FIXED, 3, ContentPad.LEFT_0));
+            builder.defineField(25, BCD.create(LengthType.FIXED, 2, ContentPad.LEFT_0));
+            builder.defineField(35, BCD.create(LengthType.LL, 37, ContentPad.RIGHT_0));
+            builder.defineField(41, BCDASCII.create(LengthType.FIXED, 8, ContentPad.LEFT_0));
+            builder.defineField(42, BCDASCII.create(LengthType.FIXED, 15, ContentPad.LEFT_0));
+            builder.defineField(48, BCDASCII.create(LengthType.LLL, 999, ContentPad.RIGHT_0));
+            builder.defineField(52, BINARY.create(8));
+            builder.defineField(61, BCDASCII.create(LengthType.LLL, 999, ContentPad.RIGHT_0));
+            builder.defineField(64, BINARY.create(8));
+            return builder;
+        }
+
+        @Override
+        public void setValues(Message message) throws ISO8583Exception {
+            message.setValue(2, "6219861026599414");
+            message.setValue(3, "000000");
+            message.setValue(4, "1000000");
+            message.setValue(11, "23");
+            message.setValue(12, "144103");
+            message.setValue(13, "0531");
+            message.setValue(24, "121");
+            message.setValue(25, "24");
+            message.setValue(35, "6219861026599414=25071004663858811893");
+            message.setValue(41, "96090002");
+            message.setValue(42, "100273799410001");
+            message.setValue(48, "000");
+            message.setValue(52, "3E6739B48BFD0A59");
+            message.setValue(61, "P260300000066");
+            message.setValue(64, "91D941BA6D22AA42");
+        }
+    },
+
+    // The 0200 financial request with ASCII fields only
+    ASCII_0200 {
+        @Override
+        public ISO8583 define() throws ISO8583Exception {
+            ISO8583 builder = ISO8583.create()
+                    .setCharset(StandardCharsets.US_ASCII)
+                    .setMessageLengthInterpreter(4, new ASCIIMessageLengthInterpreter())
+                    .setMTI("0200", new ASCIIMTIInterpreter());
+
+            builder.defineField(0, BITMAP.create(BitmapType.PRIMARY, 8, Range.OF_PRIMARY_BITMAP));
+            builder.defineField(2, ASCII.create(LengthType.LL, 19));
+            builder.defineField(3, ASCII.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+            builder.defineField(4, ASCII.create(LengthType.FIXED, 12, ContentPad.LEFT_0));
+            builder.defineField(7, ASCII.create(LengthType.FIXED, 10, ContentPad.LEFT_0));
+            builder.defineField(11, ASCII.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+            builder.defineField(12, ASCII.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+            builder.defineField(13, ASCII.create(LengthType.FIXED, 4, ContentPad.LEFT_0));
+            builder.defineField(22, ASCII.create(LengthType.FIXED, 3, ContentPad.LEFT_0));
+            builder.defineField(35, ASCII.create(LengthType.LL, 37));
+            builder.defineField(37, ASCII.create(LengthType.FIXED, 12, ContentPad.LEFT_0));
+            builder.defineField(41, ASCII.create(LengthType.FIXED, 8, ContentPad.LEFT_0));
+            builder.defineField(42, ASCII.create(LengthType.FIXED, 15, ContentPad.LEFT_0));
+            builder.defineField(43, ASCII.create(LengthType.FIXED, 40, ContentPad.RIGHT_S));
+            builder.defineField(49, ASCII.create(LengthType.FIXED, 3, ContentPad.LEFT_0));
+            return builder;
+        }
+
+        @Override
+        public void setValues(Message message) throws ISO8583Exception {
+            message.setValue(2, "6219861026599414");
+            message.setValue(3, "000000");
+            message.setValue(4, "1000000");
+            message.setValue(7, "1017120000");
+            message.setValue(11, "23");
+            message.setValue(12, "144103");
+            message.setValue(13, "0531");
+            message.setValue(22, "021");
+            message.setValue(35, "6219861026599414=25071004663858811893");
+            message.setValue(37, "000000000023");
+            message.setValue(41, "96090002");
+            message.setValue(42, "100273799410001");
+            message.setValue(43, "SAEID DARVISH STORE       TEHRAN      IR");
+            message.setValue(49, "364");
+        }
+    },
+
+    // The 0800 network management request with a secondary bitmap
+    SECONDARY_BITMAP_0800 {
+        @Override
+        public ISO8583 define() throws ISO8583Exception {
+            ISO8583 builder = ISO8583.create()
+                    .setCharset(StandardCharsets.US_ASCII)
+                    .setMTI("0800", new ASCIIMTIInterpreter());
+
+            builder.defineField(0, BITMAP.create(BitmapType.PRIMARY, 8, Range.OF_PRIMARY_BITMAP));
+            builder.defineField(1, BITMAP.create(BitmapType.SECONDARY, 8, Range.OF_SECONDARY_BITMAP));
+            builder.defineField(7, ASCII.create(LengthType.FIXED, 10, ContentPad.LEFT_0));
+            builder.defineField(11, ASCII.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+            builder.defineField(70, ASCII.create(LengthType.FIXED, 3, ContentPad.LEFT_0));
+            builder.defineField(96, BINARY.create(8));
+            builder.defineField(128, BINARY.create(8));
+            return builder;
+        }
+
+        @Override
+        public void setValues(Message message) throws ISO8583Exception {
+            message.setValue(7, "1017120000");
+            message.setValue(11, "123456");
+            message.setValue(70, "301");
+            message.setValue(96, "3E6739B48BFD0A59");
+            message.setValue(128, "91D941BA6D22AA42");
+        }
+    },
+
+    // The 0200 financial request with nested CombineFields as additional data
+    NESTED_COMBINE_0200 {
+        @Override
+        public ISO8583 define() throws ISO8583Exception {
+            ISO8583 builder = ISO8583.create()
+                    .setCharset(StandardCharsets.US_ASCII)
+                    .setMTI("0200", new ASCIIMTIInterpreter());
+
+            builder.defineField(0, BITMAP.create(BitmapType.PRIMARY, 8, Range.OF_PRIMARY_BITMAP));
+            builder.defineField(3, ASCII.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+            builder.defineField(4, ASCII.create(LengthType.FIXED, 12, ContentPad.LEFT_0));
+            builder.defineField(11, ASCII.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+            builder.defineField(41, ASCII.create(LengthType.FIXED, 8, ContentPad.LEFT_0));
+
+            ShortcutField terminal = COMBINE.create()
+                    .setCharset(StandardCharsets.US_ASCII);
+            ((COMBINE) terminal).addSubField(1, ASCII.create(LengthType.FIXED, 2, ContentPad.LEFT_0));
+            ((COMBINE) terminal).addSubField(2, ASCII.create(LengthType.LL, 20));
+
+            ShortcutField additional = COMBINE.create()
+                    .setCharset(StandardCharsets.US_ASCII);
+            ((COMBINE) additional).setLength(LengthType.LLL, 999, new ASCIILengthInterpreter());
+            ((COMBINE) additional).addSubField(1, ASCII.create(LengthType.FIXED, 3, ContentPad.LEFT_0));
+            ((COMBINE) additional).addSubField(2, terminal);
+            ((COMBINE) additional).addSubField(3, ASCII.create(LengthType.LL, 25));
+            builder.defineField(48, additional);
+            return builder;
+        }
+
+        @Override
+        public void setValues(Message message) throws ISO8583Exception {
+            message.setValue(3, "000000");
+            message.setValue(4, "1000000");
+            message.setValue(11, "23");
+            message.setValue(41, "96090002");
+            message.setDeepValue("48.1", "001");
+            message.setDeepValue("48.2.1", "07");
+            message.setDeepValue("48.2.2", "POS-0042");
+            message.setDeepValue("48.3", "SAEID DARVISH STORE");
+        }
+    };
+
+    public abstract ISO8583 define() throws ISO8583Exception;
+
+    public abstract void setValues(Message message) throws ISO8583Exception;
+
+    public Message buildMessage() throws ISO8583Exception {
+        Message message = define().buildMessage();
+        setValues(message);
+        return message;
+    }
+}
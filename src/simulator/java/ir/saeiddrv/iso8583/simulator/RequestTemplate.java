@@ -0,0 +1,150 @@
+package ir.saeiddrv.iso8583.simulator;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.transport.MessageFactory;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A template of the generated requests: a message of the definition with its fixed values (by the factory),
+ * a random PAN (field 2) of a prefix with a valid check digit, a random amount (field 4) in a range,
+ * and the STAN (field 11) of each request. Each request is a new message, so an outstanding request
+ * keeps its own values (such as for the timeout handler of a multiplexer). A template is used by a single thread.
+ *
+ * @author Saeid Darvish
+ */
+public final class RequestTemplate {
+
+    private static final int PAN_FIELD = 2;
+    private static final int AMOUNT_FIELD = 4;
+    private static final int STAN_FIELD = 11;
+
+    private final MessageFactory factory;
+    private String mtiLiteral = null;
+    private int weight = 1;
+    private String panPrefix = null;
+    private int panLength = 16;
+    private long minimumAmount = 0;
+    private long maximumAmount = -1;
+
+    private RequestTemplate(MessageFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Create a template
+     *
+     * @param factory creates a message of the definition with the fixed values of the requests
+     * @return the template
+     */
+    public static RequestTemplate of(MessageFactory factory) {
+        return new RequestTemplate(Objects.requireNonNull(factory, "The 'MessageFactory' cannot be set to null."));
+    }
+
+    /**
+     * Set the MTI of the requests instead of the MTI of the factory message (such as "0100" of a "0200" definition)
+     *
+     * @param mtiLiteral the MTI of the requests
+     * @return this template
+     */
+    public RequestTemplate setMTI(String mtiLiteral) {
+        this.mtiLiteral = Objects.requireNonNull(mtiLiteral, "The 'MTILiteral' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Set the share of this template in the generated requests, relative to the other templates
+     *
+     * @param weight the weight, by default 1
+     * @return this template
+     */
+    public RequestTemplate setWeight(int weight) {
+        if (weight <= 0)
+            throw new IllegalArgumentException("The weight must be greater than zero: " + weight);
+        this.weight = weight;
+        return this;
+    }
+
+    /**
+     * Randomize the PAN of the requests
+     *
+     * @param panPrefix the prefix (the BIN) of the PANs
+     * @param panLength the length of the PANs, the check digit (Luhn) included
+     * @return this template
+     */
+    public RequestTemplate setPan(String panPrefix, int panLength) {
+        Objects.requireNonNull(panPrefix, "The 'PanPrefix' cannot be set to null.");
+        if (!panPrefix.chars().allMatch(Character::isDigit) || panLength <= panPrefix.length() || panLength > 19)
+            throw new IllegalArgumentException(String.format("Invalid PAN [prefix: %s, length: %s]", panPrefix, panLength));
+        this.panPrefix = panPrefix;
+        this.panLength = panLength;
+        return this;
+    }
+
+    /**
+     * Randomize the amount of the requests, uniformly in a range
+     *
+     * @param minimumAmount the lowest amount (in the minor unit of the currency)
+     * @param maximumAmount the highest amount (in the minor unit of the currency)
+     * @return this template
+     */
+    public RequestTemplate setAmountRange(long minimumAmount, long maximumAmount) {
+        if (minimumAmount < 0 || maximumAmount < minimumAmount)
+            throw new IllegalArgumentException(String.format("Invalid amount range [minimum: %s, maximum: %s]",
+                    minimumAmount, maximumAmount));
+        this.minimumAmount = minimumAmount;
+        this.maximumAmount = maximumAmount;
+        return this;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Get the next request of this template, a new message of the factory with the values of the request
+     *
+     * @param stan the STAN of the request
+     * @return the request
+     * @throws ISO8583Exception If throws from the factory, or a value is invalid for the definition
+     */
+    Message next(int stan) throws ISO8583Exception {
+        Message message = factory.create();
+        if (mtiLiteral != null) message.changeMTI(mtiLiteral);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (panPrefix != null) message.setValue(PAN_FIELD, randomPan(random));
+        if (maximumAmount >= 0)
+            message.setValue(AMOUNT_FIELD, String.valueOf(random.nextLong(minimumAmount, maximumAmount + 1)));
+        message.setValue(STAN_FIELD, String.valueOf(stan));
+        return message;
+    }
+
+    private String randomPan(ThreadLocalRandom random) {
+        char[] pan = new char[panLength];
+        panPrefix.getChars(0, panPrefix.length(), pan, 0);
+        for (int index = panPrefix.length(); index < panLength - 1; index++)
+            pan[index] = (char) ('0' + random.nextInt(10));
+
+        // THE LUHN CHECK DIGIT: DOUBLE EVERY SECOND DIGIT FROM THE RIGHT OF THE CHECK DIGIT
+        int sum = 0;
+        for (int index = panLength - 2, position = 0; index >= 0; index--, position++) {
+            int digit = pan[index] - '0';
+            if (position % 2 == 0) {
+                digit *= 2;
+                if (digit > 9) digit -= 9;
+            }
+            sum += digit;
+        }
+        pan[panLength - 1] = (char) ('0' + (10 - sum % 10) % 10);
+        return new String(pan);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@RequestTemplate[mti: %s, weight: %s, panPrefix: %s, amount: %s]",
+                mtiLiteral == null ? "DEFINED" : mtiLiteral, weight, panPrefix == null ? "FIXED" : panPrefix,
+                maximumAmount < 0 ? "FIXED" : minimumAmount + "-" + maximumAmount);
+    }
+}
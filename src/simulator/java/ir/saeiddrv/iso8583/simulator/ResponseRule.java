@@ -0,0 +1,132 @@
+package ir.saeiddrv.iso8583.simulator;
+
+import ir.saeiddrv.iso8583.message.Message;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A rule of the simulated issuer: the response code (and optionally the latency) of the requests
+ * that match all its conditions, by the MTI, the prefix of the PAN (field 2, or the track 2 data of field 35)
+ * and the range of the amount (field 4).
+ *
+ * @author Saeid Darvish
+ */
+public final class ResponseRule {
+
+    private static final int PAN_FIELD = 2;
+    private static final int AMOUNT_FIELD = 4;
+    private static final int TRACK_2_FIELD = 35;
+
+    private final String responseCode;
+    private String[] mtiLiterals = null;
+    private String panPrefix = null;
+    private long minimumAmount = 0;
+    private long maximumAmount = -1;
+    private LatencyModel latency = null;
+
+    private ResponseRule(String responseCode) {
+        this.responseCode = responseCode;
+    }
+
+    /**
+     * Create a rule that matches all the requests, until its conditions are set
+     *
+     * @param responseCode the value of the field 39 of the responses, such as "00", "05" or "51"
+     * @return the rule
+     */
+    public static ResponseRule respond(String responseCode) {
+        return new ResponseRule(Objects.requireNonNull(responseCode, "The 'ResponseCode' cannot be set to null."));
+    }
+
+    /**
+     * Match only the requests of some MTIs
+     *
+     * @param mtiLiterals the MTIs of the requests, such as "0100" or "0200"
+     * @return this rule
+     */
+    public ResponseRule whenMTI(String... mtiLiterals) {
+        this.mtiLiterals = Objects.requireNonNull(mtiLiterals, "The 'MTILiterals' cannot be set to null.").clone();
+        return this;
+    }
+
+    public ResponseRule whenPanPrefix(String panPrefix) {
+        this.panPrefix = Objects.requireNonNull(panPrefix, "The 'PanPrefix' cannot be set to null.");
+        return this;
+    }
+
+    /**
+     * Match only the requests with an amount in a range
+     *
+     * @param minimumAmount the lowest amount (in the minor unit of the currency)
+     * @param maximumAmount the highest amount (in the minor unit of the currency)
+     * @return this rule
+     */
+    public ResponseRule whenAmountBetween(long minimumAmount, long maximumAmount) {
+        if (minimumAmount < 0 || maximumAmount < minimumAmount)
+            throw new IllegalArgumentException(String.format("Invalid amount range [minimum: %s, maximum: %s]",
+                    minimumAmount, maximumAmount));
+        this.minimumAmount = minimumAmount;
+        this.maximumAmount = maximumAmount;
+        return this;
+    }
+
+    /**
+     * Set the latency of the matched requests instead of the latency of the simulator
+     *
+     * @param latency the latency model
+     * @return this rule
+     */
+    public ResponseRule withLatency(LatencyModel latency) {
+        this.latency = Objects.requireNonNull(latency, "The 'LatencyModel' cannot be set to null.");
+        return this;
+    }
+
+    public String getResponseCode() {
+        return responseCode;
+    }
+
+    public LatencyModel getLatency() {
+        return latency;
+    }
+
+    boolean matches(Message request, String mtiLiteral) {
+        if (mtiLiterals != null && !contains(mtiLiterals, mtiLiteral)) return false;
+
+        if (panPrefix != null) {
+            String pan = valueOf(request, PAN_FIELD);
+            if (pan == null) pan = valueOf(request, TRACK_2_FIELD);
+            if (pan == null || !pan.startsWith(panPrefix)) return false;
+        }
+
+        if (maximumAmount >= 0) {
+            String amount = valueOf(request, AMOUNT_FIELD);
+            if (amount == null) return false;
+            try {
+                long value = Long.parseLong(amount.trim());
+                if (value < minimumAmount || value > maximumAmount) return false;
+            } catch (NumberFormatException exception) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(String[] values, String value) {
+        for (String item : values)
+            if (item.equals(value)) return true;
+        return false;
+    }
+
+    private static String valueOf(Message request, int fieldNumber) {
+        if (!request.hasField(fieldNumber) || request.isSkipField(fieldNumber)) return null;
+        return request.getValueAsString(fieldNumber);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@ResponseRule[responseCode: %s, mti: %s, panPrefix: %s, amount: %s]",
+                responseCode, mtiLiterals == null ? "ANY" : Arrays.toString(mtiLiterals),
+                panPrefix == null ? "ANY" : panPrefix,
+                maximumAmount < 0 ? "ANY" : minimumAmount + "-" + maximumAmount);
+    }
+}
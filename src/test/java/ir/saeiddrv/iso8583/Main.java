@@ -10,6 +10,7 @@ import ir.saeiddrv.iso8583.message.interpreters.HexMessageLengthInterpreter;
 import ir.saeiddrv.iso8583.message.interpreters.TPDUHeaderInterpreter;
 import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
 import ir.saeiddrv.iso8583.socket.Client;
+import ir.saeiddrv.iso8583.transport.MessageFraming;
 import java.nio.charset.StandardCharsets;
 
 public class Main {
@@ -152,7 +153,7 @@ public class Main {
 
             System.out.println("\n==================== SEND ====================\n");
 
-            byte[] response = Client.send(packAgain);
+            byte[] response = Client.send(packAgain, MessageFraming.of(message));
             message = builder.unpackMessage(response, System.out);
 
             System.out.println("\n==================== RESULT: " + message.getValueAsString(39) + " ====================\n");
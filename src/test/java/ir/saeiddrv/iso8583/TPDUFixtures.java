@@ -0,0 +1,122 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.ISO8583;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.MessageInstance;
+import ir.saeiddrv.iso8583.message.Range;
+import ir.saeiddrv.iso8583.message.fields.BitmapType;
+import ir.saeiddrv.iso8583.message.fields.ContentPad;
+import ir.saeiddrv.iso8583.message.fields.LengthType;
+import ir.saeiddrv.iso8583.message.fields.formatters.MaskCardNumber;
+import ir.saeiddrv.iso8583.message.fields.shortcuts.*;
+import ir.saeiddrv.iso8583.message.headers.TPDU;
+import ir.saeiddrv.iso8583.message.interpreters.BCDMTIInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.HexMessageLengthInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.TPDUHeaderInterpreter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The 0200 definition with a TPDU header, its values and its XML spec, shared by the message tests.
+ *
+ * @author Saeid Darvish
+ */
+final class TPDUFixtures {
+
+    // The fields that are defined but not packed by the tests
+    static final int[] SKIPPED_FIELDS = {37, 38, 39, 54};
+
+    // The same definition as definition(), without the skipped fields
+    static final String SPEC_XML = "<message charset=\"ISO-8859-1\">" +
+            "<length count=\"2\" interpreter=\"HEX\"/>" +
+            "<header type=\"TPDU\" protocol=\"60\" source=\"121\" destination=\"121\"/>" +
+            "<mti value=\"0200\" interpreter=\"BCD\"/>" +
+            "<field number=\"0\" type=\"BITMAP\" bitmap=\"PRIMARY\" bytes=\"8\" description=\"Bit Map, Primary\"/>" +
+            "<field number=\"2\" type=\"BCD\" length=\"LL\" max=\"19\" pad=\"RIGHT_0\" formatter=\"MaskCardNumber\"/>" +
+            "<field number=\"3\" type=\"BCD\" length=\"FIXED\" max=\"6\" pad=\"LEFT_0\"/>" +
+            "<field number=\"4\" type=\"BCD\" length=\"FIXED\" max=\"12\" pad=\"LEFT_0\"/>" +
+            "<field number=\"11\" type=\"BCD\" length=\"FIXED\" max=\"6\" pad=\"LEFT_0\"/>" +
+            "<field number=\"12\" type=\"BCD\" length=\"FIXED\" max=\"6\" pad=\"LEFT_0\"/>" +
+            "<field number=\"13\" type=\"BCD\" length=\"FIXED\" max=\"4\" pad=\"LEFT_0\"/>" +
+            "<field number=\"24\" type=\"BCD\" length=\"FIXED\" max=\"3\" pad=\"LEFT_0\"/>" +
+            "<field number=\"25\" type=\"BCD\" length=\"FIXED\" max=\"2\" pad=\"LEFT_0\"/>" +
+            "<field number=\"35\" type=\"BCD\" length=\"LL\" max=\"37\" pad=\"RIGHT_0\"/>" +
+            "<field number=\"41\" type=\"BCDASCII\" length=\"FIXED\" max=\"8\" pad=\"LEFT_0\"/>" +
+            "<field number=\"42\" type=\"BCDASCII\" length=\"FIXED\" max=\"15\" pad=\"LEFT_0\"/>" +
+            "<field number=\"48\" type=\"BCDASCII\" length=\"LLL\" max=\"999\" pad=\"RIGHT_0\"/>" +
+            "<field number=\"52\" type=\"BINARY\" bytes=\"8\"/>" +
+            "<field number=\"61\" type=\"BCDASCII\" length=\"LLL\" max=\"999\" pad=\"RIGHT_0\"/>" +
+            "<field number=\"64\" type=\"BINARY\" bytes=\"8\"/>" +
+            "</message>";
+
+    private static final int[] FIELD_NUMBERS = {2, 3, 4, 11, 12, 13, 24, 25, 35, 41, 42, 48, 52, 61, 64};
+
+    private static final String[] FIELD_VALUES = {
+            "6219861026599414",
+            "000000",
+            "1000000",
+            "23",
+            "144103",
+            "0531",
+            "121",
+            "24",
+            "6219861026599414=25071004663858811893",
+            "96090002",
+            "100273799410001",
+            "000",
+            "3E6739B48BFD0A59",
+            "P260300000066",
+            "91D941BA6D22AA42"};
+
+    private TPDUFixtures() {}
+
+    static ISO8583 definition() throws ISO8583Exception {
+        ISO8583 builder = ISO8583.create()
+                .setCharset(StandardCharsets.ISO_8859_1)
+                .setMessageLengthInterpreter(2, new HexMessageLengthInterpreter())
+                .setHeader(TPDU.fromDecimal("60", "121", "121"), new TPDUHeaderInterpreter())
+                .setMTI("0200", new BCDMTIInterpreter());
+
+        builder.defineField(0, BITMAP.create(BitmapType.PRIMARY, 8, Range.OF_PRIMARY_BITMAP).setDescription("Bit Map, Primary"));
+        builder.defineField(2, BCD.create(LengthType.LL, 19, ContentPad.RIGHT_0).setValueFormatter(new MaskCardNumber()));
+        builder.defineField(3, BCD.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+        builder.defineField(4, BCD.create(LengthType.FIXED, 12, ContentPad.LEFT_0));
+        builder.defineField(11, BCD.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+        builder.defineField(12, BCD.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+        builder.defineField(13, BCD.create(LengthType.FIXED, 4, ContentPad.LEFT_0));
+        builder.defineField(24, BCD.create(LengthType.FIXED, 3, ContentPad.LEFT_0));
+        builder.defineField(25, BCD.create(LengthType.FIXED, 2, ContentPad.LEFT_0));
+        builder.defineField(35, BCD.create(LengthType.LL, 37, ContentPad.RIGHT_0));
+        builder.defineField(37, BCD.create(LengthType.FIXED, 12, ContentPad.RIGHT_0));
+        builder.defineField(38, ASCII.create(LengthType.FIXED, 6, ContentPad.RIGHT_0));
+        builder.defineField(39, ASCII.create(LengthType.FIXED, 2, ContentPad.RIGHT_0));
+        builder.defineField(41, BCDASCII.create(LengthType.FIXED, 8, ContentPad.LEFT_0));
+        builder.defineField(42, BCDASCII.create(LengthType.FIXED, 15, ContentPad.LEFT_0));
+        builder.defineField(48, BCDASCII.create(LengthType.LLL, 999, ContentPad.RIGHT_0));
+        builder.defineField(52, BINARY.create(8));
+        builder.defineField(54, BCDASCII.create(LengthType.LLL, 999, ContentPad.RIGHT_0));
+        builder.defineField(61, BCDASCII.create(LengthType.LLL, 999, ContentPad.RIGHT_0));
+        builder.defineField(64, BINARY.create(8));
+        return builder;
+    }
+
+    // A message of the definition with the values, the skipped fields are still packed
+    static Message message(ISO8583 builder) throws ISO8583Exception {
+        Message message = builder.buildMessage();
+        for (int index = 0; index < FIELD_NUMBERS.length; index++)
+            message.setValue(FIELD_NUMBERS[index], FIELD_VALUES[index]);
+        return message;
+    }
+
+    static void setValues(MessageInstance instance) throws ISO8583Exception {
+        for (int index = 0; index < FIELD_NUMBERS.length; index++)
+            instance.setValue(FIELD_NUMBERS[index], FIELD_VALUES[index]);
+    }
+
+    // The packed message of the definition, without the skipped fields
+    static byte[] pack(ISO8583 builder) throws ISO8583Exception {
+        Message message = message(builder);
+        message.setSkipFieldNumbers(SKIPPED_FIELDS);
+        return message.pack();
+    }
+}
@@ -0,0 +1,85 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.ISO8583;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.Range;
+import ir.saeiddrv.iso8583.message.fields.BitmapType;
+import ir.saeiddrv.iso8583.message.fields.ContentPad;
+import ir.saeiddrv.iso8583.message.fields.LengthType;
+import ir.saeiddrv.iso8583.message.fields.shortcuts.*;
+import ir.saeiddrv.iso8583.message.interpreters.ASCIIMTIInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.BCDMessageLengthInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.MessageLengthInterpreter;
+import ir.saeiddrv.iso8583.transport.Connection;
+import ir.saeiddrv.iso8583.transport.ISO8583Server;
+import ir.saeiddrv.iso8583.transport.MessageHandler;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The message definition, the echo handler and the servers shared by the transport tests.
+ *
+ * @author Saeid Darvish
+ */
+final class TransportFixtures {
+
+    static final InetSocketAddress LOCALHOST = new InetSocketAddress("127.0.0.1", 0);
+
+    private TransportFixtures() {}
+
+    static ISO8583 definition(MessageLengthInterpreter lengthInterpreter) throws ISO8583Exception {
+        ISO8583 builder = ISO8583.create()
+                .setCharset(StandardCharsets.US_ASCII)
+                .setMessageLengthInterpreter(2, lengthInterpreter)
+                .setMTI("0200", new ASCIIMTIInterpreter());
+
+        builder.defineField(0, BITMAP.create(BitmapType.PRIMARY, 8, Range.OF_PRIMARY_BITMAP));
+        builder.defineField(4, ASCII.create(LengthType.FIXED, 12, ContentPad.LEFT_0));
+        builder.defineField(11, ASCII.create(LengthType.FIXED, 6, ContentPad.LEFT_0));
+        builder.defineField(39, ASCII.create(LengthType.FIXED, 2, ContentPad.LEFT_0));
+        builder.defineField(48, ASCII.create(LengthType.LLL, 999));
+        return builder;
+    }
+
+    static Message define(MessageLengthInterpreter lengthInterpreter) throws ISO8583Exception {
+        return definition(lengthInterpreter).buildMessage();
+    }
+
+    static Message define() throws ISO8583Exception {
+        return define(new BCDMessageLengthInterpreter());
+    }
+
+    // The response of a request, a request with "LOST" in the field 48 is answered by an unknown STAN
+    static Message echo(Message request, Connection connection) throws ISO8583Exception {
+        request.changeMTI("0210");
+        request.setValue(39, "00");
+        if ("LOST".equals(request.getValueAsString(48))) request.setValue(11, "999999");
+        return request;
+    }
+
+    // The echo handler, a request with "HOLD" in the field 48 is held until the latch is released
+    static MessageHandler holding(CountDownLatch release) {
+        return (request, connection) -> {
+            if ("HOLD".equals(request.getValueAsString(48)))
+                assertTrue(release.await(10, TimeUnit.SECONDS), "the held request has not been released");
+            return echo(request, connection);
+        };
+    }
+
+    static ISO8583Server startEchoServer() throws Exception {
+        return ISO8583Server.create(TransportFixtures::define, TransportFixtures::echo).bind(LOCALHOST);
+    }
+
+    static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
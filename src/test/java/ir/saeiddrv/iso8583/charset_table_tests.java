@@ -0,0 +1,64 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.interpreters.BCDMTIInterpreter;
+import ir.saeiddrv.iso8583.message.utilities.CharsetTable;
+import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import org.junit.jupiter.api.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("CharsetTable(US-ASCII, ISO-8859-1, Cp1047)")
+public class charset_table_tests {
+
+    private static final String[] CHARSETS = {"US-ASCII", "ISO-8859-1", "Cp1047"};
+
+    @Test
+    @Order(1)
+    @DisplayName("SAME RESULT AS CHARSET")
+    public void assertEqualCharset() {
+        byte[] allBytes = new byte[256];
+        for (int i = 0; i < 256; i++) allBytes[i] = (byte) i;
+        String text = "6219861026599414=2507 P26 \u00FF\u00E9\u20AC\uD83D\uDE00\uD800";
+
+        for (String charsetName : CHARSETS) {
+            Charset charset = Charset.forName(charsetName);
+            assertNotNull(CharsetTable.of(charset), charsetName);
+
+            ByteBuffer encoded = charset.encode(text);
+            assertArrayEquals(Arrays.copyOf(encoded.array(), encoded.limit()), TypeUtils.encodeBytes(text, charset), charsetName);
+            assertEquals(charset.decode(ByteBuffer.wrap(allBytes)).toString(), TypeUtils.decodeBytes(allBytes, charset), charsetName);
+            assertArrayEquals(new String(allBytes, charset).getBytes(charset), TypeUtils.encodeBytes(allBytes, charset), charsetName);
+        }
+
+        assertTrue(CharsetTable.of(Charset.forName("ISO-8859-1")).isIdentity());
+        assertTrue(CharsetTable.of(Charset.forName("Cp1047")).isIdentity());
+        assertFalse(CharsetTable.of(Charset.forName("US-ASCII")).isIdentity());
+        assertNull(CharsetTable.of(Charset.forName("UTF-8")));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("BCD MTI (same bytes for every charset)")
+    public void assertEqualBCDMTI() throws ISO8583Exception {
+        BCDMTIInterpreter interpreter = new BCDMTIInterpreter();
+        for (String charsetName : new String[]{"US-ASCII", "ISO-8859-1", "Cp1047", "UTF-16"}) {
+            Charset charset = Charset.forName(charsetName);
+            for (String mti : new String[]{"0200", "9100"}) {
+                // ==================== The byte array and the ByteBuffer versions pack the same BCD bytes ====================
+                byte[] pack = interpreter.pack(mti, charset);
+                assertEquals(mti, TypeUtils.bcdBytesToText(pack), charsetName);
+                ByteBuffer buffer = ByteBuffer.allocate(2);
+                interpreter.pack(mti, charset, buffer);
+                assertArrayEquals(pack, buffer.array(), charsetName);
+
+                // ==================== Both versions unpack the same MTI ====================
+                assertEquals(mti, interpreter.unpack(pack, 0, charset).getValue(), charsetName);
+                assertEquals(mti, interpreter.unpack(buffer, 0, 2, charset).getValue(), charsetName);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.fields.SingleField;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Message (ByteBuffer, OutputStream)")
+public class message_buffer_tests {
+
+    private Message message;
+
+    @BeforeEach
+    public void build() throws ISO8583Exception {
+        message = TPDUFixtures.message(TPDUFixtures.definition());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("UNPACKING (ByteBuffer)")
+    public void assertEqualUnPackByteBuffer() throws ISO8583Exception {
+        // ==================== Packing ====================
+        byte[] expected = message.pack();
+
+        // ==================== UnPacking from a direct buffer, with a prefix ====================
+        ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length + 3);
+        buffer.put(new byte[]{1, 2, 3}).put(expected).flip();
+        Message actualMessage = message.unpack(buffer, 3, buffer.limit());
+        assertFalse(((SingleField) actualMessage.getField(2)).getContent().isView());
+        assertArrayEquals(expected, actualMessage.pack());
+
+        // ==================== The contents of a lazy unpack are decoded on demand ====================
+        actualMessage = message.unpack(buffer, 3, buffer.limit(), true);
+        SingleField pan = (SingleField) actualMessage.getField(2);
+        assertTrue(pan.getContent().isView());
+        assertEquals("6219861026599414", actualMessage.getValueAsString(2));
+        assertFalse(pan.getContent().isView());
+        assertTrue(((SingleField) actualMessage.getField(35)).getContent().isView());
+        actualMessage.getField(35).decode();
+        assertFalse(((SingleField) actualMessage.getField(35)).getContent().isView());
+
+        byte[] actual = actualMessage.pack();
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("PACKING (ByteBuffer, OutputStream)")
+    public void assertEqualPackByteBuffer() throws ISO8583Exception, IOException {
+        // ==================== Packing ====================
+        byte[] expected = message.pack();
+
+        // ==================== Packing into a direct buffer, after a prefix ====================
+        ByteBuffer buffer = ByteBuffer.allocateDirect(512);
+        buffer.put(new byte[]{1, 2, 3});
+        int length = message.pack(buffer);
+        assertEquals(expected.length, length);
+        assertEquals(3 + length, buffer.position());
+
+        byte[] actual = new byte[length];
+        buffer.get(3, actual);
+        assertArrayEquals(expected, actual);
+
+        // ==================== A buffer without enough space is reported by the cause ====================
+        ByteBuffer small = ByteBuffer.allocate(16);
+        ISO8583Exception overflow = assertThrows(ISO8583Exception.class, () -> message.pack(small));
+        assertTrue(overflow.getCause() instanceof BufferOverflowException);
+        assertEquals(0, small.position());
+
+        // ==================== Packing into an output stream ====================
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        message.packTo(output);
+        assertArrayEquals(expected, output.toByteArray());
+    }
+}
@@ -0,0 +1,122 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.codec.Encoding;
+import ir.saeiddrv.iso8583.codec.FieldType;
+import ir.saeiddrv.iso8583.codec.IsoField;
+import ir.saeiddrv.iso8583.codec.IsoMessage;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.fields.LengthType;
+import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import org.junit.jupiter.api.*;
+import java.nio.ByteBuffer;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("MessageCodec (@IsoMessage)")
+public class message_codec_tests {
+
+    private byte[] expected;
+
+    @IsoMessage(mti = "0200", mtiInterpreter = Encoding.BCD, lengthCount = 2, header = "6001210121")
+    static class Purchase {
+        @IsoField(number = 2, type = FieldType.BCD, lengthType = LengthType.LL, length = 19, pad = "RIGHT_0")
+        String pan;
+        @IsoField(number = 3, type = FieldType.BCD, length = 6, pad = "LEFT_0")
+        String processingCode;
+        @IsoField(number = 4, type = FieldType.BCD, length = 12, pad = "LEFT_0")
+        long amount;
+        @IsoField(number = 11, type = FieldType.BCD, length = 6, pad = "LEFT_0")
+        int stan;
+        @IsoField(number = 12, type = FieldType.BCD, length = 6, pad = "LEFT_0")
+        String time;
+        @IsoField(number = 13, type = FieldType.BCD, length = 4, pad = "LEFT_0")
+        String date;
+        @IsoField(number = 24, type = FieldType.BCD, length = 3, pad = "LEFT_0")
+        int nii;
+        @IsoField(number = 25, type = FieldType.BCD, length = 2, pad = "LEFT_0")
+        String conditionCode;
+        @IsoField(number = 35, type = FieldType.BCD, lengthType = LengthType.LL, length = 37, pad = "RIGHT_0")
+        String track2;
+        @IsoField(number = 39, type = FieldType.ASCII, length = 2, pad = "RIGHT_0")
+        String responseCode;
+        @IsoField(number = 41, type = FieldType.BCDASCII, length = 8, pad = "LEFT_0")
+        String terminalId;
+        @IsoField(number = 42, type = FieldType.BCDASCII, length = 15, pad = "LEFT_0")
+        String merchantId;
+        @IsoField(number = 48, type = FieldType.BCDASCII, lengthType = LengthType.LLL, length = 999, pad = "RIGHT_0")
+        String additionalData;
+        @IsoField(number = 52, type = FieldType.BINARY, length = 8)
+        byte[] pinBlock;
+        @IsoField(number = 61, type = FieldType.BCDASCII, lengthType = LengthType.LLL, length = 999, pad = "RIGHT_0")
+        private String posData;
+        @IsoField(number = 64, type = FieldType.BINARY, length = 8)
+        byte[] mac;
+
+        public String getPosData() {
+            return posData;
+        }
+
+        public void setPosData(String posData) {
+            this.posData = posData;
+        }
+    }
+
+    @BeforeEach
+    public void build() throws ISO8583Exception {
+        expected = TPDUFixtures.pack(TPDUFixtures.definition());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("PACKING & UNPACKING (generated codec)")
+    public void assertEqualCodec() throws ISO8583Exception {
+        // ==================== The typed object, packed by the generated codec ====================
+        Purchase purchase = new Purchase();
+        purchase.pan = "6219861026599414";
+        purchase.processingCode = "000000";
+        purchase.amount = 1000000;
+        purchase.stan = 23;
+        purchase.time = "144103";
+        purchase.date = "0531";
+        purchase.nii = 121;
+        purchase.conditionCode = "24";
+        purchase.track2 = "6219861026599414=25071004663858811893";
+        purchase.terminalId = "96090002";
+        purchase.merchantId = "100273799410001";
+        purchase.additionalData = "000";
+        purchase.pinBlock = TypeUtils.hexStringToByteArray("3E6739B48BFD0A59");
+        purchase.setPosData("P260300000066");
+        purchase.mac = TypeUtils.hexStringToByteArray("91D941BA6D22AA42");
+
+        PurchaseCodec codec = new PurchaseCodec();
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        int length = codec.pack(purchase, buffer);
+        byte[] actual = new byte[length];
+        buffer.get(0, actual);
+        assertArrayEquals(expected, actual);
+
+        // ==================== Unpacking the message of the builder ====================
+        Purchase unpacked = codec.unpack(expected);
+        assertEquals("6219861026599414", unpacked.pan);
+        assertEquals(1000000L, unpacked.amount);
+        assertEquals(23, unpacked.stan);
+        assertEquals("P260300000066", unpacked.getPosData());
+        assertArrayEquals(purchase.mac, unpacked.mac);
+        assertNull(unpacked.responseCode);
+
+        // ==================== A message of another MTI is rejected (length 2, TPDU 5, BCD MTI 2 bytes) ====================
+        byte[] reversal = expected.clone();
+        reversal[7] = 0x04;
+        ISO8583Exception exception = assertThrows(ISO8583Exception.class, () -> codec.unpack(reversal));
+        assertTrue(exception.getMessage().contains("'0400'"), exception.getMessage());
+
+        // ==================== A failed pack restores the position ====================
+        ByteBuffer small = ByteBuffer.allocate(16);
+        assertThrows(ISO8583Exception.class, () -> codec.pack(purchase, small));
+        assertEquals(0, small.position());
+    }
+}
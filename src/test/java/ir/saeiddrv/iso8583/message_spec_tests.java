@@ -0,0 +1,128 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.spec.MessageSpec;
+import ir.saeiddrv.iso8583.message.spec.SpecRegistry;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import static ir.saeiddrv.iso8583.TPDUFixtures.SPEC_XML;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("MessageSpec, SpecRegistry")
+public class message_spec_tests {
+
+    private Message message;
+    private byte[] expected;
+
+    @BeforeEach
+    public void build() throws ISO8583Exception {
+        message = TPDUFixtures.message(TPDUFixtures.definition());
+        message.setSkipFieldNumbers(TPDUFixtures.SKIPPED_FIELDS);
+        expected = message.pack();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("DEFINITION (XML spec)")
+    public void assertEqualSpec() throws ISO8583Exception, IOException {
+        // ==================== The same bytes as the definition by the builder ====================
+        Path file = Files.createTempFile("spec", ".xml");
+        try {
+            Files.writeString(file, SPEC_XML);
+            MessageSpec spec = MessageSpec.load(file);
+            Message specMessage = spec.buildMessage();
+            assertNotSame(specMessage, spec.buildMessage());
+            for (int fieldNumber : spec.getFieldNumbers())
+                if (fieldNumber != 0) specMessage.setValue(fieldNumber, message.getValueAsString(fieldNumber));
+            assertArrayEquals(expected, specMessage.pack());
+            assertEquals("621986******9414", specMessage.getField(2).getValueFormatted());
+            assertSame(spec.compile(), spec.compile());
+
+            // ==================== Parsed once, until the file is modified ====================
+            assertSame(spec, MessageSpec.load(file));
+            Files.writeString(file, SPEC_XML.replace("\"0200\"", "\"0100\""));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+            MessageSpec modified = MessageSpec.load(file);
+            assertNotSame(spec, modified);
+            assertEquals("0100", modified.buildMessage().getMti().getLiteral());
+        } finally {
+            Files.delete(file);
+        }
+
+        // ==================== An invalid spec fails on loading ====================
+        assertThrows(ISO8583Exception.class, () -> MessageSpec.parse(new ByteArrayInputStream(
+                SPEC_XML.replace("\"LL\" max=\"19\"", "\"XL\" max=\"19\"").getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("UNPACKING (hot-reloaded spec registry)")
+    public void assertEqualSpecRegistry() throws ISO8583Exception, IOException {
+        SpecRegistry registry = new SpecRegistry();
+        Path file = Files.createTempFile("spec", ".xml");
+        try {
+            // ==================== The first version of the definition ====================
+            Files.writeString(file, SPEC_XML);
+            SpecRegistry.Definition first = registry.reload("POS", file);
+            assertEquals(1, first.getVersion());
+            assertSame(first, registry.reload("POS", file));
+
+            SpecRegistry.Decoded decoded = registry.unpack("POS", expected);
+            assertEquals(1, decoded.getVersion());
+            assertEquals("000", decoded.getInstance().getValueAsString(48));
+
+            // ==================== A new field 62, replaced without locking the readers ====================
+            Files.writeString(file, SPEC_XML
+                    .replace("<field number=\"64\"", "<field number=\"62\" type=\"ASCII\" length=\"LLL\" max=\"999\"/><field number=\"64\""));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+            SpecRegistry.Definition second = registry.reload("POS", file);
+            assertEquals(2, second.getVersion());
+            assertSame(second, registry.get("POS", "0200"));
+            assertTrue(second.getTemplate().hasField(62));
+
+            // ==================== The held definition still decodes, the next frames use the new one ====================
+            assertFalse(first.getTemplate().hasField(62));
+            assertArrayEquals(expected, first.getTemplate().unpack(expected).pack());
+            assertEquals(2, registry.unpack("POS", expected).getVersion());
+
+            // ==================== An invalid file keeps the current definition ====================
+            Files.writeString(file, SPEC_XML.replace("\"LL\" max=\"19\"", "\"XL\" max=\"19\""));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 2000));
+            assertThrows(ISO8583Exception.class, () -> registry.reload("POS", file));
+            assertSame(second, registry.get("POS", "0200"));
+
+            // ==================== Another MTI of the interface must have the same layout ====================
+            MessageSpec ascii = MessageSpec.parse(new ByteArrayInputStream(SPEC_XML
+                    .replace("\"0200\" interpreter=\"BCD\"", "\"0400\" interpreter=\"ASCII\"").getBytes(StandardCharsets.UTF_8)));
+            assertThrows(ISO8583Exception.class, () -> registry.register("POS", ascii));
+            assertNull(registry.get("POS", "0400"));
+            MessageSpec reversal = MessageSpec.parse(new ByteArrayInputStream(SPEC_XML
+                    .replace("\"0200\"", "\"0400\"").getBytes(StandardCharsets.UTF_8)));
+            assertEquals(1, registry.register("POS", reversal).getVersion());
+            assertEquals("0200", registry.unpack("POS", expected).getDefinition().getMTI());
+            assertTrue(registry.unregister("POS", "0400"));
+        } finally {
+            Files.delete(file);
+        }
+
+        // ==================== The unknown interfaces and MTIs ====================
+        assertThrows(ISO8583Exception.class, () -> registry.unpack("ATM", expected));
+        assertTrue(registry.unregister("POS", "0200"));
+        assertFalse(registry.unregister("POS", "0200"));
+        assertTrue(registry.getInterfaceNames().isEmpty());
+    }
+}
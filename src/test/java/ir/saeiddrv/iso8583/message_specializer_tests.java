@@ -0,0 +1,69 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.ISO8583;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.MessageInstance;
+import ir.saeiddrv.iso8583.message.MessageTemplate;
+import org.junit.jupiter.api.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("MessageTemplate (specialized)")
+public class message_specializer_tests {
+
+    private ISO8583 builder;
+    private byte[] expected;
+
+    @BeforeEach
+    public void build() throws ISO8583Exception {
+        builder = TPDUFixtures.definition();
+        expected = TPDUFixtures.pack(builder);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("PACKING & UNPACKING (specialized template)")
+    public void assertEqualSpecializedTemplate() throws ISO8583Exception {
+        // ==================== A runtime without a system Java compiler keeps the template ====================
+        MessageTemplate interpreted = builder.compile();
+        MessageTemplate template = interpreted.specialize();
+        assertEquals(MessageTemplate.isSpecializationSupported(), template.isSpecialized());
+        assertSame(template, template.specialize());
+
+        // ==================== The fields packed by the generated class ====================
+        Assumptions.assumeTrue(template.isSpecialized(), "The runtime has no system Java compiler.");
+        MessageInstance instance = template.newInstance();
+        TPDUFixtures.setValues(instance);
+        assertArrayEquals(expected, instance.pack());
+
+        // ==================== UnPacking by the generated class ====================
+        MessageInstance unpacked = template.unpack(expected);
+        assertEquals("0200", unpacked.getMTI());
+        assertEquals("6219861026599414", unpacked.getValueAsString(2));
+        assertEquals("P260300000066", unpacked.getValueAsString(61));
+        assertFalse(unpacked.hasValue(39));
+        assertArrayEquals(expected, unpacked.pack());
+
+        // ==================== The instances are shared with the original template ====================
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        template.pack(interpreted.unpack(expected), buffer);
+        assertArrayEquals(expected, Arrays.copyOf(buffer.array(), buffer.position()));
+        MessageInstance reused = template.newInstance();
+        interpreted.unpack(reused, ByteBuffer.wrap(expected), 0, expected.length, false);
+        assertEquals("P260300000066", reused.getValueAsString(61));
+        assertThrows(ISO8583Exception.class, () -> template.pack(builder.compile().newInstance(), buffer));
+
+        // ==================== A truncated message fails as the interpreted one ====================
+        byte[] truncated = Arrays.copyOf(expected, expected.length - 4);
+        ISO8583Exception specialized = assertThrows(ISO8583Exception.class, () -> template.unpack(truncated));
+        ISO8583Exception failed = assertThrows(ISO8583Exception.class, () -> interpreted.unpack(truncated));
+        assertEquals(failed.getMessage(), specialized.getMessage());
+    }
+}
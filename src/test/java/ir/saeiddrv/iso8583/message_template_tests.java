@@ -0,0 +1,141 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.ISO8583;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.MessageInstance;
+import ir.saeiddrv.iso8583.message.MessageTemplate;
+import ir.saeiddrv.iso8583.message.fields.SingleField;
+import ir.saeiddrv.iso8583.message.headers.HeaderContent;
+import ir.saeiddrv.iso8583.message.interpreters.TPDUHeaderInterpreter;
+import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import org.junit.jupiter.api.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("MessageTemplate")
+public class message_template_tests {
+
+    private ISO8583 builder;
+    private byte[] expected;
+
+    // A header content whose value can be changed after the definition
+    static class RoutingHeader implements HeaderContent {
+        String value = "6001210121";
+
+        @Override
+        public void setCharset(Charset charset) {}
+
+        @Override
+        public byte[] getValue() {
+            return TypeUtils.hexStringToByteArray(value);
+        }
+
+        @Override
+        public String getValueAsString() {
+            return value;
+        }
+    }
+
+    @BeforeEach
+    public void build() throws ISO8583Exception {
+        builder = TPDUFixtures.definition();
+        expected = TPDUFixtures.pack(builder);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("PACKING & UNPACKING (MessageTemplate)")
+    public void assertEqualTemplate() throws Exception {
+        // ==================== Compile an immutable template, shared between threads ====================
+        MessageTemplate template = builder.compile();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> {
+                    MessageInstance instance = template.newInstance();
+                    TPDUFixtures.setValues(instance);
+                    byte[] pack = instance.pack();
+
+                    // ==================== UnPacking into a new instance ====================
+                    MessageInstance unpacked = template.unpack(pack);
+                    assertEquals("0200", unpacked.getMTI());
+                    assertEquals("6219861026599414", unpacked.getValueAsString(2));
+                    assertFalse(unpacked.hasValue(39));
+                    assertArrayEquals(pack, unpacked.pack());
+                    return pack;
+                }));
+            }
+            for (Future<byte[]> result : results)
+                assertArrayEquals(expected, result.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("UNPACKING (lazy)")
+    public void assertEqualLazyUnPack() throws ISO8583Exception {
+        // ==================== Only the routing fields are decoded ====================
+        MessageInstance instance = builder.compile().unpack(expected, true);
+        assertEquals("0200", instance.getMTI());
+        assertEquals("000000", instance.getValueAsString(3));
+        assertEquals("000023", instance.getValueAsString(11));
+        assertEquals("96090002", instance.getValueAsString(41));
+        assertFalse(instance.isView(41));
+        assertTrue(instance.isView(2));
+        assertTrue(instance.isView(61));
+
+        assertArrayEquals(expected, instance.pack());
+
+        // ==================== Message, from a byte array ====================
+        Message actualMessage = builder.buildMessage().unpack(expected, true);
+        assertTrue(((SingleField) actualMessage.getField(35)).getContent().isView());
+        assertArrayEquals(expected, actualMessage.pack());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("PACKING & UNPACKING (numeric values)")
+    public void assertEqualNumericPack() throws ISO8583Exception {
+        MessageInstance instance = builder.compile().unpack(expected);
+        assertEquals(1000000L, instance.getValueAsLong(4));
+        assertEquals(23L, instance.getValueAsLong(11));
+
+        instance.setValue(4, 1000000L);
+        instance.setValue(11, 23L);
+        assertEquals("000023", instance.getValueAsString(11));
+        assertArrayEquals(expected, instance.pack());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("PACKING (header frozen by compile)")
+    public void assertEqualFrozenHeader() throws ISO8583Exception {
+        RoutingHeader header = new RoutingHeader();
+        builder.setHeader(header, new TPDUHeaderInterpreter());
+        MessageTemplate template = builder.compile();
+
+        // ==================== The header of the builder is changed after the compile ====================
+        header.value = "6001220122";
+        template.getHeader().getContent().setCharset(StandardCharsets.UTF_16);
+
+        MessageInstance instance = template.newInstance();
+        TPDUFixtures.setValues(instance);
+        assertArrayEquals(expected, instance.pack());
+        assertEquals("6001210121", template.getHeader().getValueAsString());
+    }
+}
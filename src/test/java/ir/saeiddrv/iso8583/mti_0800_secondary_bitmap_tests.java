@@ -0,0 +1,144 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.ISO8583;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.MessageInstance;
+import ir.saeiddrv.iso8583.message.MessageTemplate;
+import ir.saeiddrv.iso8583.message.Range;
+import ir.saeiddrv.iso8583.message.fields.BitmapType;
+import ir.saeiddrv.iso8583.message.fields.ContentPad;
+import ir.saeiddrv.iso8583.message.fields.LengthType;
+import ir.saeiddrv.iso8583.message.fields.shortcuts.*;
+import ir.saeiddrv.iso8583.message.interpreters.ASCIIMTIInterpreter;
+import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import org.junit.jupiter.api.*;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("ISO8583(MTI: 0800, secondary bitmap, maxField: 128)")
+public class mti_0800_secondary_bitmap_tests {
+
+    private Message message;
+
+    @BeforeEach
+    public void build() throws ISO8583Exception {
+        ISO8583 builder = ISO8583.create()
+                .setCharset(StandardCharsets.US_ASCII)
+                .setMTI("0800", new ASCIIMTIInterpreter());
+
+        builder.defineField(0,
+                BITMAP.create(BitmapType.PRIMARY, 8, Range.OF_PRIMARY_BITMAP)
+                        .setDescription("Bit Map, Primary"));
+
+        builder.defineField(1,
+                BITMAP.create(BitmapType.SECONDARY, 8, Range.OF_SECONDARY_BITMAP)
+                        .setDescription("Bit Map, Secondary"));
+
+        builder.defineField(7,
+                ASCII.create(LengthType.FIXED, 10, ContentPad.LEFT_0)
+                        .setDescription("Transmission Date & Time"));
+
+        builder.defineField(11,
+                ASCII.create(LengthType.FIXED, 6, ContentPad.LEFT_0)
+                        .setDescription("System Trace Audit Number"));
+
+        builder.defineField(70,
+                ASCII.create(LengthType.FIXED, 3, ContentPad.LEFT_0)
+                        .setDescription("Network Management Information Code"));
+
+        // ==================== BUILD A ISO-8583 MESSAGE OBJECT ====================
+
+        message = builder.buildMessage();
+
+        // ==================== SET VALUES ====================
+
+        message.setValue(7, "1017120000");
+        message.setValue(11, "123456");
+        message.setValue(70, "301");
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("PACKING")
+    public void assertEqualPack() throws ISO8583Exception {
+        byte[] pack = message.pack();
+
+        // ==================== MTI, primary bitmap, then the secondary bitmap before field 7 ====================
+        assertEquals("0800", new String(pack, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals("1017120000", new String(pack, 20, 10, StandardCharsets.US_ASCII));
+        assertEquals("301", new String(pack, 36, 3, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("UNPACKING")
+    public void assertEqualUnPack() throws ISO8583Exception {
+        byte[] expected = message.pack();
+
+        Message actualMessage = message.unpack(expected);
+        assertEquals("1017120000", actualMessage.getValueAsString(7));
+        assertEquals("301", actualMessage.getValueAsString(70));
+        assertArrayEquals(expected, actualMessage.pack());
+
+        actualMessage = message.unpack(ByteBuffer.wrap(expected), 0, expected.length);
+        assertEquals("123456", actualMessage.getValueAsString(11));
+        assertArrayEquals(expected, actualMessage.pack());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("UNPACKING (without secondary bitmap)")
+    public void assertEqualUnPackPrimaryOnly() throws ISO8583Exception {
+        message.setSkipFieldNumbers(1, 70);
+        byte[] expected = message.pack();
+
+        Message actualMessage = message.unpack(expected);
+        assertArrayEquals(new int[]{1, 70}, actualMessage.getSkipFieldNumbers());
+        assertArrayEquals(expected, actualMessage.pack());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("PACKING (allocation-free bitmaps)")
+    public void assertAllocationFreeBitmaps() throws ISO8583Exception {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        // ==================== Only bitmaps and RAW fields, which are written as they are ====================
+        ISO8583 builder = ISO8583.create();
+        builder.defineField(0, BITMAP.create(BitmapType.PRIMARY, 8, Range.OF_PRIMARY_BITMAP));
+        builder.defineField(1, BITMAP.create(BitmapType.SECONDARY, 8, Range.OF_SECONDARY_BITMAP));
+        builder.defineField(52, RAW.create());
+        builder.defineField(128, RAW.create());
+        MessageTemplate template = builder.compile();
+        MessageInstance instance = template.newInstance();
+        instance.setValue(52, new byte[]{1, 2, 3, 4});
+        instance.setValue(128, new byte[]{5, 6, 7, 8});
+
+        ByteBuffer target = ByteBuffer.allocate(64);
+        for (int i = 0; i < 20_000; i++) {
+            target.clear();
+            template.pack(instance, target);
+        }
+        assertArrayEquals(TypeUtils.hexStringToByteArray("8000000000001000" + "0000000000000001" + "01020304" + "05060708"),
+                Arrays.copyOf(target.array(), target.position()));
+
+        // ==================== No allocation per pack (the remainder is the noise of the measurement) ====================
+        long threadId = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            target.clear();
+            template.pack(instance, target);
+        }
+        allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+        assertTrue(allocated < 10_000, "allocated " + allocated + " bytes by 10000 packs");
+    }
+}
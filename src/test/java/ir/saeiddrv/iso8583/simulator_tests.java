@@ -0,0 +1,134 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.fields.LengthType;
+import ir.saeiddrv.iso8583.message.fields.shortcuts.*;
+import ir.saeiddrv.iso8583.message.interpreters.BCDMessageLengthInterpreter;
+import ir.saeiddrv.iso8583.simulator.IssuerSimulator;
+import ir.saeiddrv.iso8583.simulator.LatencyHistogram;
+import ir.saeiddrv.iso8583.simulator.LatencyModel;
+import ir.saeiddrv.iso8583.simulator.LoadGenerator;
+import ir.saeiddrv.iso8583.simulator.RequestTemplate;
+import ir.saeiddrv.iso8583.simulator.ResponseRule;
+import ir.saeiddrv.iso8583.transport.MessageFactory;
+import ir.saeiddrv.iso8583.transport.MessageMultiplexer;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import static ir.saeiddrv.iso8583.TransportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("IssuerSimulator & LoadGenerator(MTI: 0200, length: BCD)")
+public class simulator_tests {
+
+    @Test
+    @Order(1)
+    @DisplayName("ISSUER SIMULATOR (rules by PAN prefix, amount and MTI, latency)")
+    public void assertEqualIssuerSimulator() throws Exception {
+        MessageFactory card = () -> definition(new BCDMessageLengthInterpreter())
+                .defineField(2, ASCII.create(LengthType.LL, 19))
+                .buildMessage();
+        try (IssuerSimulator simulator = IssuerSimulator.create(card)
+                     .addRule(ResponseRule.respond("00").whenMTI("0800", "0400"))
+                     .addRule(ResponseRule.respond("91").whenPanPrefix("5000")
+                             .withLatency(LatencyModel.fixed(200, TimeUnit.MILLISECONDS)))
+                     .addRule(ResponseRule.respond("05").whenPanPrefix("4111"))
+                     .addRule(ResponseRule.respond("51").whenAmountBetween(100000, 999999999999L))
+                     .setEventLoops(2)
+                     .setWorkers(2)
+                     .bind(LOCALHOST);
+             MessageMultiplexer multiplexer = MessageMultiplexer.create(card).connect(simulator.getLocalAddress())) {
+
+            // ==================== The response code of the first matching rule (field 39 absent in the requests) ====================
+            String[][] cases = {
+                    {"0200", "4111111111111111", "100", "05"},
+                    {"0200", "6037991111111111", "150000", "51"},
+                    {"0100", "6037991111111111", "100", "00"},
+                    {"0400", "4111111111111111", "100", "00"},
+                    {"0800", "4111111111111111", "150000", "00"}};
+            for (int index = 0; index < cases.length; index++) {
+                Message request = card.create();
+                request.changeMTI(cases[index][0]);
+                request.setValue(2, cases[index][1]);
+                request.setValue(4, cases[index][2]);
+                request.setValue(11, String.valueOf(index + 1));
+                request.setSkipFieldNumbers(39);
+                Message response = multiplexer.send(request).get(5, TimeUnit.SECONDS);
+                assertEquals(request.getMti().getResponseLiteral(), response.getMti().getLiteral());
+                assertEquals(cases[index][3], response.getValueAsString(39));
+            }
+
+            // ==================== The latency of a rule delays its responses ====================
+            Message request = card.create();
+            request.setValue(2, "5000111111111111");
+            request.setValue(11, "100");
+            long start = System.nanoTime();
+            assertEquals("91", multiplexer.send(request).get(5, TimeUnit.SECONDS).getValueAsString(39));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+            assertEquals(6, simulator.getResponseCount());
+        }
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("LOAD GENERATOR (open loop, latency histograms by MTI)")
+    public void assertEqualLoadGenerator() throws Exception {
+        // ==================== The percentiles are within the precision of the histogram ====================
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1_000_000; value++) histogram.recordNanos(value);
+        assertEquals(1_000_000, histogram.getCount());
+        assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 / 128);
+        assertEquals(999_000, histogram.getValueAtPercentile(99.9), 999_000 / 128);
+        assertEquals(1_000_000, histogram.getMaximumNanos());
+
+        // ==================== The requests are sent at the rate, recorded by their MTI ====================
+        MessageFactory card = () -> definition(new BCDMessageLengthInterpreter())
+                .defineField(2, ASCII.create(LengthType.LL, 19))
+                .buildMessage();
+        try (IssuerSimulator simulator = IssuerSimulator.create(card).setEventLoops(1).setWorkers(2).bind(LOCALHOST);
+             MessageMultiplexer multiplexer = MessageMultiplexer.create(card).connect(simulator.getLocalAddress())) {
+            LoadGenerator generator = LoadGenerator.create(multiplexer::send)
+                    .addTemplate(RequestTemplate.of(card).setPan("603799", 16).setAmountRange(100, 100000).setWeight(3))
+                    .addTemplate(RequestTemplate.of(card).setMTI("0100").setPan("627412", 19))
+                    .setRate(2000)
+                    .setArrival(LoadGenerator.Arrival.CONSTANT)
+                    .run(1, TimeUnit.SECONDS);
+
+            assertEquals(2000, generator.getSentCount(), 20);
+            assertEquals(0, generator.getOutstandingCount());
+            Map<String, LatencyHistogram> histograms = generator.getHistograms();
+            assertEquals(Set.of("0100", "0200"), histograms.keySet());
+            long answered = 0;
+            for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+                LatencyHistogram latencies = entry.getValue();
+                answered += latencies.getCount() + generator.getErrorCount(entry.getKey());
+                assertTrue(latencies.getValueAtPercentile(50) <= latencies.getValueAtPercentile(99));
+                assertTrue(latencies.getValueAtPercentile(99.9) <= latencies.getMaximumNanos());
+            }
+            assertEquals(generator.getSentCount(), answered);
+            assertEquals(generator.getSentCount(), simulator.getResponseCount());
+        }
+
+        // ==================== Each request is a new message, it keeps its values while outstanding ====================
+        List<Message> requests = new ArrayList<>();
+        List<String> stans = new ArrayList<>();
+        LoadGenerator.create(request -> {
+                    requests.add(request);
+                    stans.add(request.getValueAsString(11));
+                    return new CompletableFuture<>();
+                })
+                .addTemplate(RequestTemplate.of(card).setPan("603799", 16))
+                .setRate(1000)
+                .setDrainTimeout(0, TimeUnit.MILLISECONDS)
+                .run(20, TimeUnit.MILLISECONDS);
+        assertTrue(requests.size() > 1);
+        assertEquals(requests.size(), Set.copyOf(requests).size());
+        for (int index = 0; index < requests.size(); index++)
+            assertEquals(stans.get(index), requests.get(index).getValueAsString(11));
+    }
+}
@@ -1,54 +1,34 @@
 package ir.saeiddrv.iso8583.socket;
 
-import ir.saeiddrv.iso8583.message.utilities.TypeUtils;
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.transport.MessageFrameReader;
+import ir.saeiddrv.iso8583.transport.MessageFraming;
 
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
-import java.nio.ByteBuffer;
 
 public class Client {
 
-    public static byte[] send(byte[] data) {
-        try {
-            Socket socket = new Socket("46.36.103.1", 49999);
+    // The host can be changed to a local simulator by: -Diso8583.host=127.0.0.1 -Diso8583.port=5000
+    private static final String HOST = System.getProperty("iso8583.host", "46.36.103.1");
+    private static final int PORT = Integer.getInteger("iso8583.port", 49999);
+
+    public static byte[] send(byte[] data, MessageFraming framing) {
+        try (Socket socket = new Socket(HOST, PORT)) {
             socket.setSoTimeout(15000);
 
-            InputStream input = socket.getInputStream();
             OutputStream output = socket.getOutputStream();
-
             output.write(data);
             output.flush();
 
-            int index = 0;
-            byte[] messageLengthBytes = new byte[2];
-
-            while (index < 2) {
-                messageLengthBytes[index] = (byte) input.read();
-                index += 1;
-            }
-
-            int messageLength = Integer.parseInt(TypeUtils.byteArrayToHexString(messageLengthBytes),16);
-            System.out.println("messageLength: " + messageLength);
-
-            byte[] messageBytes = new byte[messageLength];
-            index = 0;
-
-            while (index < messageLength) {
-                messageBytes[index] = (byte) input.read();
-                index += 1;
-            }
-
-            System.out.println("message: " + TypeUtils.byteArrayToHexString(messageBytes));
-
-            return ByteBuffer.allocate(2 + messageLength)
-                    .put(messageLengthBytes)
-                    .put(messageBytes)
-                    .array();
-
+            // READ THE RESPONSE FRAME (THE LENGTH AND THE MESSAGE) BY THE FRAMING OF THE DEFINITION
+            byte[] response = MessageFrameReader.of(socket.getInputStream(), framing).readFrame();
+            if (response == null) throw new EOFException("The connection is closed before the response.");
+            return response;
 
-        } catch (IOException e) {
+        } catch (IOException | ISO8583Exception e) {
             e.printStackTrace();
             return new byte[0];
         }
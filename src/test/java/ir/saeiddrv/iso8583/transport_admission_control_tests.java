@@ -0,0 +1,92 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.transport.AdmissionControl;
+import ir.saeiddrv.iso8583.transport.ISO8583Server;
+import ir.saeiddrv.iso8583.transport.MessageMultiplexer;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static ir.saeiddrv.iso8583.TransportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("AdmissionControl(MTI: 0200, length: BCD)")
+public class transport_admission_control_tests {
+
+    @Test
+    @Order(1)
+    @DisplayName("ADMISSION CONTROL (decline over the limits)")
+    public void assertEqualAdmissionControl() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        AdmissionControl admissionControl = AdmissionControl.create()
+                .setGlobalLimit(4)
+                .setDeclineResponseCode(AdmissionControl.ISSUER_UNAVAILABLE);
+        try (ISO8583Server server = ISO8583Server.create(TransportFixtures::define, holding(release))
+                     .setWorkers(workers)
+                     .setAdmissionControl(admissionControl)
+                     .bind(LOCALHOST);
+             MessageMultiplexer multiplexer = MessageMultiplexer.create(TransportFixtures::define)
+                     .connect(server.getLocalAddress())) {
+
+            // ==================== The requests over the limit are declined at once, not queued ====================
+            List<CompletableFuture<Message>> held = new ArrayList<>();
+            for (int stan = 1; stan <= 4; stan++) {
+                Message request = define();
+                request.setValue(11, String.valueOf(stan));
+                request.setValue(48, "HOLD");
+                held.add(multiplexer.send(request));
+            }
+            waitUntil(() -> admissionControl.getInFlight() == 4);
+            for (int stan = 5; stan <= 14; stan++) {
+                Message request = define();
+                request.setValue(11, String.valueOf(stan));
+                Message response = multiplexer.send(request).get(5, TimeUnit.SECONDS);
+                assertEquals("0210", response.getMti().getLiteral());
+                assertEquals("91", response.getValueAsString(39));
+            }
+
+            // ==================== The decline of a request without the field 39 carries the response code ====================
+            Message withoutCode = define();
+            withoutCode.setValue(11, "15");
+            withoutCode.setSkipFieldNumbers(39);
+            Message declined = multiplexer.send(withoutCode).get(5, TimeUnit.SECONDS);
+            assertEquals("0210", declined.getMti().getLiteral());
+            assertFalse(declined.isSkipField(39));
+            assertEquals(AdmissionControl.ISSUER_UNAVAILABLE, declined.getValueAsString(39));
+            assertEquals(11, admissionControl.getDeclinedCount());
+
+            release.countDown();
+            for (CompletableFuture<Message> response : held)
+                assertEquals("00", response.get(5, TimeUnit.SECONDS).getValueAsString(39));
+            waitUntil(() -> admissionControl.getInFlight() == 0);
+        } finally {
+            release.countDown();
+            workers.shutdownNow();
+        }
+
+        // ==================== The adaptive limit shrinks by the slow requests (all over a target of 1 ns) ====================
+        AdmissionControl adaptive = AdmissionControl.create().setAdaptiveLimit(10, 2, 100, 1, TimeUnit.NANOSECONDS);
+        try (ISO8583Server server = ISO8583Server.create(TransportFixtures::define, TransportFixtures::echo)
+                     .setAdmissionControl(adaptive)
+                     .bind(LOCALHOST);
+             MessageMultiplexer multiplexer = MessageMultiplexer.create(TransportFixtures::define)
+                     .connect(server.getLocalAddress())) {
+            List<CompletableFuture<Message>> responses = new ArrayList<>();
+            for (int stan = 1; stan <= 3; stan++) {
+                Message request = define();
+                request.setValue(11, String.valueOf(stan));
+                responses.add(multiplexer.send(request));
+            }
+            for (CompletableFuture<Message> response : responses) response.get(5, TimeUnit.SECONDS);
+            waitUntil(() -> adaptive.getInFlight() == 0);
+            assertEquals(7, adaptive.getLimit());
+        }
+    }
+}
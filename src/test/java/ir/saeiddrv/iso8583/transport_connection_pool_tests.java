@@ -0,0 +1,138 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.transport.ISO8583Server;
+import ir.saeiddrv.iso8583.transport.MessageConnectionPool;
+import org.junit.jupiter.api.*;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import static ir.saeiddrv.iso8583.TransportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("MessageConnectionPool(MTI: 0200, length: BCD)")
+public class transport_connection_pool_tests {
+
+    @Test
+    @Order(1)
+    @DisplayName("CONNECTION POOL (MessageConnectionPool)")
+    public void assertEqualConnectionPool() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ISO8583Server first = ISO8583Server.create(TransportFixtures::define, holding(release)).bind(LOCALHOST);
+        InetSocketAddress firstAddress = first.getLocalAddress();
+        try (ISO8583Server second = ISO8583Server.create(TransportFixtures::define, holding(release)).bind(LOCALHOST);
+             MessageConnectionPool pool = MessageConnectionPool.create(TransportFixtures::define)
+                     .setConnectionsPerEndpoint(2)
+                     .setReconnectDelay(10, 50, TimeUnit.MILLISECONDS)
+                     .setConnectExceptionHandler((endpoint, exception) -> { })
+                     .setExceptionHandler((connection, exception) -> { })
+                     .addEndpoint(firstAddress)
+                     .addEndpoint(second.getLocalAddress())) {
+
+            // ==================== The requests are spread over all the connections ====================
+            List<CompletableFuture<Message>> responses = new ArrayList<>();
+            for (int stan = 1; stan <= 1000; stan++) {
+                Message request = define();
+                request.setValue(11, String.valueOf(stan));
+                responses.add(pool.send(request));
+            }
+            for (int stan = 1; stan <= 1000; stan++)
+                assertEquals(String.format("%06d", stan), responses.get(stan - 1).get(10, TimeUnit.SECONDS).getValueAsString(11));
+            assertEquals(4, pool.getConnectionCount());
+            assertEquals(2, first.getConnectionCount());
+            assertEquals(2, second.getConnectionCount());
+
+            // ==================== The lost connections are reconnected in the background ====================
+            first.close();
+            waitUntil(() -> pool.getConnectionCount() == 2);
+            Message request = define();
+            request.setValue(11, "1");
+            assertEquals("000001", pool.send(request).get(10, TimeUnit.SECONDS).getValueAsString(11));
+            first = ISO8583Server.create(TransportFixtures::define, holding(release)).bind(firstAddress);
+            waitUntil(() -> pool.getConnectionCount() == 4);
+
+            // ==================== A removed endpoint is drained before its connections are closed ====================
+            responses.clear();
+            for (int stan = 1; stan <= 8; stan++) {
+                request = define();
+                request.setValue(11, String.valueOf(stan));
+                request.setValue(48, "HOLD");
+                responses.add(pool.send(request));
+            }
+            CompletableFuture<Void> drained = pool.removeEndpoint(firstAddress, 5, TimeUnit.SECONDS);
+            assertEquals(2, pool.getConnectionCount());
+            assertFalse(drained.isDone());
+            release.countDown();
+            for (CompletableFuture<Message> response : responses)
+                assertEquals("0210", response.get(10, TimeUnit.SECONDS).getMti().getLiteral());
+            drained.get(10, TimeUnit.SECONDS);
+            waitUntil(() -> second.getConnectionCount() == 2);
+        } finally {
+            release.countDown();
+            first.close();
+        }
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("CONNECTION POOL (shared event loop, workers and timeout wheel)")
+    public void assertEqualConnectionPoolSharing() throws Exception {
+        BlockingQueue<Message> timedOut = new LinkedBlockingQueue<>();
+        ISO8583Server server = startEchoServer();
+        InetSocketAddress address = server.getLocalAddress();
+        try (MessageConnectionPool pool = MessageConnectionPool.create(TransportFixtures::define)
+                .setConnectionsPerEndpoint(2)
+                .setReconnectDelay(10, 50, TimeUnit.MILLISECONDS)
+                .setTimeout(200, TimeUnit.MILLISECONDS, (request, key) -> timedOut.add(request))
+                .setConnectExceptionHandler((endpoint, exception) -> { })
+                .setExceptionHandler((connection, exception) -> { })
+                .addEndpoint(address)) {
+
+            // ==================== The reconnects create no threads (after the first one starts the scheduler) ====================
+            Set<Thread> threads = null;
+            for (int cycle = 0; cycle < 5; cycle++) {
+                server.close();
+                waitUntil(() -> pool.getConnectionCount() == 0);
+                server = ISO8583Server.create(TransportFixtures::define, TransportFixtures::echo).bind(address);
+                waitUntil(() -> pool.getConnectionCount() == 2);
+                if (threads == null) threads = clientThreads();
+            }
+            Set<Thread> created = clientThreads();
+            created.removeAll(threads);
+            assertTrue(created.isEmpty(), created.toString());
+
+            // ==================== The timeouts of the shared wheel fail the request of their connection ====================
+            Message request = define();
+            request.setValue(11, "8");
+            request.setValue(48, "LOST");
+            CompletableFuture<Message> lost = pool.send(request);
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> lost.get(5, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof TimeoutException);
+            assertEquals("000008", timedOut.poll(5, TimeUnit.SECONDS).getValueAsString(11));
+            assertEquals(0, pool.getOutstandingCount());
+        } finally {
+            server.close();
+        }
+    }
+
+    // The alive threads of the connections: event loops, workers and timeout wheels
+    private static Set<Thread> clientThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+            if (thread.isAlive() && (thread.getName().startsWith("iso8583-client")
+                    || thread.getName().startsWith("iso8583-connection-pool")
+                    || thread.getName().startsWith("iso8583-timeout-wheel")))
+                threads.add(thread);
+        return threads;
+    }
+}
@@ -0,0 +1,106 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.transport.ISO8583Server;
+import ir.saeiddrv.iso8583.transport.MessageCorrelation;
+import ir.saeiddrv.iso8583.transport.MessageMultiplexer;
+import ir.saeiddrv.iso8583.transport.MessageTimeoutWheel;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import static ir.saeiddrv.iso8583.TransportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("MessageMultiplexer & MessageTimeoutWheel(MTI: 0200, length: BCD)")
+public class transport_correlation_tests {
+
+    @Test
+    @Order(1)
+    @DisplayName("CORRELATION (MessageMultiplexer)")
+    public void assertEqualCorrelation() throws Exception {
+        int count = 2000;
+        BlockingQueue<Message> unmatched = new LinkedBlockingQueue<>();
+        try (ISO8583Server server = startEchoServer();
+             MessageMultiplexer multiplexer = MessageMultiplexer.create(TransportFixtures::define)
+                     .setUnmatchedHandler((message, late) -> unmatched.add(message))
+                     .connect(server.getLocalAddress())) {
+
+            // ==================== Each future completes by the response of its own request ====================
+            List<CompletableFuture<Message>> responses = new ArrayList<>();
+            for (int stan = 1; stan <= count; stan++) {
+                Message request = define();
+                request.setValue(4, String.valueOf(stan));
+                request.setValue(11, String.valueOf(stan));
+                responses.add(multiplexer.send(request));
+            }
+            for (int stan = 1; stan <= count; stan++) {
+                Message response = responses.get(stan - 1).get(10, TimeUnit.SECONDS);
+                assertEquals(String.format("%06d", stan), response.getValueAsString(11));
+                assertEquals(String.format("%012d", stan), response.getValueAsString(4));
+            }
+            assertEquals(0, multiplexer.getOutstandingCount());
+
+            // ==================== A response with an unknown STAN is reported separately ====================
+            Message request = define();
+            request.setValue(11, "1");
+            request.setValue(48, "LOST");
+            CompletableFuture<Message> lost = multiplexer.send(request);
+            Message response = unmatched.poll(10, TimeUnit.SECONDS);
+            assertNotNull(response);
+            assertEquals("999999", response.getValueAsString(11));
+            assertFalse(lost.isDone());
+        }
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("TIMEOUTS (MessageTimeoutWheel)")
+    public void assertEqualTimeouts() throws Exception {
+        // ==================== Only the timeouts that are not cancelled expire ====================
+        BlockingQueue<String> expired = new LinkedBlockingQueue<>();
+        try (MessageTimeoutWheel wheel = MessageTimeoutWheel.create(MessageCorrelation.DEFAULT,
+                (request, key) -> expired.add(key), 1, TimeUnit.MILLISECONDS, 8)) {
+            Message request = define();
+            for (int stan = 1; stan < 1000; stan++) {
+                request.setValue(11, String.valueOf(stan));
+                wheel.schedule(request, 60 + stan % 30, TimeUnit.SECONDS);
+            }
+            for (int stan = 1; stan < 1000; stan++) {
+                request.setValue(11, String.valueOf(stan));
+                assertNotNull(wheel.cancel(request));
+            }
+            request.setValue(11, "1000");
+            wheel.schedule(request, 50, TimeUnit.MILLISECONDS);
+            assertEquals("02|1000|", expired.poll(5, TimeUnit.SECONDS));
+            assertEquals(0, wheel.size());
+            assertTrue(expired.isEmpty());
+        }
+
+        // ==================== The request without response is failed and passed to the handler ====================
+        BlockingQueue<Message> timedOut = new LinkedBlockingQueue<>();
+        try (ISO8583Server server = startEchoServer();
+             MessageMultiplexer multiplexer = MessageMultiplexer.create(TransportFixtures::define)
+                     .setTimeout(1, TimeUnit.SECONDS, (request, key) -> timedOut.add(request))
+                     .connect(server.getLocalAddress())) {
+            Message request = define();
+            request.setValue(11, "7");
+            assertEquals("000007", multiplexer.send(request).get(5, TimeUnit.SECONDS).getValueAsString(11));
+
+            request = define();
+            request.setValue(11, "8");
+            request.setValue(48, "LOST");
+            CompletableFuture<Message> lost = multiplexer.send(request);
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> lost.get(5, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof TimeoutException);
+            assertEquals("000008", timedOut.poll(5, TimeUnit.SECONDS).getValueAsString(11));
+            assertTrue(timedOut.isEmpty());
+        }
+    }
+}
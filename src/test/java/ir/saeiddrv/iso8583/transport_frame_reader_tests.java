@@ -0,0 +1,74 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.message.interpreters.ASCIIMessageLengthInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.BCDMessageLengthInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.HexMessageLengthInterpreter;
+import ir.saeiddrv.iso8583.message.interpreters.base.MessageLengthInterpreter;
+import ir.saeiddrv.iso8583.transport.MessageFraming;
+import ir.saeiddrv.iso8583.transport.MessageFrameReader;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import static ir.saeiddrv.iso8583.TransportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("MessageFrameReader(MTI: 0200, length: HEX, BCD & ASCII)")
+public class transport_frame_reader_tests {
+
+    @Test
+    @Order(1)
+    @DisplayName("FRAME READER (HEX, BCD & ASCII lengths)")
+    public void assertEqualFrameReader() throws Exception {
+        for (MessageLengthInterpreter interpreter : new MessageLengthInterpreter[] {
+                new HexMessageLengthInterpreter(), new BCDMessageLengthInterpreter(), new ASCIIMessageLengthInterpreter()}) {
+            Message message = define(interpreter);
+            MessageFraming framing = MessageFraming.of(message);
+
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            List<byte[]> frames = new ArrayList<>();
+            for (int stan = 1; stan <= 50; stan++) {
+                message.setValue(11, String.valueOf(stan));
+                message.setValue(48, "X".repeat(stan % 40));
+                byte[] frame = message.pack();
+                frames.add(frame);
+                stream.write(frame);
+            }
+            byte[] all = stream.toByteArray();
+
+            // ==================== A stream that returns at most 3 bytes by each read ====================
+            InputStream trickle = new ByteArrayInputStream(all) {
+                @Override
+                public synchronized int read(byte[] bytes, int offset, int length) {
+                    return super.read(bytes, offset, Math.min(length, 3));
+                }
+            };
+            MessageFrameReader reader = MessageFrameReader.of(trickle, framing);
+            for (byte[] frame : frames)
+                assertArrayEquals(frame, reader.readFrame(), interpreter.getName());
+            assertNull(reader.readFrame());
+            assertTrue(reader.isEndOfStream());
+
+            // ==================== A channel, unpacked from the internal buffer ====================
+            reader = MessageFrameReader.of(Channels.newChannel(new ByteArrayInputStream(all)), framing);
+            Message actual = define(interpreter);
+            for (int stan = 1; stan <= 50; stan++) {
+                assertSame(actual, reader.readMessage(actual));
+                assertEquals(String.format("%06d", stan), actual.getValueAsString(11), interpreter.getName());
+            }
+            assertNull(reader.readMessage(actual));
+
+            // ==================== A stream that ends in a frame ====================
+            MessageFrameReader truncated = MessageFrameReader.of(
+                    new ByteArrayInputStream(all, 0, frames.get(0).length + 1), framing);
+            assertArrayEquals(frames.get(0), truncated.readFrame());
+            assertThrows(EOFException.class, truncated::readFrame);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.transport.ISO8583Server;
+import ir.saeiddrv.iso8583.transport.MessageMultiplexer;
+import ir.saeiddrv.iso8583.transport.MessagePool;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static ir.saeiddrv.iso8583.TransportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("MessagePool(MTI: 0200, length: BCD)")
+public class transport_message_pool_tests {
+
+    @Test
+    @Order(1)
+    @DisplayName("MESSAGE POOL (reset, release and leak detection)")
+    public void assertEqualMessagePool() throws Exception {
+        MessagePool pool = MessagePool.create(TransportFixtures::define, 1).setLeakDetection(true);
+
+        // ==================== A released message is reset to its defaults ====================
+        Message request = define();
+        request.setValue(11, "7");
+        request.setValue(48, "RESET");
+        request.setSkipFieldNumbers(4, 39);
+        Message message = pool.acquire();
+        message.unpack(request.pack());
+        message.changeMTI("0210");
+        pool.release(message);
+        assertThrows(IllegalStateException.class, () -> pool.release(message));
+
+        Message reused = pool.acquire();
+        assertSame(message, reused);
+        assertEquals("0200", reused.getMti().getLiteral());
+        assertEquals(0, reused.getSkipFieldNumbers().length);
+        assertEquals("", reused.getValueAsString(48));
+        Message expected = define();
+        for (Message filled : new Message[]{reused, expected}) {
+            filled.setValue(4, "100");
+            filled.setValue(11, "8");
+            filled.setValue(39, "00");
+            filled.setValue(48, "REUSED");
+        }
+        assertArrayEquals(expected.pack(), reused.pack());
+        pool.release(reused);
+        assertEquals(1, pool.getCreatedCount());
+
+        // ==================== A message released twice is rejected without the leak detection too ====================
+        MessagePool unchecked = MessagePool.create(TransportFixtures::define, 2);
+        Message once = unchecked.acquire();
+        unchecked.release(once);
+        assertThrows(IllegalStateException.class, () -> unchecked.release(once));
+        assertEquals(0, unchecked.getOutstandingCount());
+        assertEquals(2, unchecked.getIdleCount());
+        assertNotSame(once, unchecked.acquire());
+        assertSame(once, unchecked.acquire());
+        assertEquals(2, unchecked.getCreatedCount());
+
+                // ==================== A message collected without release is reported ====================
+        List<Throwable> leaks = new ArrayList<>();
+        MessagePool leaky = MessagePool.create(TransportFixtures::define, 1)
+                .setLeakDetection(true)
+                .setLeakHandler(leaks::add);
+        leaky.acquire();
+        waitUntil(() -> {
+            System.gc();
+            return leaky.detectLeaks() > 0;
+        });
+        assertEquals(1, leaks.size());
+        assertEquals(0, leaky.getOutstandingCount());
+
+        // ==================== The server unpacks into the pooled messages ====================
+        MessagePool serverPool = MessagePool.create(TransportFixtures::define, 4).setLeakDetection(true);
+        try (ISO8583Server server = ISO8583Server.create(TransportFixtures::define, TransportFixtures::echo)
+                     .setMessagePool(serverPool)
+                     .bind(LOCALHOST);
+             MessageMultiplexer multiplexer = MessageMultiplexer.create(TransportFixtures::define)
+                     .connect(server.getLocalAddress())) {
+            for (int stan = 1; stan <= 20; stan++) {
+                Message pooled = define();
+                pooled.setValue(11, String.valueOf(stan));
+                Message response = multiplexer.send(pooled).get(5, TimeUnit.SECONDS);
+                assertEquals(stan, Integer.parseInt(response.getValueAsString(11)));
+            }
+            waitUntil(() -> serverPool.getOutstandingCount() == 0);
+            assertEquals(4, serverPool.getCreatedCount());
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package ir.saeiddrv.iso8583;
+
+import ir.saeiddrv.iso8583.message.ISO8583Exception;
+import ir.saeiddrv.iso8583.message.Message;
+import ir.saeiddrv.iso8583.transport.BlockingISO8583Client;
+import ir.saeiddrv.iso8583.transport.BlockingISO8583Server;
+import ir.saeiddrv.iso8583.transport.ISO8583Client;
+import ir.saeiddrv.iso8583.transport.ISO8583Server;
+import ir.saeiddrv.iso8583.transport.MessageFraming;
+import ir.saeiddrv.iso8583.transport.MessageHandler;
+import ir.saeiddrv.iso8583.transport.MessageMultiplexer;
+import org.junit.jupiter.api.*;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import static ir.saeiddrv.iso8583.TransportFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("ISO8583Server & ISO8583Client(MTI: 0200, length: BCD)")
+public class transport_server_client_tests {
+
+    @Test
+    @Order(1)
+    @DisplayName("FRAMING")
+    public void assertEqualFraming() throws ISO8583Exception {
+        Message message = define();
+        message.setValue(11, "23");
+        byte[] frame = message.pack();
+        MessageFraming framing = MessageFraming.of(message);
+
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        assertEquals(2, framing.getPrefixLength());
+        assertEquals(-1, framing.frameLength(buffer, 0, 1));
+        assertEquals(frame.length, framing.frameLength(buffer, 0, 2));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("PIPELINED REQUESTS & RESPONSES")
+    public void assertEqualPipelined() throws Exception {
+        int count = 2000;
+        BlockingQueue<Message> responses = new LinkedBlockingQueue<>();
+        try (ISO8583Server server = startEchoServer();
+             ISO8583Client client = ISO8583Client.create(TransportFixtures::define,
+                     (response, connection) -> {
+                         responses.add(response);
+                         return null;
+                     }).connect(server.getLocalAddress())) {
+
+            // ==================== All requests are written without waiting ====================
+            for (int stan = 1; stan <= count; stan++) {
+                Message request = define();
+                request.setValue(4, String.valueOf(stan * 100));
+                request.setValue(11, String.valueOf(stan));
+                request.setValue(48, "X".repeat(stan % 300));
+                client.send(request);
+            }
+
+            Set<String> stans = new HashSet<>();
+            for (int index = 0; index < count; index++) {
+                Message response = responses.poll(10, TimeUnit.SECONDS);
+                assertNotNull(response, "response " + index);
+                assertEquals("0210", response.getMti().getLiteral());
+                assertEquals("00", response.getValueAsString(39));
+                stans.add(response.getValueAsString(11));
+            }
+            assertEquals(count, stans.size());
+        }
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("FRAMES SPLIT ACROSS READS")
+    public void assertEqualSplitFrames() throws Exception {
+        try (ISO8583Server server = startEchoServer();
+             Socket socket = new Socket()) {
+            socket.connect(server.getLocalAddress(), 5000);
+            socket.setSoTimeout(5000);
+            socket.setTcpNoDelay(true);
+
+            Message request = define();
+            request.setValue(11, "123456");
+            byte[] frame = request.pack();
+
+            // ==================== Two frames, written byte by byte ====================
+            OutputStream output = socket.getOutputStream();
+            for (int round = 0; round < 2; round++)
+                for (byte aByte : frame) {
+                    output.write(aByte);
+                    output.flush();
+                }
+
+            for (int round = 0; round < 2; round++) {
+                byte[] prefix = socket.getInputStream().readNBytes(2);
+                int length = MessageFraming.of(define()).frameLength(ByteBuffer.wrap(prefix), 0, 2);
+                byte[] response = ByteBuffer.allocate(length).put(prefix)
+                        .put(socket.getInputStream().readNBytes(length - 2)).array();
+                Message actual = define().unpack(response);
+                assertEquals("0210", actual.getMti().getLiteral());
+                assertEquals("123456", actual.getValueAsString(11));
+            }
+        }
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("BLOCKING SERVER & CLIENT (thread per connection)")
+    public void assertEqualBlocking() throws Exception {
+        int count = 1000;
+        BlockingQueue<Message> responses = new LinkedBlockingQueue<>();
+        MessageHandler collect = (response, connection) -> {
+            responses.add(response);
+            return null;
+        };
+
+        // ==================== The blocking and non-blocking ends share the framing ====================
+        try (BlockingISO8583Server blockingServer = BlockingISO8583Server.create(
+                     TransportFixtures::define, TransportFixtures::echo).bind(LOCALHOST);
+             ISO8583Server server = startEchoServer();
+             ISO8583Client client = ISO8583Client.create(TransportFixtures::define, collect)
+                     .connect(blockingServer.getLocalAddress());
+             BlockingISO8583Client blockingClient = BlockingISO8583Client.create(TransportFixtures::define, collect)
+                     .connect(server.getLocalAddress())) {
+
+            for (int stan = 1; stan <= count; stan++) {
+                Message request = define();
+                request.setValue(11, String.valueOf(stan));
+                request.setValue(48, "X".repeat(stan % 300));
+                client.send(request);
+                blockingClient.send(request);
+            }
+
+            Set<String> stans = new HashSet<>();
+            for (int index = 0; index < 2 * count; index++) {
+                Message response = responses.poll(10, TimeUnit.SECONDS);
+                assertNotNull(response, "response " + index);
+                assertEquals("0210", response.getMti().getLiteral());
+                stans.add(response.getValueAsString(11));
+            }
+            assertEquals(count, stans.size());
+            assertEquals(1, blockingServer.getConnectionCount());
+        }
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("WRITE COALESCING")
+    public void assertEqualWriteCoalescing() throws Exception {
+        int count = 1003;
+        BlockingQueue<Message> responses = new LinkedBlockingQueue<>();
+        try (ISO8583Server server = ISO8583Server.create(TransportFixtures::define, TransportFixtures::echo)
+                     .setWriteCoalescing(16, 5, TimeUnit.MILLISECONDS)
+                     .bind(LOCALHOST);
+             ISO8583Client client = ISO8583Client.create(TransportFixtures::define,
+                     (response, connection) -> {
+                         responses.add(response);
+                         return null;
+                     }).setWriteCoalescing(32, 20, TimeUnit.MILLISECONDS).connect(server.getLocalAddress())) {
+
+            // ==================== The last partial batch is written after the maximum delay ====================
+            Message request = define();
+            for (int stan = 1; stan <= count; stan++) {
+                request.setValue(11, String.valueOf(stan));
+                request.setValue(48, "X".repeat(stan % 300));
+                client.send(request);
+            }
+
+            Set<String> stans = new HashSet<>();
+            for (int index = 0; index < count; index++) {
+                Message response = responses.poll(10, TimeUnit.SECONDS);
+                assertNotNull(response, "response " + index);
+                assertEquals("X".repeat(Integer.parseInt(response.getValueAsString(11)) % 300),
+                        response.getValueAsString(48));
+                stans.add(response.getValueAsString(11));
+            }
+            assertEquals(count, stans.size());
+        }
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("EVENT LOOPS (round-robin, remote address hash, SO_REUSEPORT)")
+    public void assertEqualEventLoops() throws Exception {
+        for (ISO8583Server.LoopAssignment assignment : ISO8583Server.LoopAssignment.values()) {
+            try (ISO8583Server server = ISO8583Server.create(TransportFixtures::define, TransportFixtures::echo)
+                    .setEventLoops(4)
+                    .setLoopAssignment(assignment)
+                    .bind(LOCALHOST)) {
+                List<MessageMultiplexer> clients = new ArrayList<>();
+                for (int index = 0; index < 8; index++)
+                    clients.add(MessageMultiplexer.create(TransportFixtures::define).connect(server.getLocalAddress()));
+                waitUntil(() -> server.getConnectionCount() == 8);
+
+                // ==================== The connections of all the loops are served ====================
+                for (int index = 0; index < clients.size(); index++) {
+                    Message request = define();
+                    request.setValue(11, String.valueOf(index + 1));
+                    Message response = clients.get(index).send(request).get(5, TimeUnit.SECONDS);
+                    assertEquals(index + 1, Integer.parseInt(response.getValueAsString(11)));
+                }
+                for (MessageMultiplexer client : clients) client.close();
+            }
+        }
+
+        // ==================== Several acceptors bind the same port ====================
+        try (ISO8583Server first = ISO8583Server.create(TransportFixtures::define, TransportFixtures::echo)
+                     .setEventLoops(2)
+                     .setReusePort(true)
+                     .bind(LOCALHOST);
+             ISO8583Server second = ISO8583Server.create(TransportFixtures::define, TransportFixtures::echo)
+                     .setEventLoops(2)
+                     .setReusePort(true)
+                     .bind(first.getLocalAddress())) {
+            assertEquals(first.getLocalAddress(), second.getLocalAddress());
+            for (int stan = 1; stan <= 8; stan++) {
+                try (MessageMultiplexer client = MessageMultiplexer.create(TransportFixtures::define).connect(first.getLocalAddress())) {
+                    Message request = define();
+                    request.setValue(11, String.valueOf(stan));
+                    assertEquals("00", client.send(request).get(5, TimeUnit.SECONDS).getValueAsString(39));
+                }
+            }
+        }
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("SERVER (handled on the event loops)")
+    public void assertEqualHandledOnEventLoop() throws Exception {
+        int count = 2000;
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        BlockingQueue<Message> responses = new LinkedBlockingQueue<>();
+        try (ISO8583Server server = ISO8583Server.create(TransportFixtures::define,
+                     (request, connection) -> {
+                         threads.add(Thread.currentThread().getName());
+                         return echo(request, connection);
+                     })
+                     .setEventLoops(2)
+                     .setHandleOnEventLoop(true)
+                     .bind(LOCALHOST);
+             ISO8583Client client = ISO8583Client.create(TransportFixtures::define,
+                     (response, connection) -> {
+                         responses.add(response);
+                         return null;
+                     }).connect(server.getLocalAddress())) {
+
+            // ==================== The frames of a read are unpacked from the buffer of the loop ====================
+            for (int stan = 1; stan <= count; stan++) {
+                Message request = define();
+                request.setValue(11, String.valueOf(stan));
+                request.setValue(48, "X".repeat(stan % 300));
+                client.send(request);
+            }
+
+            Set<String> stans = new HashSet<>();
+            for (int index = 0; index < count; index++) {
+                Message response = responses.poll(10, TimeUnit.SECONDS);
+                assertNotNull(response, "response " + index);
+                assertEquals("0210", response.getMti().getLiteral());
+                int stan = Integer.parseInt(response.getValueAsString(11));
+                assertEquals("X".repeat(stan % 300), response.getValueAsString(48));
+                stans.add(response.getValueAsString(11));
+            }
+            assertEquals(count, stans.size());
+            assertFalse(threads.isEmpty());
+            for (String thread : threads)
+                assertTrue(thread.startsWith("iso8583-server-"), thread);
+        }
+    }
+}